@@ -27,7 +27,10 @@ public class ActiveMQJMSResourceFactoryExtensionPoint implements JMSResourceFact
 
     @Override
     public JMSResourceFactory createJMSResourceFactory(JMSBinding binding) {
-        return new ActiveMQJMSResourceFactory(binding.getConnectionFactoryName(), binding.getResponseConnectionFactoryName(), binding.getInitialContextFactoryName(), binding.getJndiURL());
+        ActiveMQJMSResourceFactory factory = new ActiveMQJMSResourceFactory(binding.getConnectionFactoryName(), binding.getResponseConnectionFactoryName(), binding.getInitialContextFactoryName(), binding.getJndiURL());
+        factory.setSessionPoolConfiguration(binding.getSessionPoolMaxSize(), binding.getSessionPoolIdleTimeout(),
+                                            binding.getSessionPoolMaxWait());
+        return factory;
     }
 
 }
@@ -25,7 +25,10 @@ import javax.jms.Message;
 import javax.jms.Session;
 
 import org.apache.tuscany.sca.binding.jms.JMSBindingException;
+import org.apache.tuscany.sca.binding.jms.provider.JMSReplyDispatcher;
 import org.apache.tuscany.sca.binding.jms.provider.JMSResourceFactory;
+import org.apache.tuscany.sca.binding.jms.provider.JMSSessionPool;
+import org.apache.tuscany.sca.binding.jms.provider.JMSSessionPool.PooledSession;
 
 
 /**
@@ -37,10 +40,12 @@ public class JMSBindingContext {
 
     private Message jmsMsg;
     private Session jmsSession;
+    private PooledSession pooledJmsSession;
     private Session jmsResponseSession;
     private Destination requestDestination;
     private Destination replyToDestination;
     private JMSResourceFactory jmsResourceFactory;
+    private JMSReplyDispatcher replyDispatcher;
     private long timeToLive;
     private boolean useBytesForWFJMSDefaultResponse;
     private long requestTimeout;
@@ -57,7 +62,13 @@ public class JMSBindingContext {
     public synchronized Session getJmsSession() {
         if (jmsSession == null) {
             try {
-                jmsSession = getJmsResourceFactory().createSession();
+                JMSSessionPool sessionPool = getJmsResourceFactory().getSessionPool();
+                if (sessionPool != null) {
+                    pooledJmsSession = sessionPool.getSession();
+                    jmsSession = pooledJmsSession.getSession();
+                } else {
+                    jmsSession = getJmsResourceFactory().createSession();
+                }
             } catch (Exception e) {
                 throw new JMSBindingException(e);
             }
@@ -65,8 +76,23 @@ public class JMSBindingContext {
         return jmsSession;
     }
 
+    /**
+     * @return The pooled session returned by getJmsSession(), null if sessions are not pooled or no session
+     * has been created
+     */
+    public synchronized PooledSession getPooledJmsSession() {
+        return pooledJmsSession;
+    }
+
     public synchronized void closeJmsSession() {
-        if (jmsSession != null) {
+        if (pooledJmsSession != null) {
+            try {
+                pooledJmsSession.release();
+            } finally {
+                pooledJmsSession = null;
+                jmsSession = null;
+            }
+        } else if (jmsSession != null) {
             try {
                 getJmsResourceFactory().closeSession(jmsSession);
             } catch (Exception e) {
@@ -126,6 +152,17 @@ public class JMSBindingContext {
         this.jmsResourceFactory = jmsResourceFactory;
     }
     
+    /**
+     * @return The dispatcher that receives the reply, null if a consumer is created for the reply
+     */
+    public JMSReplyDispatcher getReplyDispatcher() {
+        return replyDispatcher;
+    }
+
+    public void setReplyDispatcher(JMSReplyDispatcher replyDispatcher) {
+        this.replyDispatcher = replyDispatcher;
+    }
+
     public long getTimeToLive() {
 		return timeToLive;
 	}
@@ -19,6 +19,10 @@
 
 package org.apache.tuscany.sca.binding.jms.host;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,8 +58,8 @@ public class DefaultJMSServiceListener implements JMSServiceListener {
     private WorkScheduler workScheduler;
 
     private JMSResourceFactory jmsResourceFactory;
-    private MessageConsumer consumer;
-    private boolean running;
+    private List<MessageConsumer> consumers = new ArrayList<MessageConsumer>();
+    private volatile boolean running;
 
     private Destination destination;
 
@@ -82,7 +86,9 @@ public class DefaultJMSServiceListener implements JMSServiceListener {
     public void stop() {
         this.running = false;
         try {
-            consumer.close();
+            for (MessageConsumer consumer : consumers) {
+                consumer.close();
+            }
             jmsResourceFactory.closeConnection();
             jmsResourceFactory.closeResponseConnection();
         } catch (Exception e) {
@@ -97,55 +103,148 @@ public class DefaultJMSServiceListener implements JMSServiceListener {
 
     private void registerListener() throws NamingException, JMSException {
 
-        Session session = jmsResourceFactory.createSession();
         lookupActivationSpec();
         destination = lookupDestinationQueue();
-        if (destination == null) {
-            destination = session.createTemporaryQueue();
-        }
 
-        if (jmsBinding.getJMSSelector() != null) {
-            consumer = session.createConsumer(destination, jmsBinding.getJMSSelector());
-        } else {
-            consumer = session.createConsumer(destination);
+        // Several consumers on a topic would each receive a copy of the messages
+        int concurrentConsumers = jmsBinding.getConcurrentConsumers() == null ? 1 : jmsBinding.getConcurrentConsumers();
+        if (concurrentConsumers < 1 || destination instanceof Topic) {
+            concurrentConsumers = 1;
+        }
+        int maxMessagesPerTask = jmsBinding.getMaxMessagesPerTask() == null ? 1 : jmsBinding.getMaxMessagesPerTask();
+        boolean batched = maxMessagesPerTask > 1;
+
+        List<Session> sessions = new ArrayList<Session>();
+        for (int i = 0; i < concurrentConsumers; i++) {
+            Session session;
+            if (batched) {
+                session = jmsResourceFactory.getConnection().createSession(false, Session.CLIENT_ACKNOWLEDGE);
+            } else {
+                session = jmsResourceFactory.createSession();
+            }
+            if (destination == null) {
+                destination = session.createTemporaryQueue();
+            }
+            if (jmsBinding.getJMSSelector() != null) {
+                consumers.add(session.createConsumer(destination, jmsBinding.getJMSSelector()));
+            } else {
+                consumers.add(session.createConsumer(destination));
+            }
+            sessions.add(session);
         }
 
-        try {
+        boolean listening = false;
+        if (!batched) {
+            try {
+                // Each session delivers its messages with its own thread
+                for (MessageConsumer consumer : consumers) {
+                    consumer.setMessageListener(listener);
+                }
+                listening = true;
+            } catch (javax.jms.JMSException e) {
+                // setMessageListener not allowed in JEE container so use Tuscany threads
+            }
+        }
 
-            consumer.setMessageListener(listener);
-            jmsResourceFactory.startConnection();
-
-        } catch (javax.jms.JMSException e) {
-
-            // setMessageListener not allowed in JEE container so use Tuscany threads
-
-            jmsResourceFactory.startConnection();
-            workScheduler.scheduleWork(new Runnable() {
-                public void run() {
-                    try {
-                        while (running) {
-                            final Message msg = consumer.receive();
-                            workScheduler.scheduleWork(new Runnable() {
-                                public void run() {
-                                    try {
-                                        listener.onMessage(msg);
-                                    } catch (Exception e) {
-                                        e.printStackTrace();
-                                    }
-                                }
-                            });
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
+        jmsResourceFactory.startConnection();
+        if (!listening) {
+            // Use a fixed set of Tuscany threads, each polling one of the consumers. Unless consumers are
+            // configured, the single poller hands each message to its own Tuscany thread.
+            final boolean dispatchPerMessage = jmsBinding.getConcurrentConsumers() == null && !batched;
+            for (int i = 0; i < consumers.size(); i++) {
+                final Session session = sessions.get(i);
+                final MessageConsumer consumer = consumers.get(i);
+                final int batchSize = maxMessagesPerTask;
+                workScheduler.scheduleWork(new Runnable() {
+                    public void run() {
+                        poll(session, consumer, batchSize, dispatchPerMessage);
                     }
-                }
-            });
+                });
+            }
         }
         logger.log(Level.INFO, "JMS " + (isCallbackService ? "callback service" : "service")
             + " '"
             + serviceName
             + "' listening on destination "
-            + ((destination instanceof Queue) ? ((Queue)destination).getQueueName() : ((Topic)destination).getTopicName()));
+            + ((destination instanceof Queue) ? ((Queue)destination).getQueueName() : ((Topic)destination).getTopicName())
+            + (consumers.size() > 1 ? " with " + consumers.size() + " consumers" : ""));
+    }
+
+    /**
+     * Receive and process the messages of a consumer until the listener is stopped. With a batch size greater
+     * than 1, the messages already available are processed together and acknowledged at once.
+     * <p>
+     * When a message of a batch fails, the session is recovered so that the failed message is redelivered.
+     * A JMS session can't acknowledge the messages processed before it without also acknowledging the failed
+     * one, so they are redelivered as well. They are recognized by their message ID and acknowledged without
+     * being processed again. Messages sent without an ID are processed again. The failed message is
+     * redelivered according to the redelivery policy of the provider.
+     */
+    private void poll(Session session, MessageConsumer consumer, int batchSize, boolean dispatchPerMessage) {
+        // The IDs of the messages processed before a failure in their batch, to skip when they are redelivered
+        Set<String> processed = new HashSet<String>();
+        List<String> batch = new ArrayList<String>();
+        try {
+            while (running) {
+                Message msg = consumer.receive();
+                if (msg == null) {
+                    // The consumer has been closed
+                    break;
+                }
+                if (dispatchPerMessage) {
+                    final Message message = msg;
+                    workScheduler.scheduleWork(new Runnable() {
+                        public void run() {
+                            dispatch(message);
+                        }
+                    });
+                    continue;
+                }
+                if (batchSize <= 1) {
+                    dispatch(msg);
+                    continue;
+                }
+                Message last = msg;
+                batch.clear();
+                try {
+                    for (int count = 1; msg != null; count++) {
+                        String id = msg.getJMSMessageID();
+                        if (!msg.getJMSRedelivered()) {
+                            // The messages recovered after a failure are redelivered before any new one
+                            processed.clear();
+                            listener.onMessage(msg);
+                        } else if (id == null || !processed.remove(id)) {
+                            listener.onMessage(msg);
+                        }
+                        if (id != null) {
+                            batch.add(id);
+                        }
+                        last = msg;
+                        msg = count < batchSize ? consumer.receiveNoWait() : null;
+                    }
+                } catch (RuntimeException e) {
+                    // Have the unacknowledged messages of the batch redelivered, skipping the processed ones
+                    logger.log(Level.WARNING, "Error processing a message of JMS service '" + serviceName + "'", e);
+                    processed.addAll(batch);
+                    session.recover();
+                    continue;
+                }
+                // Acknowledges all the messages received by the session so far
+                last.acknowledge();
+            }
+        } catch (Exception e) {
+            if (running) {
+                logger.log(Level.SEVERE, "Error receiving messages for JMS service '" + serviceName + "'", e);
+            }
+        }
+    }
+
+    private void dispatch(Message msg) {
+        try {
+            listener.onMessage(msg);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error processing a message of JMS service '" + serviceName + "'", e);
+        }
     }
 
     // Stub code for ActivationSpec support that throws appropriate errors
@@ -24,7 +24,10 @@ import org.apache.tuscany.sca.binding.jms.JMSBinding;
 public class DefaultJMSResourceFactoryExtensionPoint implements JMSResourceFactoryExtensionPoint {
 
     public JMSResourceFactory createJMSResourceFactory(JMSBinding binding) {
-        return new JMSResourceFactoryImpl(binding.getConnectionFactoryName(), binding.getResponseConnectionFactoryName(), binding.getInitialContextFactoryName(), binding.getJndiURL());
+        JMSResourceFactoryImpl factory = new JMSResourceFactoryImpl(binding.getConnectionFactoryName(), binding.getResponseConnectionFactoryName(), binding.getInitialContextFactoryName(), binding.getJndiURL());
+        factory.setSessionPoolConfiguration(binding.getSessionPoolMaxSize(), binding.getSessionPoolIdleTimeout(),
+                                            binding.getSessionPoolMaxWait());
+        return factory;
     }
 
 }
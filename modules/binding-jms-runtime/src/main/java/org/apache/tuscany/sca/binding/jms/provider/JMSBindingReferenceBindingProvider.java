@@ -24,6 +24,7 @@ import javax.jms.MessageListener;
 import javax.naming.NamingException;
 
 import org.apache.tuscany.sca.binding.jms.JMSBinding;
+import org.apache.tuscany.sca.binding.jms.JMSBindingConstants;
 import org.apache.tuscany.sca.binding.jms.JMSBindingException;
 import org.apache.tuscany.sca.binding.jms.headers.HeaderReferenceInterceptor;
 import org.apache.tuscany.sca.binding.jms.host.AsyncResponseJMSServiceListener;
@@ -71,6 +72,8 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
     protected WireFormatProvider responseWireFormatProvider;
     
     protected AsyncResponseJMSServiceListener responseQueue = null;
+    
+    protected JMSReplyDispatcher replyDispatcher = null;
 
     public JMSBindingReferenceBindingProvider(RuntimeEndpointReference endpointReference,  ExtensionPointRegistry extensions, JMSResourceFactory jmsResourceFactory) {
         this.endpointReference = endpointReference;
@@ -112,6 +115,12 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
         	jmsBinding.setResponseDestinationName(asyncCallbackName);
         } // end if 
 
+        // If configured, receive the replies of the request/response operations with a single consumer
+        if (isSharedReplyConsumer()) {
+            UtilityExtensionPoint utilities = extensions.getExtensionPoint(UtilityExtensionPoint.class);
+            replyDispatcher = new JMSReplyDispatcher(jmsResourceFactory, null, utilities.getUtility(WorkScheduler.class));
+        } // end if
+
     } // end constructor
 
     public Invoker createInvoker(Operation operation) {
@@ -124,7 +133,7 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
         	throw new JMSBindingException("Activation spec can not be specified on an SCA reference binding.");
         }
         Invoker invoker = null;
-        invoker = new RRBJMSBindingInvoker(operation, jmsResourceFactory, endpointReference);
+        invoker = new RRBJMSBindingInvoker(operation, jmsResourceFactory, endpointReference, replyDispatcher);
        
         return invoker;
     } // end method createInvoker
@@ -161,6 +170,16 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
 			responseQueue.start();
 		} // end if
 
+    	if (replyDispatcher != null) {
+    	    try {
+    	        replyDispatcher.start();
+    	    } catch (JMSException e) {
+    	        throw new JMSBindingException("Unable to start the JMS reply consumer", e);
+    	    } catch (NamingException e) {
+    	        throw new JMSBindingException("Unable to start the JMS reply consumer", e);
+    	    } // end try
+    	} // end if
+
     } // end method start
 
     public void stop() {
@@ -169,6 +188,10 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
         		responseQueue.stop();
         	} // end if
         	
+        	if (replyDispatcher != null) {
+        	    replyDispatcher.stop();
+        	} // end if
+        	
             jmsResourceFactory.closeConnection();
             jmsResourceFactory.closeResponseConnection();
         } catch (JMSException e) {
@@ -209,6 +232,20 @@ public class JMSBindingReferenceBindingProvider implements EndpointReferenceAsyn
                                                                    endpointReference) );
     }
 
+    /**
+     * Check if the replies are received with a single consumer. This needs a correlation scheme, a connection
+     * kept for the life of the binding and a temporary reply queue, async invocations and callbacks have their
+     * own reply handling.
+     */
+    private boolean isSharedReplyConsumer() {
+        return Boolean.TRUE.equals(jmsBinding.getSharedReplyConsumer())
+            && !endpointReference.isAsyncInvocation()
+            && !reference.isForCallback()
+            && jmsBinding.getResponseDestinationName() == null
+            && !JMSBindingConstants.CORRELATE_NONE.equalsIgnoreCase(jmsBinding.getCorrelationScheme())
+            && !jmsResourceFactory.isConnectionClosedAfterUse();
+    }
+
     /**
      * Indicates that this binding supports async invocations natively
      */
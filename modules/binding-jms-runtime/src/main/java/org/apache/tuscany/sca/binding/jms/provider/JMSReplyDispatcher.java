@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jms.provider;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+import javax.naming.NamingException;
+
+import org.apache.tuscany.sca.work.WorkScheduler;
+
+/**
+ * A single long-lived consumer of the replies to the requests sent by a JMS reference binding. Rather than
+ * creating a consumer with a JMSCorrelationID selector for each request, the requester registers the
+ * correlation ID of its request and gets a future that is completed when the reply arrives.
+ * <p>
+ * The replies are consumed from the response destination of the binding or, if there is none, from a
+ * temporary queue owned by the dispatcher. A reply that arrives before its request is registered is kept
+ * until it is claimed, replies that are never claimed, for example because the requester timed out, are
+ * discarded after UNCLAIMED_TIMEOUT milliseconds.
+ *
+ * @version $Rev$ $Date$
+ */
+public class JMSReplyDispatcher implements MessageListener {
+    private static final Logger logger = Logger.getLogger(JMSReplyDispatcher.class.getName());
+
+    public static final long UNCLAIMED_TIMEOUT = 60000;
+
+    private final JMSResourceFactory jmsResourceFactory;
+    private final WorkScheduler workScheduler;
+    private Destination replyDestination;
+
+    private final Map<String, PendingReply> pending = new ConcurrentHashMap<String, PendingReply>();
+    private final Map<String, UnclaimedReply> unclaimed = new ConcurrentHashMap<String, UnclaimedReply>();
+
+    private Session session;
+    private MessageConsumer consumer;
+    private volatile boolean running;
+
+    /**
+     * @param jmsResourceFactory The resource factory of the reference binding
+     * @param replyDestination The destination the replies are sent to, null to use a temporary queue
+     * @param workScheduler Used to receive the replies when message listeners are not allowed
+     */
+    public JMSReplyDispatcher(JMSResourceFactory jmsResourceFactory,
+                              Destination replyDestination,
+                              WorkScheduler workScheduler) {
+        this.jmsResourceFactory = jmsResourceFactory;
+        this.replyDestination = replyDestination;
+        this.workScheduler = workScheduler;
+    }
+
+    public synchronized void start() throws JMSException, NamingException {
+        if (running) {
+            return;
+        }
+        session = jmsResourceFactory.createResponseSession();
+        if (replyDestination == null) {
+            replyDestination = session.createTemporaryQueue();
+        }
+        consumer = session.createConsumer(replyDestination);
+        running = true;
+        try {
+            consumer.setMessageListener(this);
+        } catch (JMSException e) {
+            // setMessageListener not allowed in JEE container so use Tuscany threads
+            workScheduler.scheduleWork(new Runnable() {
+                public void run() {
+                    receiveReplies();
+                }
+            });
+        }
+        jmsResourceFactory.getResponseConnection().start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        try {
+            if (consumer != null) {
+                consumer.close();
+            }
+            if (replyDestination instanceof TemporaryQueue) {
+                ((TemporaryQueue)replyDestination).delete();
+            }
+            if (session != null) {
+                jmsResourceFactory.closeResponseSession(session);
+            }
+        } catch (JMSException e) {
+            logger.log(Level.FINE, "Unable to close the JMS reply consumer", e);
+        } finally {
+            consumer = null;
+            session = null;
+        }
+        for (PendingReply reply : pending.values()) {
+            reply.cancel(false);
+        }
+        pending.clear();
+        unclaimed.clear();
+    }
+
+    /**
+     * @return The destination the replies must be sent to
+     */
+    public synchronized Destination getReplyDestination() {
+        return replyDestination;
+    }
+
+    /**
+     * Register a request that has been sent
+     * @param correlationID The JMSCorrelationID of the expected reply
+     * @return A future completed with the reply message
+     */
+    public PendingReply register(String correlationID) {
+        PendingReply reply = new PendingReply(correlationID);
+        pending.put(correlationID, reply);
+        // The reply may have been received before the request was registered
+        UnclaimedReply early = unclaimed.remove(correlationID);
+        if (early != null) {
+            pending.remove(correlationID);
+            reply.complete(early.message);
+        }
+        return reply;
+    }
+
+    /**
+     * @return The number of requests waiting for their reply
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public void onMessage(Message message) {
+        String correlationID;
+        try {
+            correlationID = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            logger.log(Level.WARNING, "Unable to get the correlation ID of a JMS reply", e);
+            return;
+        }
+        if (correlationID == null) {
+            logger.warning("Discarding a JMS reply without correlation ID");
+            return;
+        }
+        PendingReply reply = pending.remove(correlationID);
+        if (reply != null) {
+            reply.complete(message);
+        } else {
+            long now = System.currentTimeMillis();
+            unclaimed.put(correlationID, new UnclaimedReply(message, now));
+            // Recheck in case the request was registered in the meantime
+            reply = pending.remove(correlationID);
+            if (reply != null && unclaimed.remove(correlationID) != null) {
+                reply.complete(message);
+            }
+            purgeUnclaimed(now);
+        }
+    }
+
+    private void purgeUnclaimed(long now) {
+        for (Iterator<Map.Entry<String, UnclaimedReply>> i = unclaimed.entrySet().iterator(); i.hasNext();) {
+            Map.Entry<String, UnclaimedReply> entry = i.next();
+            if (now - entry.getValue().received > UNCLAIMED_TIMEOUT) {
+                i.remove();
+                logger.fine("Discarding the unclaimed JMS reply for correlation ID " + entry.getKey());
+            }
+        }
+    }
+
+    private void receiveReplies() {
+        while (running) {
+            try {
+                MessageConsumer currentConsumer;
+                synchronized (this) {
+                    currentConsumer = consumer;
+                }
+                if (currentConsumer == null) {
+                    return;
+                }
+                Message message = currentConsumer.receive();
+                if (message != null) {
+                    onMessage(message);
+                }
+            } catch (JMSException e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Unable to receive a JMS reply", e);
+                }
+                return;
+            }
+        }
+    }
+
+    private static class UnclaimedReply {
+        private final Message message;
+        private final long received;
+
+        private UnclaimedReply(Message message, long received) {
+            this.message = message;
+            this.received = received;
+        }
+    }
+
+    /**
+     * The reply to a registered request
+     */
+    public class PendingReply implements Future<Message> {
+        private final String correlationID;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Message reply;
+        private volatile boolean cancelled;
+
+        private PendingReply(String correlationID) {
+            this.correlationID = correlationID;
+        }
+
+        private void complete(Message message) {
+            reply = message;
+            latch.countDown();
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (latch.getCount() == 0) {
+                return false;
+            }
+            pending.remove(correlationID);
+            cancelled = true;
+            latch.countDown();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        public Message get() throws InterruptedException, ExecutionException {
+            latch.await();
+            return getReply();
+        }
+
+        public Message get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            TimeoutException {
+            if (!latch.await(timeout, unit)) {
+                // Give up on the reply, it will be discarded if it arrives later
+                pending.remove(correlationID);
+                throw new TimeoutException("No reply message received for correlation ID " + correlationID);
+            }
+            return getReply();
+        }
+
+        private Message getReply() throws ExecutionException {
+            if (cancelled) {
+                throw new ExecutionException(new IllegalStateException("The JMS reply dispatcher has been stopped"));
+            }
+            return reply;
+        }
+    }
+}
@@ -98,4 +98,11 @@ public interface JMSResourceFactory {
 			String activationSpecName);
 
     public abstract long getDefaultRequestTimeout();
+
+    /**
+     * Get the pool of sessions used to send requests
+     * @return The pool, or null if sessions are not pooled, in which case createSession() and
+     * closeSession() are used for each request
+     */
+    public abstract JMSSessionPool getSessionPool();
 }
@@ -23,6 +23,7 @@ import java.util.Properties;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.Destination;
+import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
 import javax.jms.Session;
 import javax.naming.Context;
@@ -49,6 +50,11 @@ public class JMSResourceFactoryImpl implements JMSResourceFactory {
     private Connection responseConnection;
     private String responseConnectionFactoryName;
 
+    private int sessionPoolMaxSize = JMSSessionPool.DEFAULT_MAX_SIZE;
+    private long sessionPoolIdleTimeout = JMSSessionPool.DEFAULT_IDLE_TIMEOUT;
+    private long sessionPoolMaxWait = JMSSessionPool.DEFAULT_MAX_WAIT;
+    private JMSSessionPool sessionPool;
+
     public JMSResourceFactoryImpl(String connectionFactoryName, String responseConnectionFactoryName, String initialContextFactoryName, String jndiURL) {
         if (connectionFactoryName != null && connectionFactoryName.trim().length() > 0) {
             this.connectionFactoryName = connectionFactoryName.trim();
@@ -114,6 +120,7 @@ public class JMSResourceFactoryImpl implements JMSResourceFactory {
      * @see org.apache.tuscany.sca.binding.jms.provider.JMSResourceFactory#closeConnection()
      */
     public void closeConnection() throws JMSException {
+        closeSessionPool();
         if (connection != null) {
             try {
                 connection.close();
@@ -138,6 +145,19 @@ public class JMSResourceFactoryImpl implements JMSResourceFactory {
     	}
         ConnectionFactory connectionFactory = (ConnectionFactory)o;
         connection = connectionFactory.createConnection();
+        try {
+            // The pooled sessions can't be used any more once the connection has failed
+            connection.setExceptionListener(new ExceptionListener() {
+                public void onException(JMSException e) {
+                    JMSSessionPool pool = getCurrentSessionPool();
+                    if (pool != null) {
+                        pool.invalidate();
+                    }
+                }
+            });
+        } catch (JMSException e) {
+            // Some environments, such as Java EE containers, don't allow exception listeners to be set
+        }
     }
    
     protected synchronized Context getInitialContext() throws NamingException {
@@ -302,4 +322,54 @@ public class JMSResourceFactoryImpl implements JMSResourceFactory {
         return 0;
     }
 
+    /**
+     * Configure the pool of sessions used to send requests
+     * @param maxSize The maximum number of sessions, in use or idle, 0 to disable pooling, null for the default
+     * @param idleTimeout The time in milliseconds after which an idle session is closed, null for the default
+     */
+    public void setSessionPoolConfiguration(Integer maxSize, Long idleTimeout) {
+        setSessionPoolConfiguration(maxSize, idleTimeout, null);
+    }
+
+    /**
+     * Configure the pool of sessions used to send requests
+     * @param maxSize The maximum number of sessions, in use or idle, 0 to disable pooling, null for the default
+     * @param idleTimeout The time in milliseconds after which an idle session is closed, null for the default
+     * @param maxWait The time in milliseconds to wait for a session when they are all in use, null for the default
+     */
+    public synchronized void setSessionPoolConfiguration(Integer maxSize, Long idleTimeout, Long maxWait) {
+        if (maxSize != null) {
+            this.sessionPoolMaxSize = maxSize.intValue();
+        }
+        if (idleTimeout != null) {
+            this.sessionPoolIdleTimeout = idleTimeout.longValue();
+        }
+        if (maxWait != null) {
+            this.sessionPoolMaxWait = maxWait.longValue();
+        }
+    }
+
+    public synchronized JMSSessionPool getSessionPool() {
+        // Sessions can't be kept if the connection is closed after each use
+        if (sessionPool == null && sessionPoolMaxSize > 0 && !isConnectionClosedAfterUse()) {
+            sessionPool = new JMSSessionPool(this, sessionPoolMaxSize, sessionPoolIdleTimeout, sessionPoolMaxWait);
+        }
+        return sessionPool;
+    }
+
+    private synchronized JMSSessionPool getCurrentSessionPool() {
+        return sessionPool;
+    }
+
+    private void closeSessionPool() {
+        JMSSessionPool pool;
+        synchronized (this) {
+            pool = sessionPool;
+            sessionPool = null;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
 }
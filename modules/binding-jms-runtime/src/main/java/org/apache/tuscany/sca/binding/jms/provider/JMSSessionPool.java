@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jms.provider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.naming.NamingException;
+
+/**
+ * A pool of the sessions used by a JMS reference binding to send requests. Each pooled session keeps
+ * the producers it created, keyed by destination, time to live, priority and delivery mode, so that
+ * neither the session nor the producer has to be created for each request.
+ * <p>
+ * At most maxSize sessions, in use or idle, are open at any time. When they are all in use a request
+ * waits up to maxWait milliseconds for one to be returned, and then fails with a JMSException. Sessions
+ * idle for longer than idleTimeout milliseconds are closed when sessions are returned. When the
+ * connection fails the pool is invalidated, the idle sessions are closed and the sessions in use are
+ * closed when they are returned.
+ *
+ * @version $Rev$ $Date$
+ */
+public class JMSSessionPool {
+    private static final Logger logger = Logger.getLogger(JMSSessionPool.class.getName());
+
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+    public static final long DEFAULT_MAX_WAIT = 30000;
+
+    // The maximum number of producers kept by a session, to bound the cache for dynamic destinations
+    private static final int MAX_PRODUCERS = 16;
+
+    private final JMSResourceFactory jmsResourceFactory;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxWait;
+
+    // The idle sessions, the most recently returned first
+    private final LinkedList<PooledSession> idle = new LinkedList<PooledSession>();
+    // The number of open sessions, in use or idle
+    private int size;
+    // Incremented when the pool is invalidated, sessions created before then are not pooled again
+    private int generation;
+    private boolean closed;
+
+    public JMSSessionPool(JMSResourceFactory jmsResourceFactory, int maxSize, long idleTimeout) {
+        this(jmsResourceFactory, maxSize, idleTimeout, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * @param maxSize The maximum number of open sessions
+     * @param idleTimeout The time in milliseconds after which an idle session is closed, 0 to keep them
+     * @param maxWait The time in milliseconds to wait for a session when they are all in use, 0 to fail at once
+     */
+    public JMSSessionPool(JMSResourceFactory jmsResourceFactory, int maxSize, long idleTimeout, long maxWait) {
+        this.jmsResourceFactory = jmsResourceFactory;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Get an idle session from the pool or create a new one, waiting for a session to be returned if
+     * maxSize sessions are in use
+     * @throws JMSException if no session is available after maxWait milliseconds
+     */
+    public PooledSession getSession() throws JMSException, NamingException {
+        int currentGeneration;
+        synchronized (this) {
+            long deadline = 0;
+            while (true) {
+                if (!idle.isEmpty()) {
+                    return idle.removeFirst();
+                }
+                if (size < maxSize) {
+                    break;
+                }
+                long now = System.currentTimeMillis();
+                if (deadline == 0) {
+                    deadline = now + maxWait;
+                }
+                if (now >= deadline) {
+                    throw new JMSException("No JMS session available after " + maxWait
+                        + " ms, the "
+                        + maxSize
+                        + " pooled sessions are in use");
+                }
+                try {
+                    wait(deadline - now);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JMSException("Interrupted while waiting for a pooled JMS session");
+                }
+            }
+            size++;
+            currentGeneration = generation;
+        }
+        boolean created = false;
+        try {
+            PooledSession session = new PooledSession(this, jmsResourceFactory.createSession(), currentGeneration);
+            created = true;
+            return session;
+        } finally {
+            if (!created) {
+                closed(1);
+            }
+        }
+    }
+
+    /**
+     * Return a session to the pool. The session is closed if it is broken, if it was created before the
+     * pool was invalidated or if the pool is full.
+     */
+    public void returnSession(PooledSession session) {
+        List<PooledSession> expired = new ArrayList<PooledSession>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (closed || session.broken || session.generation != generation) {
+                expired.add(session);
+            } else {
+                session.lastUsed = now;
+                idle.addFirst(session);
+                notify();
+            }
+            if (idleTimeout > 0) {
+                while (!idle.isEmpty() && now - idle.getLast().lastUsed > idleTimeout) {
+                    expired.add(idle.removeLast());
+                }
+            }
+        }
+        close(expired);
+    }
+
+    /**
+     * Close the idle sessions and make sure the sessions in use are not pooled again, typically because
+     * the connection has failed
+     */
+    public void invalidate() {
+        List<PooledSession> sessions;
+        synchronized (this) {
+            generation++;
+            sessions = new ArrayList<PooledSession>(idle);
+            idle.clear();
+        }
+        close(sessions);
+    }
+
+    /**
+     * Close the pool and its idle sessions
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        invalidate();
+    }
+
+    /**
+     * @return The number of idle sessions
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * @return The number of open sessions, in use or idle
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    private void close(List<PooledSession> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        for (PooledSession session : sessions) {
+            try {
+                jmsResourceFactory.closeSession(session.session);
+            } catch (JMSException e) {
+                logger.log(Level.FINE, "Unable to close a pooled JMS session", e);
+            }
+        }
+        closed(sessions.size());
+    }
+
+    /**
+     * Free the places of closed sessions and wake up the requests waiting for them
+     */
+    private synchronized void closed(int count) {
+        size -= count;
+        notifyAll();
+    }
+
+    /**
+     * A pooled session and the producers it created. It must only be used by one thread at a time.
+     */
+    public static class PooledSession {
+        private final JMSSessionPool pool;
+        private final Session session;
+        private final int generation;
+        private long lastUsed;
+        private boolean broken;
+        private final Map<ProducerKey, MessageProducer> producers =
+            new LinkedHashMap<ProducerKey, MessageProducer>(16, 0.75f, true) {
+                private static final long serialVersionUID = -2542395622127405366L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ProducerKey, MessageProducer> eldest) {
+                    if (size() > MAX_PRODUCERS) {
+                        try {
+                            eldest.getValue().close();
+                        } catch (JMSException e) {
+                            logger.log(Level.FINE, "Unable to close a pooled JMS producer", e);
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+        PooledSession(JMSSessionPool pool, Session session, int generation) {
+            this.pool = pool;
+            this.session = session;
+            this.generation = generation;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        /**
+         * Get a producer for the destination with the given header attributes, a null attribute means the
+         * producer default is used
+         */
+        public MessageProducer getProducer(Destination destination,
+                                           Long timeToLive,
+                                           Integer priority,
+                                           Boolean deliveryModePersistent) throws JMSException {
+            ProducerKey key = new ProducerKey(destination, timeToLive, priority, deliveryModePersistent);
+            MessageProducer producer = producers.get(key);
+            if (producer == null) {
+                producer = session.createProducer(destination);
+                if (timeToLive != null) {
+                    producer.setTimeToLive(timeToLive.longValue());
+                }
+                if (priority != null) {
+                    producer.setPriority(priority.intValue());
+                }
+                if (deliveryModePersistent != null) {
+                    producer.setDeliveryMode(deliveryModePersistent ? DeliveryMode.PERSISTENT
+                        : DeliveryMode.NON_PERSISTENT);
+                }
+                producers.put(key, producer);
+            }
+            return producer;
+        }
+
+        /**
+         * Return the session to the pool it comes from
+         */
+        public void release() {
+            pool.returnSession(this);
+        }
+
+        /**
+         * Mark the session as broken so that it is closed rather than pooled when it is returned
+         */
+        public void setBroken() {
+            this.broken = true;
+        }
+    }
+
+    private static class ProducerKey {
+        private final Destination destination;
+        private final Long timeToLive;
+        private final Integer priority;
+        private final Boolean deliveryModePersistent;
+
+        private ProducerKey(Destination destination, Long timeToLive, Integer priority, Boolean deliveryModePersistent) {
+            this.destination = destination;
+            this.timeToLive = timeToLive;
+            this.priority = priority;
+            this.deliveryModePersistent = deliveryModePersistent;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = destination == null ? 0 : destination.hashCode();
+            result = 31 * result + (timeToLive == null ? 0 : timeToLive.hashCode());
+            result = 31 * result + (priority == null ? 0 : priority.hashCode());
+            return 31 * result + (deliveryModePersistent == null ? 0 : deliveryModePersistent.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ProducerKey)) {
+                return false;
+            }
+            ProducerKey other = (ProducerKey)obj;
+            return equals(destination, other.destination) && equals(timeToLive, other.timeToLive)
+                && equals(priority, other.priority)
+                && equals(deliveryModePersistent, other.deliveryModePersistent);
+        }
+
+        private static boolean equals(Object o1, Object o2) {
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+    }
+}
@@ -54,8 +54,20 @@ public class RRBJMSBindingInvoker extends InterceptorAsyncImpl {
     protected Destination bindingRequestDest;
     protected Destination bindingReplyDest;
     protected RuntimeEndpointReference endpointReference;
+    protected JMSReplyDispatcher replyDispatcher;
 
     public RRBJMSBindingInvoker(Operation operation, JMSResourceFactory jmsResourceFactory, RuntimeEndpointReference epr) {
+        this(operation, jmsResourceFactory, epr, null);
+    }
+
+    /**
+     * @param replyDispatcher The dispatcher receiving the replies to the request/response operations, null to
+     * create a consumer for each reply
+     */
+    public RRBJMSBindingInvoker(Operation operation,
+                                JMSResourceFactory jmsResourceFactory,
+                                RuntimeEndpointReference epr,
+                                JMSReplyDispatcher replyDispatcher) {
 
         this.operation = operation;
         operationName = operation.getName();
@@ -63,6 +75,9 @@ public class RRBJMSBindingInvoker extends InterceptorAsyncImpl {
         this.endpointReference = epr;
         this.jmsBinding = (JMSBinding) epr.getBinding();
         this.jmsResourceFactory = jmsResourceFactory;
+        if (!operation.isNonBlocking()) {
+            this.replyDispatcher = replyDispatcher;
+        }
        
         try {
             // If this is a callback reference, the destination is determined dynamically based on
@@ -210,6 +225,7 @@ public class RRBJMSBindingInvoker extends InterceptorAsyncImpl {
 
             context.setRequestDestination(getRequestDestination(tuscanyMsg, session));
             context.setReplyToDestination(getReplyToDestination(session));
+            context.setReplyDispatcher(replyDispatcher);
             Long ttl = jmsBinding.getOperationJMSTimeToLive(operationName);
             if (ttl != null) {
                 context.setTimeToLive(ttl);
@@ -302,7 +318,9 @@ public class RRBJMSBindingInvoker extends InterceptorAsyncImpl {
             .getCallbackInterface() == null) {
             replyToDest = null;
         } else {
-            if (bindingReplyDest != null) {
+            if (replyDispatcher != null) {
+                replyToDest = replyDispatcher.getReplyDestination();
+            } else if (bindingReplyDest != null) {
                 replyToDest = bindingReplyDest;
             } else {
                 replyToDest = session.createTemporaryQueue();
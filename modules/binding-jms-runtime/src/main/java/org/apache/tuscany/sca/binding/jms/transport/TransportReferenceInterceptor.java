@@ -18,6 +18,10 @@
  */
 package org.apache.tuscany.sca.binding.jms.transport;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
 import javax.jms.MessageConsumer;
@@ -29,7 +33,9 @@ import org.apache.tuscany.sca.binding.jms.JMSBinding;
 import org.apache.tuscany.sca.binding.jms.JMSBindingConstants;
 import org.apache.tuscany.sca.binding.jms.JMSBindingException;
 import org.apache.tuscany.sca.binding.jms.context.JMSBindingContext;
+import org.apache.tuscany.sca.binding.jms.provider.JMSReplyDispatcher;
 import org.apache.tuscany.sca.binding.jms.provider.JMSResourceFactory;
+import org.apache.tuscany.sca.binding.jms.provider.JMSSessionPool.PooledSession;
 import org.apache.tuscany.sca.core.invocation.InterceptorAsyncImpl;
 import org.apache.tuscany.sca.invocation.Interceptor;
 import org.apache.tuscany.sca.invocation.Invoker;
@@ -76,20 +82,34 @@ public class TransportReferenceInterceptor extends InterceptorAsyncImpl {
             JMSBindingContext context = msg.getBindingContext();
             Session session = context.getJmsSession();
             
-            MessageProducer producer = session.createProducer(context.getRequestDestination());
-    
             // Set JMS header attributes in producer, not message.
             String opName = msg.getOperation().getName();
-            if (jmsBinding.getEffectiveJMSTimeToLive(opName) != null) {
-                producer.setTimeToLive(jmsBinding.getEffectiveJMSTimeToLive(msg.getOperation().getName()).longValue());
+            Long timeToLive = jmsBinding.getEffectiveJMSTimeToLive(opName);
+            Integer priority = jmsBinding.getEffectiveJMSPriority(opName);
+            Boolean deliveryModePersistent = jmsBinding.getEffectiveJMSDeliveryMode(opName);
+
+            PooledSession pooledSession = context.getPooledJmsSession();
+            if (pooledSession != null) {
+                // The producer is kept with the pooled session
+                try {
+                    pooledSession.getProducer(context.getRequestDestination(), timeToLive, priority, deliveryModePersistent)
+                        .send((javax.jms.Message)msg.getBody());
+                } catch (JMSException e) {
+                    pooledSession.setBroken();
+                    throw e;
+                }
+                return msg;
+            }
+
+            MessageProducer producer = session.createProducer(context.getRequestDestination());
+            if (timeToLive != null) {
+                producer.setTimeToLive(timeToLive.longValue());
             } 
             
-            Integer priority = jmsBinding.getEffectiveJMSPriority(opName);
             if (priority != null) {
             	producer.setPriority(priority.intValue());
             }  
             
-            Boolean deliveryModePersistent = jmsBinding.getEffectiveJMSDeliveryMode(opName);
             if (deliveryModePersistent != null) {
             	producer.setDeliveryMode( deliveryModePersistent ? DeliveryMode.PERSISTENT : DeliveryMode.NON_PERSISTENT);               
             }                      
@@ -107,6 +127,9 @@ public class TransportReferenceInterceptor extends InterceptorAsyncImpl {
     
     public Message invokeResponse(Message msg) {
         JMSBindingContext context = msg.getBindingContext();
+        if (context.getReplyDispatcher() != null) {
+            return invokeDispatchedResponse(msg, context.getReplyDispatcher());
+        }
         try {
             Session session = context.getJmsResponseSession();
             
@@ -158,6 +181,47 @@ public class TransportReferenceInterceptor extends InterceptorAsyncImpl {
         }
     } 
     
+    /**
+     * Wait for the reply received by the shared reply consumer of the binding
+     */
+    private Message invokeDispatchedResponse(Message msg, JMSReplyDispatcher replyDispatcher) {
+        JMSBindingContext context = msg.getBindingContext();
+        try {
+            javax.jms.Message requestMessage = (javax.jms.Message)msg.getBody();
+            String correlationID;
+            if (JMSBindingConstants.CORRELATE_CORRELATION_ID.equalsIgnoreCase(jmsBinding.getCorrelationScheme())) {
+                correlationID = requestMessage.getJMSCorrelationID();
+            } else {
+                correlationID = requestMessage.getJMSMessageID();
+            }
+
+            JMSReplyDispatcher.PendingReply pendingReply = replyDispatcher.register(correlationID);
+            javax.jms.Message replyMsg;
+            try {
+                long timeout = context.getTimeToLive();
+                replyMsg = timeout > 0 ? pendingReply.get(timeout, TimeUnit.MILLISECONDS) : pendingReply.get();
+            } catch (TimeoutException e) {
+                replyMsg = null;
+            }
+            if (replyMsg == null) {
+                throw new JMSBindingException("No reply message received on " + 
+                                              context.getReplyToDestination() + 
+                                              " for message id " + 
+                                              requestMessage.getJMSMessageID());
+            }
+
+            msg.setBody(replyMsg);
+            return msg;
+        } catch (JMSException e) {
+            throw new JMSBindingException(e);
+        } catch (ExecutionException e) {
+            throw new JMSBindingException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JMSBindingException(e);
+        }
+    }
+
     public Invoker getNext() {
         return next;
     }
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jms.host;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.naming.NamingException;
+
+import org.apache.tuscany.sca.binding.jms.JMSBinding;
+import org.apache.tuscany.sca.binding.jms.provider.JMSResourceFactoryImpl;
+import org.apache.tuscany.sca.work.NotificationListener;
+import org.apache.tuscany.sca.work.WorkScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the consumers of the JMS service listener against an embedded ActiveMQ broker
+ *
+ * @version $Rev$ $Date$
+ */
+public class DefaultJMSServiceListenerTestCase {
+    private static final String INITIAL_CONTEXT_FACTORY = "org.apache.activemq.jndi.ActiveMQInitialContextFactory";
+    // A prefetch of 1 spreads the messages over the consumers
+    private static final String BROKER_URL =
+        "vm://localhost?broker.persistent=false&broker.useJmx=false&jms.prefetchPolicy.queuePrefetch=1";
+
+    private TestWorkScheduler workScheduler;
+    private JMSResourceFactoryImpl clientFactory;
+    private DefaultJMSServiceListener serviceListener;
+
+    @Before
+    public void setUp() throws Exception {
+        workScheduler = new TestWorkScheduler();
+        clientFactory = new JMSResourceFactoryImpl(null, null, INITIAL_CONTEXT_FACTORY, BROKER_URL);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (serviceListener != null) {
+            serviceListener.stop();
+        }
+        clientFactory.closeConnection();
+        workScheduler.executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentConsumers() throws Exception {
+        final int consumers = 4;
+        final CyclicBarrier barrier = new CyclicBarrier(consumers);
+        final AtomicInteger concurrent = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(consumers);
+        JMSBinding binding = createBinding("ConcurrentQueue");
+        binding.setConcurrentConsumers(consumers);
+        start(binding, new JMSResourceFactoryImpl(null, null, INITIAL_CONTEXT_FACTORY, BROKER_URL),
+              new MessageListener() {
+                  public void onMessage(Message message) {
+                      try {
+                          // Only completes if all the messages are processed at the same time
+                          barrier.await(5, TimeUnit.SECONDS);
+                          concurrent.incrementAndGet();
+                      } catch (Exception e) {
+                          // Not concurrent
+                      }
+                      done.countDown();
+                  }
+              });
+
+        send("ConcurrentQueue", consumers);
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(consumers, concurrent.get());
+        // The session threads of the provider deliver the messages
+        Assert.assertEquals(0, workScheduler.scheduled.get());
+    }
+
+    @Test
+    public void testBatchedAcknowledgement() throws Exception {
+        final int count = 10;
+        final Set<String> received = new HashSet<String>();
+        final List<String> processed = new ArrayList<String>();
+        final List<Boolean> redelivered = new ArrayList<Boolean>();
+        final CountDownLatch done = new CountDownLatch(count);
+        JMSBinding binding = createBinding("BatchedQueue");
+        binding.setMaxMessagesPerTask(5);
+        start(binding, new JMSResourceFactoryImpl(null, null, INITIAL_CONTEXT_FACTORY, BROKER_URL),
+              new MessageListener() {
+                  public void onMessage(Message message) {
+                      try {
+                          String text = ((TextMessage)message).getText();
+                          synchronized (received) {
+                              processed.add(text);
+                              if ("message3".equals(text)) {
+                                  redelivered.add(message.getJMSRedelivered());
+                                  if (redelivered.size() == 1) {
+                                      throw new IllegalStateException("Processing failed");
+                                  }
+                              }
+                              if (received.add(text)) {
+                                  done.countDown();
+                              }
+                          }
+                      } catch (JMSException e) {
+                          throw new IllegalStateException(e);
+                      }
+                  }
+              });
+
+        send("BatchedQueue", count);
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // The message that failed is redelivered, the ones processed before it in its batch are not
+        // processed again
+        synchronized (received) {
+            Assert.assertEquals(2, redelivered.size());
+            Assert.assertFalse(redelivered.get(0));
+            Assert.assertTrue(redelivered.get(1));
+            Assert.assertEquals(count + 1, processed.size());
+        }
+        // Let the poller acknowledge its last batch
+        Thread.sleep(500);
+        serviceListener.stop();
+        serviceListener = null;
+
+        // All the messages have been acknowledged
+        Assert.assertNull(receive("BatchedQueue", 1000));
+        // A single poller on the work scheduler
+        Assert.assertEquals(1, workScheduler.scheduled.get());
+    }
+
+    @Test
+    public void testPerMessageDispatchWithoutListeners() throws Exception {
+        final int count = 3;
+        final CountDownLatch done = new CountDownLatch(count);
+        start(createBinding("FallbackQueue"), new NoListenerResourceFactory(), new MessageListener() {
+            public void onMessage(Message message) {
+                done.countDown();
+            }
+        });
+
+        send("FallbackQueue", count);
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // The default configuration schedules the poller and a work item for each message
+        Assert.assertEquals(1 + count, workScheduler.scheduled.get());
+    }
+
+    @Test
+    public void testPollersWithoutListeners() throws Exception {
+        final int count = 3;
+        final CountDownLatch done = new CountDownLatch(count);
+        JMSBinding binding = createBinding("PollerQueue");
+        binding.setConcurrentConsumers(2);
+        start(binding, new NoListenerResourceFactory(), new MessageListener() {
+            public void onMessage(Message message) {
+                done.countDown();
+            }
+        });
+
+        send("PollerQueue", count);
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // With configured consumers, the pollers process the messages themselves
+        Assert.assertEquals(2, workScheduler.scheduled.get());
+    }
+
+    private static JMSBinding createBinding(String destinationName) {
+        JMSBinding binding = new JMSBinding();
+        binding.setDestinationName(destinationName);
+        return binding;
+    }
+
+    private void start(JMSBinding binding, JMSResourceFactoryImpl factory, MessageListener listener) {
+        serviceListener = new DefaultJMSServiceListener(listener, "TestService", false, binding, workScheduler, factory);
+        serviceListener.start();
+    }
+
+    private void send(String destinationName, int count) throws JMSException, NamingException {
+        Session session = clientFactory.createSession();
+        try {
+            MessageProducer producer = session.createProducer(clientFactory.createDestination(destinationName));
+            for (int i = 0; i < count; i++) {
+                producer.send(session.createTextMessage("message" + i));
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private Message receive(String destinationName, long timeout) throws JMSException, NamingException {
+        clientFactory.startConnection();
+        Session session = clientFactory.createSession();
+        try {
+            Destination destination = clientFactory.createDestination(destinationName);
+            return session.createConsumer(destination).receive(timeout);
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Counts the work scheduled by the listener
+     */
+    private static class TestWorkScheduler implements WorkScheduler {
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger scheduled = new AtomicInteger();
+
+        public <T extends Runnable> void scheduleWork(T work, NotificationListener<T> listener) {
+            scheduleWork(work);
+        }
+
+        public <T extends Runnable> void scheduleWork(T work) {
+            scheduled.incrementAndGet();
+            executor.execute(work);
+        }
+
+        public ExecutorService getExecutorService() {
+            return executor;
+        }
+    }
+
+    /**
+     * Refuses message listeners, as Java EE containers do, so that the listener falls back to Tuscany threads
+     */
+    private static class NoListenerResourceFactory extends JMSResourceFactoryImpl {
+        private NoListenerResourceFactory() {
+            super(null, null, INITIAL_CONTEXT_FACTORY, BROKER_URL);
+        }
+
+        @Override
+        public Session createSession() throws JMSException, NamingException {
+            return (Session)proxy(Session.class, super.createSession());
+        }
+
+        private static Object proxy(final Class<?> type, final Object target) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if ("setMessageListener".equals(method.getName())) {
+                        throw new JMSException("Message listeners are not allowed");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof MessageConsumer) {
+                        return proxy(MessageConsumer.class, result);
+                    }
+                    return result;
+                }
+            });
+        }
+    }
+}
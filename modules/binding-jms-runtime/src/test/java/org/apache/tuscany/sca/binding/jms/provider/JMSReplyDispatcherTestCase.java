@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jms.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.naming.NamingException;
+
+import org.apache.tuscany.sca.binding.jms.provider.JMSReplyDispatcher.PendingReply;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the correlation of replies on the shared reply consumer against an embedded ActiveMQ broker
+ *
+ * @version $Rev$ $Date$
+ */
+public class JMSReplyDispatcherTestCase {
+    private JMSResourceFactoryImpl factory;
+    private JMSReplyDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        factory =
+            new JMSResourceFactoryImpl(null, null, JMSSessionPoolTestCase.INITIAL_CONTEXT_FACTORY,
+                                       JMSSessionPoolTestCase.BROKER_URL);
+        dispatcher = new JMSReplyDispatcher(factory, null, null);
+        dispatcher.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dispatcher.stop();
+        factory.closeConnection();
+    }
+
+    @Test
+    public void testCorrelation() throws Exception {
+        PendingReply first = dispatcher.register("first");
+        PendingReply second = dispatcher.register("second");
+        PendingReply third = dispatcher.register("third");
+        Assert.assertEquals(3, dispatcher.getPendingCount());
+
+        // The replies arrive in a different order than the requests were sent
+        sendReply("third", "3");
+        sendReply("first", "1");
+        sendReply("second", "2");
+
+        Assert.assertEquals("1", getText(first));
+        Assert.assertEquals("2", getText(second));
+        Assert.assertEquals("3", getText(third));
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void testConcurrentRequesters() throws Exception {
+        int count = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < count; i++) {
+                final String correlationID = "request" + i;
+                results.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        PendingReply reply = dispatcher.register(correlationID);
+                        sendReply(correlationID, correlationID);
+                        return getText(reply);
+                    }
+                }));
+            }
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals("request" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void testReplyBeforeRegistration() throws Exception {
+        sendReply("early", "early");
+        // Give the consumer a chance to receive the reply before the request is registered
+        Thread.sleep(200);
+        Assert.assertEquals("early", getText(dispatcher.register("early")));
+    }
+
+    @Test
+    public void testTimeoutAndLateReply() throws Exception {
+        PendingReply reply = dispatcher.register("late");
+        try {
+            reply.get(100, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException expected");
+        } catch (TimeoutException e) {
+            // Expected
+        }
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+
+        // The late reply is discarded and doesn't get in the way of the next requests
+        sendReply("late", "late");
+        PendingReply next = dispatcher.register("next");
+        sendReply("next", "next");
+        Assert.assertEquals("next", getText(next));
+        Assert.assertFalse(reply.isDone());
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        PendingReply reply = dispatcher.register("stopped");
+        dispatcher.stop();
+        Assert.assertTrue(reply.isCancelled());
+        try {
+            reply.get();
+            Assert.fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            // Expected
+        }
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    private static String getText(PendingReply reply) throws Exception {
+        return ((TextMessage)reply.get(5, TimeUnit.SECONDS)).getText();
+    }
+
+    private void sendReply(String correlationID, String text) throws JMSException, NamingException {
+        Session session = factory.createSession();
+        try {
+            MessageProducer producer = session.createProducer(dispatcher.getReplyDestination());
+            TextMessage message = session.createTextMessage(text);
+            message.setJMSCorrelationID(correlationID);
+            producer.send(message);
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jms.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.apache.tuscany.sca.binding.jms.provider.JMSSessionPool.PooledSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the pool of sessions used by JMS references against an embedded ActiveMQ broker
+ *
+ * @version $Rev$ $Date$
+ */
+public class JMSSessionPoolTestCase {
+    static final String INITIAL_CONTEXT_FACTORY = "org.apache.activemq.jndi.ActiveMQInitialContextFactory";
+    static final String BROKER_URL = "vm://localhost?broker.persistent=false&broker.useJmx=false";
+
+    private JMSResourceFactoryImpl factory;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new JMSResourceFactoryImpl(null, null, INITIAL_CONTEXT_FACTORY, BROKER_URL);
+        factory.startConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        factory.closeConnection();
+    }
+
+    @Test
+    public void testBorrowAndReturn() throws Exception {
+        factory.setSessionPoolConfiguration(2, null);
+        JMSSessionPool pool = factory.getSessionPool();
+        Assert.assertSame(pool, factory.getSessionPool());
+        Destination queue = factory.createDestination("SessionPoolQueue");
+
+        PooledSession session = pool.getSession();
+        MessageProducer producer = session.getProducer(queue, null, null, Boolean.FALSE);
+        Assert.assertSame(producer, session.getProducer(queue, null, null, Boolean.FALSE));
+        Assert.assertNotSame(producer, session.getProducer(queue, null, 7, Boolean.FALSE));
+        producer.send(session.getSession().createTextMessage("hello"));
+        session.release();
+        Assert.assertEquals(1, pool.getIdleCount());
+
+        // The same session and producers are handed out again
+        PooledSession again = pool.getSession();
+        Assert.assertSame(session, again);
+        Assert.assertEquals(0, pool.getIdleCount());
+        Assert.assertSame(producer, again.getProducer(queue, null, null, Boolean.FALSE));
+        again.release();
+
+        Session consumerSession = factory.createSession();
+        try {
+            MessageConsumer consumer = consumerSession.createConsumer(queue);
+            TextMessage message = (TextMessage)consumer.receive(5000);
+            Assert.assertNotNull(message);
+            Assert.assertEquals("hello", message.getText());
+        } finally {
+            consumerSession.close();
+        }
+    }
+
+    @Test
+    public void testTotalBound() throws Exception {
+        factory.setSessionPoolConfiguration(2, null, 100L);
+        JMSSessionPool pool = factory.getSessionPool();
+
+        // The pool bounds the sessions in use, not only the idle ones
+        PooledSession first = pool.getSession();
+        PooledSession second = pool.getSession();
+        Assert.assertEquals(2, pool.getSize());
+        long start = System.currentTimeMillis();
+        try {
+            pool.getSession();
+            Assert.fail("No session should be available");
+        } catch (JMSException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start >= 100);
+        }
+        Assert.assertEquals(2, pool.getSize());
+
+        // A broken session frees its place once closed
+        second.setBroken();
+        second.release();
+        Assert.assertEquals(1, pool.getSize());
+        assertClosed(second);
+        PooledSession third = pool.getSession();
+        Assert.assertNotSame(second, third);
+        Assert.assertEquals(2, pool.getSize());
+
+        first.release();
+        third.release();
+        Assert.assertEquals(2, pool.getIdleCount());
+        assertOpen(first);
+        assertOpen(third);
+    }
+
+    @Test
+    public void testWaitForSession() throws Exception {
+        factory.setSessionPoolConfiguration(1, null, 10000L);
+        final JMSSessionPool pool = factory.getSessionPool();
+        final PooledSession session = pool.getSession();
+
+        final List<Object> result = new ArrayList<Object>();
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    PooledSession waited = pool.getSession();
+                    synchronized (result) {
+                        result.add(waited);
+                    }
+                    waited.release();
+                } catch (Exception e) {
+                    synchronized (result) {
+                        result.add(e);
+                    }
+                }
+            }
+        };
+        waiter.start();
+
+        // The waiting request gets the session as soon as it is returned
+        long deadline = System.currentTimeMillis() + 5000;
+        while (waiter.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        session.release();
+        waiter.join(5000);
+        synchronized (result) {
+            Assert.assertEquals(1, result.size());
+            Assert.assertSame(session, result.get(0));
+        }
+        Assert.assertEquals(1, pool.getSize());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        factory.setSessionPoolConfiguration(2, 50L);
+        JMSSessionPool pool = factory.getSessionPool();
+
+        PooledSession first = pool.getSession();
+        PooledSession second = pool.getSession();
+        first.release();
+        Thread.sleep(200);
+
+        // Idle sessions are expired when sessions are returned
+        second.release();
+        Assert.assertEquals(1, pool.getIdleCount());
+        assertClosed(first);
+        Assert.assertSame(second, pool.getSession());
+    }
+
+    @Test
+    public void testPoolingDisabled() throws Exception {
+        factory.setSessionPoolConfiguration(0, null);
+        Assert.assertNull(factory.getSessionPool());
+    }
+
+    @Test
+    public void testBrokenSession() throws Exception {
+        factory.setSessionPoolConfiguration(2, null);
+        JMSSessionPool pool = factory.getSessionPool();
+
+        PooledSession session = pool.getSession();
+        session.setBroken();
+        session.release();
+        Assert.assertEquals(0, pool.getIdleCount());
+        assertClosed(session);
+        Assert.assertNotSame(session, pool.getSession());
+    }
+
+    @Test
+    public void testInvalidatedOnConnectionFailure() throws Exception {
+        factory.setSessionPoolConfiguration(2, null);
+        JMSSessionPool pool = factory.getSessionPool();
+
+        PooledSession idle = pool.getSession();
+        PooledSession inUse = pool.getSession();
+        idle.release();
+        Assert.assertEquals(1, pool.getIdleCount());
+
+        // Simulate the failure of the connection as reported by the provider
+        factory.getConnection().getExceptionListener().onException(new JMSException("Connection failed"));
+        Assert.assertEquals(0, pool.getIdleCount());
+        assertClosed(idle);
+
+        // The sessions in use when the pool is invalidated are not pooled again
+        inUse.release();
+        Assert.assertEquals(0, pool.getIdleCount());
+        assertClosed(inUse);
+    }
+
+    @Test
+    public void testClosedWithConnection() throws Exception {
+        factory.setSessionPoolConfiguration(2, null);
+        JMSSessionPool pool = factory.getSessionPool();
+        PooledSession session = pool.getSession();
+        session.release();
+
+        factory.closeConnection();
+        Assert.assertEquals(0, pool.getIdleCount());
+        assertClosed(session);
+    }
+
+    private static void assertOpen(PooledSession session) throws JMSException {
+        session.getSession().createTextMessage("open");
+    }
+
+    private static void assertClosed(PooledSession session) {
+        try {
+            session.getSession().createTextMessage("closed");
+            Assert.fail("The session should have been closed");
+        } catch (JMSException e) {
+            // Expected
+        }
+    }
+}
@@ -85,6 +85,12 @@ public class JMSBinding implements Binding, PolicySubject, OperationsConfigurato
     private String correlationScheme = JMSBindingConstants.CORRELATE_MSG_ID;
     private String initialContextFactoryName;
     private String jndiURL;
+    private Integer sessionPoolMaxSize;
+    private Long sessionPoolIdleTimeout;
+    private Long sessionPoolMaxWait;
+    private Boolean sharedReplyConsumer;
+    private Integer concurrentConsumers;
+    private Integer maxMessagesPerTask;
 
     private String destinationName = null;
     private String destinationType = JMSBindingConstants.DESTINATION_TYPE_QUEUE;
@@ -271,6 +277,80 @@ public class JMSBinding implements Binding, PolicySubject, OperationsConfigurato
         this.jndiURL = jndiURL;
     }
 
+    /**
+     * @return The maximum number of sessions, in use or idle, used to send requests, 0 to disable pooling,
+     * null for the runtime default
+     */
+    public Integer getSessionPoolMaxSize() {
+        return sessionPoolMaxSize;
+    }
+
+    public void setSessionPoolMaxSize(Integer sessionPoolMaxSize) {
+        this.sessionPoolMaxSize = sessionPoolMaxSize;
+    }
+
+    /**
+     * @return The time in milliseconds after which an idle pooled session is closed, null for the runtime
+     * default
+     */
+    public Long getSessionPoolIdleTimeout() {
+        return sessionPoolIdleTimeout;
+    }
+
+    public void setSessionPoolIdleTimeout(Long sessionPoolIdleTimeout) {
+        this.sessionPoolIdleTimeout = sessionPoolIdleTimeout;
+    }
+
+    /**
+     * @return The time in milliseconds a request waits for a pooled session when they are all in use, null
+     * for the runtime default
+     */
+    public Long getSessionPoolMaxWait() {
+        return sessionPoolMaxWait;
+    }
+
+    public void setSessionPoolMaxWait(Long sessionPoolMaxWait) {
+        this.sessionPoolMaxWait = sessionPoolMaxWait;
+    }
+
+    /**
+     * @return true if a reference without response destination receives all its replies on a temporary queue
+     * with a single consumer that dispatches them by correlation ID, rather than creating a temporary queue
+     * and a consumer for each request. null if not set.
+     */
+    public Boolean getSharedReplyConsumer() {
+        return sharedReplyConsumer;
+    }
+
+    public void setSharedReplyConsumer(Boolean sharedReplyConsumer) {
+        this.sharedReplyConsumer = sharedReplyConsumer;
+    }
+
+    /**
+     * @return The number of consumers a service uses to receive requests from a queue in parallel, null if
+     * not set in which case a single consumer is used
+     */
+    public Integer getConcurrentConsumers() {
+        return concurrentConsumers;
+    }
+
+    public void setConcurrentConsumers(Integer concurrentConsumers) {
+        this.concurrentConsumers = concurrentConsumers;
+    }
+
+    /**
+     * @return The maximum number of requests a service consumer receives and acknowledges as a batch, null
+     * if not set in which case each request is acknowledged as it is received. When a request of a batch
+     * fails it is redelivered, the requests of the batch processed before it are not processed again.
+     */
+    public Integer getMaxMessagesPerTask() {
+        return maxMessagesPerTask;
+    }
+
+    public void setMaxMessagesPerTask(Integer maxMessagesPerTask) {
+        this.maxMessagesPerTask = maxMessagesPerTask;
+    }
+
     public String getDestinationName() {
         if (requestConnectionBinding != null && requestConnectionBinding.getDestinationName() != null) {
             return requestConnectionBinding.getDestinationName();
@@ -947,6 +1027,12 @@ public class JMSBinding implements Binding, PolicySubject, OperationsConfigurato
         if ( !optStringEquals( this.correlationScheme, binding.getCorrelationScheme() )) return false;
         if ( !optStringEquals( this.initialContextFactoryName, binding.getInitialContextFactoryName() )) return false;
         if ( !optStringEquals( this.jndiURL, binding.getJndiURL() )) return false;
+        if ( !optStringEquals( this.sessionPoolMaxSize, binding.getSessionPoolMaxSize() )) return false;
+        if ( !optStringEquals( this.sessionPoolIdleTimeout, binding.getSessionPoolIdleTimeout() )) return false;
+        if ( !optStringEquals( this.sessionPoolMaxWait, binding.getSessionPoolMaxWait() )) return false;
+        if ( !optStringEquals( this.sharedReplyConsumer, binding.getSharedReplyConsumer() )) return false;
+        if ( !optStringEquals( this.concurrentConsumers, binding.getConcurrentConsumers() )) return false;
+        if ( !optStringEquals( this.maxMessagesPerTask, binding.getMaxMessagesPerTask() )) return false;
         if ( !optStringEquals( this.requestConnectionName, binding.getRequestConnectionName() )) return false;
         if ( !optStringEquals( this.responseConnectionName, binding.getResponseConnectionName() )) return false;
         if ( !optStringEquals( this.jmsSelector, binding.getJMSSelector() )) return false;
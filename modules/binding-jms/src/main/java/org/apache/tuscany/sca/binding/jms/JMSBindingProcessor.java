@@ -145,6 +145,17 @@ import org.apache.tuscany.sca.policy.PolicyFactory;
  */
 
 public class JMSBindingProcessor extends BaseStAXArtifactProcessor implements StAXArtifactProcessor<JMSBinding> {
+    // The binding.jms attributes in the Tuscany namespace that are read into the model rather than kept as extensions
+    private static final Set<String> TUSCANY_ATTRIBUTES = new HashSet<String>();
+    static {
+        TUSCANY_ATTRIBUTES.add("sessionPoolMaxSize");
+        TUSCANY_ATTRIBUTES.add("sessionPoolIdleTimeout");
+        TUSCANY_ATTRIBUTES.add("sessionPoolMaxWait");
+        TUSCANY_ATTRIBUTES.add("sharedReplyConsumer");
+        TUSCANY_ATTRIBUTES.add("concurrentConsumers");
+        TUSCANY_ATTRIBUTES.add("maxMessagesPerTask");
+    }
+
     private PolicyFactory policyFactory;
     private PolicySubjectProcessor policyProcessor;
     private AssemblyFactory assemblyFactory;
@@ -246,6 +257,55 @@ public class JMSBindingProcessor extends BaseStAXArtifactProcessor implements St
             jmsBinding.setJndiURL(jndiURL);
         }
 
+        // Read the Tuscany specific settings of the pool of sessions used to send requests
+        String sessionPoolMaxSize = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "sessionPoolMaxSize");
+        if (sessionPoolMaxSize != null && sessionPoolMaxSize.length() > 0) {
+            try {
+                jmsBinding.setSessionPoolMaxSize(Integer.valueOf(sessionPoolMaxSize.trim()));
+            } catch (NumberFormatException ex) {
+                error(monitor, "InvalidSessionPoolSetting", jmsBinding, sessionPoolMaxSize);
+            }
+        }
+        String sessionPoolIdleTimeout = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "sessionPoolIdleTimeout");
+        if (sessionPoolIdleTimeout != null && sessionPoolIdleTimeout.length() > 0) {
+            try {
+                jmsBinding.setSessionPoolIdleTimeout(Long.valueOf(sessionPoolIdleTimeout.trim()));
+            } catch (NumberFormatException ex) {
+                error(monitor, "InvalidSessionPoolSetting", jmsBinding, sessionPoolIdleTimeout);
+            }
+        }
+        String sessionPoolMaxWait = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "sessionPoolMaxWait");
+        if (sessionPoolMaxWait != null && sessionPoolMaxWait.length() > 0) {
+            try {
+                jmsBinding.setSessionPoolMaxWait(Long.valueOf(sessionPoolMaxWait.trim()));
+            } catch (NumberFormatException ex) {
+                error(monitor, "InvalidSessionPoolSetting", jmsBinding, sessionPoolMaxWait);
+            }
+        }
+
+        String sharedReplyConsumer = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "sharedReplyConsumer");
+        if (sharedReplyConsumer != null && sharedReplyConsumer.length() > 0) {
+            jmsBinding.setSharedReplyConsumer(Boolean.valueOf(sharedReplyConsumer.trim()));
+        }
+
+        // Read the Tuscany specific settings of the consumers used by a service
+        String concurrentConsumers = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "concurrentConsumers");
+        if (concurrentConsumers != null && concurrentConsumers.length() > 0) {
+            try {
+                jmsBinding.setConcurrentConsumers(Integer.valueOf(concurrentConsumers.trim()));
+            } catch (NumberFormatException ex) {
+                error(monitor, "InvalidConsumerSetting", jmsBinding, concurrentConsumers);
+            }
+        }
+        String maxMessagesPerTask = reader.getAttributeValue(Base.SCA11_TUSCANY_NS, "maxMessagesPerTask");
+        if (maxMessagesPerTask != null && maxMessagesPerTask.length() > 0) {
+            try {
+                jmsBinding.setMaxMessagesPerTask(Integer.valueOf(maxMessagesPerTask.trim()));
+            } catch (NumberFormatException ex) {
+                error(monitor, "InvalidConsumerSetting", jmsBinding, maxMessagesPerTask);
+            }
+        }
+
         // Read message processor class name
         // TODO - maintain this for the time being but move over to 
         //        configuring wire formats instead of message processors
@@ -296,7 +356,7 @@ public class JMSBindingProcessor extends BaseStAXArtifactProcessor implements St
         for (int i = 0; i < reader.getAttributeCount(); i++) {
             QName attributeName = reader.getAttributeName(i);
             if(attributeName.getNamespaceURI() != null && attributeName.getNamespaceURI().length() > 0) {                
-                if(!elementQName.getNamespaceURI().equals(attributeName.getNamespaceURI()) ) {
+                if(!elementQName.getNamespaceURI().equals(attributeName.getNamespaceURI()) && !isTuscanyAttribute(attributeName)) {
                     Object attributeValue = extensionAttributeProcessor.read(attributeName, reader, processorContext);
                     Extension attributeExtension;
                     if (attributeValue instanceof Extension) {
@@ -668,6 +728,14 @@ public class JMSBindingProcessor extends BaseStAXArtifactProcessor implements St
         jmsBinding.getResponseActivationSpecProperties().putAll(parseBindingProperties(reader, monitor));
     }
 
+    /**
+     * Check if an attribute is one of the Tuscany specific binding.jms attributes read by this processor
+     */
+    private static boolean isTuscanyAttribute(QName attributeName) {
+        return Base.SCA11_TUSCANY_NS.equals(attributeName.getNamespaceURI())
+            && TUSCANY_ATTRIBUTES.contains(attributeName.getLocalPart());
+    }
+
     private void validateCreate(String create, XMLStreamReader reader, Monitor monitor) {
     	if (JMSBindingConstants.CREATE_ALWAYS.equals(create)) {
     		return;
@@ -1131,7 +1199,15 @@ public class JMSBindingProcessor extends BaseStAXArtifactProcessor implements St
         writeStart(writer, Constants.SCA11_NS, JMSBindingConstants.BINDING_JMS,
                    new XAttr("requestConnection", jmsBinding.getRequestConnectionName()),
                    new XAttr("responseConnection", jmsBinding.getResponseConnectionName()),
-                   new XAttr("operationProperties", jmsBinding.getOperationPropertiesName()));
+                   new XAttr("operationProperties", jmsBinding.getOperationPropertiesName()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "sessionPoolMaxSize", jmsBinding.getSessionPoolMaxSize()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "sessionPoolIdleTimeout",
+                             jmsBinding.getSessionPoolIdleTimeout() == null ? null : jmsBinding.getSessionPoolIdleTimeout().toString()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "sessionPoolMaxWait",
+                             jmsBinding.getSessionPoolMaxWait() == null ? null : jmsBinding.getSessionPoolMaxWait().toString()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "sharedReplyConsumer", jmsBinding.getSharedReplyConsumer()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "concurrentConsumers", jmsBinding.getConcurrentConsumers()),
+                   new XAttr(Base.SCA11_TUSCANY_NS, "maxMessagesPerTask", jmsBinding.getMaxMessagesPerTask()));
 
         if (jmsBinding.getName() != null) {
             writer.writeAttribute("name", jmsBinding.getName());
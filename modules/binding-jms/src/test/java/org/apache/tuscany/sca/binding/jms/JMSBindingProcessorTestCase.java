@@ -391,6 +391,39 @@ public class JMSBindingProcessorTestCase extends TestCase {
             + " </component>"
             + "</composite>";
 
+    public static final String SESSION_POOL =
+        "<?xml version=\"1.0\" encoding=\"ASCII\"?>" 
+        + "<composite xmlns=\"http://docs.oasis-open.org/ns/opencsa/sca/200912\" xmlns:t=\"http://tuscany.apache.org/xmlns/sca/1.1\" targetNamespace=\"http://binding-jms\" name=\"binding-jms\">"
+            + " <component name=\"HelloWorldComponent\">"
+            + "   <implementation.java class=\"services.HelloWorld\"/>"
+            + "      <reference name=\"helloWorld\">"
+            + "          <binding.jms uri=\"jms:testQueue\" t:sessionPoolMaxSize=\"5\" t:sessionPoolIdleTimeout=\"30000\" t:sessionPoolMaxWait=\"2000\" />"
+            + "      </reference>"
+            + " </component>"
+            + "</composite>";
+
+    public static final String SHARED_REPLY_CONSUMER =
+        "<?xml version=\"1.0\" encoding=\"ASCII\"?>" 
+        + "<composite xmlns=\"http://docs.oasis-open.org/ns/opencsa/sca/200912\" xmlns:t=\"http://tuscany.apache.org/xmlns/sca/1.1\" targetNamespace=\"http://binding-jms\" name=\"binding-jms\">"
+            + " <component name=\"HelloWorldComponent\">"
+            + "   <implementation.java class=\"services.HelloWorld\"/>"
+            + "      <reference name=\"helloWorld\">"
+            + "          <binding.jms uri=\"jms:testQueue\" t:sharedReplyConsumer=\"true\" />"
+            + "      </reference>"
+            + " </component>"
+            + "</composite>";
+
+    public static final String CONSUMERS =
+        "<?xml version=\"1.0\" encoding=\"ASCII\"?>" 
+        + "<composite xmlns=\"http://docs.oasis-open.org/ns/opencsa/sca/200912\" xmlns:t=\"http://tuscany.apache.org/xmlns/sca/1.1\" targetNamespace=\"http://binding-jms\" name=\"binding-jms\">"
+            + " <component name=\"HelloWorldComponent\">"
+            + "   <implementation.java class=\"services.HelloWorld\"/>"
+            + "      <service name=\"HelloWorldService\">"
+            + "          <binding.jms uri=\"jms:testQueue\" t:concurrentConsumers=\"4\" t:maxMessagesPerTask=\"10\" />"
+            + "      </service>"
+            + " </component>"
+            + "</composite>";
+
     private XMLInputFactory inputFactory;
     private StAXArtifactProcessor<Object> staxProcessor;
     private ProcessorContext context;
@@ -770,4 +803,39 @@ public class JMSBindingProcessorTestCase extends TestCase {
         assertNotNull(binding);
         assertEquals( "foo", binding.getOperationPropertiesName().getLocalPart() );
     }
+
+    public void testSessionPool() throws Exception {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(SESSION_POOL));
+        
+        Composite composite = (Composite)staxProcessor.read(reader, context);
+        JMSBinding binding = (JMSBinding)   composite.getComponents().get(0).getReferences().get(0).getBindings().get(0);
+        
+        assertNotNull(binding);
+        assertEquals(5, binding.getSessionPoolMaxSize().intValue());
+        assertEquals(30000, binding.getSessionPoolIdleTimeout().longValue());
+        assertEquals(2000, binding.getSessionPoolMaxWait().longValue());
+        assertTrue(binding.getAttributeExtensions().isEmpty());
+    }
+
+    public void testSharedReplyConsumer() throws Exception {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(SHARED_REPLY_CONSUMER));
+        
+        Composite composite = (Composite)staxProcessor.read(reader, context);
+        JMSBinding binding = (JMSBinding)   composite.getComponents().get(0).getReferences().get(0).getBindings().get(0);
+        
+        assertNotNull(binding);
+        assertTrue(binding.getSharedReplyConsumer());
+        assertTrue(binding.getAttributeExtensions().isEmpty());
+    }
+
+    public void testConsumers() throws Exception {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(CONSUMERS));
+        
+        Composite composite = (Composite)staxProcessor.read(reader, context);
+        JMSBinding binding = (JMSBinding)   composite.getComponents().get(0).getServices().get(0).getBindings().get(0);
+        
+        assertNotNull(binding);
+        assertEquals(4, binding.getConcurrentConsumers().intValue());
+        assertEquals(10, binding.getMaxMessagesPerTask().intValue());
+    }
 }
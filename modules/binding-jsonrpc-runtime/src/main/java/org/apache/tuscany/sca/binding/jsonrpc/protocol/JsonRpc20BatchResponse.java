@@ -39,7 +39,10 @@ public class JsonRpc20BatchResponse {
     public ArrayNode toJSONArray() {
         ArrayNode jsonArray = JsonNodeFactory.instance.arrayNode();
         for (JsonRpcResponse result : results) {
-            jsonArray.add(result.getJsonNode());
+            // No response for a notification
+            if (result != null) {
+                jsonArray.add(result.getJsonNode());
+            }
         }
         return jsonArray;
     }
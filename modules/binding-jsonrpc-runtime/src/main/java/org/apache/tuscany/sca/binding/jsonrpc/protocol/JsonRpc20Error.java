@@ -43,6 +43,9 @@ public class JsonRpc20Error extends JsonRpcResponse {
 
     // -32099 to -32000        Server error    Reserved for implementation-defined server-errors.
 
+    public static final int BATCH_TIMEOUT = -32000;
+    public static final String BATCH_TIMEOUT_MSG = "Server error: The batch timed out before the request completed.";
+
     public JsonRpc20Error(JsonNode id, Throwable t) {
         super(id, t);
         this.jsonNode.put("jsonrpc", "2.0");
@@ -20,11 +20,14 @@
 package org.apache.tuscany.sca.binding.jsonrpc.protocol;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 
 import org.apache.tuscany.sca.databinding.json.jackson.JacksonHelper;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.node.JsonNodeFactory;
 import org.codehaus.jackson.node.ObjectNode;
@@ -85,6 +88,15 @@ public abstract class JsonRpcResponse {
         JacksonHelper.MAPPER.writeValue(writer, jsonNode);
     }
 
+    /**
+     * Write the response as UTF-8 JSON with a generator on the stream, the stream is flushed but not closed
+     */
+    public void write(OutputStream os) throws IOException {
+        JsonGenerator generator = JacksonHelper.getJsonFactory().createJsonGenerator(os, JsonEncoding.UTF8);
+        generator.writeTree(jsonNode);
+        generator.flush();
+    }
+
     public static String stackTrace(Throwable t) {
         StringWriter sw = new StringWriter();
         t.printStackTrace(new PrintWriter(sw));
@@ -19,9 +19,12 @@
 
 package org.apache.tuscany.sca.binding.jsonrpc.provider;
 
+import java.util.Properties;
+
 import org.apache.tuscany.sca.binding.jsonrpc.JSONRPCBinding;
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
 import org.apache.tuscany.sca.core.FactoryExtensionPoint;
+import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.host.http.ServletHost;
 import org.apache.tuscany.sca.host.http.ServletHostHelper;
 import org.apache.tuscany.sca.host.http.client.HttpClientFactory;
@@ -31,6 +34,8 @@ import org.apache.tuscany.sca.provider.ReferenceBindingProvider;
 import org.apache.tuscany.sca.provider.ServiceBindingProvider;
 import org.apache.tuscany.sca.runtime.RuntimeEndpoint;
 import org.apache.tuscany.sca.runtime.RuntimeEndpointReference;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
+import org.apache.tuscany.sca.work.WorkScheduler;
 
 /**
  * JSON-RPC Provider Factory
@@ -39,15 +44,41 @@ import org.apache.tuscany.sca.runtime.RuntimeEndpointReference;
  */
 public class JSONRPCBindingProviderFactory implements BindingProviderFactory<JSONRPCBinding> {
 
+    /**
+     * The runtime property setting how many requests of a JSON-RPC 2.0 batch are invoked at once,
+     * the requests are invoked one after the other by default
+     */
+    public static final String BATCH_CONCURRENCY = "org.apache.tuscany.sca.binding.jsonrpc.batchConcurrency";
+
+    /**
+     * The runtime property setting the time in milliseconds given to a batch invoked concurrently,
+     * the requests which haven't completed then get an error response
+     */
+    public static final String BATCH_TIMEOUT = "org.apache.tuscany.sca.binding.jsonrpc.batchTimeout";
+
     private MessageFactory messageFactory;
     private ServletHost servletHost;
     private HttpClientFactory httpClientFactory;
+    private WorkScheduler workScheduler;
+    private int batchConcurrency = 1;
+    private long batchTimeout;
 
     public JSONRPCBindingProviderFactory(ExtensionPointRegistry extensionPoints) {
         this.servletHost = ServletHostHelper.getServletHost(extensionPoints);
         FactoryExtensionPoint modelFactories = extensionPoints.getExtensionPoint(FactoryExtensionPoint.class);
         messageFactory = modelFactories.getFactory(MessageFactory.class);
         this.httpClientFactory = HttpClientFactory.getInstance(extensionPoints);
+
+        UtilityExtensionPoint utilities = extensionPoints.getExtensionPoint(UtilityExtensionPoint.class);
+        RuntimeProperties runtimeProperties = utilities.getUtility(RuntimeProperties.class);
+        Properties properties = runtimeProperties == null ? null : runtimeProperties.getProperties();
+        if (properties != null) {
+            batchConcurrency = Integer.parseInt(properties.getProperty(BATCH_CONCURRENCY, "1").trim());
+            batchTimeout = Long.parseLong(properties.getProperty(BATCH_TIMEOUT, "0").trim());
+        }
+        if (batchConcurrency > 1) {
+            this.workScheduler = utilities.getUtility(WorkScheduler.class);
+        }
     }
     
     public ReferenceBindingProvider createReferenceBindingProvider(RuntimeEndpointReference endpointReference) {
@@ -56,7 +87,8 @@ public class JSONRPCBindingProviderFactory implements BindingProviderFactory<JSO
     }
 
     public ServiceBindingProvider createServiceBindingProvider(RuntimeEndpoint endpoint) {
-        return new JSONRPCServiceBindingProvider(endpoint, messageFactory, servletHost);
+        return new JSONRPCServiceBindingProvider(endpoint, messageFactory, servletHost, workScheduler,
+                                                 batchConcurrency, batchTimeout);
     }
 
     public Class<JSONRPCBinding> getModelType() {
@@ -34,6 +34,7 @@ import org.apache.tuscany.sca.provider.ServiceBindingProvider;
 import org.apache.tuscany.sca.runtime.RuntimeComponent;
 import org.apache.tuscany.sca.runtime.RuntimeComponentService;
 import org.apache.tuscany.sca.runtime.RuntimeEndpoint;
+import org.apache.tuscany.sca.work.WorkScheduler;
 
 
 /**
@@ -51,10 +52,25 @@ public class JSONRPCServiceBindingProvider implements ServiceBindingProvider {
     private JSONRPCBinding binding;
     private ServletHost servletHost;
     private List<String> servletMappings = new ArrayList<String>();
+    private WorkScheduler workScheduler;
+    private int batchConcurrency = 1;
+    private long batchTimeout;
 
     public JSONRPCServiceBindingProvider(RuntimeEndpoint endpoint,
                                          MessageFactory messageFactory,
                                          ServletHost servletHost) {
+        this(endpoint, messageFactory, servletHost, null, 1, 0);
+    }
+
+    public JSONRPCServiceBindingProvider(RuntimeEndpoint endpoint,
+                                         MessageFactory messageFactory,
+                                         ServletHost servletHost,
+                                         WorkScheduler workScheduler,
+                                         int batchConcurrency,
+                                         long batchTimeout) {
+        this.workScheduler = workScheduler;
+        this.batchConcurrency = batchConcurrency;
+        this.batchTimeout = batchTimeout;
         this.endpoint = endpoint;
         this.component = (RuntimeComponent)endpoint.getComponent();
         this.service = (RuntimeComponentService)endpoint.getService();
@@ -94,6 +110,9 @@ public class JSONRPCServiceBindingProvider implements ServiceBindingProvider {
         // Create and register a Servlet for this service
         JsonRpcServlet serviceServlet =
             new JsonRpcServlet(messageFactory, endpoint, serviceInterface, proxy);
+        if (workScheduler != null && batchConcurrency > 1) {
+            serviceServlet.setBatchExecution(workScheduler, batchConcurrency, batchTimeout);
+        }
         String mapping = registerServlet(serviceServlet);
         servletMappings.add(mapping);
     }
@@ -20,10 +20,10 @@
 package org.apache.tuscany.sca.binding.jsonrpc.provider;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.util.List;
 import java.util.UUID;
 
@@ -50,9 +50,11 @@ import org.apache.tuscany.sca.invocation.DataExchangeSemantics;
 import org.apache.tuscany.sca.invocation.Invoker;
 import org.apache.tuscany.sca.invocation.Message;
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.type.TypeFactory;
-import org.codehaus.jackson.node.NullNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
 import org.codehaus.jackson.node.ObjectNode;
 import org.oasisopen.sca.ServiceRuntimeException;
 
@@ -127,42 +129,14 @@ public class JsonRpcInvoker implements Invoker, DataExchangeSemantics {
                     //success 
 
                     entity = response.getEntity();
-                    String entityResponse = EntityUtils.toString(entity);
-                    // entity.consumeContent();
                     if (!db.equals(JSONDataBinding.NAME)) {
-                        ObjectNode jsonResponse = (ObjectNode)JacksonHelper.MAPPER.readTree(entityResponse);
-
-                        if (jsonResponse.has("error") && jsonResponse.get("error") != NullNode.instance) {
-                            processException(jsonResponse);
-                        }
                         DataType<List<DataType>> outputType = operation.getOutputType();
                         DataType returnType =
                             (outputType != null && !outputType.getLogical().isEmpty()) ? outputType.getLogical().get(0)
                                 : null;
-
-                        if (returnType == null) {
-                            msg.setBody(null);
-                            return msg;
-                        }
-
-                        //check requestId
-                        if (!requestId.equalsIgnoreCase(jsonResponse.get("id").getTextValue())) {
-                            throw new ServiceRuntimeException("Invalid response id:" + requestId);
-                        }
-
-                        JsonNode rawResult = jsonResponse.get("result");
-
-                        Class<?> returnClass = returnType.getPhysical();
-                        Type genericReturnType = returnType.getGenericType();
-
-                        ObjectMapper mapper = createObjectMapper(returnClass);
-                        String json = mapper.writeValueAsString(rawResult);
-
-                        Object body = mapper.readValue(json, TypeFactory.type(genericReturnType));
-
-                        msg.setBody(body);
+                        msg.setBody(readResponse(entity.getContent(), requestId, returnType));
                     } else {
-                        msg.setBody(entityResponse);
+                        msg.setBody(EntityUtils.toString(entity));
                     }
 
                 } else {
@@ -186,6 +160,55 @@ public class JsonRpcInvoker implements Invoker, DataExchangeSemantics {
         return msg;
     }
 
+    /**
+     * Read the JSON-RPC response from the stream, the result is bound to the return type as it's parsed
+     * rather than going through a tree
+     * @return The result
+     */
+    private Object readResponse(InputStream is, String requestId, DataType returnType) throws Throwable {
+        ObjectMapper mapper =
+            returnType == null ? JacksonHelper.MAPPER : JacksonHelper.getObjectMapper(returnType.getPhysical());
+        JsonParser parser = mapper.getJsonFactory().createJsonParser(is);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ServiceRuntimeException("Invalid JSON-RPC response");
+            }
+            String id = null;
+            JsonNode error = null;
+            Object result = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if ("id".equals(name)) {
+                    id = parser.getText();
+                } else if ("error".equals(name)) {
+                    error = mapper.readTree(parser);
+                } else if ("result".equals(name) && returnType != null) {
+                    result = mapper.readValue(parser, TypeFactory.type(returnType.getGenericType()));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (error != null && !error.isNull()) {
+                ObjectNode jsonResponse = JsonNodeFactory.instance.objectNode();
+                jsonResponse.put("error", error);
+                processException(jsonResponse);
+            }
+            if (returnType == null) {
+                return null;
+            }
+
+            //check requestId
+            if (!requestId.equalsIgnoreCase(id)) {
+                throw new ServiceRuntimeException("Invalid response id:" + requestId);
+            }
+            return result;
+        } finally {
+            parser.close();
+        }
+    }
+
     public static ObjectMapper createObjectMapper(Class<?> cls) {
         return JacksonHelper.createObjectMapper(cls);
     }
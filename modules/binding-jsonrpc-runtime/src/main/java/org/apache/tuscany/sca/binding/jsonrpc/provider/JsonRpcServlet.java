@@ -23,7 +23,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.security.auth.login.LoginException;
 import javax.servlet.ServletException;
@@ -47,6 +52,7 @@ import org.apache.tuscany.sca.interfacedef.Operation;
 import org.apache.tuscany.sca.invocation.Message;
 import org.apache.tuscany.sca.invocation.MessageFactory;
 import org.apache.tuscany.sca.runtime.RuntimeEndpoint;
+import org.apache.tuscany.sca.work.WorkScheduler;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.node.ArrayNode;
 import org.codehaus.jackson.node.JsonNodeFactory;
@@ -63,6 +69,9 @@ public class JsonRpcServlet extends HttpServlet {
     transient Object serviceInstance;
     transient RuntimeEndpoint endpoint;
     transient Class<?> serviceInterface;
+    transient WorkScheduler workScheduler;
+    transient int batchConcurrency = 1;
+    transient long batchTimeout;
 
     public JsonRpcServlet(MessageFactory messageFactory,
                           RuntimeEndpoint endpoint,
@@ -76,6 +85,19 @@ public class JsonRpcServlet extends HttpServlet {
         this.serviceInstance = serviceInstance;
     }
 
+    /**
+     * Invoke the requests of a JSON-RPC 2.0 batch concurrently
+     * @param workScheduler The scheduler running the requests
+     * @param concurrency The maximum number of requests of a batch invoked at once
+     * @param timeout The time in milliseconds given to a batch, the requests which haven't completed then
+     *        get an error response, 0 to wait for all the requests
+     */
+    public void setBatchExecution(WorkScheduler workScheduler, int concurrency, long timeout) {
+        this.workScheduler = workScheduler;
+        this.batchConcurrency = concurrency;
+        this.batchTimeout = timeout;
+    }
+
     @Override
     protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException,
         IOException {
@@ -117,23 +139,29 @@ public class JsonRpcServlet extends HttpServlet {
 
             //parse the GET QueryString
             try {
-                String params =
-                    new String(Base64.decodeBase64(URLDecoder.decode(request.getParameter("params"), charset)
-                        .getBytes()));
-                StringBuilder sb = new StringBuilder();
-                sb.append("{");
-                sb.append("\"method\": \"" + request.getParameter("method") + "\",");
-                sb.append("\"params\": " + params + ",");
-                sb.append("\"id\":" + request.getParameter("id"));
-                sb.append("}");
-
-                root = JacksonHelper.MAPPER.readTree(sb.toString());
+                // Only the params and the id are JSON, the request is assembled around them
+                byte[] params =
+                    Base64.decodeBase64(URLDecoder.decode(request.getParameter("params"), charset).getBytes());
+                String id = request.getParameter("id");
+                ObjectNode req = JsonNodeFactory.instance.objectNode();
+                req.put("method", request.getParameter("method"));
+                req.put("params", JacksonHelper.MAPPER.readTree(JacksonHelper.MAPPER.getJsonFactory()
+                    .createJsonParser(params)));
+                req.put("id", id == null ? JsonNodeFactory.instance.nullNode() : JacksonHelper.MAPPER.readTree(id));
+                root = req;
             } catch (Throwable e) {
                 JsonRpc10Response error =
                     new JsonRpc10Response(JsonNodeFactory.instance.textNode(request.getParameter("id")), e);
-                error.write(response.getWriter());
+                error.write(getOutputStream(response));
                 return;
             }
+        } else if ("UTF-8".equalsIgnoreCase(charset)) {
+            // The request is read as a tree: the operation's parameters are JsonNode on the binding contract
+            // (see JSONRPCDatabindingHelper) and are bound to Java by the invocation chain's databinding, and
+            // "method" may come after "params" so the target types aren't known while the params are parsed
+
+            // Let the parser decode the bytes
+            root = JacksonHelper.MAPPER.readTree(request.getInputStream());
         } else {
             root = JacksonHelper.MAPPER.readTree(request.getReader());
         }
@@ -142,27 +170,43 @@ public class JsonRpcServlet extends HttpServlet {
             if (root.isArray()) {
                 ArrayNode input = (ArrayNode)root;
                 JsonRpc20BatchRequest batchReq = new JsonRpc20BatchRequest(input);
-                for (int i = 0; i < batchReq.getRequests().size(); i++) {
-                    JsonRpcResponse result = batchReq.getBatchResponse().getResponses().get(i);
-                    if (result == null) {
-                        result = invoke(batchReq.getRequests().get(i));
-                        batchReq.getBatchResponse().getResponses().set(i, result);
+                // The responses of the invalid requests are already set, the others are set in order
+                List<Integer> positions = new ArrayList<Integer>();
+                List<JsonRpcResponse> results = batchReq.getBatchResponse().getResponses();
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i) == null) {
+                        positions.add(i);
                     }
                 }
+                List<JsonRpcResponse> invoked;
+                if (workScheduler != null && batchConcurrency > 1 && positions.size() > 1) {
+                    invoked = invokeConcurrently(batchReq.getRequests());
+                } else {
+                    invoked = new ArrayList<JsonRpcResponse>();
+                    for (JsonRpc20Request req : batchReq.getRequests()) {
+                        invoked.add(invoke(req));
+                    }
+                }
+                for (int i = 0; i < positions.size(); i++) {
+                    results.set(positions.get(i), invoked.get(i));
+                }
                 ArrayNode responses = batchReq.getBatchResponse().toJSONArray();
-                JacksonHelper.MAPPER.writeValue(response.getWriter(), responses);
+                // Nothing is returned for a batch of notifications
+                if (responses.size() > 0) {
+                    JacksonHelper.write(responses, getOutputStream(response));
+                }
             } else {
                 if (root.has("jsonrpc")) {
                     JsonRpc20Request jsonReq = new JsonRpc20Request((ObjectNode)root);
                     JsonRpcResponse jsonResult = invoke(jsonReq);
                     if (jsonResult != null) {
-                        jsonResult.write(response.getWriter());
+                        jsonResult.write(getOutputStream(response));
                     }
                 } else {
                     JsonRpc10Request jsonReq = new JsonRpc10Request((ObjectNode)root);
                     JsonRpc10Response jsonResult = invoke(jsonReq);
                     if (jsonResult != null) {
-                        jsonResult.write(response.getWriter());
+                        jsonResult.write(getOutputStream(response));
                     }
                 }
             }
@@ -171,6 +215,94 @@ public class JsonRpcServlet extends HttpServlet {
         }
     }
 
+    /**
+     * The responses are written as UTF-8 JSON straight to the output stream
+     */
+    private static OutputStream getOutputStream(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json;charset=utf-8");
+        return response.getOutputStream();
+    }
+
+    /**
+     * Invoke the requests of a batch with the work scheduler, at most batchConcurrency at once
+     * @return The responses in the order of the requests
+     */
+    private List<JsonRpcResponse> invokeConcurrently(List<JsonRpc20Request> requests) throws Exception {
+        int size = requests.size();
+        final AtomicReferenceArray<JsonRpcResponse> responses = new AtomicReferenceArray<JsonRpcResponse>(size);
+        final AtomicReferenceArray<Throwable> failures = new AtomicReferenceArray<Throwable>(size);
+        final CountDownLatch done = new CountDownLatch(size);
+        final Semaphore permits = new Semaphore(batchConcurrency);
+        long deadline = batchTimeout > 0 ? System.currentTimeMillis() + batchTimeout : Long.MAX_VALUE;
+
+        int scheduled = 0;
+        for (; scheduled < size; scheduled++) {
+            final int index = scheduled;
+            final JsonRpc20Request request = requests.get(index);
+            if (request.isNotification()) {
+                done.countDown();
+                continue;
+            }
+            if (!acquire(permits, deadline)) {
+                break;
+            }
+            try {
+                workScheduler.scheduleWork(new Runnable() {
+                    public void run() {
+                        try {
+                            responses.compareAndSet(index, null, invoke(request));
+                        } catch (Throwable e) {
+                            failures.set(index, e);
+                        } finally {
+                            permits.release();
+                            done.countDown();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        if (scheduled == size) {
+            long timeout = deadline - System.currentTimeMillis();
+            if (deadline == Long.MAX_VALUE) {
+                done.await();
+            } else if (timeout > 0) {
+                done.await(timeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        List<JsonRpcResponse> results = new ArrayList<JsonRpcResponse>(size);
+        for (int i = 0; i < size; i++) {
+            Throwable failure = failures.get(i);
+            if (failure instanceof Exception) {
+                throw (Exception)failure;
+            } else if (failure instanceof Error) {
+                throw (Error)failure;
+            }
+            JsonRpc20Request request = requests.get(i);
+            if (!request.isNotification()) {
+                // A request which hasn't completed by the deadline gets an error, a late response is discarded
+                JsonRpc20Error timedOut =
+                    new JsonRpc20Error(request.getId(), JsonRpc20Error.BATCH_TIMEOUT, JsonRpc20Error.BATCH_TIMEOUT_MSG,
+                                       null);
+                responses.compareAndSet(i, null, timedOut);
+            }
+            results.add(responses.get(i));
+        }
+        return results;
+    }
+
+    private static boolean acquire(Semaphore permits, long deadline) throws InterruptedException {
+        if (deadline == Long.MAX_VALUE) {
+            permits.acquire();
+            return true;
+        }
+        long timeout = deadline - System.currentTimeMillis();
+        return timeout > 0 && permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+    }
+
     private JsonRpcResponse invoke(JsonRpc20Request request) throws Exception {
         if (request.isNotification()) {
             return null;
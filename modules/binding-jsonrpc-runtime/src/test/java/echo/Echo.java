@@ -67,4 +67,6 @@ public interface Echo {
     void get\u03a9\u03bb\u03c0();
 
     BigDecimal echoBigDecimal(BigDecimal param);
+
+    String echoDelayed(String msg, int delay);
 }
@@ -98,5 +98,9 @@ public class EchoClientImpl implements Echo {
         return echoReference.echoBigDecimal(param);
     }
 
+    public String echoDelayed(String msg, int delay) {
+        return echoReference.echoDelayed(msg, delay);
+    }
+
 
 }
@@ -118,4 +118,13 @@ public class EchoComponentImpl implements Echo {
     public BigDecimal echoBigDecimal(BigDecimal param) {
         return param;
     }
+
+    public String echoDelayed(String msg, int delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "echo: " + msg;
+    }
 }
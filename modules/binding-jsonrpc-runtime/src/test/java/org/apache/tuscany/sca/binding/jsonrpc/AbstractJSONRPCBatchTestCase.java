@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jsonrpc;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.binding.jsonrpc.protocol.JsonRpc20Error;
+import org.apache.tuscany.sca.node.Node;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.meterware.httpunit.PostMethodWebRequest;
+import com.meterware.httpunit.WebConversation;
+import com.meterware.httpunit.WebRequest;
+import com.meterware.httpunit.WebResponse;
+
+/**
+ * The JSON-RPC 2.0 batch tests, run with the requests of a batch invoked one after the other and concurrently
+ *
+ * @version $Rev$ $Date$
+ */
+public abstract class AbstractJSONRPCBatchTestCase {
+
+    protected static String SERVICE20_URL;
+
+    protected static Node node;
+
+    protected static void startNode(Node newNode) {
+        node = newNode;
+        node.start();
+        SERVICE20_URL = node.getEndpointAddress("EchoComponent/Echo/jsonrpc20");
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        node.stop();
+    }
+
+    @Test
+    public void testBatchOrder() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        // The first requests take longer so that they complete last when invoked concurrently
+        batchReq.put(request("echoDelayed", "[\"1\", 300]", "1"));
+        batchReq.put(request("echoDelayed", "[\"2\", 200]", "2"));
+        batchReq.put(request("echo", "[\"3\"]", "3"));
+
+        JSONArray jsonResp = new JSONArray(post(batchReq));
+        Assert.assertEquals(3, jsonResp.length());
+        for (int i = 0; i < 3; i++) {
+            JSONObject resp = jsonResp.getJSONObject(i);
+            Assert.assertEquals(String.valueOf(i + 1), resp.getString("id"));
+            Assert.assertEquals("echo: " + (i + 1), resp.getString("result"));
+        }
+    }
+
+    @Test
+    public void testBatchWithNotifications() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        batchReq.put(request("echo", "[\"1\"]", "1"));
+        batchReq.put(request("echo", "[\"notification\"]", null));
+        batchReq.put(request("echo", "[\"2\"]", "2"));
+        batchReq.put(request("echoVoid", "[]", null));
+
+        // No response for the notifications
+        JSONArray jsonResp = new JSONArray(post(batchReq));
+        Assert.assertEquals(2, jsonResp.length());
+        Assert.assertEquals("echo: 1", jsonResp.getJSONObject(0).getString("result"));
+        Assert.assertEquals("echo: 2", jsonResp.getJSONObject(1).getString("result"));
+    }
+
+    @Test
+    public void testBatchOfNotifications() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        batchReq.put(request("echo", "[\"1\"]", null));
+        batchReq.put(request("echo", "[\"2\"]", null));
+
+        // Nothing is returned for a batch of notifications
+        Assert.assertEquals("", post(batchReq).trim());
+    }
+
+    @Test
+    public void testBatchWithErrors() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        batchReq.put(request("echo", "[\"1\"]", "1"));
+        batchReq.put(request("echoRuntimeException", "[]", "2"));
+        batchReq.put(1);
+        batchReq.put(request("echo", "[\"4\"]", "4"));
+
+        // Each request gets its own response, in the order of the batch
+        JSONArray jsonResp = new JSONArray(post(batchReq));
+        Assert.assertEquals(4, jsonResp.length());
+        Assert.assertEquals("echo: 1", jsonResp.getJSONObject(0).getString("result"));
+        Assert.assertEquals("2", jsonResp.getJSONObject(1).getString("id"));
+        Assert.assertTrue(jsonResp.getJSONObject(1).has("error"));
+        Assert.assertEquals(JsonRpc20Error.INVALID_REQUEST, jsonResp.getJSONObject(2).getJSONObject("error").getInt("code"));
+        Assert.assertEquals("echo: 4", jsonResp.getJSONObject(3).getString("result"));
+    }
+
+    protected static JSONObject request(String method, String params, String id) throws Exception {
+        JSONObject request = new JSONObject("{ \"jsonrpc\": \"2.0\", \"method\": \"" + method + "\", \"params\": " + params + "}");
+        if (id != null) {
+            request.put("id", id);
+        }
+        return request;
+    }
+
+    protected static String post(JSONArray batchReq) throws Exception {
+        WebConversation wc = new WebConversation();
+        WebRequest request   = new PostMethodWebRequest( SERVICE20_URL, new ByteArrayInputStream(batchReq.toString().getBytes("UTF-8")),"application/json");
+        WebResponse response = wc.getResource(request);
+
+        Assert.assertEquals(200, response.getResponseCode());
+        return response.getText();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jsonrpc;
+
+import org.apache.tuscany.sca.node.Contribution;
+import org.apache.tuscany.sca.node.ContributionLocationHelper;
+import org.apache.tuscany.sca.node.NodeFactory;
+import org.junit.BeforeClass;
+
+/**
+ * Tests the JSON-RPC 2.0 batches with the requests invoked one after the other, the default
+ *
+ * @version $Rev$ $Date$
+ */
+public class JSONRPCBatchTestCase extends AbstractJSONRPCBatchTestCase {
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        String contribution = ContributionLocationHelper.getContributionLocation(JSONRPCBatchTestCase.class);
+        startNode(NodeFactory.newInstance().createNode("JSONRPCBinding.composite", new Contribution("test", contribution)));
+    }
+}
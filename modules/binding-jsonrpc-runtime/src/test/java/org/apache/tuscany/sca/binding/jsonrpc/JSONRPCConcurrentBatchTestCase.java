@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.binding.jsonrpc;
+
+import java.util.Properties;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.binding.jsonrpc.protocol.JsonRpc20Error;
+import org.apache.tuscany.sca.binding.jsonrpc.provider.JSONRPCBindingProviderFactory;
+import org.apache.tuscany.sca.node.Contribution;
+import org.apache.tuscany.sca.node.ContributionLocationHelper;
+import org.apache.tuscany.sca.node.NodeFactory;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the JSON-RPC 2.0 batches with the requests invoked concurrently
+ *
+ * @version $Rev$ $Date$
+ */
+public class JSONRPCConcurrentBatchTestCase extends AbstractJSONRPCBatchTestCase {
+
+    private static final long BATCH_TIMEOUT = 2000;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(JSONRPCBindingProviderFactory.BATCH_CONCURRENCY, "4");
+        properties.setProperty(JSONRPCBindingProviderFactory.BATCH_TIMEOUT, String.valueOf(BATCH_TIMEOUT));
+        String contribution = ContributionLocationHelper.getContributionLocation(JSONRPCConcurrentBatchTestCase.class);
+        startNode(NodeFactory.newInstance(properties).createNode("JSONRPCBinding.composite", new Contribution("test", contribution)));
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        for (int i = 0; i < 4; i++) {
+            batchReq.put(request("echoDelayed", "[\"" + i + "\", 500]", String.valueOf(i)));
+        }
+
+        // Invoked one after the other, the requests would take 2 seconds and miss the deadline
+        long start = System.currentTimeMillis();
+        JSONArray jsonResp = new JSONArray(post(batchReq));
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertEquals(4, jsonResp.length());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("echo: " + i, jsonResp.getJSONObject(i).getString("result"));
+        }
+        Assert.assertTrue("elapsed " + elapsed, elapsed < BATCH_TIMEOUT);
+    }
+
+    @Test
+    public void testBatchTimeout() throws Exception {
+        JSONArray batchReq = new JSONArray();
+        batchReq.put(request("echo", "[\"1\"]", "1"));
+        batchReq.put(request("echoDelayed", "[\"2\", " + (BATCH_TIMEOUT * 3) + "]", "2"));
+        batchReq.put(request("echo", "[\"3\"]", "3"));
+
+        // The request which hasn't completed by the deadline gets an error, the others their result
+        long start = System.currentTimeMillis();
+        JSONArray jsonResp = new JSONArray(post(batchReq));
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertEquals(3, jsonResp.length());
+        Assert.assertEquals("echo: 1", jsonResp.getJSONObject(0).getString("result"));
+        JSONObject timedOut = jsonResp.getJSONObject(1);
+        Assert.assertEquals("2", timedOut.getString("id"));
+        Assert.assertEquals(JsonRpc20Error.BATCH_TIMEOUT, timedOut.getJSONObject("error").getInt("code"));
+        Assert.assertEquals("echo: 3", jsonResp.getJSONObject(2).getString("result"));
+        Assert.assertTrue("elapsed " + elapsed, elapsed < BATCH_TIMEOUT * 3);
+    }
+}
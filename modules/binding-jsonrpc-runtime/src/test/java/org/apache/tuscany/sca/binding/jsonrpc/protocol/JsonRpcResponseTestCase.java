@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.binding.jsonrpc.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.databinding.json.jackson.JacksonHelper;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.junit.Test;
+
+public class JsonRpcResponseTestCase {
+
+    @Test
+    public void testWriteOutputStream() throws Exception {
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.put("name", "Caf\u00e9 \u4e2d\u6587");
+        result.put("count", 2);
+        JsonRpc20Response response = new JsonRpc20Response(JsonNodeFactory.instance.numberNode(1), result);
+
+        CloseTrackingOutputStream os = new CloseTrackingOutputStream();
+        response.write(os);
+        Assert.assertFalse(os.closed);
+
+        JsonNode node = JacksonHelper.MAPPER.readTree(new String(os.toByteArray(), "UTF-8"));
+        Assert.assertEquals("2.0", node.get("jsonrpc").getTextValue());
+        Assert.assertEquals(1, node.get("id").getIntValue());
+        Assert.assertEquals(result, node.get("result"));
+    }
+
+    @Test
+    public void testWriteOutputStreamMatchesWriter() throws Exception {
+        JsonRpc20Response response =
+            new JsonRpc20Response(JsonNodeFactory.instance.textNode("a"), JsonNodeFactory.instance.textNode("\u00e9"));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        response.write(os);
+        StringWriter sw = new StringWriter();
+        response.write(sw);
+        Assert.assertEquals(sw.toString(), new String(os.toByteArray(), "UTF-8"));
+    }
+
+    private static class CloseTrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
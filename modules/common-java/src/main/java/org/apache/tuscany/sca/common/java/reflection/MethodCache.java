@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.common.java.reflection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache of the methods resolved on implementation classes, keyed by the class and by a key such as
+ * the operation, so that an invoker whose target instance can change between calls doesn't search
+ * the methods of the class for each call. The lookups don't lock, the methods of each class are kept
+ * in their own ConcurrentHashMap.
+ * <p>
+ * The classes are held weakly and the methods strongly. A Method references its declaring class, so a
+ * class stays in the cache as long as the cache holds a method it declares, while a class whose methods
+ * are inherited from another ClassLoader, such as a proxy or a subclass of an exported class, can be
+ * collected. The cache should have the lifetime of the component that uses it rather than be static.
+ *
+ * @version $Rev$ $Date$
+ */
+public final class MethodCache<K> {
+
+    /**
+     * Resolves the method for a key when it isn't in the cache
+     */
+    public interface MethodResolver<K> {
+        Method resolve(Class<?> implClass, K key) throws NoSuchMethodException;
+    }
+
+    private final MethodResolver<K> resolver;
+    private final ConcurrentMap<ClassKey, ConcurrentMap<K, Method>> methods =
+        new ConcurrentHashMap<ClassKey, ConcurrentMap<K, Method>>();
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<Class<?>>();
+
+    public MethodCache(MethodResolver<K> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Get the method for a key on a class, resolving it the first time
+     * @param implClass The implementation class
+     * @param key The key
+     * @return The method
+     * @throws NoSuchMethodException if the resolver doesn't find the method
+     */
+    public Method getMethod(Class<?> implClass, K key) throws NoSuchMethodException {
+        ConcurrentMap<K, Method> classMethods = methods.get(new ClassKey(implClass, null));
+        if (classMethods != null) {
+            Method method = classMethods.get(key);
+            if (method != null) {
+                return method;
+            }
+        } else {
+            expunge();
+            classMethods = new ConcurrentHashMap<K, Method>();
+            ConcurrentMap<K, Method> existing = methods.putIfAbsent(new ClassKey(implClass, collected), classMethods);
+            if (existing != null) {
+                classMethods = existing;
+            }
+        }
+
+        // Two threads may resolve the same method but get equal methods
+        Method method = resolver.resolve(implClass, key);
+        classMethods.put(key, method);
+        return method;
+    }
+
+    /**
+     * Remove the methods of a class
+     */
+    public void remove(Class<?> implClass) {
+        methods.remove(new ClassKey(implClass, null));
+    }
+
+    /**
+     * @return The number of classes in the cache
+     */
+    public int size() {
+        expunge();
+        return methods.size();
+    }
+
+    /**
+     * Remove the entries of the classes which have been collected
+     */
+    private void expunge() {
+        for (Reference<? extends Class<?>> ref = collected.poll(); ref != null; ref = collected.poll()) {
+            methods.remove(ref);
+        }
+    }
+
+    /**
+     * A weak key comparing the classes by identity, it's still equal to itself once the class is collected
+     */
+    private static final class ClassKey extends WeakReference<Class<?>> {
+        private final int hash;
+
+        ClassKey(Class<?> cls, ReferenceQueue<Class<?>> queue) {
+            super(cls, queue);
+            this.hash = System.identityHashCode(cls);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof ClassKey)) {
+                return false;
+            }
+            Class<?> cls = get();
+            return cls != null && cls == ((ClassKey)obj).get();
+        }
+    }
+}
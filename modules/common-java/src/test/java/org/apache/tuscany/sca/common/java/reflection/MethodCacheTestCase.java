@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.common.java.reflection;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test Case for MethodCache
+ */
+public class MethodCacheTestCase {
+
+    @Test
+    public void testGetMethod() throws Exception {
+        final AtomicInteger resolved = new AtomicInteger();
+        MethodCache<String> cache = new MethodCache<String>(new MethodCache.MethodResolver<String>() {
+            public Method resolve(Class<?> implClass, String name) throws NoSuchMethodException {
+                resolved.incrementAndGet();
+                return implClass.getMethod(name);
+            }
+        });
+
+        Method m = cache.getMethod(String.class, "length");
+        Assert.assertEquals("length", m.getName());
+        Assert.assertSame(m, cache.getMethod(String.class, "length"));
+        Assert.assertEquals(1, resolved.get());
+
+        // Another class, as for an OSGi service replaced by an instance of another class
+        Assert.assertEquals(StringBuilder.class, cache.getMethod(StringBuilder.class, "length").getDeclaringClass());
+        Assert.assertEquals(2, resolved.get());
+        Assert.assertEquals(2, cache.size());
+
+        cache.remove(String.class);
+        cache.getMethod(String.class, "length");
+        Assert.assertEquals(3, resolved.get());
+    }
+
+    @Test
+    public void testClassNotPinned() throws Exception {
+        MethodCache<String> cache = new MethodCache<String>(new MethodCache.MethodResolver<String>() {
+            public Method resolve(Class<?> implClass, String name) throws NoSuchMethodException {
+                return implClass.getMethod(name);
+            }
+        });
+        URL location = Target.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader classLoader = new URLClassLoader(new URL[] {location}, null);
+        Class<?> cls = classLoader.loadClass(Target.class.getName());
+        Assert.assertNotSame(Target.class, cls);
+        // The method is declared by Object, it doesn't reference the class loaded by the discarded ClassLoader
+        Method m = cache.getMethod(cls, "toString");
+        Assert.assertSame(Object.class, m.getDeclaringClass());
+        Assert.assertEquals(1, cache.size());
+
+        WeakReference<Class<?>> ref = new WeakReference<Class<?>>(cls);
+        m = null;
+        cls = null;
+        classLoader = null;
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Assert.assertNull(ref.get());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMethodKept() throws Exception {
+        final AtomicInteger resolved = new AtomicInteger();
+        MethodCache<String> cache = new MethodCache<String>(new MethodCache.MethodResolver<String>() {
+            public Method resolve(Class<?> implClass, String name) throws NoSuchMethodException {
+                resolved.incrementAndGet();
+                return implClass.getMethod(name);
+            }
+        });
+        int hash = System.identityHashCode(cache.getMethod(Target.class, "hello"));
+        System.gc();
+        Thread.sleep(50);
+
+        // Not resolved again after a collection
+        Assert.assertEquals(hash, System.identityHashCode(cache.getMethod(Target.class, "hello")));
+        Assert.assertEquals(1, resolved.get());
+    }
+
+    public static class Target {
+        public String hello() {
+            return "hello";
+        }
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoSuchMethod() throws Exception {
+        MethodCache<String> cache = new MethodCache<String>(new MethodCache.MethodResolver<String>() {
+            public Method resolve(Class<?> implClass, String name) throws NoSuchMethodException {
+                return implClass.getMethod(name);
+            }
+        });
+        cache.getMethod(String.class, "notthere");
+    }
+}
@@ -19,7 +19,14 @@
 
 package org.apache.tuscany.sca.core.databinding.wire;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.tuscany.sca.databinding.Mediator;
+import org.apache.tuscany.sca.databinding.util.ImmutableTypeHelper;
+import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.Operation;
 import org.apache.tuscany.sca.invocation.Interceptor;
 import org.apache.tuscany.sca.invocation.InvocationChain;
@@ -29,6 +36,10 @@ import org.apache.tuscany.sca.invocation.Message;
 /**
  * Implementation of an interceptor that enforces pass-by-value semantics
  * on operation invocations by copying the operation input and output data.
+ * <p>
+ * The parameter and return types of the operation are checked once when the interceptor is created.
+ * Values of deeply immutable types (see {@link ImmutableTypeHelper}) are passed as is, so the input
+ * or output isn't copied at all when it only consists of such values.
  *
  * @version $Rev$ $Date$
  */
@@ -39,6 +50,14 @@ public class PassByValueInterceptor implements Interceptor {
     private Invoker nextInvoker;
     private InvocationChain chain;
 
+    // The input parameters that need to be copied, null if they all need to be copied
+    private final boolean[] mutableInputs;
+    private final boolean immutableInput;
+    private final boolean immutableOutput;
+
+    private final AtomicLong copiesPerformed = new AtomicLong();
+    private final AtomicLong copiesAvoided = new AtomicLong();
+
     /**
      * Constructs a new PassByValueInterceptor.
      * @param dataBindings databinding extension point
@@ -48,6 +67,30 @@ public class PassByValueInterceptor implements Interceptor {
         this.mediator = mediator;
         this.chain = chain;
         this.operation = operation;
+
+        List<DataType> inputTypes = operation.getInputType() == null ? null : operation.getInputType().getLogical();
+        boolean[] mutable = null;
+        boolean immutable = true;
+        if (inputTypes != null) {
+            mutable = new boolean[inputTypes.size()];
+            boolean partial = false;
+            for (int i = 0; i < mutable.length; i++) {
+                DataType<?> inputType = inputTypes.get(i);
+                mutable[i] = inputType == null || !ImmutableTypeHelper.isImmutable(inputType.getPhysical());
+                if (mutable[i]) {
+                    immutable = false;
+                } else {
+                    partial = true;
+                }
+            }
+            if (!partial) {
+                mutable = null;
+            }
+        }
+        this.mutableInputs = mutable;
+        this.immutableInput = immutable;
+        this.immutableOutput =
+            operation.getOutputType() == null || ImmutableTypeHelper.isImmutable(operation.getOutputType().getLogical());
     }
 
     public Message invoke(Message msg) {
@@ -55,12 +98,18 @@ public class PassByValueInterceptor implements Interceptor {
             return nextInvoker.invoke(msg);
         }
 
-        msg.setBody(mediator.copyInput(msg.getBody(), operation));
+        msg.setBody(copyInput(msg.getBody()));
 
         Message resultMsg = nextInvoker.invoke(msg);
 
         if (!resultMsg.isFault() && operation.getOutputType() != null) {
-            resultMsg.setBody(mediator.copyOutput(resultMsg.getBody(), operation));
+            int size = operation.getOutputType().getLogical().size();
+            if (immutableOutput) {
+                copiesAvoided.addAndGet(size);
+            } else {
+                resultMsg.setBody(mediator.copyOutput(resultMsg.getBody(), operation));
+                copiesPerformed.addAndGet(size);
+            }
         }
 
         if (resultMsg.isFault()) {
@@ -69,6 +118,67 @@ public class PassByValueInterceptor implements Interceptor {
         return resultMsg;
     }
 
+    private Object copyInput(Object input) {
+        if (input == null) {
+            return null;
+        }
+        Object[] data = (input instanceof Object[]) ? (Object[])input : null;
+        if (data == null || (mutableInputs == null && !immutableInput) || data.length != getInputSize()) {
+            // Let the mediator copy all the parameters
+            copiesPerformed.addAndGet(data == null ? 1 : data.length);
+            return mediator.copyInput(input, operation);
+        }
+        if (immutableInput) {
+            copiesAvoided.addAndGet(data.length);
+            return input;
+        }
+
+        // Only copy the mutable parameters, the same object passed twice is only copied once
+        List<DataType> inputTypes = operation.getInputType().getLogical();
+        Object[] copy = new Object[data.length];
+        Map<Object, Object> copies = null;
+        int performed = 0;
+        for (int i = 0; i < data.length; i++) {
+            Object arg = data[i];
+            if (arg == null || !mutableInputs[i]) {
+                copy[i] = arg;
+                continue;
+            }
+            if (copies == null) {
+                copies = new IdentityHashMap<Object, Object>();
+            }
+            Object copiedArg = copies.get(arg);
+            if (copiedArg == null) {
+                copiedArg = mediator.copy(arg, inputTypes.get(i), inputTypes.get(i), operation, operation);
+                copies.put(arg, copiedArg);
+            }
+            copy[i] = copiedArg;
+            performed++;
+        }
+        copiesPerformed.addAndGet(performed);
+        copiesAvoided.addAndGet(data.length - performed);
+        return copy;
+    }
+
+    private int getInputSize() {
+        return operation.getInputType() == null ? 0 : operation.getInputType().getLogical().size();
+    }
+
+    /**
+     * @return The number of parameter or return values that have been copied
+     */
+    public long getCopiesPerformed() {
+        return copiesPerformed.get();
+    }
+
+    /**
+     * @return The number of parameter or return values that have been passed without copying them as
+     * their types are immutable
+     */
+    public long getCopiesAvoided() {
+        return copiesAvoided.get();
+    }
+
     public Invoker getNext() {
         return nextInvoker;
     }
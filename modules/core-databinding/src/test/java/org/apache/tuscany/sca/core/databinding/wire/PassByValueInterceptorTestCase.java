@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.core.databinding.wire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tuscany.sca.core.DefaultExtensionPointRegistry;
+import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.apache.tuscany.sca.core.invocation.impl.InvocationChainImpl;
+import org.apache.tuscany.sca.core.invocation.impl.MessageImpl;
+import org.apache.tuscany.sca.databinding.Mediator;
+import org.apache.tuscany.sca.databinding.impl.MediatorImpl;
+import org.apache.tuscany.sca.interfacedef.Operation;
+import org.apache.tuscany.sca.interfacedef.java.DefaultJavaInterfaceFactory;
+import org.apache.tuscany.sca.interfacedef.java.JavaInterface;
+import org.apache.tuscany.sca.invocation.InvocationChain;
+import org.apache.tuscany.sca.invocation.Invoker;
+import org.apache.tuscany.sca.invocation.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class PassByValueInterceptorTestCase {
+    private Mediator mediator;
+    private JavaInterface javaInterface;
+
+    @Before
+    public void setUp() throws Exception {
+        ExtensionPointRegistry registry = new DefaultExtensionPointRegistry();
+        mediator = new MediatorImpl(registry);
+        javaInterface = new DefaultJavaInterfaceFactory(registry).createJavaInterface(Service.class);
+    }
+
+    @Test
+    public void testMutableCopiedImmutablePassed() throws Exception {
+        Bean bean = new Bean();
+        bean.values.add("a");
+        Bean result = new Bean();
+        RecordingInvoker invoker = new RecordingInvoker(result);
+        PassByValueInterceptor interceptor = createInterceptor("update", invoker, false);
+
+        String name = new String("name");
+        Integer count = Integer.valueOf(1000);
+        Message reply = interceptor.invoke(createMessage(new Object[] {bean, name, count}));
+
+        Object[] args = invoker.args;
+        assertNotSame(bean, args[0]);
+        assertEquals(bean.values, ((Bean)args[0]).values);
+        assertNotSame(bean.values, ((Bean)args[0]).values);
+        assertSame(name, args[1]);
+        assertSame(count, args[2]);
+        assertNotSame(result, reply.getBody());
+        assertEquals(2, interceptor.getCopiesPerformed());
+        assertEquals(2, interceptor.getCopiesAvoided());
+    }
+
+    @Test
+    public void testImmutableOperationNotCopied() throws Exception {
+        String result = new String("result");
+        RecordingInvoker invoker = new RecordingInvoker(result);
+        PassByValueInterceptor interceptor = createInterceptor("format", invoker, false);
+
+        Object[] input = new Object[] {new String("a"), Integer.valueOf(2)};
+        Message reply = interceptor.invoke(createMessage(input));
+
+        assertSame(input, invoker.args);
+        assertSame(result, reply.getBody());
+        assertEquals(0, interceptor.getCopiesPerformed());
+        assertEquals(3, interceptor.getCopiesAvoided());
+    }
+
+    @Test
+    public void testSameArgumentCopiedOnce() throws Exception {
+        Bean bean = new Bean();
+        RecordingInvoker invoker = new RecordingInvoker(null);
+        PassByValueInterceptor interceptor = createInterceptor("merge", invoker, false);
+
+        interceptor.invoke(createMessage(new Object[] {bean, bean, "x"}));
+
+        Object[] args = invoker.args;
+        assertNotSame(bean, args[0]);
+        assertSame(args[0], args[1]);
+    }
+
+    @Test
+    public void testPassByReference() throws Exception {
+        Bean bean = new Bean();
+        Bean result = new Bean();
+        RecordingInvoker invoker = new RecordingInvoker(result);
+        PassByValueInterceptor interceptor = createInterceptor("update", invoker, true);
+
+        Object[] input = new Object[] {bean, "name", 1};
+        Message reply = interceptor.invoke(createMessage(input));
+
+        assertSame(input, invoker.args);
+        assertSame(result, reply.getBody());
+        assertEquals(0, interceptor.getCopiesPerformed());
+        assertEquals(0, interceptor.getCopiesAvoided());
+    }
+
+    private PassByValueInterceptor createInterceptor(String name, Invoker next, boolean allowsPassByReference) {
+        Operation operation = null;
+        for (Operation op : javaInterface.getOperations()) {
+            if (op.getName().equals(name)) {
+                operation = op;
+            }
+        }
+        InvocationChain chain = new InvocationChainImpl(operation, operation, true, null, false);
+        chain.setAllowsPassByReference(allowsPassByReference);
+        PassByValueInterceptor interceptor = new PassByValueInterceptor(mediator, chain, operation);
+        interceptor.setNext(next);
+        return interceptor;
+    }
+
+    private static Message createMessage(Object[] args) {
+        Message msg = new MessageImpl();
+        msg.setBody(args);
+        return msg;
+    }
+
+    private static class RecordingInvoker implements Invoker {
+        private final Object result;
+        private Object[] args;
+
+        RecordingInvoker(Object result) {
+            this.result = result;
+        }
+
+        public Message invoke(Message msg) {
+            args = (Object[])msg.getBody();
+            msg.setBody(result);
+            return msg;
+        }
+    }
+
+    public static class Bean {
+        private List<String> values = new ArrayList<String>();
+    }
+
+    public static interface Service {
+        Bean update(Bean bean, String name, Integer count);
+
+        String format(String value, int width);
+
+        void merge(Bean first, Bean second, String mode);
+    }
+}
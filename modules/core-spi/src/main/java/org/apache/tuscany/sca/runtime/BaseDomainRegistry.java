@@ -23,7 +23,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import javax.xml.namespace.QName;
@@ -53,6 +56,11 @@ public abstract class BaseDomainRegistry implements DomainRegistry, LifeCycleLis
     protected ExtensionPointRegistry registry;
     protected Map<String, String> attributes;
 
+    // key component URI, value epoch bumped on each endpoint change for the component
+    protected ConcurrentMap<String, AtomicLong> endpointEpochs = new ConcurrentHashMap<String, AtomicLong>();
+    // the endpoints known from the endpoint events, indexed for findEndpoint(String)
+    protected EndpointIndex endpointIndex = new EndpointIndex();
+
     public BaseDomainRegistry(ExtensionPointRegistry registry,
                                 Map<String, String> attributes,
                                 String domainRegistryURI,
@@ -77,6 +85,8 @@ public abstract class BaseDomainRegistry implements DomainRegistry, LifeCycleLis
 
     protected void endpointAdded(Endpoint endpoint) {
         ((RuntimeEndpoint)endpoint).bind(registry, this);
+        endpointIndex.add(endpoint);
+        bumpEndpointEpoch(endpoint);
         for (EndpointListener listener : listeners) {
             listener.endpointAdded(endpoint);
         }
@@ -84,6 +94,8 @@ public abstract class BaseDomainRegistry implements DomainRegistry, LifeCycleLis
 
     protected void endpointRemoved(Endpoint endpoint) {
         ((RuntimeEndpoint)endpoint).bind(registry, this);
+        endpointIndex.remove(endpoint);
+        bumpEndpointEpoch(endpoint);
         for (EndpointListener listener : listeners) {
             listener.endpointRemoved(endpoint);
         }
@@ -91,6 +103,11 @@ public abstract class BaseDomainRegistry implements DomainRegistry, LifeCycleLis
 
     protected void endpointUpdated(Endpoint oldEp, Endpoint newEp) {
         ((RuntimeEndpoint)newEp).bind(registry, this);
+        endpointIndex.update(oldEp, newEp);
+        if (oldEp != null) {
+            bumpEndpointEpoch(oldEp);
+        }
+        bumpEndpointEpoch(newEp);
         for (EndpointListener listener : listeners) {
             listener.endpointUpdated(oldEp, newEp);
         }
@@ -101,6 +118,61 @@ public abstract class BaseDomainRegistry implements DomainRegistry, LifeCycleLis
         return isDistributed() && (! findEndpoint(endpointReference).contains(endpointReference.getTargetEndpoint()));
     }
     
+    public long getEndpointEpoch(String uri) {
+        if (!isTrackingEndpointChanges()) {
+            return -1;
+        }
+        if (uri == null) {
+            return 0;
+        }
+        AtomicLong epoch = endpointEpochs.get(getEpochKey(uri));
+        return epoch == null ? 0 : epoch.get();
+    }
+
+    /**
+     * @return true if the epochs are bumped for every endpoint change this registry can see, false if
+     * the registry isn't receiving the changes
+     */
+    protected boolean isTrackingEndpointChanges() {
+        return true;
+    }
+
+    /**
+     * Record that an endpoint has been added, removed or updated so that references
+     * targeting the same component re-check their binding
+     * @param endpoint
+     */
+    protected void bumpEndpointEpoch(Endpoint endpoint) {
+        String uri = endpoint.getURI();
+        if (uri == null) {
+            return;
+        }
+        String key = getEpochKey(uri);
+        AtomicLong epoch = endpointEpochs.get(key);
+        if (epoch == null) {
+            AtomicLong newEpoch = new AtomicLong();
+            epoch = endpointEpochs.putIfAbsent(key, newEpoch);
+            if (epoch == null) {
+                epoch = newEpoch;
+            }
+        }
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * The epoch is kept per component, i.e. the part of the structural URI before the '#'. 
+     * As in findEndpoint(EndpointReference), a URI without '#' is taken as the component URI
+     * @param uri
+     * @return
+     */
+    private static String getEpochKey(String uri) {
+        if (uri.startsWith("/")) {
+            uri = uri.substring(1);
+        }
+        int index = uri.lastIndexOf('#');
+        return index == -1 ? uri : uri.substring(0, index);
+    }
+
     public List<Endpoint> findEndpoint(EndpointReference endpointReference) {
         logger.fine("Find endpoint for reference - " + endpointReference);
 
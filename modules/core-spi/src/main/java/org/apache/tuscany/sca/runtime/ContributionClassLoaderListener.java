@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.runtime;
+
+import java.util.EventListener;
+
+/**
+ * A listener for the ClassLoaders of the contributions removed from the runtime, implemented by the
+ * extensions which cache information about the classes of the contributions. The listeners are declared
+ * under META-INF/services/org.apache.tuscany.sca.runtime.ContributionClassLoaderListener and created as
+ * utilities.
+ */
+public interface ContributionClassLoaderListener extends EventListener {
+    /**
+     * The contribution using the ClassLoader has been removed
+     * @param contributionClassLoader The ClassLoader of the contribution
+     */
+    void contributionClassLoaderRemoved(ClassLoader contributionClassLoader);
+}
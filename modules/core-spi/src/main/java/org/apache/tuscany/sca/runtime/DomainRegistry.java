@@ -74,6 +74,18 @@ public interface DomainRegistry {
     List<EndpointReference> getEndpointReferences();
     
     boolean isOutOfDate(EndpointReference endpointReference);
+
+    /**
+     * Get the current epoch of the endpoints that can match the given URI. The epoch is
+     * bumped each time an endpoint of the same component is added, removed or updated, so
+     * an endpoint reference only needs to re-check its target when the epoch it was last
+     * matched against has changed.
+     * @param uri The endpoint or service URI
+     * @return The monotonically increasing epoch, 0 if no endpoint has been seen for the URI, -1 if the
+     * registry can't currently see the endpoint changes in which case the target has to be re-checked
+     * each time
+     */
+    long getEndpointEpoch(String uri);
     
     /** 
      * Returns a list of EndpointReferences that have a URI that matches a given URI
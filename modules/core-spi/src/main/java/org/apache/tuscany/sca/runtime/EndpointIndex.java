@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tuscany.sca.assembly.Endpoint;
+
+/**
+ * An index of the endpoints in a DomainRegistry keyed by component, component + service and
+ * component + service + binding so that findEndpoint(String) doesn't need to match against every
+ * registered endpoint. Each key holds an immutable array of endpoints that is replaced on write,
+ * so lookups never lock. Updates are expected to come from the endpointAdded/endpointRemoved/endpointUpdated
+ * events of the registry.
+ * @tuscany.spi.extension.asclient
+ */
+public class EndpointIndex {
+    private static final Endpoint[] EMPTY = new Endpoint[0];
+
+    private final ConcurrentMap<String, Endpoint[]> index = new ConcurrentHashMap<String, Endpoint[]>();
+
+    /**
+     * Add an endpoint to the index. An endpoint with the same URI already in the index is replaced
+     * @param endpoint
+     */
+    public synchronized void add(Endpoint endpoint) {
+        String[] names = parse(endpoint.getURI());
+        if (names == null || names[0] == null) {
+            return;
+        }
+        for (String key : getKeys(names)) {
+            Endpoint[] eps = index.get(key);
+            if (eps == null) {
+                index.put(key, new Endpoint[] {endpoint});
+                continue;
+            }
+            int pos = indexOf(eps, endpoint.getURI());
+            Endpoint[] newEps;
+            if (pos == -1) {
+                newEps = Arrays.copyOf(eps, eps.length + 1);
+                newEps[eps.length] = endpoint;
+            } else {
+                newEps = eps.clone();
+                newEps[pos] = endpoint;
+            }
+            index.put(key, newEps);
+        }
+    }
+
+    /**
+     * Remove the endpoint with the same URI as the given endpoint from the index
+     * @param endpoint
+     */
+    public synchronized void remove(Endpoint endpoint) {
+        String[] names = parse(endpoint.getURI());
+        if (names == null || names[0] == null) {
+            return;
+        }
+        for (String key : getKeys(names)) {
+            Endpoint[] eps = index.get(key);
+            if (eps == null) {
+                continue;
+            }
+            int pos = indexOf(eps, endpoint.getURI());
+            if (pos == -1) {
+                continue;
+            }
+            if (eps.length == 1) {
+                index.remove(key);
+            } else {
+                Endpoint[] newEps = new Endpoint[eps.length - 1];
+                System.arraycopy(eps, 0, newEps, 0, pos);
+                System.arraycopy(eps, pos + 1, newEps, pos, eps.length - pos - 1);
+                index.put(key, newEps);
+            }
+        }
+    }
+
+    /**
+     * Replace an endpoint in the index
+     * @param oldEndpoint The old endpoint, can be null
+     * @param newEndpoint The new endpoint
+     */
+    public synchronized void update(Endpoint oldEndpoint, Endpoint newEndpoint) {
+        if (oldEndpoint != null) {
+            remove(oldEndpoint);
+        }
+        add(newEndpoint);
+    }
+
+    public synchronized void clear() {
+        index.clear();
+    }
+
+    /**
+     * Find the endpoints that match the given service URI, with the same semantics as Endpoint.matches(String)
+     * @param serviceURI The service URI in one of the formats accepted by Endpoint.matches(String)
+     * @return The list of matching endpoints or null if the URI can't be looked up in the index, in which
+     * case the caller has to match against all the endpoints
+     */
+    public List<Endpoint> find(String serviceURI) {
+        String[] names = parseServiceURI(serviceURI);
+        if (names == null || names[0] == null || (names[1] == null && names[2] != null)) {
+            return null;
+        }
+        String key;
+        if (names[1] == null) {
+            key = names[0];
+        } else if (names[2] == null) {
+            key = names[0] + "#" + names[1];
+        } else {
+            key = names[0] + "#" + names[1] + "/" + names[2];
+        }
+        Endpoint[] eps = index.get(key);
+        if (eps == null) {
+            return new ArrayList<Endpoint>();
+        }
+        List<Endpoint> endpoints = new ArrayList<Endpoint>(eps.length);
+        Collections.addAll(endpoints, eps);
+        return endpoints;
+    }
+
+    private static String[] getKeys(String[] names) {
+        if (names[1] == null) {
+            return new String[] {names[0]};
+        } else if (names[2] == null) {
+            return new String[] {names[0], names[0] + "#" + names[1]};
+        } else {
+            return new String[] {names[0], names[0] + "#" + names[1], names[0] + "#" + names[1] + "/" + names[2]};
+        }
+    }
+
+    private static int indexOf(Endpoint[] eps, String uri) {
+        for (int i = 0; i < eps.length; i++) {
+            String epURI = eps[i].getURI();
+            if (epURI == null ? uri == null : epURI.equals(uri)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse the service URI the same way as Endpoint.matches(String) does. The service URI is either
+     * a structural URI or in one of the following formats:
+     * <ul>
+     * <li>componentName
+     * <li>componentName/serviceName
+     * <li>componentName/serviceName/bindingName
+     * </ul>
+     */
+    private static String[] parseServiceURI(String serviceURI) {
+        if (serviceURI == null) {
+            return null;
+        }
+        if (serviceURI.startsWith("/")) {
+            serviceURI = serviceURI.substring(1);
+        }
+        if (serviceURI.contains("#")) {
+            return parse(serviceURI);
+        }
+        String[] names = new String[3];
+        String[] segments = serviceURI.split("/");
+        for (int i = 0; i < names.length && i < segments.length; i++) {
+            names[i] = segments[i];
+        }
+        return names;
+    }
+
+    /**
+     * Parse the structural URI into an array of parts (componentURI, serviceName, bindingName)
+     * @return the names or null if the URI is not a valid structural URI
+     */
+    private static String[] parse(String structuralURI) {
+        if (structuralURI == null) {
+            return null;
+        }
+        String[] names = new String[3];
+        int index = structuralURI.lastIndexOf('#');
+        if (index == -1) {
+            names[0] = structuralURI;
+        } else {
+            names[0] = structuralURI.substring(0, index);
+            String str = structuralURI.substring(index + 1);
+            if (str.startsWith("service-binding(") && str.endsWith(")")) {
+                str = str.substring("service-binding(".length(), str.length() - 1);
+                String[] parts = str.split("/");
+                if (parts.length != 2) {
+                    return null;
+                }
+                names[1] = parts[0];
+                names[2] = parts[1];
+            } else if (str.startsWith("service(") && str.endsWith(")")) {
+                str = str.substring("service(".length(), str.length() - 1);
+                if (!"".equals(str)) {
+                    names[1] = str;
+                }
+            } else {
+                return null;
+            }
+        }
+        return names;
+    }
+}
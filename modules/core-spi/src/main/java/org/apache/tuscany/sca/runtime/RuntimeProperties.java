@@ -47,6 +47,46 @@ public interface RuntimeProperties {
      */
     public static final String USE_AXIOM = "org.apache.tuscany.sca.useAxiom";
 
+    /**
+     *  The default maximum number of pooled instances of each stateless component, stateless
+     *  instances are not pooled unless it's set to a positive value. A component overrides
+     *  the STATELESS_POOL_* defaults with its tuscany:statelessPool* attributes
+     */
+    public static final String STATELESS_POOL_MAX_SIZE = "org.apache.tuscany.sca.statelessPool.maxSize";
+
+    /**
+     *  The minimum number of idle instances kept in the pool of each stateless component
+     */
+    public static final String STATELESS_POOL_MIN_SIZE = "org.apache.tuscany.sca.statelessPool.minSize";
+
+    /**
+     *  The time in milliseconds after which an idle pooled instance is destroyed
+     */
+    public static final String STATELESS_POOL_IDLE_TIMEOUT = "org.apache.tuscany.sca.statelessPool.idleTimeout";
+
+    /**
+     *  The time in milliseconds to wait for a pooled instance when all of them are in use
+     */
+    public static final String STATELESS_POOL_MAX_WAIT = "org.apache.tuscany.sca.statelessPool.maxWait";
+
+    /**
+     *  The default time in milliseconds after which an async invocation waiting for its response
+     *  fails with a timeout, 0 for no timeout
+     */
+    public static final String ASYNC_RESPONSE_TIMEOUT = "org.apache.tuscany.sca.asyncResponse.timeout";
+
+    /**
+     *  The default maximum number of async invocations of a reference waiting for their response,
+     *  0 for no limit
+     */
+    public static final String ASYNC_RESPONSE_MAX_PENDING = "org.apache.tuscany.sca.asyncResponse.maxPending";
+
+    /**
+     *  The time in milliseconds an async invocation waits when the maximum number of invocations
+     *  waiting for their response is reached
+     */
+    public static final String ASYNC_RESPONSE_MAX_WAIT = "org.apache.tuscany.sca.asyncResponse.maxWait";
+
     Properties getProperties();
     void setProperties(Properties properties);
 }
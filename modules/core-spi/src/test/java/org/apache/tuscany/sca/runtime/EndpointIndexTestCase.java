@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.assembly.AssemblyFactory;
+import org.apache.tuscany.sca.assembly.DefaultAssemblyFactory;
+import org.apache.tuscany.sca.assembly.Endpoint;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EndpointIndexTestCase {
+    private static AssemblyFactory factory;
+
+    @BeforeClass
+    public static void setUp() {
+        factory = new DefaultAssemblyFactory();
+    }
+
+    private static Endpoint createEndpoint(String uri) {
+        Endpoint endpoint = factory.createEndpoint();
+        endpoint.setURI(uri);
+        return endpoint;
+    }
+
+    private static List<Endpoint> createEndpoints(int count) {
+        List<Endpoint> endpoints = new ArrayList<Endpoint>();
+        for (int i = 0; i < count / 2; i++) {
+            endpoints.add(createEndpoint("Component" + i + "#service-binding(Service/sca)"));
+            endpoints.add(createEndpoint("Component" + i + "#service-binding(Service/ws)"));
+        }
+        return endpoints;
+    }
+
+    @Test
+    public void testFind() {
+        EndpointIndex index = new EndpointIndex();
+        Endpoint ep1 = createEndpoint("Component1#service-binding(Service1/binding1)");
+        Endpoint ep2 = createEndpoint("Component1#service-binding(Service1/binding2)");
+        Endpoint ep3 = createEndpoint("Component1#service-binding(Service2/binding1)");
+        Endpoint ep4 = createEndpoint("Component2#service(Service1)");
+        index.add(ep1);
+        index.add(ep2);
+        index.add(ep3);
+        index.add(ep4);
+
+        Assert.assertEquals(3, index.find("Component1").size());
+        Assert.assertEquals(2, index.find("Component1/Service1").size());
+        Assert.assertEquals(1, index.find("/Component1/Service1/binding2").size());
+        Assert.assertSame(ep2, index.find("Component1#service-binding(Service1/binding2)").get(0));
+        Assert.assertEquals(2, index.find("Component1#service(Service1)").size());
+        Assert.assertEquals(3, index.find("Component1#service()").size());
+        Assert.assertEquals(1, index.find("Component2/Service1").size());
+        Assert.assertEquals(0, index.find("Component2/Service1/binding1").size());
+        Assert.assertEquals(0, index.find("Component3").size());
+
+        index.remove(createEndpoint(ep1.getURI()));
+        Assert.assertEquals(1, index.find("Component1/Service1").size());
+        Assert.assertEquals(2, index.find("Component1").size());
+
+        Endpoint ep5 = createEndpoint(ep4.getURI());
+        index.update(ep4, ep5);
+        Assert.assertSame(ep5, index.find("Component2").get(0));
+
+        // Adding an endpoint with the same URI replaces the existing one
+        index.add(ep4);
+        Assert.assertEquals(1, index.find("Component2").size());
+        Assert.assertSame(ep4, index.find("Component2").get(0));
+
+        index.clear();
+        Assert.assertEquals(0, index.find("Component1").size());
+    }
+
+    @Test
+    public void testMatchesSemantics() {
+        EndpointIndex index = new EndpointIndex();
+        List<Endpoint> endpoints = createEndpoints(100);
+        for (Endpoint endpoint : endpoints) {
+            index.add(endpoint);
+        }
+        String[] uris = {"Component7", "Component7/Service", "Component7/Service/ws", "Component7/Other",
+                         "Component7#service-binding(Service/sca)", "Component70"};
+        for (String uri : uris) {
+            Assert.assertEquals(uri, scan(endpoints, uri), index.find(uri));
+        }
+    }
+
+    @Test
+    public void testLargeIndex() {
+        EndpointIndex index = new EndpointIndex();
+        List<Endpoint> endpoints = createEndpoints(10000);
+        for (Endpoint endpoint : endpoints) {
+            index.add(endpoint);
+        }
+        for (int i = 0; i < 5000; i += 499) {
+            String uri = "Component" + i + "/Service/sca";
+            Assert.assertEquals(uri, scan(endpoints, uri), index.find(uri));
+            Assert.assertEquals(2, index.find("Component" + i).size());
+        }
+
+        // Remove the ws endpoints
+        for (int i = 1; i < endpoints.size(); i += 2) {
+            index.remove(endpoints.get(i));
+        }
+        Assert.assertEquals(1, index.find("Component4999").size());
+        Assert.assertEquals(0, index.find("Component4999/Service/ws").size());
+        Assert.assertSame(endpoints.get(9998), index.find("Component4999/Service/sca").get(0));
+    }
+
+    private static List<Endpoint> scan(List<Endpoint> endpoints, String uri) {
+        List<Endpoint> found = new ArrayList<Endpoint>();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.matches(uri)) {
+                found.add(endpoint);
+            }
+        }
+        return found;
+    }
+}
@@ -64,6 +64,8 @@ public class DomainRegistryImpl extends BaseDomainRegistry implements DomainRegi
 
     public synchronized void addEndpoint(Endpoint endpoint) {
         endpoints.add(endpoint);
+        endpointIndex.add(endpoint);
+        bumpEndpointEpoch(endpoint);
         for (EndpointListener listener : listeners) {
             listener.endpointAdded(endpoint);
         }
@@ -86,7 +88,12 @@ public class DomainRegistryImpl extends BaseDomainRegistry implements DomainRegi
     }
 
     public List<Endpoint> findEndpoint(String uri) {
-        List<Endpoint> foundEndpoints = new ArrayList<Endpoint>();
+        List<Endpoint> foundEndpoints = endpointIndex.find(uri);
+        if (foundEndpoints != null) {
+            return foundEndpoints;
+        }
+        // The URI can't be looked up in the index so match against all endpoints
+        foundEndpoints = new ArrayList<Endpoint>();
         for (Endpoint endpoint : endpoints) {
             if (endpoint.matches(uri)) {
                 foundEndpoints.add(endpoint);
@@ -147,6 +154,9 @@ public class DomainRegistryImpl extends BaseDomainRegistry implements DomainRegi
         }
         endpoints.remove(oldEndpoint);
         endpoints.add(endpoint);
+        endpointIndex.update(oldEndpoint, endpoint);
+        bumpEndpointEpoch(oldEndpoint);
+        bumpEndpointEpoch(endpoint);
         for (EndpointListener listener : listeners) {
             listener.endpointUpdated(oldEndpoint, endpoint);
         }
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.assembly.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The format in which endpoints and endpoint references are externalized when they are replicated
+ * across the domain registry, by Hazelcast or Tribes.
+ * <p>
+ * The format starts with a marker and a version byte. The XML documents describing an endpoint, its
+ * interface contract included, are written as deflated UTF-8 blocks preceded by the SHA-1 hash of
+ * their content. A node keeps the documents and the interface contracts it has decoded, keyed by that
+ * hash, in the EndpointWireFormatCache of its registry, so that the many copies of an endpoint it
+ * deserializes share the same strings and the interface contract of an endpoint is parsed once.
+ * <p>
+ * The endpoints written by the nodes which predate the format, as the URI and documents written with
+ * writeUTF, are still read. Those nodes can't read the format though, so during a rolling upgrade the
+ * nodes which haven't been upgraded fail to deserialize the endpoints of the upgraded ones.
+ *
+ * @version $Rev$ $Date$
+ */
+final class EndpointWireFormat {
+    static final int VERSION = 1;
+
+    // The legacy format starts with the length of the URI written by writeUTF, which is never 65535 bytes
+    static final int MARKER = 0xFFFF;
+
+    private static final int HASH_LENGTH = 20;
+
+    private EndpointWireFormat() {
+    }
+
+    static void writeHeader(ObjectOutput out) throws IOException {
+        out.writeShort(MARKER);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * Read the header written by writeHeader
+     * @return null, or the URI if the endpoint was written in the legacy format, in which case the
+     *         documents follow written by writeUTF
+     */
+    static String readHeader(ObjectInput in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length != MARKER) {
+            // Let DataInputStream decode the modified UTF-8 of the legacy URI
+            byte[] utf = new byte[length + 2];
+            utf[0] = (byte)(length >>> 8);
+            utf[1] = (byte)length;
+            in.readFully(utf, 2, length);
+            return new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported endpoint format version " + version);
+        }
+        return null;
+    }
+
+    /**
+     * Write a document, which can be null
+     * @param cache The cache of the blocks already encoded, can be null
+     */
+    static void writeDocument(ObjectOutput out, String document, EndpointWireFormatCache cache) throws IOException {
+        if (document == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = document.getBytes("UTF-8");
+        byte[] hash = digest(bytes);
+        if (cache == null) {
+            out.write(encode(bytes, hash));
+            return;
+        }
+        String key = toHex(hash);
+        byte[] block = cache.getEncoded(key);
+        if (block == null) {
+            block = encode(bytes, hash);
+            cache.putEncoded(key, block);
+        }
+        out.write(block);
+    }
+
+    /**
+     * Read a document written by writeDocument
+     * @param cache The cache of the documents already decoded, can be null
+     * @return The document, the same String for the same content if there's a cache
+     */
+    static String readDocument(ObjectInput in, EndpointWireFormatCache cache) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] hash = new byte[HASH_LENGTH];
+        in.readFully(hash);
+        byte[] deflated = new byte[in.readInt()];
+        in.readFully(deflated);
+
+        if (cache == null) {
+            return new String(inflate(deflated, length), "UTF-8");
+        }
+        String key = toHex(hash);
+        String document = cache.getDecoded(key);
+        if (document == null) {
+            document = new String(inflate(deflated, length), "UTF-8");
+            cache.putDecoded(key, document);
+        }
+        return document;
+    }
+
+    /**
+     * @return The hash of a document, used as a key of the EndpointWireFormatCache
+     */
+    static String hash(String document) throws IOException {
+        return toHex(digest(document.getBytes("UTF-8")));
+    }
+
+    private static byte[] encode(byte[] bytes, byte[] hash) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 4 + 16);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                deflated.write(buffer, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(deflated.size() + HASH_LENGTH + 8);
+        writeInt(bos, bytes.length);
+        bos.write(hash);
+        writeInt(bos, deflated.size());
+        deflated.writeTo(bos);
+        return bos.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] deflated, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            byte[] bytes = new byte[length];
+            int n = 0;
+            while (n < length) {
+                int read = inflater.inflate(bytes, n, length - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new InvalidObjectException("Truncated endpoint document");
+                }
+                n += read;
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new InvalidObjectException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream bos, int v) {
+        bos.write(v >>> 24);
+        bos.write(v >>> 16);
+        bos.write(v >>> 8);
+        bos.write(v);
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.assembly.impl;
+
+import org.apache.tuscany.sca.common.java.collection.LRUCache;
+import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.apache.tuscany.sca.core.ExtensionPointRegistryLocator;
+import org.apache.tuscany.sca.core.LifeCycleListener;
+import org.apache.tuscany.sca.core.UtilityExtensionPoint;
+import org.apache.tuscany.sca.interfacedef.InterfaceContract;
+
+/**
+ * The endpoint documents and interface contracts a node has encoded or decoded with the
+ * EndpointWireFormat, keyed by the SHA-1 hash of the document content. There is one per
+ * extension point registry, it's cleared when the registry is stopped.
+ *
+ * @version $Rev$ $Date$
+ */
+public class EndpointWireFormatCache implements LifeCycleListener {
+    private static final int CACHE_SIZE = 1024;
+
+    // The encoded blocks by hash, so that an unchanged document isn't deflated again
+    private final LRUCache<String, byte[]> encoded = new LRUCache<String, byte[]>(CACHE_SIZE);
+    // The decoded documents by hash
+    private final LRUCache<String, String> decoded = new LRUCache<String, String>(CACHE_SIZE);
+    // The interface contracts parsed from the documents, by hash
+    private final LRUCache<String, InterfaceContract> contracts = new LRUCache<String, InterfaceContract>(CACHE_SIZE);
+
+    public EndpointWireFormatCache() {
+        super();
+    }
+
+    /**
+     * @return The cache of a registry, or of the first registry started in the JVM if the registry is
+     *         null (as it is when an endpoint is deserialized), null if there's none
+     */
+    static EndpointWireFormatCache getInstance(ExtensionPointRegistry registry) {
+        if (registry == null) {
+            registry = ExtensionPointRegistryLocator.getExtensionPointRegistry();
+            if (registry == null) {
+                return null;
+            }
+        }
+        UtilityExtensionPoint utilities = registry.getExtensionPoint(UtilityExtensionPoint.class);
+        return utilities.getUtility(EndpointWireFormatCache.class);
+    }
+
+    byte[] getEncoded(String hash) {
+        synchronized (encoded) {
+            return encoded.get(hash);
+        }
+    }
+
+    void putEncoded(String hash, byte[] block) {
+        synchronized (encoded) {
+            encoded.put(hash, block);
+        }
+    }
+
+    String getDecoded(String hash) {
+        synchronized (decoded) {
+            return decoded.get(hash);
+        }
+    }
+
+    void putDecoded(String hash, String document) {
+        synchronized (decoded) {
+            decoded.put(hash, document);
+        }
+    }
+
+    /**
+     * @return A copy of the interface contract parsed from the document with a hash, null if it hasn't
+     *         been parsed yet
+     */
+    InterfaceContract getInterfaceContract(String hash) {
+        InterfaceContract contract;
+        synchronized (contracts) {
+            contract = contracts.get(hash);
+        }
+        if (contract == null) {
+            return null;
+        }
+        try {
+            // The endpoints may change their contracts
+            return (InterfaceContract)contract.clone();
+        } catch (CloneNotSupportedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Keep a copy of the interface contract parsed from the document with a hash
+     */
+    void putInterfaceContract(String hash, InterfaceContract contract) {
+        try {
+            InterfaceContract copy = (InterfaceContract)contract.clone();
+            synchronized (contracts) {
+                contracts.put(hash, copy);
+            }
+        } catch (CloneNotSupportedException e) {
+            // Not cached
+        }
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        synchronized (encoded) {
+            encoded.clear();
+        }
+        synchronized (decoded) {
+            decoded.clear();
+        }
+        synchronized (contracts) {
+            contracts.clear();
+        }
+    }
+}
@@ -1030,9 +1030,17 @@ public class RuntimeEndpointImpl extends EndpointImpl implements RuntimeEndpoint
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        String legacyURI = EndpointWireFormat.readHeader(in);
+        if (legacyURI != null) {
+            this.uri = legacyURI;
+            this.xml = in.readUTF();
+            this.interfaceContractXML = in.readUTF();
+            return;
+        }
+        EndpointWireFormatCache cache = EndpointWireFormatCache.getInstance(registry);
         this.uri = in.readUTF();
-        this.xml = in.readUTF();       
-        this.interfaceContractXML = in.readUTF();
+        this.xml = EndpointWireFormat.readDocument(in, cache);
+        this.interfaceContractXML = EndpointWireFormat.readDocument(in, cache);
 /*        
         this.wsdlCallback = in.readUTF();
 */        
@@ -1040,12 +1048,14 @@ public class RuntimeEndpointImpl extends EndpointImpl implements RuntimeEndpoint
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
+        EndpointWireFormat.writeHeader(out);
+        EndpointWireFormatCache cache = EndpointWireFormatCache.getInstance(registry);
         out.writeUTF(getURI());
         if (serializer == null && xml != null) {
-            out.writeUTF(xml);
+            EndpointWireFormat.writeDocument(out, xml, cache);
         } else {
             if (serializer != null) {
-                out.writeUTF(serializer.write(this));
+                EndpointWireFormat.writeDocument(out, serializer.write(this), cache);
             } else {
                 throw new IllegalStateException("No serializer is configured");
             }
@@ -1054,7 +1064,7 @@ public class RuntimeEndpointImpl extends EndpointImpl implements RuntimeEndpoint
         if (interfaceContractXML == null) {
             interfaceContractXML = getXMLFromTuscanyInterfaceContract();
         }
-        out.writeUTF(interfaceContractXML);
+        EndpointWireFormat.writeDocument(out, interfaceContractXML, cache);
     }
     
     public String getAsXML() {
@@ -1088,6 +1098,13 @@ public class RuntimeEndpointImpl extends EndpointImpl implements RuntimeEndpoint
         //System.out.println("Reading IC XML: " + interfaceContractXML);
         if (interfaceContractXML != null && interfaceContractXML.length() > 0){
             try {
+                // The endpoints of a service on the other nodes have the same interface contract
+                EndpointWireFormatCache cache = EndpointWireFormatCache.getInstance(registry);
+                String hash = EndpointWireFormat.hash(interfaceContractXML);
+                interfaceContract = cache != null ? cache.getInterfaceContract(hash) : null;
+                if (interfaceContract != null) {
+                    return interfaceContract;
+                }
                 FactoryExtensionPoint modelFactories = registry.getExtensionPoint(FactoryExtensionPoint.class);
                 InterfaceContractProcessor processor = new InterfaceContractProcessor(registry);
                 ProcessorContext context = new ProcessorContext();
@@ -1095,6 +1112,9 @@ public class RuntimeEndpointImpl extends EndpointImpl implements RuntimeEndpoint
                 XMLInputFactory inputFactory = modelFactories.getFactory(XMLInputFactory.class);
                 XMLStreamReader reader = inputFactory.createXMLStreamReader(bis);
                 interfaceContract = processor.read(reader, context);
+                if (interfaceContract != null && cache != null) {
+                    cache.putInterfaceContract(hash, interfaceContract);
+                }
             } catch (Exception ex){
                 new ServiceRuntimeException(ex);  
             }
@@ -38,6 +38,7 @@ import org.apache.tuscany.sca.assembly.ComponentService;
 import org.apache.tuscany.sca.assembly.CompositeReference;
 import org.apache.tuscany.sca.assembly.CompositeService;
 import org.apache.tuscany.sca.assembly.Contract;
+import org.apache.tuscany.sca.assembly.Endpoint;
 import org.apache.tuscany.sca.assembly.EndpointReference;
 import org.apache.tuscany.sca.assembly.builder.BindingBuilder;
 import org.apache.tuscany.sca.assembly.builder.BuilderContext;
@@ -50,6 +51,8 @@ import org.apache.tuscany.sca.core.FactoryExtensionPoint;
 import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.core.assembly.RuntimeAssemblyFactory;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseService;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTable;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTableAware;
 import org.apache.tuscany.sca.core.invocation.ExtensibleWireProcessor;
 import org.apache.tuscany.sca.core.invocation.NonBlockingInterceptor;
 import org.apache.tuscany.sca.core.invocation.RuntimeInvoker;
@@ -107,7 +110,9 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
     private transient DomainRegistry domainRegistry;
 
     private transient List<InvocationChain> chains;
-    private transient Map<Operation, InvocationChain> invocationChainMap =
+    // Replaced rather than cleared on rebuild so that a lookup racing with the rebuild
+    // can't cache a chain from the old wire in the new map
+    private transient volatile Map<Operation, InvocationChain> invocationChainMap =
         new ConcurrentHashMap<Operation, InvocationChain>();
     private transient InvocationChain bindingInvocationChain;
 
@@ -129,6 +134,9 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
     private RuntimeEndpointReference delegateEndpointReference;
     private boolean bindingURIaltered;
     
+    // The domain registry epoch of the target endpoint the last time this reference was found up to date
+    private transient volatile long targetEndpointEpoch = -1;
+    
     /**
      * No-arg constructor for Java serilization
      */
@@ -216,6 +224,7 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
     }
 
     public InvocationChain getInvocationChain(Operation operation) {
+        Map<Operation, InvocationChain> invocationChainMap = this.invocationChainMap;
         InvocationChain cached = invocationChainMap.get(operation);
         if (cached == null) {
             for (InvocationChain chain : getInvocationChains()) {
@@ -364,8 +373,13 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
         	RuntimeComponent theComponent = theReference.getComponent();
             ImplementationProvider implementationProvider = theComponent.getImplementationProvider();
             if (implementationProvider instanceof ImplementationAsyncProvider){
+                // The responses to all the operations of the reference share the same table
+                AsyncResponseTable asyncResponseTable = AsyncResponseTable.createTable(this);
                 for (InvocationChain chain : getInvocationChains()){
                     InvokerAsyncResponse asyncResponseInvoker = ((ImplementationAsyncProvider)implementationProvider).createAsyncResponseInvoker(chain.getSourceOperation());
+                    if (asyncResponseInvoker instanceof AsyncResponseTableAware){
+                        ((AsyncResponseTableAware)asyncResponseInvoker).setAsyncResponseTable(asyncResponseTable);
+                    } // end if
                     if (chain.getHeadInvoker() instanceof InterceptorAsync){
                         ((InterceptorAsync)chain.getHeadInvoker()).setPrevious(asyncResponseInvoker);
                     } else {
@@ -480,12 +494,13 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
         }
     }
 
-    public void rebuild() {
+    public synchronized void rebuild() {
         // TODO - can we use the idea of setTarget to rebuild the wire?
         //        used at the moment by binding.sca when it resets the
         //        source interface contract for local wires
         this.chains = null;
-        invocationChainMap.clear();
+        invocationChainMap = new ConcurrentHashMap<Operation, InvocationChain>();
+        targetEndpointEpoch = -1;
 
         if (getStatus() == EndpointReference.Status.WIRED_TARGET_FOUND_AND_MATCHED){
             setStatus(EndpointReference.Status.NOT_CONFIGURED);
@@ -550,9 +565,35 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
         return copy;
     }
 
+    @Override
+    public void setTargetEndpoint(Endpoint targetEndpoint) {
+        super.setTargetEndpoint(targetEndpoint);
+        // The cached epoch belongs to the previous target
+        targetEndpointEpoch = -1;
+    }
+
     public boolean isOutOfDate() {
         resolve();
-        return bindingURIaltered || eprBinder.isOutOfDate(domainRegistry, this);
+        if (bindingURIaltered) {
+            return true;
+        }
+        if (domainRegistry == null) {
+            return eprBinder.isOutOfDate(domainRegistry, this);
+        }
+        
+        // Only go to the registry for the full check if the endpoints of the target
+        // component have changed since the last time this reference was found up to date,
+        // or if the registry can't tell
+        String targetURI = targetEndpoint == null ? null : targetEndpoint.getURI();
+        long epoch = domainRegistry.getEndpointEpoch(targetURI);
+        if (targetURI != null && epoch >= 0 && epoch == targetEndpointEpoch) {
+            return false;
+        }
+        boolean outOfDate = eprBinder.isOutOfDate(domainRegistry, this);
+        if (!outOfDate) {
+            targetEndpointEpoch = epoch;
+        }
+        return outOfDate;
     }
 
     public synchronized ReferenceBindingProvider getBindingProvider() {
@@ -596,7 +637,8 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
         chains = null;
         bindingProvider = null;
         policyProviders = null;
-        invocationChainMap.clear();
+        invocationChainMap = new ConcurrentHashMap<Operation, InvocationChain>();
+        targetEndpointEpoch = -1;
     }
 
     public Contract getContract() {
@@ -700,17 +742,26 @@ public class RuntimeEndpointReferenceImpl extends EndpointReferenceImpl implemen
 	} // end method findActualEPR
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        String legacyURI = EndpointWireFormat.readHeader(in);
+        if (legacyURI != null) {
+            this.uri = legacyURI;
+            this.xml = in.readUTF();
+            return;
+        }
+        EndpointWireFormatCache cache = EndpointWireFormatCache.getInstance(registry);
         this.uri = in.readUTF();
-        this.xml = in.readUTF();
+        this.xml = EndpointWireFormat.readDocument(in, cache);
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
+        EndpointWireFormat.writeHeader(out);
+        EndpointWireFormatCache cache = EndpointWireFormatCache.getInstance(registry);
         out.writeUTF(getURI());
         if (serializer == null && xml != null) {
-            out.writeUTF(xml);
+            EndpointWireFormat.writeDocument(out, xml, cache);
         } else {
             if (serializer != null) {
-                out.writeUTF(serializer.write(this));
+                EndpointWireFormat.writeDocument(out, serializer.write(this), cache);
             } else {
                 throw new IllegalStateException("No serializer is configured");
             }
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.xml.namespace.QName;
+
+import org.apache.tuscany.sca.assembly.Base;
+import org.apache.tuscany.sca.assembly.Extension;
+import org.apache.tuscany.sca.core.UtilityExtensionPoint;
+import org.apache.tuscany.sca.runtime.RuntimeEndpointReference;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
+import org.apache.tuscany.sca.work.WorkScheduler;
+import org.oasisopen.sca.ServiceRuntimeException;
+
+/**
+ * The table of the handlers, typically AsyncInvocationFutureImpl objects, waiting for the responses to the
+ * async invocations made through a reference, keyed by the unique ID of the request.
+ * <p>
+ * A handler whose response doesn't arrive within the timeout is removed from the table and, if it's an
+ * AsyncResponseHandler, completed on a thread of the work scheduler with a ServiceRuntimeException caused
+ * by a TimeoutException. There is no timeout by default. When maxPending handlers are waiting, new requests
+ * wait up to maxWait milliseconds for a slot and then fail.
+ * <p>
+ * The settings come from the Tuscany asyncResponseTimeout and maxPendingAsyncResponses attributes of the
+ * reference, with RuntimeProperties.ASYNC_RESPONSE_TIMEOUT, ASYNC_RESPONSE_MAX_PENDING and
+ * ASYNC_RESPONSE_MAX_WAIT as defaults.
+ *
+ * @version $Rev$ $Date$
+ */
+public class AsyncResponseTable {
+    private static final Logger logger = Logger.getLogger(AsyncResponseTable.class.getName());
+
+    public static final long DEFAULT_TIMEOUT = 0;
+    public static final long DEFAULT_MAX_WAIT = 30000;
+
+    private static final QName TIMEOUT_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "asyncResponseTimeout");
+    private static final QName MAX_PENDING_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "maxPendingAsyncResponses");
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final long timeout;
+    private final int maxPending;
+    private final long maxWait;
+    private final Semaphore slots;
+    private final HashedWheelTimer timer;
+    private final WorkScheduler workScheduler;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * Create a table with the default settings, without timeout nor limit
+     */
+    public AsyncResponseTable() {
+        this(DEFAULT_TIMEOUT, 0, DEFAULT_MAX_WAIT, null, null);
+    }
+
+    /**
+     * @param timeout The time in milliseconds after which a handler expires, 0 for no timeout
+     * @param maxPending The maximum number of waiting handlers, 0 for no limit
+     * @param maxWait The time in milliseconds to wait for a slot when maxPending handlers are waiting
+     * @param timer The timer of the runtime, required if there is a timeout
+     * @param workScheduler Used to complete the expired handlers, required if there is a timeout
+     */
+    public AsyncResponseTable(long timeout,
+                              int maxPending,
+                              long maxWait,
+                              HashedWheelTimer timer,
+                              WorkScheduler workScheduler) {
+        if (timeout > 0 && (timer == null || workScheduler == null)) {
+            throw new IllegalArgumentException("The async responses can't expire without a timer and a work scheduler");
+        }
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+        this.maxWait = maxWait;
+        this.slots = maxPending > 0 ? new Semaphore(maxPending) : null;
+        this.timer = timer;
+        this.workScheduler = workScheduler;
+    }
+
+    /**
+     * Create the table for the async responses of a reference
+     * @param epr The endpoint reference
+     * @return The table configured for the reference
+     */
+    public static AsyncResponseTable createTable(RuntimeEndpointReference epr) {
+        long timeout = DEFAULT_TIMEOUT;
+        int maxPending = 0;
+        long maxWait = DEFAULT_MAX_WAIT;
+
+        UtilityExtensionPoint utilities = null;
+        RuntimeProperties runtimeProperties = null;
+        if (epr.getCompositeContext() != null) {
+            utilities =
+                epr.getCompositeContext().getExtensionPointRegistry().getExtensionPoint(UtilityExtensionPoint.class);
+            runtimeProperties = utilities.getUtility(RuntimeProperties.class);
+        }
+        Properties properties = runtimeProperties == null ? null : runtimeProperties.getProperties();
+        if (properties != null) {
+            timeout = getLong(properties.getProperty(RuntimeProperties.ASYNC_RESPONSE_TIMEOUT), timeout);
+            maxPending = (int)getLong(properties.getProperty(RuntimeProperties.ASYNC_RESPONSE_MAX_PENDING), maxPending);
+            maxWait = getLong(properties.getProperty(RuntimeProperties.ASYNC_RESPONSE_MAX_WAIT), maxWait);
+        }
+
+        if (epr.getReference() != null) {
+            for (Extension extension : epr.getReference().getAttributeExtensions()) {
+                if (TIMEOUT_ATTRIBUTE.equals(extension.getQName())) {
+                    timeout = getLong(extension.getValue(), timeout);
+                } else if (MAX_PENDING_ATTRIBUTE.equals(extension.getQName())) {
+                    maxPending = (int)getLong(extension.getValue(), maxPending);
+                }
+            }
+        }
+        if (timeout > 0 && utilities != null) {
+            return new AsyncResponseTable(timeout, maxPending, maxWait, utilities.getUtility(HashedWheelTimer.class),
+                                          utilities.getUtility(WorkScheduler.class));
+        }
+        // The responses can only expire with the timer of a runtime
+        return new AsyncResponseTable(0, maxPending, maxWait, null, null);
+    }
+
+    private static long getLong(Object value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid async response setting: " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Add the handler waiting for the response to a request
+     * @param id The unique ID of the request
+     * @param handler The handler
+     * @throws ServiceRuntimeException if maxPending handlers are still waiting after maxWait milliseconds
+     */
+    public void put(final String id, Object handler) {
+        if (slots != null) {
+            boolean acquired;
+            try {
+                acquired = slots.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                throw new ServiceRuntimeException("Too many async requests waiting for their response, the limit is "
+                    + maxPending);
+            }
+        }
+        final Entry entry = new Entry(handler);
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            release(previous);
+        }
+        if (timeout > 0) {
+            entry.timeout = timer.schedule(new Runnable() {
+                public void run() {
+                    expire(id, entry);
+                }
+            }, timeout);
+            if (entries.get(id) != entry) {
+                // The response arrived before the timeout was set
+                entry.timeout.cancel();
+            }
+        }
+    }
+
+    /**
+     * @param id The unique ID of a request
+     * @return The handler waiting for the response to the request, null if there is none
+     */
+    public Object get(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.handler;
+    }
+
+    /**
+     * Remove the handler waiting for the response to a request, typically when the response has arrived
+     * @param id The unique ID of the request
+     * @return The handler, null if there is none, for example because it has expired
+     */
+    public Object remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        release(entry);
+        completed.incrementAndGet();
+        return entry.handler;
+    }
+
+    /**
+     * Called by the timer thread, the handler is completed by the work scheduler as it runs the callbacks
+     * of the invocation
+     */
+    @SuppressWarnings("rawtypes")
+    private void expire(final String id, Entry entry) {
+        if (!entries.remove(id, entry)) {
+            return;
+        }
+        release(entry);
+        expired.incrementAndGet();
+        if (entry.handler instanceof AsyncResponseHandler) {
+            final AsyncResponseHandler handler = (AsyncResponseHandler)entry.handler;
+            workScheduler.scheduleWork(new Runnable() {
+                public void run() {
+                    TimeoutException cause =
+                        new TimeoutException("No response received within " + timeout + " ms for async request " + id);
+                    try {
+                        handler.setFault(new ServiceRuntimeException(cause.getMessage(), cause));
+                    } catch (IllegalStateException e) {
+                        // The response has been set in the meantime
+                    }
+                }
+            });
+        }
+    }
+
+    private void release(Entry entry) {
+        if (entry.timeout != null) {
+            entry.timeout.cancel();
+        }
+        if (slots != null) {
+            slots.release();
+        }
+    }
+
+    /**
+     * @return The number of handlers waiting for their response
+     */
+    public int getPendingCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of handlers removed because their response has arrived
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * @return The number of handlers that have expired
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    private static class Entry {
+        private final Object handler;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private Entry(Object handler) {
+            this.handler = handler;
+        }
+    }
+}
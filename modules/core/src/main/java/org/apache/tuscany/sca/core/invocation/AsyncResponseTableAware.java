@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.tuscany.sca.core.invocation;
+
+/**
+ * Implemented by the async response invokers which keep their registered async responses in an
+ * AsyncResponseTable. The runtime gives them the table of the reference, which sets the timeout of the
+ * responses and the maximum number of them. Invokers which don't implement it keep their responses as
+ * they see fit.
+ */
+public interface AsyncResponseTableAware {
+
+	/**
+	 * Sets the table which holds the registered async responses. The table may be shared by the invokers
+	 * of the operations of a reference.
+	 * @param table - the table
+	 */
+	public void setAsyncResponseTable( AsyncResponseTable table );
+
+} // end interface AsyncResponseTableAware
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.tuscany.sca.core.LifeCycleListener;
+
+/**
+ * A timer for large numbers of timeouts that are usually cancelled before they expire. The timeouts are
+ * kept in a wheel of buckets, scheduling and cancelling a timeout are constant time operations and the
+ * timeouts expire with a precision of one tick.
+ * <p>
+ * The timer is a utility of the runtime, its thread is started and stopped with the runtime. The expired
+ * tasks are run by the timer thread so they must not block.
+ *
+ * @version $Rev$ $Date$
+ */
+public final class HashedWheelTimer implements LifeCycleListener {
+    private static final Logger logger = Logger.getLogger(HashedWheelTimer.class.getName());
+
+    private final long tickNanos;
+    private final Set<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<Timeout>();
+    private final long startTime = System.nanoTime();
+    private Thread worker;
+    private volatile boolean stopped;
+
+    /**
+     * Create a timer with a tick of 100 milliseconds
+     */
+    public HashedWheelTimer() {
+        this(100, 512);
+    }
+
+    /**
+     * @param tickDuration The duration of a tick in milliseconds
+     * @param ticksPerWheel The number of buckets of the wheel, rounded up to a power of 2
+     */
+    @SuppressWarnings("unchecked")
+    HashedWheelTimer(long tickDuration, int ticksPerWheel) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        wheel = new Set[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = Collections.newSetFromMap(new ConcurrentHashMap<Timeout, Boolean>());
+        }
+        mask = size - 1;
+    }
+
+    public synchronized void start() {
+        if (worker != null || stopped) {
+            return;
+        }
+        worker = new Thread(new Runnable() {
+            public void run() {
+                runWheel();
+            }
+        }, "Tuscany-HashedWheelTimer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop the timer thread, the pending timeouts are dropped without running their tasks
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        added.clear();
+        for (Set<Timeout> bucket : wheel) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Schedule a task
+     * @param task The task to run when the timeout expires
+     * @param delay The delay in milliseconds
+     * @return The timeout, to cancel it
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+        if (!stopped) {
+            added.add(timeout);
+        }
+        return timeout;
+    }
+
+    private void runWheel() {
+        long tick = 0;
+        while (!stopped) {
+            long sleep = startTime + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    // The timer has been stopped
+                }
+                continue;
+            }
+            transferAdded(tick);
+            for (Iterator<Timeout> i = wheel[(int)(tick & mask)].iterator(); i.hasNext();) {
+                Timeout timeout = i.next();
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                } else {
+                    i.remove();
+                    timeout.expire();
+                }
+            }
+            tick++;
+        }
+    }
+
+    private void transferAdded(long tick) {
+        for (Timeout timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long expiryTick = Math.max((timeout.deadline - startTime) / tickNanos, tick);
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+            Set<Timeout> bucket = wheel[(int)(expiryTick & mask)];
+            bucket.add(timeout);
+            timeout.bucket = bucket;
+            if (timeout.cancelled) {
+                bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A scheduled task
+     */
+    public static final class Timeout {
+        private final long deadline;
+        private volatile Runnable task;
+        private volatile boolean cancelled;
+        private volatile Set<Timeout> bucket;
+        // Only used by the timer thread
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout, the task is released so that it can be garbage collected
+         */
+        public void cancel() {
+            cancelled = true;
+            task = null;
+            Set<Timeout> b = bucket;
+            if (b != null) {
+                b.remove(this);
+            }
+        }
+
+        private void expire() {
+            Runnable t = task;
+            if (cancelled || t == null) {
+                return;
+            }
+            try {
+                t.run();
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Error running an expired timeout", e);
+            }
+        }
+    }
+}
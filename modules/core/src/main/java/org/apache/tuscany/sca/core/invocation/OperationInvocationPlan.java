@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import javax.xml.ws.Holder;
+
+import org.apache.tuscany.sca.interfacedef.Operation;
+import org.apache.tuscany.sca.interfacedef.ParameterMode;
+
+/**
+ * Records, for an operation and the Java method used to call or implement it, which parameters
+ * are IN, INOUT or OUT and which are Holders. It is computed once when the wire is built so
+ * that the proxy and the implementation invoker don't need to work the holder pattern out
+ * on every call, and operations without holders can skip the holder handling altogether.
+ *
+ * @version $Rev$ $Date$
+ */
+public class OperationInvocationPlan {
+    private static final int[] NONE = new int[0];
+
+    private final Operation operation;
+    private final Method method;
+
+    // Indexes of the arguments that are not OUT-only, null if there are no OUT-only parameters
+    private final int[] requestIndexes;
+    // Indexes of the method parameters declared as Holders
+    private final int[] holderParameterIndexes;
+    // Indexes of the INOUT and OUT parameters
+    private final int[] outputIndexes;
+    private final boolean voidReturnType;
+    private final boolean remotable;
+
+    /**
+     * @param operation The operation, can be null
+     * @param method The Java method, can be null
+     */
+    public OperationInvocationPlan(Operation operation, Method method) {
+        this.operation = operation;
+        this.method = method;
+
+        List<ParameterMode> modes = operation == null ? null : operation.getParameterModes();
+        int outOnlyCount = 0;
+        int outputCount = 0;
+        if (modes != null) {
+            for (ParameterMode mode : modes) {
+                if (mode == ParameterMode.OUT) {
+                    outOnlyCount++;
+                }
+                if (mode != ParameterMode.IN) {
+                    outputCount++;
+                }
+            }
+        }
+        if (outOnlyCount > 0) {
+            requestIndexes = new int[modes.size() - outOnlyCount];
+            for (int i = 0, j = 0; i < modes.size(); i++) {
+                if (modes.get(i) != ParameterMode.OUT) {
+                    requestIndexes[j++] = i;
+                }
+            }
+        } else {
+            requestIndexes = null;
+        }
+        if (outputCount > 0) {
+            outputIndexes = new int[outputCount];
+            for (int i = 0, j = 0; i < modes.size(); i++) {
+                if (modes.get(i) != ParameterMode.IN) {
+                    outputIndexes[j++] = i;
+                }
+            }
+        } else {
+            outputIndexes = NONE;
+        }
+
+        if (method != null) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            int holderCount = 0;
+            for (Class<?> type : parameterTypes) {
+                if (isHolder(type)) {
+                    holderCount++;
+                }
+            }
+            if (holderCount > 0) {
+                holderParameterIndexes = new int[holderCount];
+                for (int i = 0, j = 0; i < parameterTypes.length; i++) {
+                    if (isHolder(parameterTypes[i])) {
+                        holderParameterIndexes[j++] = i;
+                    }
+                }
+            } else {
+                holderParameterIndexes = NONE;
+            }
+            voidReturnType = void.class == method.getReturnType();
+        } else {
+            holderParameterIndexes = NONE;
+            voidReturnType = false;
+        }
+        remotable = operation != null && operation.getInterface() != null && operation.getInterface().isRemotable();
+    }
+
+    /**
+     * Tells if the class is a Holder by comparing to "javax.xml.ws.Holder"
+     */
+    public static boolean isHolder(Class<?> type) {
+        return type.getName().startsWith("javax.xml.ws.Holder");
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return true if the method has Holder parameters
+     */
+    public boolean hasHolderParameters() {
+        return holderParameterIndexes.length > 0;
+    }
+
+    /**
+     * Get the arguments to send for a call through the method. Holder<T> values are promoted
+     * to T and OUT-only arguments are removed. The Holders themselves are left untouched as
+     * they receive the outputs in {@link #getResponse(Object[], Object)}.
+     * @param args The arguments passed to the method
+     * @return The arguments to put in the request message
+     */
+    public Object[] getRequestArguments(Object[] args) {
+        if (args == null || (holderParameterIndexes.length == 0 && requestIndexes == null)) {
+            return args;
+        }
+        Object[] promotedArgs = args;
+        if (holderParameterIndexes.length > 0) {
+            promotedArgs = args.clone();
+            for (int index : holderParameterIndexes) {
+                Object argument = promotedArgs[index];
+                if (argument instanceof Holder) {
+                    promotedArgs[index] = ((Holder<?>)argument).value;
+                }
+            }
+        }
+        if (requestIndexes != null) {
+            Object[] requestArgs = new Object[requestIndexes.length];
+            for (int i = 0; i < requestIndexes.length; i++) {
+                requestArgs[i] = promotedArgs[requestIndexes[i]];
+            }
+            return requestArgs;
+        }
+        return promotedArgs;
+    }
+
+    /**
+     * Get the value to return from a call through the method. The outputs in the result are
+     * placed back in the Holder<T> arguments.
+     * @param args The arguments passed to the method
+     * @param result The body of the response message
+     * @return The value to return from the method
+     */
+    @SuppressWarnings("unchecked")
+    public Object getResponse(Object[] args, Object result) {
+        if (holderParameterIndexes.length == 0 || result == null) {
+            return result;
+        }
+        Object[] results = (Object[])result;
+        int resultIndex = voidReturnType ? 0 : 1;
+        for (int index : holderParameterIndexes) {
+            Holder<Object> holder = (Holder<Object>)args[index];
+            holder.value = results[resultIndex++];
+        }
+        return voidReturnType ? null : results[0];
+    }
+
+    /**
+     * @return true if the implementation method takes Holders for the INOUT and OUT parameters
+     * of the operation
+     */
+    public boolean hasOutputParameters() {
+        return remotable && outputIndexes.length > 0;
+    }
+
+    /**
+     * @return The number of INOUT and OUT parameters
+     */
+    public int getOutputParameterCount() {
+        return outputIndexes.length;
+    }
+
+    /**
+     * Create the arguments for the implementation method, INOUT values are put in a Holder<T>
+     * and an empty Holder is created for each OUT parameter.
+     * @param payload The arguments from the request message
+     * @return The arguments for the implementation method
+     */
+    @SuppressWarnings("unchecked")
+    public Object[] createImplementationArguments(Object[] payload) {
+        List<ParameterMode> modes = operation.getParameterModes();
+        Object[] args = new Object[modes.size()];
+        int nextIndex = 0;
+        for (int i = 0; i < args.length; i++) {
+            ParameterMode mode = modes.get(i);
+            if (mode == ParameterMode.IN) {
+                args[i] = payload[nextIndex++];
+            } else if (mode == ParameterMode.INOUT) {
+                args[i] = new Holder(payload[nextIndex++]);
+            } else {
+                // Create an empty Holder since we should not pass values for OUT parameters
+                args[i] = new Holder();
+            }
+        }
+        return args;
+    }
+
+    /**
+     * Demote the Holder<T> arguments of the implementation method to T
+     * @param args The arguments the implementation method was called with
+     * @return The values of the INOUT and OUT parameters
+     */
+    @SuppressWarnings("unchecked")
+    public Object[] getOutputParameterValues(Object[] args) {
+        Object[] values = new Object[outputIndexes.length];
+        for (int i = 0; i < outputIndexes.length; i++) {
+            int index = outputIndexes[i];
+            Holder<Object> item = (Holder<Object>)args[index];
+            args[index] = item.value;
+            values[i] = item.value;
+        }
+        return values;
+    }
+}
@@ -65,6 +65,7 @@ import org.apache.tuscany.sca.core.assembly.RuntimeAssemblyFactory;
 import org.apache.tuscany.sca.core.invocation.AsyncFaultWrapper;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseException;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseService;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTable;
 import org.apache.tuscany.sca.core.invocation.JDKAsyncResponseInvoker;
 import org.apache.tuscany.sca.interfacedef.InvalidInterfaceException;
 import org.apache.tuscany.sca.interfacedef.Operation;
@@ -281,7 +282,7 @@ public class AsyncJDKInvocationHandler extends JDKInvocationHandler {
             RuntimeEndpointReference epr = (RuntimeEndpointReference)source;
             if (epr.isOutOfDate()) {
                 epr.rebuild();
-                chains.clear();
+                resetInvocationChains();
             }
         } // end if
 
@@ -555,7 +556,7 @@ public class AsyncJDKInvocationHandler extends JDKInvocationHandler {
         RuntimeComponent fakeComponent = null;
         try {
             fakeComponent = (RuntimeComponent)epr.getComponent().clone();
-            applyImplementation(fakeComponent);
+            applyImplementation(fakeComponent, epr);
         } catch (CloneNotSupportedException e2) {
             // will not happen
         } // end try
@@ -674,9 +675,10 @@ public class AsyncJDKInvocationHandler extends JDKInvocationHandler {
      * Applies an AsyncResponseHandlerImpl as the implementation of a RuntimeComponent
      * - the AsyncResponseHandlerImpl acts as both the implementation class and the implementation provider...
      * @param component - the component
+     * @param epr - the reference whose async responses are handled
      */
-    private void applyImplementation(RuntimeComponent component) {
-        AsyncResponseHandlerImpl<?> asyncHandler = new AsyncResponseHandlerImpl<Object>();
+    private void applyImplementation(RuntimeComponent component, RuntimeEndpointReference epr) {
+        AsyncResponseHandlerImpl<?> asyncHandler = new AsyncResponseHandlerImpl<Object>(AsyncResponseTable.createTable(epr));
         component.setImplementation(asyncHandler);
         component.setImplementationProvider(asyncHandler);
         return;
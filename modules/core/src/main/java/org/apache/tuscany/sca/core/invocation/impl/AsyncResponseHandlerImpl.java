@@ -20,7 +20,6 @@
 package org.apache.tuscany.sca.core.invocation.impl;
 
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
@@ -30,6 +29,7 @@ import org.apache.tuscany.sca.assembly.Reference;
 import org.apache.tuscany.sca.assembly.Service;
 import org.apache.tuscany.sca.core.invocation.AsyncFaultWrapper;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseHandler;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTable;
 import org.apache.tuscany.sca.core.invocation.Constants;
 import org.apache.tuscany.sca.interfacedef.Operation;
 import org.apache.tuscany.sca.invocation.Invoker;
@@ -59,8 +59,19 @@ import org.apache.tuscany.sca.runtime.RuntimeComponentService;
 public class AsyncResponseHandlerImpl<V> implements AsyncResponseHandler<V>,
 		ImplementationProvider, Implementation, Invoker {
 
-	private ConcurrentHashMap< String, AsyncInvocationFutureImpl<?> > table = 
-		new ConcurrentHashMap< String, AsyncInvocationFutureImpl<?> >();
+	private final AsyncResponseTable table;
+	
+	public AsyncResponseHandlerImpl() {
+		this(new AsyncResponseTable());
+	}
+	
+	/**
+	 * @param table - the table holding the Futures waiting for their response, which sets their timeout 
+	 * and the maximum number of them
+	 */
+	public AsyncResponseHandlerImpl(AsyncResponseTable table) {
+		this.table = table;
+	}
 	
 	/**
 	 * This class is its own invoker...
@@ -78,6 +89,14 @@ public class AsyncResponseHandlerImpl<V> implements AsyncResponseHandler<V>,
 		// The Future is stored in the table indexed by its unique ID
 		table.put(future.getUniqueID(), future);		
 	} // end method addFuture
+	
+	/**
+	 * Gets the table of the Futures waiting for their response, with the pending, completed and expired counts
+	 * @return - the table
+	 */
+	public AsyncResponseTable getResponseTable() {
+		return table;
+	} // end method getResponseTable
 
 	public boolean supportsOneWayInvocation() {
 		return true;
@@ -164,8 +183,8 @@ public class AsyncResponseHandlerImpl<V> implements AsyncResponseHandler<V>,
 		if( idValue == null ) { 
 			System.out.println( "Async message ID not found ");
 		} else {
-			// Fetch the Future with that Unique ID
-			AsyncInvocationFutureImpl future = table.get(idValue);
+			// Fetch the Future with that Unique ID & remove it from the table
+			AsyncInvocationFutureImpl future = (AsyncInvocationFutureImpl)table.remove(idValue);
 			if( future == null ) {
 				System.out.println("Future not found for id: " + idValue);
 			} else {	
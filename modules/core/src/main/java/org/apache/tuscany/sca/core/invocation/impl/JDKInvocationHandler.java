@@ -23,7 +23,6 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,9 +32,9 @@ import javax.xml.ws.Holder;
 import org.apache.tuscany.sca.assembly.Endpoint;
 import org.apache.tuscany.sca.context.ThreadMessageContext;
 import org.apache.tuscany.sca.core.context.ServiceReferenceExt;
+import org.apache.tuscany.sca.core.invocation.OperationInvocationPlan;
 import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.Operation;
-import org.apache.tuscany.sca.interfacedef.ParameterMode;
 import org.apache.tuscany.sca.interfacedef.java.JavaOperation;
 import org.apache.tuscany.sca.invocation.InvocationChain;
 import org.apache.tuscany.sca.invocation.Invoker;
@@ -61,7 +60,11 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
 
     protected boolean fixedWire = true;
 
-    protected transient Map<Method, InvocationChain> chains = new IdentityHashMap<Method, InvocationChain>();
+    // Never modified once published, a miss copies the map and publishes the new one so that 
+    // finding the chain for a method doesn't need to lock
+    protected transient volatile Map<Method, InvocationChain> chains = new IdentityHashMap<Method, InvocationChain>();
+    // Copied and published the same way as the chains
+    private transient volatile Map<Method, OperationInvocationPlan> plans = new IdentityHashMap<Method, OperationInvocationPlan>();
 
     public JDKInvocationHandler(MessageFactory messageFactory, Class<?> businessInterface, Invocable source) {
         this.messageFactory = messageFactory;
@@ -99,7 +102,7 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
             RuntimeEndpointReference epr = (RuntimeEndpointReference)source;
             if (epr.isOutOfDate()) {
                 epr.rebuild();
-                chains.clear();
+                resetInvocationChains();
             }
         }
         
@@ -109,53 +112,11 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
             throw new IllegalArgumentException("No matching operation is found: " + method);
         }        
 
-        // Holder pattern. Items stored in a Holder<T> are promoted to T.
-        // After the invoke, the returned data <T> are placed back in Holder<T>.
-        Object [] promotedArgs = promoteHolderArgs( args ); 
-        
-        // Strip out OUT-only arguments.  Not too sure if the presence
-        // of a sourceOperation is exactly the right check to use to 
-        // know whether or not to do this, but will assume it is until
-        // learning otherwise.
-        Operation sourceOp = chain.getSourceOperation();        
-        if (sourceOp != null) {
-            promotedArgs = removeOutOnlyArgs(sourceOp, promotedArgs );
-        } 
-        
-        Object result = invoke(method, chain, promotedArgs, source);
-        
-        // TODO - Based on the code in JavaInterfaceIntrospectorImpl, it seems there are
-        // some cases involving generics that we're not taking into account.
-        boolean voidReturnType = (void.class == method.getReturnType() ? true : false);
-
-        // Returned Holder data <T> are placed back in Holder<T>.
-        boolean holderPattern = false;
-        Class [] parameters = method.getParameterTypes();
-        if ( parameters != null ) {
-                int resultIdx = (voidReturnType ?  0 : 1);
-        	for ( int i = 0; i < parameters.length; i++ ) {
-        		Class parameterType = parameters[ i ];              
-        		if ( isHolder( parameterType ) ) {
-        			holderPattern = true;
-        			// Pop results and place in holder (demote).
-        			Holder holder = (Holder) args[ i ]; 
-        		
-        			Object[] results = (Object[])result;
-        			if ( result != null ) {
-        				holder.value =  results[resultIdx++]; 
-        			}
-        		}            
-        	}
-        }
-        if (holderPattern && result != null) {
-            if (voidReturnType) {
-                return null;
-            } else {
-                return ((Object[])result)[0];
-            }
-        } else {
-            return result;
-        }
+        // Holder pattern. Items stored in a Holder<T> are promoted to T and OUT-only arguments
+        // are stripped out. After the invoke, the returned data <T> are placed back in Holder<T>.
+        OperationInvocationPlan plan = getInvocationPlan(method, chain);
+        Object result = invoke(method, chain, plan.getRequestArguments(args), source);
+        return plan.getResponse(args, result);
     }
 
     /**
@@ -237,13 +198,25 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
 
     }
 
-    protected synchronized InvocationChain getInvocationChain(Method method, Invocable source) {
+    protected InvocationChain getInvocationChain(Method method, Invocable source) {
         if (source instanceof RuntimeEndpoint) {
             // [rfeng] Start with the binding invocation chain
             return source.getBindingInvocationChain();
         }
-        if (fixedWire && chains.containsKey(method)) {
-            return chains.get(method);
+        if (fixedWire) {
+            Map<Method, InvocationChain> cached = chains;
+            InvocationChain chain = cached.get(method);
+            if (chain != null || cached.containsKey(method)) {
+                return chain;
+            }
+        }
+        return findInvocationChain(method, source);
+    }
+
+    private synchronized InvocationChain findInvocationChain(Method method, Invocable source) {
+        Map<Method, InvocationChain> cached = chains;
+        if (fixedWire && cached.containsKey(method)) {
+            return cached.get(method);
         }
         InvocationChain found = null;
         for (InvocationChain chain : source.getInvocationChains()) {
@@ -258,11 +231,45 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
             }
         }
         if (fixedWire) {
-            chains.put(method, found);
+            Map<Method, InvocationChain> newChains = new IdentityHashMap<Method, InvocationChain>(cached);
+            newChains.put(method, found);
+            chains = newChains;
         }
         return found;
     }
 
+    /**
+     * Discard the cached method to invocation chain mappings, for example after the
+     * endpoint reference has been rebuilt
+     */
+    protected synchronized void resetInvocationChains() {
+        chains = new IdentityHashMap<Method, InvocationChain>();
+        plans = new IdentityHashMap<Method, OperationInvocationPlan>();
+    }
+
+    /**
+     * Get the plan for passing the arguments of the method to the source operation of the chain
+     * @param method
+     * @param chain
+     * @return
+     */
+    protected OperationInvocationPlan getInvocationPlan(Method method, InvocationChain chain) {
+        Operation sourceOp = chain.getSourceOperation();
+        OperationInvocationPlan plan = plans.get(method);
+        if (plan != null && plan.getOperation() == sourceOp) {
+            return plan;
+        }
+        plan = new OperationInvocationPlan(sourceOp, method);
+        if (fixedWire) {
+            synchronized (this) {
+                Map<Method, OperationInvocationPlan> newPlans = new IdentityHashMap<Method, OperationInvocationPlan>(plans);
+                newPlans.put(method, plan);
+                plans = newPlans;
+            }
+        }
+        return plan;
+    }
+
     protected synchronized InvocationChain getInvocationChain(String opName, Invocable source) {
         if (source instanceof RuntimeEndpoint) {
             // [rfeng] Start with the binding invocation chain
@@ -367,7 +374,10 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
     protected void transferMessageHeaders( Message newMsg, Message oldMsg ) {
     	if( oldMsg == null ) return;
     	// For the present, simply copy all the headers 
-    	if( !oldMsg.getHeaders().isEmpty() ) newMsg.getHeaders().putAll( oldMsg.getHeaders() );
+    	if( newMsg instanceof MessageImpl && oldMsg instanceof MessageImpl ) {
+    	    // Shares the header map until one of the messages changes its headers
+    	    ((MessageImpl)newMsg).inheritHeaders((MessageImpl)oldMsg);
+    	} else if( !oldMsg.getHeaders().isEmpty() ) newMsg.getHeaders().putAll( oldMsg.getHeaders() );
     } // end transferMessageHeaders
 
     /**
@@ -390,78 +400,65 @@ public class JDKInvocationHandler implements InvocationHandler, Serializable {
      * PromotedArgs should not destroy holders. They are used on response return.
      * @param args containing Holders and other objects.
      * @return Object [] 
+     * @deprecated Use {@link OperationInvocationPlan#getRequestArguments(Object[])}
      */
+    @Deprecated
     protected static Object [] promoteHolderArgs( Object [] args ) {
-    	if ( args == null )
-    		return args;
-    	Object [] promotedArgs = new Object[ args.length ];
-    	
-    	for ( int i = 0; i < args.length; i++ ) {
-    		Object argument = args[ i ];
-    		if ( argument != null ) {
-    			if ( isHolder( argument ) ) {
-    				promotedArgs[ i ] = ((Holder)argument).value;      
-    			} else {
-    				promotedArgs[ i ] = args[ i ];
-    			}
-                  
-    		}
-    	}
-    	return promotedArgs;
+        if ( args == null )
+            return args;
+        Object [] promotedArgs = new Object[ args.length ];
+        for ( int i = 0; i < args.length; i++ ) {
+            Object argument = args[ i ];
+            if ( argument != null && isHolder( argument ) ) {
+                promotedArgs[ i ] = ((Holder<?>)argument).value;
+            } else {
+                promotedArgs[ i ] = argument;
+            }
+        }
+        return promotedArgs;
     }
-    
+
     /**
      * Given an argument array, filters out (removes) OUT-only parameters
      * @param sourceOp
      * @return array of filtered arguments
-     */    
+     * @deprecated Use {@link OperationInvocationPlan#getRequestArguments(Object[])}
+     */
+    @Deprecated
     Object[] removeOutOnlyArgs(Operation sourceOp, Object[] args) {
-        if ( args == null )
-            return args;
-        ArrayList<Object> retValList = new ArrayList<Object>();
-        List<ParameterMode> parmList = sourceOp.getParameterModes();
-        for (int i = 0; i < args.length; i++) {
-            if (parmList.get(i) != ParameterMode.OUT) {
-                retValList.add(args[i]);
-            }
-        }
-        return retValList.toArray();
+        // Without a method the plan has no Holders to promote and only strips the OUT-only arguments
+        return new OperationInvocationPlan(sourceOp, null).getRequestArguments(args);
     }
-    
+
     /**
      * Given a Class, tells if it is a Holder by comparing to "javax.xml.ws.Holder"
      * @param testClass
      * @return boolean whether class is Holder type.
+     * @deprecated Use {@link OperationInvocationPlan#isHolder(Class)}
      */
+    @Deprecated
     protected static boolean isHolder( Class testClass ) {
-    	if ( testClass.getName().startsWith( "javax.xml.ws.Holder" )) {
-    		return true;
-    	}
-    	return false;        
+        return OperationInvocationPlan.isHolder( testClass );
     }
-    
-         
+
     /**
      * Given an Object, tells if it is a Holder by comparing to "javax.xml.ws.Holder"
      * @param testClass
      * @return boolean stating whether Object is a Holder type.
-     * @author DOB
+     * @deprecated Use {@link OperationInvocationPlan#isHolder(Class)}
      */
+    @Deprecated
     protected static boolean isHolder( Object object ) {
-    	String objectName = object.getClass().getName();
-    	if ( object instanceof javax.xml.ws.Holder ) {
-    		return true;
-    	}
-    	return false;        
+        return object instanceof Holder;
     }
-    
+
     protected Object invoke(String opName, Object args, Invocable source, String msgID) throws Throwable {
         
         if (source instanceof RuntimeEndpointReference) {
             RuntimeEndpointReference epr = (RuntimeEndpointReference)source;
             if (epr.isOutOfDate()) {
                 epr.rebuild();
-                chains.clear();
+                resetInvocationChains();
             }
         }
         
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The headers of a MessageImpl. The backing map is only created when the first header is
+ * added. It is copy-on-write: a published map is never modified, each change publishes a
+ * new map. Another message can therefore share the map it inherits, even if the message it
+ * inherits from is still being changed by another thread, as it is in one-way and async flows.
+ *
+ * @version $Rev$ $Date$
+ */
+class MessageHeaders extends AbstractMap<String, Object> {
+    // Never modified once published
+    private volatile Map<String, Object> map;
+
+    /**
+     * Take on all the headers of another message. If this message has no headers yet the
+     * map of the other message is shared rather than copied.
+     * @param other
+     */
+    void inherit(MessageHeaders other) {
+        Map<String, Object> inherited = other.map;
+        if (inherited == null || inherited.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (map == null || map.isEmpty()) {
+                map = inherited;
+            } else {
+                Map<String, Object> newMap = copy();
+                newMap.putAll(inherited);
+                map = newMap;
+            }
+        }
+    }
+
+    /**
+     * @return A copy of the map to modify and publish, the caller holds the lock
+     */
+    private Map<String, Object> copy() {
+        return map == null ? new HashMap<String, Object>(4) : new HashMap<String, Object>(map);
+    }
+
+    @Override
+    public int size() {
+        Map<String, Object> current = map;
+        return current == null ? 0 : current.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Map<String, Object> current = map;
+        return current == null || current.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Map<String, Object> current = map;
+        return current != null && current.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Map<String, Object> current = map;
+        return current == null ? null : current.get(key);
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Map<String, Object> newMap = copy();
+        Object old = newMap.put(key, value);
+        map = newMap;
+        return old;
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends String, ? extends Object> m) {
+        if (!m.isEmpty()) {
+            Map<String, Object> newMap = copy();
+            newMap.putAll(m);
+            map = newMap;
+        }
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        if (map == null || !map.containsKey(key)) {
+            return null;
+        }
+        Map<String, Object> newMap = copy();
+        Object old = newMap.remove(key);
+        map = newMap;
+        return old;
+    }
+
+    @Override
+    public synchronized void clear() {
+        map = null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public int size() {
+                return MessageHeaders.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                // Iterates over a snapshot, the changes go through the headers
+                Map<String, Object> current = map;
+                final Iterator<Entry<String, Object>> i =
+                    current == null ? Collections.<Entry<String, Object>> emptySet().iterator() : current.entrySet().iterator();
+                return new Iterator<Entry<String, Object>>() {
+                    private Entry<String, Object> last;
+
+                    public boolean hasNext() {
+                        return i.hasNext();
+                    }
+
+                    public Entry<String, Object> next() {
+                        last = new HeaderEntry(i.next());
+                        return last;
+                    }
+
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        MessageHeaders.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * An entry that writes through to the headers rather than to the published map
+     */
+    private class HeaderEntry extends SimpleEntry<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        HeaderEntry(Entry<String, Object> entry) {
+            super(entry);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            super.setValue(value);
+            return put(getKey(), value);
+        }
+    }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.tuscany.sca.core.invocation.impl;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.tuscany.sca.assembly.Endpoint;
@@ -32,7 +31,7 @@ import org.apache.tuscany.sca.invocation.Message;
  * @version $Rev $Date$
  */
 public class MessageImpl implements Message { 
-    private Map<String, Object> headers = new HashMap<String, Object>();
+    private final MessageHeaders headers = new MessageHeaders();
     private Object body;
     private Object messageID;
     private boolean isFault;
@@ -103,6 +102,15 @@ public class MessageImpl implements Message {
         return headers;
     }    
 
+    /**
+     * Take on the headers of another message. The header map of the other message is shared 
+     * until one of the messages modifies its headers.
+     * @param other
+     */
+    public void inheritHeaders(MessageImpl other) {
+        headers.inherit(other.headers);
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T getBindingContext() {
         return (T)bindingContext;
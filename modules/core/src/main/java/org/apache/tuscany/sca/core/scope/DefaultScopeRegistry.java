@@ -19,9 +19,12 @@
 
 package org.apache.tuscany.sca.core.scope;
 
+import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.core.scope.impl.CompositeScopeContainerFactory;
 import org.apache.tuscany.sca.core.scope.impl.ScopeRegistryImpl;
 import org.apache.tuscany.sca.core.scope.impl.StatelessScopeContainerFactory;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
 
 /**
  * A default scope registry implementation.
@@ -37,4 +40,15 @@ public class DefaultScopeRegistry extends ScopeRegistryImpl implements ScopeRegi
             register(f);
         }
     }
+
+    public DefaultScopeRegistry(ExtensionPointRegistry registry) {
+        RuntimeProperties runtimeProperties =
+            registry.getExtensionPoint(UtilityExtensionPoint.class).getUtility(RuntimeProperties.class);
+        ScopeContainerFactory[] factories =
+            new ScopeContainerFactory[] {new CompositeScopeContainerFactory(),
+                                         new StatelessScopeContainerFactory(runtimeProperties)};
+        for (ScopeContainerFactory f : factories) {
+            register(f);
+        }
+    }
 }
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.scope.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.tuscany.sca.core.factory.InstanceWrapper;
+import org.apache.tuscany.sca.core.scope.AbstractScopeContainer;
+import org.apache.tuscany.sca.core.scope.Scope;
+import org.apache.tuscany.sca.core.scope.TargetDestructionException;
+import org.apache.tuscany.sca.core.scope.TargetResolutionException;
+import org.apache.tuscany.sca.runtime.RuntimeComponent;
+
+/**
+ * A scope context which manages stateless atomic component instances in a pooled fashion. Instances are
+ * started (@Init) when they are created and stopped (@Destroy) when they are evicted from the pool or
+ * the container is stopped, rather than for every invocation.
+ * <p>
+ * The idle instances are kept in a lock-free stack so that the most recently used instance is reused first.
+ * At most maxSize instances are created, callers wait up to maxWait milliseconds for an instance to be
+ * returned when they are all in use. Instances idle for longer than idleTimeout milliseconds are evicted
+ * when instances are returned, keeping at least minSize instances in the pool.
+ *
+ * @version $Rev$ $Date$
+ */
+public class PooledStatelessScopeContainer<KEY> extends AbstractScopeContainer<KEY> {
+    private static final Logger logger = Logger.getLogger(PooledStatelessScopeContainer.class.getName());
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxWait;
+
+    private final AtomicReference<PooledWrapper> idle = new AtomicReference<PooledWrapper>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    // The number of instances created by the pool and not yet stopped
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+    private final Object returned = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+
+    public PooledStatelessScopeContainer(RuntimeComponent component,
+                                         int minSize,
+                                         int maxSize,
+                                         long idleTimeout,
+                                         long maxWait) {
+        super(Scope.STATELESS, component);
+        this.maxSize = maxSize;
+        this.minSize = Math.min(minSize, maxSize);
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public synchronized void start() {
+        super.start();
+        if (isEagerInit()) {
+            try {
+                for (int i = 0; i < minSize && reserve(); i++) {
+                    push(createWrapper());
+                }
+            } catch (TargetResolutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        TargetDestructionException error = null;
+        for (InstanceWrapper<?> wrapper : drain()) {
+            try {
+                destroy(wrapper);
+            } catch (TargetDestructionException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    @Override
+    public InstanceWrapper getWrapper(KEY contextId) throws TargetResolutionException {
+        if (lifecycleState != RUNNING) {
+            throw new TargetResolutionException("scope container not running, lifecycleState=" + lifecycleState);
+        }
+        InstanceWrapper<?> wrapper = pop();
+        if (wrapper != null) {
+            hits.incrementAndGet();
+            return wrapper;
+        }
+        if (reserve()) {
+            misses.incrementAndGet();
+            return createWrapper();
+        }
+
+        // All the instances are in use, wait for one to be returned
+        waits.incrementAndGet();
+        waiters.incrementAndGet();
+        try {
+            long deadline = System.currentTimeMillis() + maxWait;
+            synchronized (returned) {
+                while ((wrapper = pop()) == null) {
+                    if (reserve()) {
+                        misses.incrementAndGet();
+                        return createWrapper();
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new TargetResolutionException("No instance of component " + component.getURI()
+                            + " available after waiting " + maxWait + "ms, maxSize=" + maxSize);
+                    }
+                    returned.wait(remaining);
+                }
+            }
+            hits.incrementAndGet();
+            return wrapper;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TargetResolutionException(e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Create and start an instance that doesn't belong to the pool, for invocations that keep using the
+     * instance after they return, such as the ones of async server operations. The instance isn't
+     * counted in the pool and mustn't be returned to it.
+     */
+    public InstanceWrapper getUnpooledWrapper() throws TargetResolutionException {
+        if (lifecycleState != RUNNING) {
+            throw new TargetResolutionException("scope container not running, lifecycleState=" + lifecycleState);
+        }
+        InstanceWrapper<?> wrapper = createInstanceWrapper();
+        wrapper.start();
+        return wrapper;
+    }
+
+    @Override
+    public InstanceWrapper getAssociatedWrapper(KEY contextId) throws TargetResolutionException {
+        return getWrapper(contextId);
+    }
+
+    @Override
+    public void returnWrapper(InstanceWrapper wrapper, KEY contextId) throws TargetDestructionException {
+        if (lifecycleState != RUNNING) {
+            destroy(wrapper);
+            return;
+        }
+        push(wrapper);
+        if (waiters.get() > 0) {
+            synchronized (returned) {
+                returned.notify();
+            }
+        }
+        evictIdleWrappers();
+    }
+
+    /**
+     * Create and start a new instance, the slot for it must have been reserved
+     */
+    private InstanceWrapper<?> createWrapper() throws TargetResolutionException {
+        boolean created = false;
+        try {
+            InstanceWrapper<?> wrapper = createInstanceWrapper();
+            wrapper.start();
+            created = true;
+            return wrapper;
+        } finally {
+            if (!created) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private void destroy(InstanceWrapper<?> wrapper) throws TargetDestructionException {
+        size.decrementAndGet();
+        wrapper.stop();
+    }
+
+    /**
+     * Reserve a slot for a new instance if the pool has not reached its maximum size
+     */
+    private boolean reserve() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void push(InstanceWrapper<?> wrapper) {
+        PooledWrapper node = new PooledWrapper(wrapper, System.currentTimeMillis());
+        do {
+            node.next = idle.get();
+        } while (!idle.compareAndSet(node.next, node));
+        idleCount.incrementAndGet();
+    }
+
+    private InstanceWrapper<?> pop() {
+        while (true) {
+            PooledWrapper top = idle.get();
+            if (top == null) {
+                return null;
+            }
+            if (idle.compareAndSet(top, top.next)) {
+                idleCount.decrementAndGet();
+                return top.wrapper;
+            }
+        }
+    }
+
+    private List<InstanceWrapper<?>> drain() {
+        List<InstanceWrapper<?>> wrappers = new ArrayList<InstanceWrapper<?>>();
+        for (InstanceWrapper<?> wrapper = pop(); wrapper != null; wrapper = pop()) {
+            wrappers.add(wrapper);
+        }
+        return wrappers;
+    }
+
+    /**
+     * Stop the instances that have been idle for longer than the idle timeout. The check is done at most
+     * once every idle timeout period.
+     */
+    private void evictIdleWrappers() {
+        if (idleTimeout <= 0 || idleCount.get() <= minSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastEviction.get();
+        if (now - last < idleTimeout || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+
+        // Take the whole stack, most recently returned first, and put back the ones to keep
+        List<PooledWrapper> kept = new ArrayList<PooledWrapper>();
+        List<InstanceWrapper<?>> evicted = new ArrayList<InstanceWrapper<?>>();
+        PooledWrapper node = idle.getAndSet(null);
+        for (; node != null; node = node.next) {
+            idleCount.decrementAndGet();
+            if (now - node.returnTime < idleTimeout || kept.size() < minSize) {
+                kept.add(node);
+            } else {
+                evicted.add(node.wrapper);
+            }
+        }
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            PooledWrapper keep = kept.get(i);
+            PooledWrapper copy = new PooledWrapper(keep.wrapper, keep.returnTime);
+            do {
+                copy.next = idle.get();
+            } while (!idle.compareAndSet(copy.next, copy));
+            idleCount.incrementAndGet();
+        }
+        for (InstanceWrapper<?> wrapper : evicted) {
+            try {
+                destroy(wrapper);
+            } catch (TargetDestructionException e) {
+                logger.log(Level.WARNING, "Unable to stop an idle instance of component " + component.getURI(), e);
+            }
+        }
+    }
+
+    /**
+     * @return The number of requests served by an idle instance from the pool
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of requests for which a new instance was created
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of requests that had to wait for an instance as the pool was at its maximum size,
+     * these requests are also counted as hits or misses once they get an instance
+     */
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    /**
+     * @return The number of idle instances in the pool
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * @return The number of instances created by the pool, idle or in use
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private static class PooledWrapper {
+        private final InstanceWrapper<?> wrapper;
+        private final long returnTime;
+        private PooledWrapper next;
+
+        private PooledWrapper(InstanceWrapper<?> wrapper, long returnTime) {
+            this.wrapper = wrapper;
+            this.returnTime = returnTime;
+        }
+    }
+}
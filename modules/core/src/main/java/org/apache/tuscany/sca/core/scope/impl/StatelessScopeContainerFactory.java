@@ -19,20 +19,89 @@
 
 package org.apache.tuscany.sca.core.scope.impl;
 
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import javax.xml.namespace.QName;
+
+import org.apache.tuscany.sca.assembly.Base;
+import org.apache.tuscany.sca.assembly.Extension;
 import org.apache.tuscany.sca.core.scope.Scope;
 import org.apache.tuscany.sca.core.scope.ScopeContainer;
 import org.apache.tuscany.sca.core.scope.ScopeContainerFactory;
 import org.apache.tuscany.sca.runtime.RuntimeComponent;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
 
 /**
+ * Creates the containers for stateless components. The instances of a component are pooled by a
+ * PooledStatelessScopeContainer if its maximum pool size is positive. The pool is configured on the
+ * component with the tuscany:statelessPoolMaxSize, statelessPoolMinSize, statelessPoolIdleTimeout and
+ * statelessPoolMaxWait attributes, the RuntimeProperties.STATELESS_POOL_* runtime properties give
+ * the defaults for the components that don't set them.
+ *
  * @version $Rev$ $Date$
  */
 public class StatelessScopeContainerFactory implements ScopeContainerFactory {
+    private static final Logger logger = Logger.getLogger(StatelessScopeContainerFactory.class.getName());
+
+    private static final QName MAX_SIZE_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "statelessPoolMaxSize");
+    private static final QName MIN_SIZE_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "statelessPoolMinSize");
+    private static final QName IDLE_TIMEOUT_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "statelessPoolIdleTimeout");
+    private static final QName MAX_WAIT_ATTRIBUTE = new QName(Base.SCA11_TUSCANY_NS, "statelessPoolMaxWait");
+
+    private RuntimeProperties runtimeProperties;
+
+    public StatelessScopeContainerFactory() {
+    }
+
+    public StatelessScopeContainerFactory(RuntimeProperties runtimeProperties) {
+        this.runtimeProperties = runtimeProperties;
+    }
 
     public ScopeContainer createScopeContainer(RuntimeComponent component) {
+        int maxSize = 0;
+        int minSize = 0;
+        long idleTimeout = 60000;
+        long maxWait = 30000;
+
+        // The properties are read here as they are set after the scope registry is created
+        Properties properties = runtimeProperties == null ? null : runtimeProperties.getProperties();
+        if (properties != null) {
+            maxSize = (int)getLong(properties.getProperty(RuntimeProperties.STATELESS_POOL_MAX_SIZE), maxSize);
+            minSize = (int)getLong(properties.getProperty(RuntimeProperties.STATELESS_POOL_MIN_SIZE), minSize);
+            idleTimeout = getLong(properties.getProperty(RuntimeProperties.STATELESS_POOL_IDLE_TIMEOUT), idleTimeout);
+            maxWait = getLong(properties.getProperty(RuntimeProperties.STATELESS_POOL_MAX_WAIT), maxWait);
+        }
+        for (Extension extension : component.getAttributeExtensions()) {
+            if (MAX_SIZE_ATTRIBUTE.equals(extension.getQName())) {
+                maxSize = (int)getLong(extension.getValue(), maxSize);
+            } else if (MIN_SIZE_ATTRIBUTE.equals(extension.getQName())) {
+                minSize = (int)getLong(extension.getValue(), minSize);
+            } else if (IDLE_TIMEOUT_ATTRIBUTE.equals(extension.getQName())) {
+                idleTimeout = getLong(extension.getValue(), idleTimeout);
+            } else if (MAX_WAIT_ATTRIBUTE.equals(extension.getQName())) {
+                maxWait = getLong(extension.getValue(), maxWait);
+            }
+        }
+
+        if (maxSize > 0) {
+            return new PooledStatelessScopeContainer(component, minSize, maxSize, idleTimeout, maxWait);
+        }
         return new StatelessScopeContainer(component);
     }
 
+    private static long getLong(Object value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid stateless pool setting: " + value);
+            return defaultValue;
+        }
+    }
+
     public Scope getScope() {
         return Scope.STATELESS;
     }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.assembly.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.tuscany.sca.core.DefaultExtensionPointRegistry;
+import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test Case for EndpointWireFormat
+ */
+public class EndpointWireFormatTestCase {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        String document = createDocument();
+        EndpointWireFormatCache cache = new EndpointWireFormatCache();
+        byte[] bytes = write(document, cache);
+        // Larger than what writeUTF supports, but compressed
+        Assert.assertTrue(document.length() > 65535);
+        Assert.assertTrue(bytes.length < document.length() / 4);
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        Assert.assertNull(EndpointWireFormat.readHeader(in));
+        String first = EndpointWireFormat.readDocument(in, cache);
+        Assert.assertEquals(document, first);
+        Assert.assertNull(EndpointWireFormat.readDocument(in, cache));
+        Assert.assertSame(first, EndpointWireFormat.readDocument(in, cache));
+    }
+
+    @Test
+    public void testRoundTripWithoutCache() throws Exception {
+        String document = createDocument();
+        byte[] bytes = write(document, null);
+        Assert.assertArrayEquals(write(document, new EndpointWireFormatCache()), bytes);
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        Assert.assertNull(EndpointWireFormat.readHeader(in));
+        Assert.assertEquals(document, EndpointWireFormat.readDocument(in, null));
+        Assert.assertNull(EndpointWireFormat.readDocument(in, null));
+        Assert.assertEquals(document, EndpointWireFormat.readDocument(in, null));
+    }
+
+    @Test
+    public void testCachePerRegistry() throws Exception {
+        ExtensionPointRegistry registry1 = new DefaultExtensionPointRegistry();
+        ExtensionPointRegistry registry2 = new DefaultExtensionPointRegistry();
+        registry1.start();
+        registry2.start();
+        try {
+            EndpointWireFormatCache cache1 = EndpointWireFormatCache.getInstance(registry1);
+            Assert.assertSame(cache1, EndpointWireFormatCache.getInstance(registry1));
+            Assert.assertNotSame(cache1, EndpointWireFormatCache.getInstance(registry2));
+
+            String document = createDocument();
+            String hash = EndpointWireFormat.hash(document);
+            write(document, cache1);
+            Assert.assertNotNull(cache1.getEncoded(hash));
+            Assert.assertNull(EndpointWireFormatCache.getInstance(registry2).getEncoded(hash));
+
+            // Stopping the registry clears its cache
+            registry1.stop();
+            Assert.assertNull(cache1.getEncoded(hash));
+        } finally {
+            registry1.stop();
+            registry2.stop();
+        }
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testUnsupportedVersion() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeShort(EndpointWireFormat.MARKER);
+        out.writeByte(EndpointWireFormat.VERSION + 1);
+        out.close();
+        EndpointWireFormat.readHeader(new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())));
+    }
+
+    @Test
+    public void testLegacyFormat() throws Exception {
+        // The format of the nodes which predate EndpointWireFormat
+        String uri = "Component#service-binding(Service/Service\u00e9)";
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeUTF(uri);
+        out.writeUTF("<endpoint/>");
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(uri, EndpointWireFormat.readHeader(in));
+        Assert.assertEquals("<endpoint/>", in.readUTF());
+    }
+
+    private static String createDocument() {
+        StringBuilder sb = new StringBuilder("<endpoint uri=\"Component#service-binding(Service/Service)\">");
+        for (int i = 0; i < 5000; i++) {
+            sb.append("<operation name=\"op").append(i).append("\" a=\"\u00e9\"/>");
+        }
+        return sb.append("</endpoint>").toString();
+    }
+
+    private static byte[] write(String document, EndpointWireFormatCache cache) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        EndpointWireFormat.writeHeader(out);
+        EndpointWireFormat.writeDocument(out, document, cache);
+        EndpointWireFormat.writeDocument(out, null, cache);
+        EndpointWireFormat.writeDocument(out, document, cache);
+        out.close();
+        return bos.toByteArray();
+    }
+}
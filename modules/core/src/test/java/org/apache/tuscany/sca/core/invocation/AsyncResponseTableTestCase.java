@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.core.invocation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tuscany.sca.core.invocation.impl.AsyncInvocationFutureImpl;
+import org.apache.tuscany.sca.work.NotificationListener;
+import org.apache.tuscany.sca.work.WorkScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.oasisopen.sca.ServiceRuntimeException;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class AsyncResponseTableTestCase {
+    private HashedWheelTimer timer;
+    private TestWorkScheduler workScheduler;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer(10, 64);
+        timer.start();
+        workScheduler = new TestWorkScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+        workScheduler.executor.shutdownNow();
+    }
+
+    @Test
+    public void testRemove() {
+        AsyncResponseTable table = new AsyncResponseTable(60000, 0, 0, timer, workScheduler);
+        Object handler = new Object();
+        table.put("id1", handler);
+        assertEquals(1, table.getPendingCount());
+        assertSame(handler, table.get("id1"));
+        assertSame(handler, table.remove("id1"));
+        assertNull(table.remove("id1"));
+        assertEquals(0, table.getPendingCount());
+        assertEquals(1, table.getCompletedCount());
+        assertEquals(0, table.getExpiredCount());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        AsyncResponseTable table = new AsyncResponseTable(200, 0, 0, timer, workScheduler);
+        AsyncInvocationFutureImpl<String> future = AsyncInvocationFutureImpl.newInstance(String.class, null);
+        table.put(future.getUniqueID(), future);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The future should have expired");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServiceRuntimeException);
+            assertTrue(e.getCause().getCause() instanceof TimeoutException);
+        }
+        assertNull(table.remove(future.getUniqueID()));
+        assertEquals(0, table.getPendingCount());
+        assertEquals(1, table.getExpiredCount());
+        // The future is completed by the work scheduler rather than the timer thread
+        assertEquals(1, workScheduler.scheduled.get());
+    }
+
+    @Test
+    public void testNoTimeoutByDefault() {
+        AsyncResponseTable table = new AsyncResponseTable();
+        assertEquals(0, table.getTimeout());
+        table.put("id1", new Object());
+        assertEquals(1, table.getPendingCount());
+        try {
+            new AsyncResponseTable(1000, 0, 0, null, null);
+            fail("A timeout requires a timer");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTimerStopped() throws Exception {
+        final CountDownLatch expired = new CountDownLatch(1);
+        timer.schedule(new Runnable() {
+            public void run() {
+                expired.countDown();
+            }
+        }, 10);
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch dropped = new CountDownLatch(1);
+        timer.schedule(new Runnable() {
+            public void run() {
+                dropped.countDown();
+            }
+        }, 100);
+        timer.stop();
+        // The timeouts pending when the timer is stopped never expire
+        assertFalse(dropped.await(500, TimeUnit.MILLISECONDS));
+        timer.start();
+        timer.schedule(new Runnable() {
+            public void run() {
+                dropped.countDown();
+            }
+        }, 10);
+        assertFalse(dropped.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testMaxPending() {
+        AsyncResponseTable table = new AsyncResponseTable(0, 2, 10, null, null);
+        table.put("id1", new Object());
+        table.put("id2", new Object());
+        try {
+            table.put("id3", new Object());
+            fail("The table should be full");
+        } catch (ServiceRuntimeException e) {
+            // expected
+        }
+        table.remove("id1");
+        table.put("id3", new Object());
+        assertEquals(2, table.getPendingCount());
+    }
+
+    @Test
+    public void testMaxWaitRejection() {
+        AsyncResponseTable table = new AsyncResponseTable(0, 1, 200, null, null);
+        table.put("id1", new Object());
+        long start = System.currentTimeMillis();
+        try {
+            table.put("id2", new Object());
+            fail("The table should be full");
+        } catch (ServiceRuntimeException e) {
+            // expected
+        }
+        assertTrue(System.currentTimeMillis() - start >= 200);
+
+        // The rejected request is not registered and doesn't hold a slot
+        assertNull(table.get("id2"));
+        assertEquals(1, table.getPendingCount());
+        table.remove("id1");
+        table.put("id2", new Object());
+        assertEquals(1, table.getPendingCount());
+    }
+
+    @Test
+    public void testWaitForSlot() throws Exception {
+        final AsyncResponseTable table = new AsyncResponseTable(0, 1, 10000, null, null);
+        table.put("id1", new Object());
+        workScheduler.scheduleWork(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                table.remove("id1");
+            }
+        });
+
+        // Waits until the response to the first request frees its slot
+        table.put("id2", new Object());
+        assertNull(table.get("id1"));
+        assertEquals(1, table.getPendingCount());
+    }
+
+    @Test
+    public void testExpiryFreesSlot() throws Exception {
+        AsyncResponseTable table = new AsyncResponseTable(100, 1, 10000, timer, workScheduler);
+        AsyncInvocationFutureImpl<String> future = AsyncInvocationFutureImpl.newInstance(String.class, null);
+        table.put(future.getUniqueID(), future);
+        table.put("id2", new Object());
+        assertEquals(1, table.getExpiredCount());
+        assertEquals(1, table.getPendingCount());
+    }
+
+    /**
+     * Counts the work scheduled by the table
+     */
+    private static class TestWorkScheduler implements WorkScheduler {
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger scheduled = new AtomicInteger();
+
+        public <T extends Runnable> void scheduleWork(T work, NotificationListener<T> listener) {
+            scheduleWork(work);
+        }
+
+        public <T extends Runnable> void scheduleWork(T work) {
+            scheduled.incrementAndGet();
+            executor.execute(work);
+        }
+
+        public ExecutorService getExecutorService() {
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation.impl;
+
+import java.util.List;
+
+import javax.xml.ws.Holder;
+
+import org.apache.tuscany.sca.interfacedef.Operation;
+import org.apache.tuscany.sca.interfacedef.ParameterMode;
+import org.apache.tuscany.sca.interfacedef.impl.OperationImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test Case for the holder helpers kept on JDKInvocationHandler for subclasses
+ */
+@SuppressWarnings("deprecation")
+public class JDKInvocationHandlerTestCase {
+
+    @Test
+    public void testPromoteHolderArgs() {
+        Holder<String> holder = new Holder<String>("value");
+        Object[] args = new Object[] {"a", holder, null};
+        Object[] promoted = JDKInvocationHandler.promoteHolderArgs(args);
+        Assert.assertArrayEquals(new Object[] {"a", "value", null}, promoted);
+        // The holders are kept for the response
+        Assert.assertSame(holder, args[1]);
+        Assert.assertNull(JDKInvocationHandler.promoteHolderArgs(null));
+    }
+
+    @Test
+    public void testRemoveOutOnlyArgs() {
+        Operation operation = new OperationImpl();
+        List<ParameterMode> modes = operation.getParameterModes();
+        modes.add(ParameterMode.IN);
+        modes.add(ParameterMode.OUT);
+        modes.add(ParameterMode.INOUT);
+        JDKInvocationHandler handler = new JDKInvocationHandler(null, null, null);
+        Assert.assertArrayEquals(new Object[] {"a", "c"},
+                                 handler.removeOutOnlyArgs(operation, new Object[] {"a", "b", "c"}));
+    }
+
+    @Test
+    public void testIsHolder() {
+        Assert.assertTrue(JDKInvocationHandler.isHolder(Holder.class));
+        Assert.assertFalse(JDKInvocationHandler.isHolder(String.class));
+        Assert.assertTrue(JDKInvocationHandler.isHolder((Object)new Holder<String>()));
+        Assert.assertFalse(JDKInvocationHandler.isHolder((Object)"a"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.invocation.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class MessageImplTestCase {
+
+    @Test
+    public void testHeaders() {
+        MessageImpl msg = new MessageImpl();
+        Assert.assertTrue(msg.getHeaders().isEmpty());
+        Assert.assertNull(msg.getHeaders().remove("foo"));
+        msg.getHeaders().put("foo", "bar");
+        Assert.assertEquals("bar", msg.getHeaders().get("foo"));
+        Assert.assertEquals(1, msg.getHeaders().size());
+    }
+
+    @Test
+    public void testInheritedHeadersAreCopiedOnWrite() {
+        MessageImpl parent = new MessageImpl();
+        parent.getHeaders().put("a", "1");
+        parent.getHeaders().put("b", "2");
+
+        MessageImpl child = new MessageImpl();
+        child.inheritHeaders(parent);
+        Assert.assertEquals(parent.getHeaders(), child.getHeaders());
+
+        child.getHeaders().put("c", "3");
+        Assert.assertFalse(parent.getHeaders().containsKey("c"));
+
+        parent.getHeaders().remove("a");
+        Assert.assertEquals("1", child.getHeaders().get("a"));
+        Assert.assertEquals(3, child.getHeaders().size());
+        Assert.assertEquals(1, parent.getHeaders().size());
+    }
+
+    @Test
+    public void testInheritedHeadersIterator() {
+        MessageImpl parent = new MessageImpl();
+        parent.getHeaders().put("a", "1");
+        parent.getHeaders().put("b", "2");
+
+        MessageImpl child = new MessageImpl();
+        child.inheritHeaders(parent);
+        for (Map.Entry<String, Object> e : child.getHeaders().entrySet()) {
+            e.setValue("x");
+        }
+        Assert.assertEquals("x", child.getHeaders().get("a"));
+        Assert.assertEquals("1", parent.getHeaders().get("a"));
+
+        for (Iterator<String> i = parent.getHeaders().keySet().iterator(); i.hasNext();) {
+            i.next();
+            i.remove();
+        }
+        Assert.assertTrue(parent.getHeaders().isEmpty());
+        Assert.assertEquals(2, child.getHeaders().size());
+
+        child.getHeaders().clear();
+        Assert.assertTrue(child.getHeaders().isEmpty());
+    }
+
+    @Test
+    public void testInheritWhileParentChanges() throws Exception {
+        final MessageImpl parent = new MessageImpl();
+        parent.getHeaders().put("a", "1");
+        final Throwable[] failure = new Throwable[1];
+        Thread writer = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        parent.getHeaders().put("k" + (i % 16), i);
+                        parent.getHeaders().remove("k" + ((i + 8) % 16));
+                    }
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }
+        };
+        writer.start();
+        while (writer.isAlive()) {
+            MessageImpl child = new MessageImpl();
+            child.inheritHeaders(parent);
+            child.getHeaders().put("c", "3");
+            // The child sees a consistent snapshot and doesn't change the parent
+            Assert.assertEquals("1", child.getHeaders().get("a"));
+            Assert.assertEquals(child.getHeaders().size(), child.getHeaders().entrySet().size());
+            Assert.assertFalse(parent.getHeaders().containsKey("c"));
+        }
+        writer.join();
+        Assert.assertNull(failure[0]);
+        Assert.assertEquals("1", parent.getHeaders().get("a"));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.scope.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.core.assembly.impl.RuntimeComponentImpl;
+import org.apache.tuscany.sca.core.factory.InstanceWrapper;
+import org.apache.tuscany.sca.core.scope.TargetResolutionException;
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class PooledStatelessScopeContainerTestCase {
+
+    @Test
+    public void testReuse() throws Exception {
+        TestContainer container = new TestContainer(0, 2, 60000, 10);
+        container.start();
+
+        InstanceWrapper w1 = container.getWrapper(null);
+        container.returnWrapper(w1, null);
+        Assert.assertSame(w1, container.getWrapper(null));
+        Assert.assertEquals(1, container.started.get());
+        Assert.assertEquals(0, container.stopped.get());
+        Assert.assertEquals(1, container.getHitCount());
+        Assert.assertEquals(1, container.getMissCount());
+
+        InstanceWrapper w2 = container.getWrapper(null);
+        Assert.assertNotSame(w1, w2);
+        Assert.assertEquals(2, container.getSize());
+
+        // The pool is exhausted
+        try {
+            container.getWrapper(null);
+            Assert.fail();
+        } catch (TargetResolutionException e) {
+            // expected
+        }
+        Assert.assertEquals(1, container.getWaitCount());
+
+        container.returnWrapper(w1, null);
+        container.returnWrapper(w2, null);
+        Assert.assertEquals(2, container.getIdleCount());
+        container.stop();
+        Assert.assertEquals(2, container.stopped.get());
+        Assert.assertEquals(0, container.getSize());
+    }
+
+    @Test
+    public void testUnpooled() throws Exception {
+        TestContainer container = new TestContainer(0, 1, 60000, 10);
+        container.start();
+        InstanceWrapper w1 = container.getWrapper(null);
+        // Not limited by maxSize and not counted in the pool
+        InstanceWrapper w2 = container.getUnpooledWrapper();
+        Assert.assertNotSame(w1, w2);
+        Assert.assertEquals(2, container.started.get());
+        Assert.assertEquals(1, container.getSize());
+        Assert.assertEquals(1, container.getMissCount());
+        container.returnWrapper(w1, null);
+        Assert.assertSame(w1, container.getWrapper(null));
+    }
+
+    @Test
+    public void testWait() throws Exception {
+        final TestContainer container = new TestContainer(0, 1, 60000, 10000);
+        container.start();
+        final InstanceWrapper w1 = container.getWrapper(null);
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                    container.returnWrapper(w1, null);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        thread.start();
+        Assert.assertSame(w1, container.getWrapper(null));
+        Assert.assertEquals(1, container.getWaitCount());
+        thread.join();
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        TestContainer container = new TestContainer(1, 3, 50, 10);
+        container.start();
+        InstanceWrapper w1 = container.getWrapper(null);
+        InstanceWrapper w2 = container.getWrapper(null);
+        InstanceWrapper w3 = container.getWrapper(null);
+        container.returnWrapper(w1, null);
+        container.returnWrapper(w2, null);
+        Thread.sleep(100);
+        container.returnWrapper(w3, null);
+        // w3 has just been returned, w1 and w2 have been idle for too long
+        Assert.assertEquals(1, container.getIdleCount());
+        Assert.assertEquals(2, container.stopped.get());
+        Assert.assertSame(w3, container.getWrapper(null));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final TestContainer container = new TestContainer(0, 4, 60000, 10000);
+        container.start();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        try {
+                            InstanceWrapper wrapper = container.getWrapper(null);
+                            container.returnWrapper(wrapper, null);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertTrue(container.started.get() <= 4);
+        Assert.assertEquals(container.started.get(), container.getIdleCount());
+        Assert.assertEquals(80000, container.getHitCount() + container.getMissCount());
+    }
+
+    private static class TestContainer extends PooledStatelessScopeContainer<Object> {
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger stopped = new AtomicInteger();
+
+        TestContainer(int minSize, int maxSize, long idleTimeout, long maxWait) {
+            super(new RuntimeComponentImpl(), minSize, maxSize, idleTimeout, maxWait);
+        }
+
+        @Override
+        protected InstanceWrapper createInstanceWrapper() throws TargetResolutionException {
+            return new InstanceWrapper<Object>() {
+                private final Object instance = new Object();
+
+                public Object getInstance() {
+                    return instance;
+                }
+
+                public void start() {
+                    started.incrementAndGet();
+                }
+
+                public void stop() {
+                    stopped.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        protected boolean isEagerInit() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.core.scope.impl;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.assembly.Base;
+import org.apache.tuscany.sca.assembly.impl.ExtensionImpl;
+import org.apache.tuscany.sca.core.assembly.impl.RuntimeComponentImpl;
+import org.apache.tuscany.sca.core.runtime.impl.RuntimePropertiesImpl;
+import org.apache.tuscany.sca.core.scope.ScopeContainer;
+import org.apache.tuscany.sca.runtime.RuntimeComponent;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class StatelessScopeContainerFactoryTestCase {
+
+    @Test
+    public void testNotPooled() {
+        StatelessScopeContainerFactory factory = new StatelessScopeContainerFactory(new RuntimePropertiesImpl());
+        Assert.assertTrue(factory.createScopeContainer(new RuntimeComponentImpl()) instanceof StatelessScopeContainer);
+    }
+
+    @Test
+    public void testComponentAttributes() {
+        StatelessScopeContainerFactory factory = new StatelessScopeContainerFactory(new RuntimePropertiesImpl());
+        RuntimeComponent component = new RuntimeComponentImpl();
+        addAttribute(component, "statelessPoolMaxSize", "8");
+        addAttribute(component, "statelessPoolMinSize", "2");
+        ScopeContainer container = factory.createScopeContainer(component);
+        Assert.assertTrue(container instanceof PooledStatelessScopeContainer);
+        Assert.assertEquals(8, ((PooledStatelessScopeContainer<?>)container).getMaxSize());
+        Assert.assertEquals(2, ((PooledStatelessScopeContainer<?>)container).getMinSize());
+
+        // Other components aren't pooled
+        Assert.assertTrue(factory.createScopeContainer(new RuntimeComponentImpl()) instanceof StatelessScopeContainer);
+    }
+
+    @Test
+    public void testRuntimeDefaults() {
+        RuntimeProperties runtimeProperties = new RuntimePropertiesImpl();
+        runtimeProperties.getProperties().setProperty(RuntimeProperties.STATELESS_POOL_MAX_SIZE, "4");
+        StatelessScopeContainerFactory factory = new StatelessScopeContainerFactory(runtimeProperties);
+        ScopeContainer container = factory.createScopeContainer(new RuntimeComponentImpl());
+        Assert.assertEquals(4, ((PooledStatelessScopeContainer<?>)container).getMaxSize());
+
+        // A component overrides the defaults, or opts out of pooling
+        RuntimeComponent component = new RuntimeComponentImpl();
+        addAttribute(component, "statelessPoolMaxSize", "16");
+        container = factory.createScopeContainer(component);
+        Assert.assertEquals(16, ((PooledStatelessScopeContainer<?>)container).getMaxSize());
+        component = new RuntimeComponentImpl();
+        addAttribute(component, "statelessPoolMaxSize", "0");
+        Assert.assertTrue(factory.createScopeContainer(component) instanceof StatelessScopeContainer);
+
+        // An invalid value is ignored
+        component = new RuntimeComponentImpl();
+        addAttribute(component, "statelessPoolMaxSize", "many");
+        container = factory.createScopeContainer(component);
+        Assert.assertEquals(4, ((PooledStatelessScopeContainer<?>)container).getMaxSize());
+    }
+
+    private static void addAttribute(RuntimeComponent component, String name, String value) {
+        component.getAttributeExtensions().add(new ExtensionImpl(new QName(Base.SCA11_TUSCANY_NS, name), value, true));
+    }
+}
@@ -46,7 +46,7 @@ public class JSON2Object implements PullTransformer<Object, Object> {
 
         try {
             Class<?> cls = context.getTargetDataType().getPhysical();
-            ObjectMapper mapper = JacksonHelper.createObjectMapper(cls);
+            ObjectMapper mapper = JacksonHelper.getObjectMapper(cls);
             JavaType javaType = mapper.constructType(context.getTargetDataType().getGenericType());
             if (source instanceof String) {
             	String sourceString = (String) source;
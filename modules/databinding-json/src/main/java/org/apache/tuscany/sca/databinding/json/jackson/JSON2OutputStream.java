@@ -83,7 +83,7 @@ public class JSON2OutputStream implements PushTransformer<Object, OutputStream>
                     throw new TransformationException(e);
                 }
             } else {
-                ObjectMapper mapper = JacksonHelper.createObjectMapper(source.getClass());
+                ObjectMapper mapper = JacksonHelper.getObjectMapper(source.getClass());
                 try {
                     FilterProvider filterProvider = JacksonHelper.configureFilterProvider(context);
                     if (filterProvider != null) {
@@ -27,7 +27,9 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 
@@ -35,6 +37,7 @@ import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapters;
 
+import org.apache.tuscany.sca.common.java.collection.LRUCache;
 import org.apache.tuscany.sca.databinding.TransformationContext;
 import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonFactory;
@@ -80,10 +83,59 @@ public class JacksonHelper {
     public final static ObjectMapper MAPPER = createMapper();
     private final static JsonFactory FACTORY = new MappingJsonFactory(createMapper());
 
+    private final static int CACHE_SIZE = 256;
+    /**
+     * The ObjectMappers by class, the least recently used are dropped when the cache is full. The mappers of
+     * the classes of a contribution are removed with the contribution by JacksonContributionListener.
+     */
+    private final static Map<Class<?>, ObjectMapper> MAPPERS = new LRUCache<Class<?>, ObjectMapper>(CACHE_SIZE);
+
     public static ObjectMapper createMapper() {
         return createObjectMapper(null);
     }
 
+    /**
+     * Get the ObjectMapper for a class. The mapper is created once and then reused so that Jackson keeps
+     * the serializers and deserializers it has introspected for the class.
+     * @param cls The class
+     * @return The shared mapper, the cached mapper must not be reconfigured
+     */
+    public static ObjectMapper getObjectMapper(Class<?> cls) {
+        if (cls == null) {
+            return MAPPER;
+        }
+        synchronized (MAPPERS) {
+            ObjectMapper mapper = MAPPERS.get(cls);
+            if (mapper != null) {
+                return mapper;
+            }
+        }
+        ObjectMapper mapper = createObjectMapper(cls);
+        synchronized (MAPPERS) {
+            MAPPERS.put(cls, mapper);
+        }
+        return mapper;
+    }
+
+    /**
+     * Remove the cached ObjectMappers of the classes loaded by a contribution, this is used when a
+     * contribution is removed from the runtime.
+     * @param contributionClassLoader The contribution ClassLoader
+     */
+    public static void removeObjectMappersForContribution(ClassLoader contributionClassLoader) {
+        synchronized (MAPPERS) {
+            for (Iterator<Class<?>> i = MAPPERS.keySet().iterator(); i.hasNext();) {
+                // take account of generated classes
+                for (ClassLoader cl = i.next().getClassLoader(); cl != null; cl = cl.getParent()) {
+                    if (cl == contributionClassLoader) {
+                        i.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
     @SuppressWarnings({"rawtypes", "unchecked"})
     public static ObjectMapper createObjectMapper(Class<?> cls) {
         ObjectMapper mapper = null;
@@ -208,6 +260,7 @@ public class JacksonHelper {
             JsonFactory jsonFactory = getJsonFactory();
             JsonGenerator generator = jsonFactory.createJsonGenerator(out, JsonEncoding.UTF8);
             generator.writeTree(node);
+            generator.flush();
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
@@ -217,8 +270,12 @@ public class JacksonHelper {
         try {
             JsonFactory jsonFactory = getJsonFactory();
             JsonGenerator generator = jsonFactory.createJsonGenerator(out, JsonEncoding.UTF8);
-            JsonNode node = parser.readValueAs(JsonNode.class);
-            generator.writeTree(node);
+            // Copy the tokens as they are read rather than building a tree
+            if (parser.getCurrentToken() == null) {
+                parser.nextToken();
+            }
+            generator.copyCurrentStructure(parser);
+            generator.flush();
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
@@ -266,6 +323,10 @@ public class JacksonHelper {
         if (context != null) {
             Set<String> included = (Set<String>)context.getMetadata().get(INCLUDED_FIELDS);
             Set<String> excluded = (Set<String>)context.getMetadata().get(EXCLUDED_FIELDS);
+            if (included == null && excluded == null) {
+                // The default filter of the mapper serializes all the fields
+                return null;
+            }
             // Class<?> type = context.getSourceDataType() == null ? null : context.getSourceDataType().getPhysical();
             filter = new TuscanyBeanPropertyFilter(included, excluded);
         }
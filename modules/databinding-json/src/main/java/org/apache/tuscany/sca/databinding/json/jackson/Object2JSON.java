@@ -30,7 +30,9 @@ import org.apache.tuscany.sca.databinding.json.JSONHelper;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.ser.FilterProvider;
+import org.codehaus.jackson.util.TokenBuffer;
 
 /**
  * @version $Rev$ $Date$
@@ -57,22 +59,25 @@ public class Object2JSON implements PullTransformer<Object, Object> {
             if (targetType != null && targetType.isPrimitive()) {
                 return source;
             }
-            ObjectMapper mapper = JacksonHelper.createObjectMapper(targetType);
-            String value = null;
+            ObjectMapper mapper = JacksonHelper.getObjectMapper(source.getClass());
             FilterProvider filterProvider = JacksonHelper.configureFilterProvider(context);
-            if (filterProvider != null) {
-                value = mapper.writer(filterProvider).writeValueAsString(source);
-            } else {
-                value = mapper.writeValueAsString(source);
+            ObjectWriter writer = filterProvider != null ? mapper.writer(filterProvider) : mapper.writer();
+            if (JsonNode.class.isAssignableFrom(targetType) || JsonParser.class.isAssignableFrom(targetType)) {
+                // Serialize to tokens rather than to a String which would be parsed again, a JsonParser target
+                // replays the tokens and a JsonNode target builds the tree from them
+                TokenBuffer buffer = new TokenBuffer(mapper);
+                writer.writeValue(buffer, source);
+                JsonParser parser = buffer.asParser();
+                if (JsonParser.class.isAssignableFrom(targetType)) {
+                    return parser;
+                }
+                return parser.readValueAsTree();
             }
-            if (JsonNode.class.isAssignableFrom(targetType)) {
-                return JacksonHelper.createJsonParser(value).readValueAsTree();
-            } else if (targetType == String.class || targetType == Object.class || targetType.isPrimitive()) {
+            String value = writer.writeValueAsString(source);
+            if (targetType == String.class || targetType == Object.class || targetType.isPrimitive()) {
                 return value;
             } else if (targetType == BigDecimal.class) {
                 return value.toString();
-            } else if (JsonParser.class.isAssignableFrom(targetType)) {
-                return JacksonHelper.createJsonParser(value);
             } else {
                 return JSONHelper.toJSON(value, targetType);
             }
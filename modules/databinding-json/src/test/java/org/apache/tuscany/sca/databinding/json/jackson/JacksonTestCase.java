@@ -19,6 +19,8 @@
 package org.apache.tuscany.sca.databinding.json.jackson;
 
 import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
 
 import junit.framework.Assert;
 
@@ -27,7 +29,9 @@ import org.apache.tuscany.sca.databinding.impl.TransformationContextImpl;
 import org.apache.tuscany.sca.databinding.json.MyBean;
 import org.apache.tuscany.sca.databinding.json.MyInterface;
 import org.apache.tuscany.sca.databinding.json.MyInterfaceImpl;
+import org.apache.tuscany.sca.databinding.json.jackson.adapter.Price;
 import org.apache.tuscany.sca.interfacedef.impl.DataTypeImpl;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Test;
 
 public class JacksonTestCase  {
@@ -92,4 +96,67 @@ public class JacksonTestCase  {
     public void testPrimitive() throws Exception {
         roundTrip(123);
     }
+
+    @Test
+    public void testObjectMapperCache() throws Exception {
+        Assert.assertSame(JacksonHelper.getObjectMapper(MyBean.class), JacksonHelper.getObjectMapper(MyBean.class));
+        Assert.assertSame(JacksonHelper.MAPPER, JacksonHelper.getObjectMapper(null));
+
+        // A class whose package declares XmlJavaTypeAdapters gets its own mapper, created once
+        ObjectMapper mapper = JacksonHelper.getObjectMapper(Price.class);
+        Assert.assertNotSame(JacksonHelper.MAPPER, mapper);
+        Assert.assertSame(mapper, JacksonHelper.getObjectMapper(Price.class));
+    }
+
+    @Test
+    public void testRemoveObjectMappersForContribution() throws Exception {
+        URL location = Price.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader contributionClassLoader = new ContributionClassLoader(location);
+        Class<?> cls = contributionClassLoader.loadClass(Price.class.getName());
+        Assert.assertNotSame(Price.class, cls);
+        ObjectMapper mapper = JacksonHelper.getObjectMapper(cls);
+        Assert.assertNotSame(JacksonHelper.MAPPER, mapper);
+        Assert.assertSame(mapper, JacksonHelper.getObjectMapper(cls));
+        ObjectMapper other = JacksonHelper.getObjectMapper(Price.class);
+
+        // Notified when the contribution is removed
+        new JacksonContributionListener().contributionClassLoaderRemoved(contributionClassLoader);
+        Assert.assertNotSame(mapper, JacksonHelper.getObjectMapper(cls));
+        // The mappers of the classes of other ClassLoaders are kept
+        Assert.assertSame(other, JacksonHelper.getObjectMapper(Price.class));
+    }
+
+    @Test
+    public void testMapperOfSourceClass() throws Exception {
+        // The adapter declared by the package of the source class is used for a String target
+        TransformationContext context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl<Object>(String.class, String.class));
+        Assert.assertEquals("\"150\"", new Object2JSON().transform(new Price(150), context));
+    }
+
+    /**
+     * Loads the classes of the adapter package itself, as a contribution would
+     */
+    private static class ContributionClassLoader extends URLClassLoader {
+        private static final String PACKAGE = Price.class.getPackage().getName() + ".";
+
+        ContributionClassLoader(URL location) {
+            super(new URL[] {location}, JacksonTestCase.class.getClassLoader());
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(PACKAGE)) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> cls = findLoadedClass(name);
+            if (cls == null) {
+                cls = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(cls);
+            }
+            return cls;
+        }
+    }
 }
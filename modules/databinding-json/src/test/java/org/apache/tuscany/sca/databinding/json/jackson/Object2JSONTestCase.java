@@ -19,6 +19,7 @@
 
 package org.apache.tuscany.sca.databinding.json.jackson;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,6 +33,8 @@ import junit.framework.Assert;
 import org.apache.tuscany.sca.databinding.TransformationContext;
 import org.apache.tuscany.sca.databinding.impl.TransformationContextImpl;
 import org.apache.tuscany.sca.interfacedef.impl.DataTypeImpl;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
 import org.json.JSONObject;
 import org.junit.Test;
 
@@ -330,4 +333,67 @@ public class Object2JSONTestCase {
         Assert.assertEquals("DF", strs[1]);
     }
 
+    @Test
+    public void testBean2JsonNode() throws Exception {
+        MyBean me = createBean();
+        Object2JSON t1 = new Object2JSON();
+        TransformationContext context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(JsonNode.class, null));
+        Object result = t1.transform(me, context);
+        Assert.assertTrue(result instanceof JsonNode);
+        Assert.assertEquals("Me", ((JsonNode)result).get("name").getTextValue());
+        Assert.assertEquals(123, ((JsonNode)result).get("you").get("id").getIntValue());
+
+        JSON2Object t2 = new JSON2Object();
+        context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(MyBean.class, null));
+        Assert.assertEquals(me, t2.transform(result, context));
+    }
+
+    @Test
+    public void testBean2JsonParser() throws Exception {
+        MyBean me = createBean();
+        Object2JSON t1 = new Object2JSON();
+        TransformationContext context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(JsonParser.class, null));
+        Object result = t1.transform(me, context);
+        Assert.assertTrue(result instanceof JsonParser);
+
+        JSON2Object t2 = new JSON2Object();
+        context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(MyBean.class, null));
+        Assert.assertEquals(me, t2.transform(result, context));
+    }
+
+    @Test
+    public void testWriteJsonParser() throws Exception {
+        MyBean me = createBean();
+        Object2JSON t1 = new Object2JSON();
+        TransformationContext context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(JsonParser.class, null));
+        JsonParser parser = (JsonParser)t1.transform(me, context);
+
+        // The tokens are copied to the stream as UTF-8
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        JacksonHelper.write(parser, os);
+        JSON2Object t2 = new JSON2Object();
+        context = new TransformationContextImpl();
+        context.setTargetDataType(new DataTypeImpl(MyBean.class, null));
+        Assert.assertEquals(me, t2.transform(new String(os.toByteArray(), "UTF-8"), context));
+    }
+
+    private static MyBean createBean() {
+        MyBean me = new MyBean();
+        me.setAge(30);
+        me.setBooks(Arrays.asList("Caf\u00e9"));
+        me.setFriends(new String[] {"John", "Mike"});
+        me.setVip(true);
+        me.setName("Me");
+        me.setDate(new Date());
+        YourBean you = new YourBean();
+        you.setId(123);
+        you.setName("You");
+        me.setYou(you);
+        return me;
+    }
 }
@@ -37,7 +37,7 @@ import org.apache.tuscany.sca.extensibility.ServiceDiscovery;
  */
 public class DefaultTransformerExtensionPoint implements TransformerExtensionPoint {
     private static final Logger logger = Logger.getLogger(DefaultTransformerExtensionPoint.class.getName());
-    private boolean loadedTransformers;
+    private volatile boolean loadedTransformers;
 
     private ExtensionPointRegistry registry;
     private final DirectedGraph<Object, Transformer> graph = new DirectedGraph<Object, Transformer>();
@@ -97,14 +97,18 @@ public class DefaultTransformerExtensionPoint implements TransformerExtensionPoi
      * Dynamically load transformers registered under META-INF/services.
      *
      */
-    private synchronized void loadTransformers() {
+    private void loadTransformers() {
         if (loadedTransformers) {
             return;
         }
-        loadedTransformers = true;
-        loadTransformers(PullTransformer.class);
-        loadTransformers(PushTransformer.class);
-
+        synchronized (this) {
+            if (loadedTransformers) {
+                return;
+            }
+            loadTransformers(PullTransformer.class);
+            loadTransformers(PushTransformer.class);
+            loadedTransformers = true;
+        }
     }
 
     /**
@@ -286,6 +290,16 @@ public class DefaultTransformerExtensionPoint implements TransformerExtensionPoi
         }
     }
 
+    /**
+     * Get the version of the transformer graph. It changes whenever a transformer is added or removed
+     * so that the transformer chains computed from the graph can be cached.
+     * @return The version
+     */
+    public int getVersion() {
+        loadTransformers();
+        return graph.getVersion();
+    }
+
     //FIXME The following methods should be on a different class from
     // extension point
 
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -80,6 +81,8 @@ public class DirectedGraph<V, E> implements Cloneable {
     // Fix for TUSCANY-2069, making the map concurrent
     private final Map<VertexPair, Path> paths = new ConcurrentHashMap<VertexPair, Path>();
     private final Path NULL_PATH = new Path();
+    // Incremented whenever an edge or a vertex is added or removed
+    private final AtomicInteger version = new AtomicInteger();
 
     /**
      * Vertex of a graph
@@ -229,6 +232,7 @@ public class DirectedGraph<V, E> implements Cloneable {
         edge = new Edge(s, t, edgeValue, weight, publicEdge);
         s.outEdges.put(t, edge);
         t.inEdges.put(s, edge);
+        modified();
     }
 
     public void addEdge(V soure, V target) {
@@ -251,13 +255,18 @@ public class DirectedGraph<V, E> implements Cloneable {
             return false;
         }
 
-        return s.outEdges.remove(t) != null && t.inEdges.remove(s) != null;
+        boolean removed = s.outEdges.remove(t) != null && t.inEdges.remove(s) != null;
+        if (removed) {
+            modified();
+        }
+        return removed;
 
     }
 
     public void removeEdge(Edge edge) {
         edge.sourceVertex.outEdges.remove(edge.targetVertex);
         edge.targetVertex.inEdges.remove(edge.sourceVertex);
+        modified();
     }
 
     public void removeVertex(Vertex vertex) {
@@ -268,6 +277,24 @@ public class DirectedGraph<V, E> implements Cloneable {
         for (Edge e : new ArrayList<Edge>(vertex.inEdges.values())) {
             removeEdge(e);
         }
+        modified();
+    }
+
+    /**
+     * The cached shortest paths are no longer valid once the graph is modified
+     */
+    private void modified() {
+        paths.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get the version of the graph, which changes whenever an edge or a vertex is added or removed.
+     * It allows the users of the graph to tell if anything they computed from it is still valid.
+     * @return The version
+     */
+    public int getVersion() {
+        return version.get();
     }
 
     public Edge getEdge(Vertex source, Vertex target) {
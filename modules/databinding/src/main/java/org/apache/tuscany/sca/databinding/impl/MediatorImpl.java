@@ -25,11 +25,15 @@ import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.namespace.QName;
 
@@ -39,6 +43,7 @@ import org.apache.tuscany.sca.databinding.DataBinding;
 import org.apache.tuscany.sca.databinding.DataBindingExtensionPoint;
 import org.apache.tuscany.sca.databinding.DataPipe;
 import org.apache.tuscany.sca.databinding.DataPipeTransformer;
+import org.apache.tuscany.sca.databinding.DefaultTransformerExtensionPoint;
 import org.apache.tuscany.sca.databinding.Mediator;
 import org.apache.tuscany.sca.databinding.PullTransformer;
 import org.apache.tuscany.sca.databinding.PushTransformer;
@@ -46,6 +51,7 @@ import org.apache.tuscany.sca.databinding.TransformationContext;
 import org.apache.tuscany.sca.databinding.TransformationException;
 import org.apache.tuscany.sca.databinding.Transformer;
 import org.apache.tuscany.sca.databinding.TransformerExtensionPoint;
+import org.apache.tuscany.sca.databinding.javabeans.JavaBeansCopier;
 import org.apache.tuscany.sca.databinding.javabeans.JavaBeansDataBinding;
 import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.FaultExceptionMapper;
@@ -71,6 +77,9 @@ public class MediatorImpl implements Mediator {
     private TransformerExtensionPoint transformers;
     private InterfaceContractMapper interfaceContractMapper;
     private FaultExceptionMapper faultExceptionMapper;
+    private final JavaBeansCopier copier = new JavaBeansCopier();
+    private final ConcurrentMap<TransformationPlan.Key, TransformationPlan> plans =
+        new ConcurrentHashMap<TransformationPlan.Key, TransformationPlan>();
 
     MediatorImpl(DataBindingExtensionPoint dataBindings, TransformerExtensionPoint transformers) {
         this.dataBindings = dataBindings;
@@ -89,10 +98,13 @@ public class MediatorImpl implements Mediator {
 
     @SuppressWarnings("unchecked")
     public Object mediate(Object source, DataType sourceDataType, DataType targetDataType, Map<String, Object> metadata) {
+        // An introspected data type is only used for this call
+        boolean introspected = false;
         if (sourceDataType == null || sourceDataType.getDataBinding() == null) {
             if (source != null) {
                 Operation operation = (Operation)metadata.get(SOURCE_OPERATION);
                 sourceDataType = dataBindings.introspectType(source, operation);
+                introspected = true;
             }
         }
         if (sourceDataType == null || targetDataType == null) {
@@ -101,21 +113,25 @@ public class MediatorImpl implements Mediator {
             return source;
         }
 
-        List<Transformer> path = getTransformerChain(sourceDataType, targetDataType);
+        TransformationPlan plan = getTransformationPlan(sourceDataType, targetDataType);
+        DataType[] sourceTypes = plan.getSourceTypes(sourceDataType, !introspected);
+        DataType[] targetTypes = plan.getTargetTypes(targetDataType);
 
         Object result = source;
-        int size = path.size();
+        int size = plan.size();
         int i = 0;
         while (i < size) {
-            Transformer transformer = path.get(i);
+            Transformer transformer = plan.getTransformer(i);
             TransformationContext context =
-                createTransformationContext(sourceDataType, targetDataType, size, i, transformer, metadata);
+                createHopContext(i == 0 ? sourceDataType : sourceTypes[i],
+                                 i == size - 1 ? targetDataType : targetTypes[i],
+                                 metadata);
             // the source and target type
             if (transformer instanceof PullTransformer) {
                 // For intermediate node, set data type to null
                 result = ((PullTransformer)transformer).transform(result, context);
             } else if (transformer instanceof PushTransformer) {
-                DataPipeTransformer dataPipeFactory = (i < size - 1) ? (DataPipeTransformer)path.get(++i) : null;
+                DataPipeTransformer dataPipeFactory = (i < size - 1) ? (DataPipeTransformer)plan.getTransformer(++i) : null;
                 DataPipe dataPipe = dataPipeFactory == null ? null : dataPipeFactory.newInstance();
                 ((PushTransformer)transformer).transform(result, dataPipe.getSink(), context);
                 result = dataPipe.getResult();
@@ -126,26 +142,12 @@ public class MediatorImpl implements Mediator {
         return result;
     }
 
-    private TransformationContext createTransformationContext(DataType sourceDataType,
-                                                              DataType targetDataType,
-                                                              int size,
-                                                              int index,
-                                                              Transformer transformer,
-                                                              Map<String, Object> metadata) {
-        DataType sourceType =
-            (index == 0) ? sourceDataType : new DataTypeImpl<Object>(transformer.getSourceDataBinding(), Object.class,
-                                                                     sourceDataType.getLogical());
-        DataType targetType =
-            (index == size - 1) ? targetDataType : new DataTypeImpl<Object>(transformer.getTargetDataBinding(),
-                                                                            Object.class, targetDataType.getLogical());
-
-         Map<String, Object> copy = new HashMap<String, Object>();
-        if (metadata != null) {
-            copy.putAll(metadata);
-        }
-        copy.put(ExtensionPointRegistry.class.getName(), registry);
-
-        TransformationContext context = new TransformationContextImpl(sourceType, targetType, copy);
+    private TransformationContext createHopContext(DataType sourceType,
+                                                   DataType targetType,
+                                                   Map<String, Object> metadata) {
+        // Each hop gets its own copy of the metadata as transformers are free to modify it
+        TransformationContext context = new TransformationContextImpl(sourceType, targetType, metadata);
+        context.getMetadata().put(ExtensionPointRegistry.class.getName(), registry);
         return context;
     }
 
@@ -159,9 +161,11 @@ public class MediatorImpl implements Mediator {
             // Shortcut for null value
             return;
         }
+        boolean introspected = false;
         if (sourceDataType == null || sourceDataType.getDataBinding() == null) {
             Operation operation = (Operation)metadata.get(SOURCE_OPERATION);
             sourceDataType = dataBindings.introspectType(source, operation);
+            introspected = true;
         }
         if (sourceDataType == null) {
             return;
@@ -169,18 +173,22 @@ public class MediatorImpl implements Mediator {
             return;
         }
 
-        List<Transformer> path = getTransformerChain(sourceDataType, targetDataType);
+        TransformationPlan plan = getTransformationPlan(sourceDataType, targetDataType);
+        DataType[] sourceTypes = plan.getSourceTypes(sourceDataType, !introspected);
+        DataType[] targetTypes = plan.getTargetTypes(targetDataType);
         Object result = source;
-        int size = path.size();
+        int size = plan.size();
         for (int i = 0; i < size; i++) {
-            Transformer transformer = path.get(i);
+            Transformer transformer = plan.getTransformer(i);
             TransformationContext context =
-                createTransformationContext(sourceDataType, targetDataType, size, i, transformer, metadata);
+                createHopContext(i == 0 ? sourceDataType : sourceTypes[i],
+                                 i == size - 1 ? targetDataType : targetTypes[i],
+                                 metadata);
 
             if (transformer instanceof PullTransformer) {
                 result = ((PullTransformer)transformer).transform(result, context);
             } else if (transformer instanceof PushTransformer) {
-                DataPipeTransformer dataPipeFactory = (i < size - 1) ? (DataPipeTransformer)path.get(++i) : null;
+                DataPipeTransformer dataPipeFactory = (i < size - 1) ? (DataPipeTransformer)plan.getTransformer(++i) : null;
                 DataPipe dataPipe = dataPipeFactory == null ? null : dataPipeFactory.newInstance();
                 Object sink = dataPipe != null ? dataPipe.getSink() : target;
                 ((PushTransformer)transformer).transform(result, sink, context);
@@ -189,6 +197,36 @@ public class MediatorImpl implements Mediator {
         }
     }
 
+    /**
+     * Get the plan to transform from the data binding of the source to the one of the target data type.
+     * The plan is cached by pair of data bindings until the transformer graph changes.
+     */
+    private TransformationPlan getTransformationPlan(DataType sourceDataType, DataType targetDataType) {
+        int version = getTransformersVersion();
+        TransformationPlan.Key key =
+            new TransformationPlan.Key(sourceDataType.getDataBinding(), targetDataType.getDataBinding());
+        TransformationPlan plan = plans.get(key);
+        if (plan != null && plan.isValid(version)) {
+            return plan;
+        }
+        plan = new TransformationPlan(key, getTransformerChain(sourceDataType, targetDataType), version);
+        if (version != -1) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * @return The version of the transformer graph or -1 if the transformers can't tell when they change,
+     * in which case the plans are not cached
+     */
+    private int getTransformersVersion() {
+        if (transformers instanceof DefaultTransformerExtensionPoint) {
+            return ((DefaultTransformerExtensionPoint)transformers).getVersion();
+        }
+        return -1;
+    }
+
     private List<Transformer> getTransformerChain(DataType sourceDataType, DataType targetDataType) {
         String sourceId = sourceDataType.getDataBinding();
         String targetId = targetDataType.getDataBinding();
@@ -516,6 +554,12 @@ public class MediatorImpl implements Mediator {
         // Use the JAXB databinding to copy non-Serializable data
         if (dataBinding == javaBeansDataBinding) {
 
+            // Copying the objects field by field is much cheaper than serialization or a JAXB round trip
+            Object copy = copier.copy(data, getCopyClassLoader(data, targetDataType));
+            if (copy != null) {
+                return copy;
+            }
+
             // If the input data is an array containing non Serializable elements
             // use JAXB
             clazz = data.getClass();
@@ -542,6 +586,39 @@ public class MediatorImpl implements Mediator {
         return dataBinding.copy(data, sourceDataType, targetDataType, sourceOperation, targetOperation);
     }
 
+    /**
+     * Work out which ClassLoader the classes of the copy must be visible from, as JavaBeansDataBinding does
+     * for deserialization:
+     * <ul>
+     * <li>The ClassLoader of the targetDataType if it is not the System ClassLoader
+     * <li>The ClassLoader of the data if it is not the System ClassLoader
+     * <li>The ThreadContext ClassLoader otherwise, because Collection classes are loaded by the System
+     * ClassLoader but their contents may be loaded from another ClassLoader
+     * </ul>
+     */
+    private static ClassLoader getCopyClassLoader(Object data, DataType targetDataType) {
+        Class<?> targetClass = targetDataType.getPhysical();
+        ClassLoader classLoader = targetClass == null ? null : getClassLoader(targetClass);
+        if (classLoader == null) {
+            classLoader = getClassLoader(data.getClass());
+        }
+        if (classLoader == null) {
+            classLoader = Thread.currentThread().getContextClassLoader();
+        }
+        return classLoader;
+    }
+
+    private static ClassLoader getClassLoader(final Class<?> cls) {
+        if (System.getSecurityManager() == null) {
+            return cls.getClassLoader();
+        }
+        return AccessController.doPrivileged(new PrivilegedAction<ClassLoader>() {
+            public ClassLoader run() {
+                return cls.getClassLoader();
+            }
+        });
+    }
+
     /**
      * Copy an array of data objects passed to an operation
      * @param data array of objects to copy
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.databinding.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tuscany.sca.databinding.Transformer;
+import org.apache.tuscany.sca.interfacedef.DataType;
+import org.apache.tuscany.sca.interfacedef.impl.DataTypeImpl;
+
+/**
+ * The chain of transformers used to mediate from a source data binding to a target data binding.
+ * MediatorImpl keeps the plans by pair of data bindings so that the transformer graph doesn't need to
+ * be searched for every invocation.
+ * <p>
+ * The data types of the hops depend on the logical type of the source or target of the mediation, so
+ * they are built once per source and target DataType and kept in its metadata. They live as long as the
+ * operation the DataType belongs to. The source and target DataTypes themselves are not kept as clones
+ * of a DataType share its metadata.
+ *
+ * @version $Rev$ $Date$
+ */
+final class TransformationPlan {
+    private final Key key;
+    private final int version;
+    private final Transformer[] transformers;
+
+    /**
+     * @param key The pair of data bindings
+     * @param path The chain of transformers between the data bindings of the source and target
+     * @param version The version of the transformer graph the chain was computed from
+     */
+    TransformationPlan(Key key, List<Transformer> path, int version) {
+        this.key = key;
+        this.version = version;
+        this.transformers = path.toArray(new Transformer[path.size()]);
+    }
+
+    /**
+     * @return true if the plan was computed from the given version of the transformer graph
+     */
+    boolean isValid(int version) {
+        return this.version == version;
+    }
+
+    int size() {
+        return transformers.length;
+    }
+
+    Transformer getTransformer(int index) {
+        return transformers[index];
+    }
+
+    /**
+     * Get the source data types of the intermediate hops, the data binding of the transformer is used with
+     * Object as the physical type. The first entry is null, the source data type is used for the first hop.
+     * @param sourceDataType The source data type of the mediation
+     * @param cache false if the data type is only used for this mediation, the hop types are then not kept
+     */
+    @SuppressWarnings("unchecked")
+    DataType[] getSourceTypes(DataType sourceDataType, boolean cache) {
+        Object logical = sourceDataType.getLogical();
+        SourceHopTypes hops = cache ? (SourceHopTypes)sourceDataType.getMetaData(SourceHopTypes.class) : null;
+        HopTypes types = hops == null ? null : hops.get(key);
+        if (types != null && types.isValid(this, logical)) {
+            return types.types;
+        }
+        DataType[] sourceTypes = new DataType[transformers.length];
+        for (int i = 1; i < sourceTypes.length; i++) {
+            sourceTypes[i] = createHopType(transformers[i].getSourceDataBinding(), logical);
+        }
+        if (cache) {
+            if (hops == null) {
+                hops = new SourceHopTypes();
+                sourceDataType.setMetaData(SourceHopTypes.class, hops);
+            }
+            hops.put(key, new HopTypes(this, logical, sourceTypes));
+        }
+        return sourceTypes;
+    }
+
+    /**
+     * Get the target data types of the intermediate hops, the data binding of the transformer is used with
+     * Object as the physical type. The last entry is null, the target data type is used for the last hop.
+     * @param targetDataType The target data type of the mediation
+     */
+    @SuppressWarnings("unchecked")
+    DataType[] getTargetTypes(DataType targetDataType) {
+        Object logical = targetDataType.getLogical();
+        TargetHopTypes hops = (TargetHopTypes)targetDataType.getMetaData(TargetHopTypes.class);
+        HopTypes types = hops == null ? null : hops.get(key);
+        if (types != null && types.isValid(this, logical)) {
+            return types.types;
+        }
+        DataType[] targetTypes = new DataType[transformers.length];
+        for (int i = 0; i < targetTypes.length - 1; i++) {
+            targetTypes[i] = createHopType(transformers[i].getTargetDataBinding(), logical);
+        }
+        if (hops == null) {
+            hops = new TargetHopTypes();
+            targetDataType.setMetaData(TargetHopTypes.class, hops);
+        }
+        hops.put(key, new HopTypes(this, logical, targetTypes));
+        return targetTypes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DataType createHopType(String dataBinding, Object logical) {
+        return new DataTypeImpl<Object>(dataBinding, Object.class, logical);
+    }
+
+    /**
+     * The data types of the hops of a plan
+     */
+    private static final class HopTypes {
+        private final TransformationPlan plan;
+        private final Object logical;
+        private final DataType[] types;
+
+        HopTypes(TransformationPlan plan, Object logical, DataType[] types) {
+            this.plan = plan;
+            this.logical = logical;
+            this.types = types;
+        }
+
+        /**
+         * @return true if the types were built for the plan and the logical type, the plan is replaced when
+         * the transformer graph changes
+         */
+        boolean isValid(TransformationPlan plan, Object logical) {
+            return this.plan == plan && this.logical == logical;
+        }
+    }
+
+    /**
+     * The hop types of the plans from a source DataType, by pair of data bindings
+     */
+    private static final class SourceHopTypes extends ConcurrentHashMap<Key, HopTypes> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The hop types of the plans to a target DataType, by pair of data bindings
+     */
+    private static final class TargetHopTypes extends ConcurrentHashMap<Key, HopTypes> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The key of a plan, the pair of source and target data bindings
+     */
+    static final class Key {
+        private final String sourceDataBinding;
+        private final String targetDataBinding;
+
+        Key(String sourceDataBinding, String targetDataBinding) {
+            this.sourceDataBinding = sourceDataBinding;
+            this.targetDataBinding = targetDataBinding;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (sourceDataBinding == null ? 0 : sourceDataBinding.hashCode())
+                + (targetDataBinding == null ? 0 : targetDataBinding.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return equals(sourceDataBinding, other.sourceDataBinding)
+                && equals(targetDataBinding, other.targetDataBinding);
+        }
+
+        private static boolean equals(String s1, String s2) {
+            return s1 == null ? s2 == null : s1.equals(s2);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.databinding.javabeans;
+
+import java.io.Externalizable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Copies graphs of Java objects field by field, as a much cheaper alternative to a Java serialization
+ * round trip for pass-by-value. The copy plan of each class is computed once and cached:
+ * <ul>
+ * <li>Immutable JDK types (String, the primitive wrappers, BigDecimal, URI, QName...) and enums are
+ * shared rather than copied.
+ * <li>Arrays of primitives are cloned, other arrays are copied element by element.
+ * <li>ArrayList, LinkedList, HashMap, HashSet, LinkedHashSet and naturally ordered TreeMap/TreeSet
+ * are copied entry by entry.
+ * <li>Other classes are copied by creating an instance with the no-arg constructor and copying the
+ * non-static, non-transient fields declared by the class and its superclasses.
+ * </ul>
+ * Shared references and cycles are preserved. A graph containing an object of any other JDK type, a class
+ * without a no-arg constructor, or a class customizing its serialization (writeObject, readResolve...)
+ * can't be copied this way, in which case {@link #copy(Object, ClassLoader)} returns null and the caller
+ * is expected to fall back to serialization.
+ * <p>
+ * Unlike deserialization, which only runs the no-arg constructor of the first non-Serializable superclass,
+ * the copier runs the no-arg constructor of the class itself. Transient fields of the copy therefore keep the
+ * values the constructor and field initializers give them instead of their default values, and any side
+ * effect of the constructor happens for every copy.
+ *
+ * @version $Rev$ $Date$
+ */
+public class JavaBeansCopier {
+    private static final String[] SERIALIZATION_METHODS =
+        {"writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"};
+
+    private static final CopyPlan IMMUTABLE = new CopyPlan() {
+        @Override
+        Object copy(Object source, CopyContext context) {
+            return source;
+        }
+    };
+
+    private static final CopyPlan UNSUPPORTED = new CopyPlan() {
+        @Override
+        Object copy(Object source, CopyContext context) {
+            throw NotCopyableException.INSTANCE;
+        }
+    };
+
+    private static final Map<Class<?>, CopyPlan> BUILTIN_PLANS = new HashMap<Class<?>, CopyPlan>();
+    static {
+        Class<?>[] immutables =
+            {String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+             Float.class, Double.class, BigInteger.class, BigDecimal.class, URI.class, UUID.class, QName.class,
+             Locale.class, Class.class};
+        for (Class<?> cls : immutables) {
+            BUILTIN_PLANS.put(cls, IMMUTABLE);
+        }
+        BUILTIN_PLANS.put(Date.class, new CopyPlan() {
+            @Override
+            Object copy(Object source, CopyContext context) {
+                Object copy = new Date(((Date)source).getTime());
+                context.register(source, copy);
+                return copy;
+            }
+        });
+        BUILTIN_PLANS.put(ArrayList.class, new CollectionPlan() {
+            @Override
+            Collection<Object> newInstance(Collection<?> source) {
+                return new ArrayList<Object>(source.size());
+            }
+        });
+        BUILTIN_PLANS.put(LinkedList.class, new CollectionPlan() {
+            @Override
+            Collection<Object> newInstance(Collection<?> source) {
+                return new LinkedList<Object>();
+            }
+        });
+        BUILTIN_PLANS.put(HashSet.class, new CollectionPlan() {
+            @Override
+            Collection<Object> newInstance(Collection<?> source) {
+                return new HashSet<Object>(Math.max((int)(source.size() / .75f) + 1, 16));
+            }
+        });
+        BUILTIN_PLANS.put(LinkedHashSet.class, new CollectionPlan() {
+            @Override
+            Collection<Object> newInstance(Collection<?> source) {
+                return new LinkedHashSet<Object>(Math.max((int)(source.size() / .75f) + 1, 16));
+            }
+        });
+        BUILTIN_PLANS.put(TreeSet.class, new CollectionPlan() {
+            @Override
+            Collection<Object> newInstance(Collection<?> source) {
+                if (((SortedSet<?>)source).comparator() != null) {
+                    throw NotCopyableException.INSTANCE;
+                }
+                return new TreeSet<Object>();
+            }
+        });
+        BUILTIN_PLANS.put(HashMap.class, new MapPlan() {
+            @Override
+            Map<Object, Object> newInstance(Map<?, ?> source) {
+                return new HashMap<Object, Object>(Math.max((int)(source.size() / .75f) + 1, 16));
+            }
+        });
+        BUILTIN_PLANS.put(TreeMap.class, new MapPlan() {
+            @Override
+            Map<Object, Object> newInstance(Map<?, ?> source) {
+                if (((SortedMap<?, ?>)source).comparator() != null) {
+                    throw NotCopyableException.INSTANCE;
+                }
+                return new TreeMap<Object, Object>();
+            }
+        });
+    }
+
+    // The plans reference the fields and constructors of the class, so they are softly held: they stay
+    // cached until memory runs short, after which the class loaders of stopped contributions can be collected
+    private final Map<Class<?>, SoftReference<CopyPlan>> plans =
+        Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<CopyPlan>>());
+
+    /**
+     * Copy a graph of objects
+     * @param source The root of the graph
+     * @param classLoader The class loader the classes of the copy must be visible from, the classes of
+     * the source are used as is if they are the ones this class loader sees. Null to skip the check.
+     * @return The copy, or null if the source is null or the graph can't be copied field by field
+     */
+    public Object copy(Object source, ClassLoader classLoader) {
+        if (source == null) {
+            return null;
+        }
+        try {
+            return new CopyContext(classLoader).copy(source);
+        } catch (NotCopyableException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check if instances of the class can be copied field by field. Objects referenced by the instances may
+     * still not be copyable.
+     */
+    public boolean isCopyable(Class<?> cls) {
+        return getPlan(cls) != UNSUPPORTED;
+    }
+
+    CopyPlan getPlan(final Class<?> cls) {
+        CopyPlan plan = BUILTIN_PLANS.get(cls);
+        if (plan != null) {
+            return plan;
+        }
+        SoftReference<CopyPlan> ref = plans.get(cls);
+        plan = ref != null ? ref.get() : null;
+        if (plan == null) {
+            if (cls.isArray()) {
+                plan = cls.getComponentType().isPrimitive() ? new PrimitiveArrayPlan() : new ArrayPlan(cls);
+            } else if (cls.isEnum() || (cls.getSuperclass() != null && cls.getSuperclass().isEnum())) {
+                // Enum constants with a body are subclasses of the enum
+                plan = new EnumPlan();
+            } else {
+                plan = AccessController.doPrivileged(new PrivilegedAction<CopyPlan>() {
+                    public CopyPlan run() {
+                        return createBeanPlan(cls);
+                    }
+                });
+            }
+            plans.put(cls, new SoftReference<CopyPlan>(plan));
+        }
+        return plan;
+    }
+
+    private static boolean isJDKClass(Class<?> cls) {
+        String name = cls.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+    }
+
+    private static CopyPlan createBeanPlan(Class<?> cls) {
+        if (isJDKClass(cls) || Externalizable.class.isAssignableFrom(cls)
+            || Modifier.isAbstract(cls.getModifiers())) {
+            return UNSUPPORTED;
+        }
+        try {
+            Constructor<?> constructor = cls.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            List<Field> fields = new ArrayList<Field>();
+            for (Class<?> c = cls; c != Object.class; c = c.getSuperclass()) {
+                if (isJDKClass(c)) {
+                    return UNSUPPORTED;
+                }
+                for (String name : SERIALIZATION_METHODS) {
+                    if (declaresMethod(c, name)) {
+                        return UNSUPPORTED;
+                    }
+                }
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return new BeanPlan(constructor, fields);
+        } catch (NoSuchMethodException e) {
+            return UNSUPPORTED;
+        } catch (SecurityException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    private static boolean declaresMethod(Class<?> cls, String name) {
+        for (Method method : cls.getDeclaredMethods()) {
+            if (method.getName().equals(name) && !Modifier.isStatic(method.getModifiers())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Thrown when an object of the graph can't be copied, preallocated as it is used for flow control
+     */
+    private static class NotCopyableException extends RuntimeException {
+        private static final long serialVersionUID = -5061396451393633186L;
+        private static final NotCopyableException INSTANCE = new NotCopyableException();
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * The state of a copy: the copies made so far and the class loader the classes must be visible from
+     */
+    private class CopyContext {
+        private final ClassLoader classLoader;
+        private IdentityHashMap<Object, Object> copies;
+
+        private CopyContext(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        Object copy(Object source) {
+            if (source == null) {
+                return null;
+            }
+            CopyPlan plan = getPlan(source.getClass());
+            if (plan == IMMUTABLE) {
+                return source;
+            }
+            if (copies != null) {
+                Object copy = copies.get(source);
+                if (copy != null) {
+                    return copy;
+                }
+            }
+            if (classLoader != null) {
+                plan.checkVisibility(source.getClass(), classLoader);
+            }
+            return plan.copy(source, this);
+        }
+
+        /**
+         * Register the copy of an object before copying what it references, so that cycles end on it
+         */
+        void register(Object source, Object copy) {
+            if (copies == null) {
+                copies = new IdentityHashMap<Object, Object>();
+            }
+            copies.put(source, copy);
+        }
+    }
+
+    abstract static class CopyPlan {
+        // The last class loader the class was found to be visible from
+        private volatile ClassLoader visibleFrom;
+
+        abstract Object copy(Object source, CopyContext context);
+
+        /**
+         * Check that the class is the one seen by the class loader, otherwise the copy must be made by
+         * deserializing with that class loader
+         */
+        void checkVisibility(Class<?> cls, ClassLoader classLoader) {
+            ClassLoader loader = cls.getClassLoader();
+            if (loader == null || loader == classLoader || visibleFrom == classLoader) {
+                return;
+            }
+            try {
+                if (Class.forName(cls.getName(), false, classLoader) == cls) {
+                    visibleFrom = classLoader;
+                    return;
+                }
+            } catch (ClassNotFoundException e) {
+                // Not visible
+            } catch (LinkageError e) {
+                // Not visible
+            }
+            throw NotCopyableException.INSTANCE;
+        }
+    }
+
+    private static class EnumPlan extends CopyPlan {
+        @Override
+        Object copy(Object source, CopyContext context) {
+            return source;
+        }
+    }
+
+    private static class PrimitiveArrayPlan extends CopyPlan {
+        @Override
+        Object copy(Object source, CopyContext context) {
+            Object copy;
+            if (source instanceof int[]) {
+                copy = ((int[])source).clone();
+            } else if (source instanceof byte[]) {
+                copy = ((byte[])source).clone();
+            } else if (source instanceof long[]) {
+                copy = ((long[])source).clone();
+            } else if (source instanceof double[]) {
+                copy = ((double[])source).clone();
+            } else if (source instanceof char[]) {
+                copy = ((char[])source).clone();
+            } else if (source instanceof boolean[]) {
+                copy = ((boolean[])source).clone();
+            } else if (source instanceof float[]) {
+                copy = ((float[])source).clone();
+            } else {
+                copy = ((short[])source).clone();
+            }
+            context.register(source, copy);
+            return copy;
+        }
+    }
+
+    private static class ArrayPlan extends CopyPlan {
+        private final Class<?> componentType;
+
+        private ArrayPlan(Class<?> cls) {
+            this.componentType = cls.getComponentType();
+        }
+
+        @Override
+        void checkVisibility(Class<?> cls, ClassLoader classLoader) {
+            Class<?> elementType = componentType;
+            while (elementType.isArray()) {
+                elementType = elementType.getComponentType();
+            }
+            super.checkVisibility(elementType, classLoader);
+        }
+
+        @Override
+        Object copy(Object source, CopyContext context) {
+            Object[] array = (Object[])source;
+            Object[] copy = (Object[])Array.newInstance(componentType, array.length);
+            context.register(source, copy);
+            for (int i = 0; i < array.length; i++) {
+                copy[i] = context.copy(array[i]);
+            }
+            return copy;
+        }
+    }
+
+    private abstract static class CollectionPlan extends CopyPlan {
+        abstract Collection<Object> newInstance(Collection<?> source);
+
+        @Override
+        Object copy(Object source, CopyContext context) {
+            Collection<?> collection = (Collection<?>)source;
+            Collection<Object> copy = newInstance(collection);
+            context.register(source, copy);
+            for (Object element : collection) {
+                copy.add(context.copy(element));
+            }
+            return copy;
+        }
+    }
+
+    private abstract static class MapPlan extends CopyPlan {
+        abstract Map<Object, Object> newInstance(Map<?, ?> source);
+
+        @Override
+        Object copy(Object source, CopyContext context) {
+            Map<?, ?> map = (Map<?, ?>)source;
+            Map<Object, Object> copy = newInstance(map);
+            context.register(source, copy);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(context.copy(entry.getKey()), context.copy(entry.getValue()));
+            }
+            return copy;
+        }
+    }
+
+    private static class BeanPlan extends CopyPlan {
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+        private final Class<?>[] types;
+
+        private BeanPlan(Constructor<?> constructor, List<Field> fields) {
+            this.constructor = constructor;
+            this.fields = fields.toArray(new Field[fields.size()]);
+            this.types = new Class<?>[this.fields.length];
+            for (int i = 0; i < this.fields.length; i++) {
+                types[i] = this.fields[i].getType();
+            }
+        }
+
+        @Override
+        Object copy(Object source, CopyContext context) {
+            Object copy;
+            try {
+                copy = constructor.newInstance();
+            } catch (InstantiationException e) {
+                throw NotCopyableException.INSTANCE;
+            } catch (InvocationTargetException e) {
+                throw NotCopyableException.INSTANCE;
+            } catch (IllegalAccessException e) {
+                throw NotCopyableException.INSTANCE;
+            }
+            context.register(source, copy);
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    Field field = fields[i];
+                    Class<?> type = types[i];
+                    if (!type.isPrimitive()) {
+                        field.set(copy, context.copy(field.get(source)));
+                    } else if (type == int.class) {
+                        field.setInt(copy, field.getInt(source));
+                    } else if (type == long.class) {
+                        field.setLong(copy, field.getLong(source));
+                    } else if (type == boolean.class) {
+                        field.setBoolean(copy, field.getBoolean(source));
+                    } else if (type == double.class) {
+                        field.setDouble(copy, field.getDouble(source));
+                    } else if (type == float.class) {
+                        field.setFloat(copy, field.getFloat(source));
+                    } else if (type == char.class) {
+                        field.setChar(copy, field.getChar(source));
+                    } else if (type == byte.class) {
+                        field.setByte(copy, field.getByte(source));
+                    } else {
+                        field.setShort(copy, field.getShort(source));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.databinding.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+import javax.xml.namespace.QName;
+
+import org.apache.tuscany.sca.interfacedef.DataType;
+
+/**
+ * Finds out if instances of a type are deeply immutable, in which case they don't need to be copied to
+ * enforce pass-by-value semantics. A type is deeply immutable if it is:
+ * <ul>
+ * <li>a primitive type, String, a primitive wrapper, BigInteger, BigDecimal, URI, UUID or QName
+ * <li>an enum
+ * <li>a final class of the java.time package
+ * <li>a final class whose instance fields, including the inherited ones, are all final and of deeply
+ * immutable types
+ * </ul>
+ * Interfaces, Object, arrays and collections are always considered as mutable.
+ *
+ * @version $Rev$ $Date$
+ */
+public final class ImmutableTypeHelper {
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>();
+    static {
+        Class<?>[] classes =
+            {String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+             Float.class, Double.class, BigInteger.class, BigDecimal.class, URI.class, UUID.class, QName.class};
+        for (Class<?> cls : classes) {
+            IMMUTABLE_TYPES.add(cls);
+        }
+    }
+
+    // The values don't reference the classes so they don't prevent them from being unloaded
+    private static final Map<Class<?>, Boolean> results =
+        Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+    private ImmutableTypeHelper() {
+    }
+
+    /**
+     * Check if the instances of a class are deeply immutable
+     * @param cls The class
+     * @return true if the instances are deeply immutable
+     */
+    public static boolean isImmutable(Class<?> cls) {
+        if (cls == null) {
+            return false;
+        }
+        Boolean result = results.get(cls);
+        if (result == null) {
+            result = isImmutable(cls, new HashSet<Class<?>>());
+            results.put(cls, result);
+        }
+        return result;
+    }
+
+    /**
+     * Check if all the data types of a list are deeply immutable
+     * @param dataTypes The data types, typically the logical input or output type of an operation
+     * @return true if the physical types of all the data types are deeply immutable
+     */
+    public static boolean isImmutable(List<DataType> dataTypes) {
+        if (dataTypes == null) {
+            return true;
+        }
+        for (DataType<?> dataType : dataTypes) {
+            if (dataType == null || !isImmutable(dataType.getPhysical())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param cls The class to check
+     * @param visiting The classes being checked, they are assumed to be immutable to deal with cycles
+     */
+    private static boolean isImmutable(Class<?> cls, Set<Class<?>> visiting) {
+        if (cls.isPrimitive() || cls.isEnum() || IMMUTABLE_TYPES.contains(cls) || visiting.contains(cls)) {
+            return true;
+        }
+        Boolean result = results.get(cls);
+        if (result != null) {
+            return result;
+        }
+        if (cls.isArray() || cls.isInterface() || !Modifier.isFinal(cls.getModifiers())) {
+            return false;
+        }
+        String name = cls.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.")) {
+            return name.startsWith("java.time.");
+        }
+        visiting.add(cls);
+        try {
+            for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+                    if (!Modifier.isFinal(modifiers) || !isImmutable(field.getType(), visiting)) {
+                        return false;
+                    }
+                }
+            }
+        } catch (SecurityException e) {
+            return false;
+        } finally {
+            visiting.remove(cls);
+        }
+        return true;
+    }
+}
@@ -101,6 +101,25 @@ public class DirectedGraphTestCase {
 
     }
 
+    @Test
+    public void testVersion() {
+        graph.addEdge("a", "b", null, 1, true);
+        graph.addEdge("b", "c", null, 1, true);
+        graph.addEdge("c", "d", null, 1, true);
+        int version = graph.getVersion();
+        Assert.assertEquals(3, graph.getShortestPath("a", "d").getEdges().size());
+
+        // The cached path is replaced once a shorter one is added
+        graph.addEdge("b", "d", null, 1, true);
+        Assert.assertTrue(graph.getVersion() != version);
+        Assert.assertEquals(2, graph.getShortestPath("a", "d").getEdges().size());
+
+        version = graph.getVersion();
+        graph.removeEdge("b", "d");
+        Assert.assertTrue(graph.getVersion() != version);
+        Assert.assertEquals(3, graph.getShortestPath("a", "d").getEdges().size());
+    }
+
     @Test
     public void testSort() {
         graph.addEdge("a", "b");
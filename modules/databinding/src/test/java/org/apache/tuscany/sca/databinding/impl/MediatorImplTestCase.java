@@ -20,6 +20,11 @@ package org.apache.tuscany.sca.databinding.impl;
 
 import java.io.StringWriter;
 import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.tuscany.sca.core.DefaultExtensionPointRegistry;
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
@@ -27,6 +32,9 @@ import org.apache.tuscany.sca.databinding.DataBindingExtensionPoint;
 import org.apache.tuscany.sca.databinding.DefaultDataBindingExtensionPoint;
 import org.apache.tuscany.sca.databinding.DefaultTransformerExtensionPoint;
 import org.apache.tuscany.sca.databinding.TransformationContext;
+import org.apache.tuscany.sca.databinding.Transformer;
+import org.apache.tuscany.sca.databinding.javabeans.JavaBeansCopierTestCase;
+import org.apache.tuscany.sca.databinding.javabeans.JavaBeansDataBinding;
 import org.apache.tuscany.sca.databinding.TransformerExtensionPoint;
 import org.apache.tuscany.sca.databinding.xml.Node2String;
 import org.apache.tuscany.sca.databinding.xml.Node2Writer;
@@ -122,4 +130,86 @@ public class MediatorImplTestCase {
         Assert.assertTrue(str != null && str.indexOf("<shipDate>1999-12-05</shipDate>") != -1);
     }
 
+    @Test
+    public void testSameTargetFromDifferentSources() {
+        // The same target data type is reached from String through SAX and DOM and from Node directly
+        TransformationContext context = createTransformationContext(String.class, Writer.class);
+        DataType nodeType = new DataTypeImpl<Class>(Node.class.getName(), Node.class, Node.class);
+        Node node = (Node)mediator.mediate(IPO_XML, context.getSourceDataType(), nodeType, null);
+        for (int i = 0; i < 2; i++) {
+            Writer writer = new StringWriter();
+            mediator.mediate(IPO_XML, writer, context.getSourceDataType(), context.getTargetDataType(), null);
+            Assert.assertTrue(writer.toString().indexOf("<shipDate>1999-12-05</shipDate>") != -1);
+            writer = new StringWriter();
+            mediator.mediate(node, writer, nodeType, context.getTargetDataType(), null);
+            Assert.assertTrue(writer.toString().indexOf("<shipDate>1999-12-05</shipDate>") != -1);
+        }
+    }
+
+    @Test
+    public void testHopTypesBuiltOncePerPlan() {
+        ExtensionPointRegistry extensionPointRegistry = new DefaultExtensionPointRegistry();
+        List<Transformer> path =
+            Arrays.<Transformer> asList(new String2SAX(), new SAX2DOMPipe(extensionPointRegistry),
+                                        new Node2Writer(extensionPointRegistry));
+        TransformationContext context = createTransformationContext(String.class, Writer.class);
+        DataType sourceDataType = context.getSourceDataType();
+        DataType targetDataType = context.getTargetDataType();
+        TransformationPlan.Key key =
+            new TransformationPlan.Key(sourceDataType.getDataBinding(), targetDataType.getDataBinding());
+        TransformationPlan plan = new TransformationPlan(key, path, 1);
+
+        DataType[] sourceTypes = plan.getSourceTypes(sourceDataType, true);
+        Assert.assertNull(sourceTypes[0]);
+        Assert.assertEquals(path.get(1).getSourceDataBinding(), sourceTypes[1].getDataBinding());
+        Assert.assertSame(String.class, sourceTypes[1].getLogical());
+        Assert.assertSame(sourceTypes, plan.getSourceTypes(sourceDataType, true));
+
+        DataType[] targetTypes = plan.getTargetTypes(targetDataType);
+        Assert.assertNull(targetTypes[2]);
+        Assert.assertEquals(path.get(1).getTargetDataBinding(), targetTypes[1].getDataBinding());
+        Assert.assertSame(Writer.class, targetTypes[1].getLogical());
+        Assert.assertSame(targetTypes, plan.getTargetTypes(targetDataType));
+
+        // A data type introspected for a single call doesn't keep the hop types
+        DataType introspected = new DataTypeImpl<Class>(String.class.getName(), String.class, String.class);
+        Assert.assertNotSame(plan.getSourceTypes(introspected, false), plan.getSourceTypes(introspected, false));
+
+        // A new plan, built when the transformer graph changes, doesn't reuse the hop types of the old one
+        TransformationPlan newPlan = new TransformationPlan(key, path, 2);
+        DataType[] newSourceTypes = newPlan.getSourceTypes(sourceDataType, true);
+        Assert.assertNotSame(sourceTypes, newSourceTypes);
+        Assert.assertSame(newSourceTypes, newPlan.getSourceTypes(sourceDataType, true));
+    }
+
+    /**
+     * When the target type is a JDK type, the copy is checked against the thread context class loader
+     * and falls back to deserializing with it if the classes of the data differ
+     */
+    @Test
+    public void testCopyUsesContextClassLoaderForJDKTypes() throws Exception {
+        Class<?> orderClass = JavaBeansCopierTestCase.Order.class;
+        URL location = orderClass.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader foreign = new URLClassLoader(new URL[] {location}, null);
+        ArrayList<Object> orders = new ArrayList<Object>();
+        orders.add(foreign.loadClass(orderClass.getName()).newInstance());
+        DataType listType = new DataTypeImpl<Class>(JavaBeansDataBinding.NAME, ArrayList.class, ArrayList.class);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader tccl = thread.getContextClassLoader();
+        thread.setContextClassLoader(orderClass.getClassLoader());
+        try {
+            ArrayList<?> copy = (ArrayList<?>)mediator.copy(orders, listType);
+            Assert.assertNotSame(orders, copy);
+            Assert.assertSame(orderClass, copy.get(0).getClass());
+
+            thread.setContextClassLoader(foreign);
+            copy = (ArrayList<?>)mediator.copy(orders, listType);
+            Assert.assertNotSame(orders.get(0), copy.get(0));
+            Assert.assertSame(orders.get(0).getClass(), copy.get(0).getClass());
+        } finally {
+            thread.setContextClassLoader(tccl);
+        }
+    }
+
 }
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.databinding.javabeans;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class JavaBeansCopierTestCase {
+
+    @Test
+    public void testCopy() throws Exception {
+        JavaBeansCopier copier = new JavaBeansCopier();
+        Order order = createOrder();
+        Order copy = (Order)copier.copy(order, Order.class.getClassLoader());
+
+        Assert.assertNotSame(order, copy);
+        Assert.assertEquals(42, copy.id);
+        Assert.assertSame(order.status, copy.status);
+        Assert.assertSame(order.amount, copy.amount);
+        Assert.assertNotSame(order.quantities, copy.quantities);
+        Assert.assertEquals(3, copy.quantities[2]);
+        Assert.assertNotSame(order.items, copy.items);
+        Assert.assertEquals(2, copy.items.size());
+        Assert.assertNotSame(order.items.get(0), copy.items.get(0));
+        Assert.assertEquals("a", copy.items.get(0).name);
+        Assert.assertNotSame(order.attributes, copy.attributes);
+        Assert.assertEquals("v", copy.attributes.get("k"));
+        Assert.assertEquals(0, copy.cached);
+
+        // Cycles and shared references are preserved
+        Assert.assertSame(copy, copy.items.get(0).order);
+        Assert.assertSame(copy.items.get(1), copy.favorite);
+    }
+
+    @Test
+    public void testNotCopyable() throws Exception {
+        JavaBeansCopier copier = new JavaBeansCopier();
+        Assert.assertFalse(copier.isCopyable(NoDefaultConstructor.class));
+        Assert.assertFalse(copier.isCopyable(Custom.class));
+
+        Order order = createOrder();
+        order.items.get(1).order = new NoDefaultConstructor(1);
+        Assert.assertNull(copier.copy(order, null));
+
+        order = createOrder();
+        order.attributes = Collections.singletonMap("k", (Object)"v");
+        Assert.assertNull(copier.copy(order, null));
+    }
+
+    /**
+     * The cached copy plans are only released when memory runs short, not on every collection
+     */
+    @Test
+    public void testPlanKeptAcrossCollections() throws Exception {
+        JavaBeansCopier copier = new JavaBeansCopier();
+        URL location = Order.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader classLoader = new URLClassLoader(new URL[] {location}, null);
+        Class<?> cls = classLoader.loadClass(Order.class.getName());
+        Assert.assertNotSame(Order.class, cls);
+        Object order = cls.newInstance();
+        Object copy = copier.copy(order, classLoader);
+        Assert.assertNotNull(copy);
+        Assert.assertSame(cls, copy.getClass());
+
+        Object plan = copier.getPlan(cls);
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Assert.assertSame(plan, copier.getPlan(cls));
+    }
+
+    /**
+     * Serializable classes are created with their own no-arg constructor, so transient fields get their
+     * initial values rather than the defaults deserialization would leave
+     */
+    @Test
+    public void testConstructorRunForSerializable() throws Exception {
+        JavaBeansCopier copier = new JavaBeansCopier();
+        Initialized source = new Initialized();
+        source.state = "changed";
+        Initialized copy = (Initialized)copier.copy(source, null);
+        Assert.assertEquals("initial", copy.state);
+    }
+
+    private static Order createOrder() {
+        Order order = new Order();
+        order.id = 42;
+        order.status = Status.OPEN;
+        order.amount = new BigDecimal("10.5");
+        order.quantities = new int[] {1, 2, 3};
+        Item a = new Item();
+        a.name = "a";
+        a.order = order;
+        Item b = new Item();
+        b.name = "b";
+        order.items.add(a);
+        order.items.add(b);
+        order.favorite = b;
+        order.attributes.put("k", "v");
+        order.cached = 5;
+        return order;
+    }
+
+    public static enum Status {
+        OPEN, CLOSED
+    }
+
+    public static class Order implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int id;
+        private Status status;
+        private BigDecimal amount;
+        private int[] quantities;
+        private List<Item> items = new ArrayList<Item>();
+        private Item favorite;
+        private Map<String, Object> attributes = new HashMap<String, Object>();
+        private transient int cached;
+    }
+
+    public static class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String name;
+        private Object order;
+    }
+
+    public static class NoDefaultConstructor implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int value;
+
+        public NoDefaultConstructor(int value) {
+            this.value = value;
+        }
+    }
+
+    public static class Initialized implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private transient String state = "initial";
+    }
+
+    public static class Custom implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Object readResolve() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.databinding.util;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class ImmutableTypeHelperTestCase {
+
+    @Test
+    public void testImmutable() {
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(int.class));
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(String.class));
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(BigDecimal.class));
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(Color.class));
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(Point.class));
+        Assert.assertTrue(ImmutableTypeHelper.isImmutable(Node.class));
+    }
+
+    @Test
+    public void testMutable() {
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(Object.class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(Date.class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(List.class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(int[].class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(MutablePoint.class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(NotFinal.class));
+        Assert.assertFalse(ImmutableTypeHelper.isImmutable(Holder.class));
+    }
+
+    public static enum Color {
+        RED, GREEN
+    }
+
+    public static final class Point {
+        private final int x;
+        private final int y;
+        private final Color color;
+
+        public Point(int x, int y, Color color) {
+            this.x = x;
+            this.y = y;
+            this.color = color;
+        }
+    }
+
+    public static final class Node {
+        private final String name;
+        private final Node next;
+
+        public Node(String name, Node next) {
+            this.name = name;
+            this.next = next;
+        }
+    }
+
+    public static final class MutablePoint {
+        private int x;
+    }
+
+    public static class NotFinal {
+        private final int x = 0;
+    }
+
+    public static final class Holder {
+        private final Date date = new Date();
+    }
+}
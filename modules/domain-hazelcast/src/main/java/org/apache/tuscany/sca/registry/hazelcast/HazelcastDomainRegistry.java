@@ -31,7 +31,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,6 +59,7 @@ import org.apache.tuscany.sca.runtime.ContributionListener;
 import org.apache.tuscany.sca.runtime.DomainRegistry;
 import org.apache.tuscany.sca.runtime.RuntimeEndpoint;
 import org.apache.tuscany.sca.runtime.RuntimeProperties;
+import org.apache.tuscany.sca.work.WorkScheduler;
 import org.oasisopen.sca.ServiceRuntimeException;
 
 import com.hazelcast.config.Config;
@@ -97,15 +100,29 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
 
     protected Map<String, Endpoint> localEndpoints = new ConcurrentHashMap<String, Endpoint>();
 
+    // A node local replica of endpointMap, kept up to date by the entry events so that lookups
+    // don't go to the cluster. key endpointURI, value endpoint
+    protected ConcurrentMap<String, Endpoint> endpointView = new ConcurrentHashMap<String, Endpoint>();
+    // The reverse of endpointOwners, key endpointURI, value member
+    protected ConcurrentMap<String, String> endpointOwnerView = new ConcurrentHashMap<String, String>();
+    // key member, value the Hazelcast member
+    protected Map<String, Member> members = new ConcurrentHashMap<String, Member>();
+    // true once the entry events are received
+    protected volatile boolean listening;
+    // true while a resync is scheduled and hasn't started
+    private final AtomicBoolean resyncScheduled = new AtomicBoolean();
+
     protected Map<String, ContributionDescription> contributionDescriptions;
 
     protected AssemblyFactory assemblyFactory;
     protected Object shutdownMutex = new Object();
     protected Properties properties;
+    protected WorkScheduler workScheduler;
 
     public HazelcastDomainRegistry(ExtensionPointRegistry registry, Properties properties, String domainURI, String domainName) {
         super(registry, null, domainURI, domainName);
         this.assemblyFactory = registry.getExtensionPoint(FactoryExtensionPoint.class).getFactory(AssemblyFactory.class);
+        this.workScheduler = registry.getExtensionPoint(UtilityExtensionPoint.class).getUtility(WorkScheduler.class);
         this.properties = properties;
     }
 
@@ -115,6 +132,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
                                      String domainName) {
         super(registry, attributes, domainURI, domainName);
         this.assemblyFactory = registry.getExtensionPoint(FactoryExtensionPoint.class).getFactory(AssemblyFactory.class);
+        this.workScheduler = registry.getExtensionPoint(UtilityExtensionPoint.class).getUtility(WorkScheduler.class);
         this.properties = registry.getExtensionPoint(UtilityExtensionPoint.class).getUtility(RuntimeProperties.class).getProperties();
     }
     
@@ -130,10 +148,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
 //            endpointMap = new HashMap<Object, Object>();
 //        } else {
             initHazelcastInstance();
-            IMap imap = hazelcastInstance.getMap(domainURI + "/Endpoints");
-            imap.addEntryListener(this, true);
-            endpointMap = imap;
-            
+            endpointMap = hazelcastInstance.getMap(domainURI + "/Endpoints");
             endpointOwners = hazelcastInstance.getMultiMap(domainURI + "/EndpointOwners");
 
             runningComposites = hazelcastInstance.getMap(domainURI + "/RunningComposites");
@@ -161,16 +176,51 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
                 }
             }, false);
             
-            hazelcastInstance.getCluster().addMembershipListener(this);
+            listenForEndpoints();
 //        }
     }
 
+    /**
+     * Register for the events that keep the node local view of endpointMap and endpointOwners up to
+     * date and fill it with the endpoints already in the domain
+     */
+    protected void listenForEndpoints() {
+        ((IMap)endpointMap).addEntryListener(this, true);
+        endpointOwners.addEntryListener(new EntryListener<String, String>() {
+            public void entryAdded(EntryEvent<String, String> event) {
+                endpointOwnerView.put(event.getValue(), event.getKey());
+            }
+            public void entryRemoved(EntryEvent<String, String> event) {
+                endpointOwnerRemoved(event.getKey(), event.getValue());
+            }
+            public void entryUpdated(EntryEvent<String, String> event) {
+                endpointOwnerView.put(event.getValue(), event.getKey());
+            }
+            public void entryEvicted(EntryEvent<String, String> event) {
+            }
+        }, true);
+        getHazelcastInstance().getCluster().addMembershipListener(this);
+        // Endpoints added by other members before this one joined won't be seen as entry events 
+        resync();
+        listening = true;
+    }
+
+    @Override
+    protected boolean isTrackingEndpointChanges() {
+        return listening;
+    }
+
     public void stop() {
         if (hazelcastInstance != null) {
             synchronized (shutdownMutex) {
+                listening = false;
                 hazelcastInstance.shutdown();
                 hazelcastInstance = null;
                 endpointMap = null;
+                endpointIndex.clear();
+                endpointView.clear();
+                endpointOwnerView.clear();
+                members.clear();
                 endpointOwners = null;
                 runningComposites = null;
                 runningCompositeOwners = null;
@@ -301,13 +351,24 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
             txn.rollback();
             throw new ServiceRuntimeException(e);
         }
+        // Index it straight away rather than waiting for the entry event
+        endpointView.put(endpointURI, endpoint);
+        endpointOwnerView.put(endpointURI, localMemberAddr);
+        endpointIndex.add(endpoint);
         logger.info("Add endpoint - " + endpoint);
     }
 
     public List<Endpoint> findEndpoint(String uri) {
-        List<Endpoint> foundEndpoints = new ArrayList<Endpoint>();
-        for (Object v : endpointMap.values()) {
-            Endpoint endpoint = (Endpoint)v;
+        List<Endpoint> foundEndpoints = endpointIndex.find(uri);
+        if (foundEndpoints != null) {
+            for (int i = 0; i < foundEndpoints.size(); i++) {
+                foundEndpoints.set(i, localizeEndpoint(foundEndpoints.get(i)));
+            }
+            return foundEndpoints;
+        }
+        // The URI can't be looked up in the index so match against all endpoints
+        foundEndpoints = new ArrayList<Endpoint>();
+        for (Endpoint endpoint : endpointView.values()) {
             logger.fine("Matching against - " + endpoint);
             if (endpoint.matches(uri)) {
                 endpoint = localizeEndpoint(endpoint);
@@ -338,13 +399,13 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
     }
 
     public Endpoint getEndpoint(String uri) {
-        return localizeEndpoint((Endpoint)endpointMap.get(uri));
+        return localizeEndpoint(endpointView.get(uri));
     }
 
     public List<Endpoint> getEndpoints() {
-        ArrayList<Endpoint> eps = new ArrayList();
-        for (Object ep : endpointMap.values()) {
-            eps.add(localizeEndpoint((Endpoint)ep));
+        ArrayList<Endpoint> eps = new ArrayList<Endpoint>();
+        for (Endpoint ep : endpointView.values()) {
+            eps.add(localizeEndpoint(ep));
         }
         return eps;
     }
@@ -369,6 +430,9 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
                 throw new ServiceRuntimeException(e);
             }
             localEndpoints.remove(endpointURI);
+            endpointView.remove(endpointURI);
+            endpointOwnerView.remove(endpointURI, localMemberAddr);
+            endpointIndex.remove(endpoint);
             logger.info("Removed endpoint - " + endpoint);
         }
     }
@@ -392,6 +456,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
 
     public void entryAdded(Object key, Object value) {
         Endpoint newEp = (Endpoint)value;
+        endpointView.put((String)key, newEp);
         if (!isLocal(newEp)) {
             logger.info(" Remote endpoint added: " + newEp);
         } 
@@ -400,6 +465,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
 
     public void entryRemoved(Object key, Object value) {
         Endpoint oldEp = (Endpoint)value;
+        endpointView.remove(key);
         if (!isLocal(oldEp)) {
             logger.info(" Remote endpoint removed: " + value);
         }
@@ -409,6 +475,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
     public void entryUpdated(Object key, Object oldValue, Object newValue) {
         Endpoint oldEp = (Endpoint)oldValue;
         Endpoint newEp = (Endpoint)newValue;
+        endpointView.put((String)key, newEp);
         if (!isLocal(newEp)) {
             logger.info(" Remote endpoint updated: " + newEp);
         }
@@ -416,11 +483,15 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
     }
 
     public void memberAdded(MembershipEvent event) {
+        members.put(event.getMember().getInetSocketAddress().toString(), event.getMember());
+        scheduleResync();
     }
 
     public void memberRemoved(MembershipEvent event) {
         try {
             String memberAddr = event.getMember().getInetSocketAddress().toString();
+            members.remove(memberAddr);
+            removeEndpointOwners(memberAddr);
             if (endpointOwners.containsKey(memberAddr)) {
                 synchronized (shutdownMutex) {
                     ILock lock = hazelcastInstance.getLock("EndpointOwners/" + memberAddr);
@@ -447,6 +518,7 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
                     }
                 }
             }
+            scheduleResync();
         } catch (Exception e) {
             if (e.getCause() != null && e.getCause().getCause() != null) {
                 // ignore hazelcast already shutdown exception
@@ -458,22 +530,152 @@ public class HazelcastDomainRegistry extends BaseDomainRegistry implements Domai
     }
 
     public Member getOwningMember(String serviceURI) {
-        for (String memberAddr : endpointOwners.keySet()) {
-            for (String service : endpointOwners.get(memberAddr)) {
-                Endpoint ep = assemblyFactory.createEndpoint();
-                ep.setURI(service);
-                if (ep.matches(serviceURI)) {
-                    for (Member m : getHazelcastInstance().getCluster().getMembers()) {
-                        if (memberAddr.equals(m.getInetSocketAddress().toString())) {
-                            return m;
-                        }
-                    }
+        List<Endpoint> endpoints = endpointIndex.find(serviceURI);
+        if (endpoints != null) {
+            for (Endpoint ep : endpoints) {
+                Member m = getMember(endpointOwnerView.get(ep.getURI()));
+                if (m != null) {
+                    return m;
+                }
+            }
+            return null;
+        }
+        // The URI can't be looked up in the index so match against all the owned endpoints
+        for (Map.Entry<String, String> e : endpointOwnerView.entrySet()) {
+            Endpoint ep = assemblyFactory.createEndpoint();
+            ep.setURI(e.getKey());
+            if (ep.matches(serviceURI)) {
+                Member m = getMember(e.getValue());
+                if (m != null) {
+                    return m;
                 }
             }
         }
         return null;
     }
 
+    private Member getMember(String memberAddr) {
+        return memberAddr == null ? null : members.get(memberAddr);
+    }
+
+    /**
+     * An entry removed from endpointOwners. Removing a member key removes all its values, in which
+     * case the value isn't a single endpoint URI
+     */
+    private void endpointOwnerRemoved(String memberAddr, Object value) {
+        if (value instanceof String) {
+            endpointOwnerView.remove(value, memberAddr);
+        } else {
+            removeEndpointOwners(memberAddr);
+        }
+    }
+
+    protected void removeEndpointOwners(String memberAddr) {
+        for (Map.Entry<String, String> e : endpointOwnerView.entrySet()) {
+            if (memberAddr.equals(e.getValue())) {
+                endpointOwnerView.remove(e.getKey(), memberAddr);
+            }
+        }
+    }
+
+    /**
+     * Resync with the work scheduler rather than on the Hazelcast event thread. A resync requested
+     * while one is scheduled and hasn't started is covered by it.
+     */
+    protected void scheduleResync() {
+        if (!resyncScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        workScheduler.scheduleWork(new Runnable() {
+            public void run() {
+                resyncScheduled.set(false);
+                try {
+                    resync();
+                } catch (RuntimeException e) {
+                    // The registry may have been stopped while the cluster was read
+                    if (getHazelcastInstance() != null) {
+                        logger.log(Level.WARNING, "Unable to resync the endpoints of domain " + domainURI, e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Rebuild the node local view of the endpoints, of their owners and of the members from the
+     * cluster, in case entry events have been missed while members joined or left. Entries changed
+     * by an event while this runs are left alone. The cluster is read without holding shutdownMutex,
+     * which stop() and removeEndpoint() hold while they use the cluster.
+     */
+    protected void resync() {
+        HazelcastInstance instance = getHazelcastInstance();
+        Map<Object, Object> map = endpointMap;
+        MultiMap<String, String> ownerMap = endpointOwners;
+        if (instance == null || map == null || ownerMap == null) {
+            return;
+        }
+        Map<String, String> oldOwners = new HashMap<String, String>(endpointOwnerView);
+        Map<String, Endpoint> oldEndpoints = new HashMap<String, Endpoint>(endpointView);
+
+        Map<String, Member> currentMembers = new HashMap<String, Member>();
+        for (Member m : instance.getCluster().getMembers()) {
+            currentMembers.put(m.getInetSocketAddress().toString(), m);
+        }
+        Map<String, String> owners = new HashMap<String, String>();
+        for (String memberAddr : ownerMap.keySet()) {
+            for (String uri : ownerMap.get(memberAddr)) {
+                owners.put(uri, memberAddr);
+            }
+        }
+        Map<String, Endpoint> endpoints = new HashMap<String, Endpoint>();
+        for (Map.Entry<Object, Object> e : map.entrySet()) {
+            endpoints.put((String)e.getKey(), (Endpoint)e.getValue());
+        }
+
+        List<Endpoint> removed = new ArrayList<Endpoint>();
+        List<Endpoint> added = new ArrayList<Endpoint>();
+        synchronized (shutdownMutex) {
+            // Don't fill the view of a registry stopped meanwhile
+            if (getHazelcastInstance() != instance) {
+                return;
+            }
+            members.putAll(currentMembers);
+            members.keySet().retainAll(currentMembers.keySet());
+
+            for (Map.Entry<String, String> e : oldOwners.entrySet()) {
+                if (!owners.containsKey(e.getKey())) {
+                    endpointOwnerView.remove(e.getKey(), e.getValue());
+                }
+            }
+            for (Map.Entry<String, String> e : owners.entrySet()) {
+                String oldOwner = oldOwners.get(e.getKey());
+                if (oldOwner == null) {
+                    endpointOwnerView.putIfAbsent(e.getKey(), e.getValue());
+                } else if (!oldOwner.equals(e.getValue())) {
+                    endpointOwnerView.replace(e.getKey(), oldOwner, e.getValue());
+                }
+            }
+
+            for (Map.Entry<String, Endpoint> e : oldEndpoints.entrySet()) {
+                if (!endpoints.containsKey(e.getKey()) && endpointView.remove(e.getKey(), e.getValue())) {
+                    removed.add(e.getValue());
+                }
+            }
+            for (Map.Entry<String, Endpoint> e : endpoints.entrySet()) {
+                if (!oldEndpoints.containsKey(e.getKey()) && endpointView.putIfAbsent(e.getKey(), e.getValue()) == null) {
+                    added.add(e.getValue());
+                }
+            }
+        }
+        // The listeners are called as they are for the entry events, without the lock
+        for (Endpoint endpoint : removed) {
+            endpointRemoved(endpoint);
+        }
+        for (Endpoint endpoint : added) {
+            endpointAdded(endpoint);
+        }
+    }
+
     public void addRunningComposite(String curi, Composite composite) {
         String localMemberAddr = hazelcastInstance.getCluster().getLocalMember().getInetSocketAddress().toString();
         String compositeXML = writeComposite(composite);
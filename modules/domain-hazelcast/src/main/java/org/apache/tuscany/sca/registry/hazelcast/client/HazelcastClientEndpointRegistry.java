@@ -36,6 +36,7 @@ import com.hazelcast.client.ClientProperties;
 import com.hazelcast.client.ClientProperties.ClientPropertyName;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.MembershipEvent;
 
 /**
  * An DomainRegistry using a Hazelcast Native Client
@@ -62,17 +63,35 @@ public class HazelcastClientEndpointRegistry extends HazelcastDomainRegistry {
         endpointOwners = hazelcastClient.getMultiMap(rc.getUserid() + "/EndpointOwners");
         runningComponentContributions = hazelcastClient.getMap(rc.getUserid() + "/RunningComponentContributions");
         contributionDescriptions = hazelcastClient.getMap(rc.getUserid() + "/ContributionDescriptions");
+        listenForEndpoints();
     }
 
     @Override
     public void stop() {
         if (hazelcastClient != null) {
-            hazelcastClient.shutdown();
-            hazelcastClient = null;
-            endpointMap = null;
+            synchronized (shutdownMutex) {
+                listening = false;
+                hazelcastClient.shutdown();
+                hazelcastClient = null;
+                endpointMap = null;
+                endpointIndex.clear();
+                endpointView.clear();
+                endpointOwnerView.clear();
+                members.clear();
+                endpointOwners = null;
+            }
         }
     }
 
+    @Override
+    public void memberRemoved(MembershipEvent event) {
+        // The members of the domain remove the endpoints of the member that left, a client only
+        // updates its view
+        members.remove(event.getMember().getInetSocketAddress().toString());
+        removeEndpointOwners(event.getMember().getInetSocketAddress().toString());
+        scheduleResync();
+    }
+
     private void initHazelcastClientInstance() {
         if (this.domainURI == null) {
             this.properties = registry.getExtensionPoint(UtilityExtensionPoint.class).getUtility(RuntimeProperties.class).getProperties();
@@ -34,6 +34,7 @@ import org.apache.tuscany.sca.interfacedef.Interface;
 import org.apache.tuscany.sca.interfacedef.InterfaceContract;
 import org.apache.tuscany.sca.interfacedef.java.JavaInterfaceContract;
 import org.apache.tuscany.sca.registry.hazelcast.HazelcastDomainRegistry;
+import org.apache.tuscany.sca.registry.hazelcast.client.HazelcastClientEndpointRegistry;
 import org.apache.tuscany.sca.runtime.RuntimeEndpoint;
 import org.apache.tuscany.sca.runtime.RuntimeProperties;
 import org.junit.Assert;
@@ -41,6 +42,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 public class MultiRegTestCase {
+    // How long the tests wait for the changes made on one member to reach the others
+    private static final long TIMEOUT = 10000;
+
     private static ExtensionPointRegistry extensionPoints;
     private static AssemblyFactory assemblyFactory;
     private static SCABindingFactory scaBindingFactory;
@@ -146,6 +150,54 @@ public class MultiRegTestCase {
         reg2.stop();
     }
 
+    @Test
+    public void testClientLookup() throws Exception {
+        HazelcastDomainRegistry reg1 = new HazelcastDomainRegistry(extensionPoints, (Properties)null, "tuscany:foo?bind=127.0.0.1:9876&multicast=off", "foo");
+        reg1.start();
+        RuntimeEndpoint ep1 = createEndpoint("Component1#service-binding(Service1/Service1)");
+        ep1.bind(extensionPoints, reg1);
+        reg1.addEndpoint(ep1);
+
+        // The client connects after ep1 has been added so it has to find it in the existing entries
+        HazelcastClientEndpointRegistry client = new HazelcastClientEndpointRegistry(extensionPoints, null, "tuscanyclient:foo?wka=127.0.0.1:9876", "tuscany:foo?wka=127.0.0.1:9876");
+        client.start();
+        try {
+            assertExists(client, "Component1#service-binding(Service1/Service1)");
+            Assert.assertEquals(1, client.findEndpoint("Component1/Service1").size());
+            Assert.assertNotNull(client.getOwningMember("Component1/Service1"));
+            long epoch = client.getEndpointEpoch("Component2");
+
+            // ep2 is seen through the entry events
+            RuntimeEndpoint ep2 = createEndpoint("Component2#service-binding(Service2/Service2)");
+            ep2.bind(extensionPoints, reg1);
+            reg1.addEndpoint(ep2);
+            long deadline = System.currentTimeMillis() + TIMEOUT;
+            while ((client.getEndpoint("Component2#service-binding(Service2/Service2)") == null
+                || client.getEndpointEpoch("Component2") <= epoch) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertExists(client, "Component2#service-binding(Service2/Service2)");
+            Assert.assertEquals(1, client.findEndpoint("Component2").size());
+            Assert.assertTrue(client.getEndpointEpoch("Component2") > epoch);
+
+            reg1.removeEndpoint(ep2);
+            deadline = System.currentTimeMillis() + TIMEOUT;
+            while ((client.getEndpoint("Component2#service-binding(Service2/Service2)") != null
+                || client.getOwningMember("Component2") != null) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertNull(client.getEndpoint("Component2#service-binding(Service2/Service2)"));
+            Assert.assertEquals(0, client.findEndpoint("Component2").size());
+            Assert.assertNull(client.getOwningMember("Component2"));
+        } finally {
+            client.stop();
+            reg1.stop();
+        }
+        Assert.assertEquals(0, client.findEndpoint("Component1").size());
+        // A stopped client doesn't see the changes so references have to check every time
+        Assert.assertEquals(-1, client.getEndpointEpoch("Component1"));
+    }
+
     private Endpoint assertExists(HazelcastDomainRegistry reg, String uri) throws InterruptedException {
         Endpoint ep = reg.getEndpoint(uri);
         Assert.assertNotNull(ep);
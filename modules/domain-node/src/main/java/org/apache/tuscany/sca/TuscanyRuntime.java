@@ -47,6 +47,7 @@ import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.core.assembly.RuntimeAssemblyFactory;
 import org.apache.tuscany.sca.deployment.Deployer;
 import org.apache.tuscany.sca.impl.NodeImpl;
+import org.apache.tuscany.sca.impl.hotupdate.HotUpdater;
 import org.apache.tuscany.sca.monitor.ValidationException;
 import org.apache.tuscany.sca.node.configuration.ContributionConfiguration;
 import org.apache.tuscany.sca.node.configuration.NodeConfiguration;
@@ -171,6 +172,7 @@ public class TuscanyRuntime {
      *  contributions - jar, zip, or exploded directories
      *  sca-contribution.xml metaData files to override whats in a contribution
      *  .composite files to add to contributions as additional deployables
+     * With hotUpdate=true in domain.properties, the contributions are updated when their files change
      * 
      * TODO: Review if this is useful?
      */
@@ -240,6 +242,10 @@ public class TuscanyRuntime {
             node.startDeployables(curi);
         }
 
+        if (Boolean.parseBoolean(domainProps.getProperty("hotUpdate"))) {
+            ((NodeImpl)node).setHotUpdater(new HotUpdater(node, directory));
+        }
+
         return node;
     }
 
@@ -54,6 +54,7 @@ import org.apache.tuscany.sca.contribution.resolver.ModelResolver;
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
 import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.deployment.Deployer;
+import org.apache.tuscany.sca.impl.hotupdate.HotUpdater;
 import org.apache.tuscany.sca.monitor.Monitor;
 import org.apache.tuscany.sca.monitor.ValidationException;
 import org.apache.tuscany.sca.runtime.ActivationException;
@@ -90,6 +91,8 @@ public class NodeImpl implements Node {
     
     private ContributionListener contributionListener;
 
+    private HotUpdater hotUpdater;
+
     public NodeImpl(Deployer deployer,
                      CompositeActivator compositeActivator,
                      DomainRegistry domainRegistry,
@@ -573,7 +576,18 @@ public class NodeImpl implements Node {
         return extensionPointRegistry;
     }
     
+    /**
+     * Set the hot updater of the contributions of the node, it is stopped with the node
+     */
+    public void setHotUpdater(HotUpdater hotUpdater) {
+        this.hotUpdater = hotUpdater;
+    }
+
     public void stop() {
+        if (hotUpdater != null) {
+            hotUpdater.stop();
+            hotUpdater = null;
+        }
         for (DeployedComposite dc : startedComposites.values()) {
             try {
                 dc.stop();
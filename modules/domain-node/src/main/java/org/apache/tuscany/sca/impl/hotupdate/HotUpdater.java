@@ -22,6 +22,7 @@ package org.apache.tuscany.sca.impl.hotupdate;
 import java.io.File;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -34,33 +35,79 @@ import org.apache.tuscany.sca.impl.NodeImpl;
 /**
  * Code to do dynamic updates to a running Node.
  * Very experimental presently, mainly just to see what type of things are required 
+ * 
+ * The contributions are checked every second by only looking at their directories, which notices files 
+ * being added, removed or renamed, and every 10 seconds by looking at all their files, which also notices 
+ * files changed in place. A contribution is only updated once it has stopped changing for the quiet period, 
+ * so that copying a contribution or building it in place causes one update rather than one per check.
  */
 public class HotUpdater {
 
+    public static final long CHECK_INTERVAL = 1000;
+    public static final long FULL_CHECK_INTERVAL = 10000;
+    public static final long QUIET_PERIOD = 2000;
+
     private final Node node;
     private final File domainDir;
+    private final long fullCheckInterval;
+    private final long quietPeriod;
+    private long lastFullCheck;
 
     // key is contribution URI (which for exploded contributions is the directory name)
     private final Map<String, LastModifiedTracker> contributions = new HashMap<String, LastModifiedTracker>();
 
+    // the modified contributions waiting for the quiet period and when they were last seen modified
+    private final Map<String, Long> modified = new HashMap<String, Long>();
+
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     
     public HotUpdater(Node node, File domainDir){
+        this(node, domainDir, CHECK_INTERVAL, FULL_CHECK_INTERVAL, QUIET_PERIOD);
+    }
+
+    /**
+     * @param checkInterval milliseconds between the checks of the contribution directories
+     * @param fullCheckInterval milliseconds between the checks of all the contribution files
+     * @param quietPeriod milliseconds a contribution must be unchanged for before it's updated
+     */
+    public HotUpdater(Node node, File domainDir, long checkInterval, long fullCheckInterval, long quietPeriod){
         this.node = node;
         this.domainDir = domainDir;
+        this.fullCheckInterval = fullCheckInterval;
+        this.quietPeriod = quietPeriod;
+        this.lastFullCheck = System.currentTimeMillis();
         
         final Runnable checker = new Runnable() {
             public void run() {
-                check();
+                try {
+                    check();
+                } catch (Throwable e) {
+                    // an exception would cancel the following checks
+                    e.printStackTrace();
+                }
             }
         };
 
-        scheduler.scheduleAtFixedRate(checker, 10, 10, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(checker, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
     }
 
     private void check() {
+        long now = System.currentTimeMillis();
+        boolean fullCheck = now - lastFullCheck >= fullCheckInterval;
+        if (fullCheck) {
+            lastFullCheck = now;
+        }
+
         Set<String> found = new HashSet<String>();
-        for (File f : domainDir.listFiles()) {
+        File[] files = domainDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File f : files) {
             if (f.isDirectory() && !f.getName().startsWith(".")) {
                 found.add(f.getName());
                 LastModifiedTracker scanner = contributions.get(f.getName());
@@ -68,8 +115,8 @@ public class HotUpdater {
                     //newContribution(f);
                     contributions.put(f.getName(), new LastModifiedTracker(f));
                 } else {
-                    if (scanner.checkModified()) {
-                        updatedContribution(f);
+                    if ((fullCheck || scanner.checkDirectoriesModified()) && scanner.checkModified()) {
+                        modified.put(f.getName(), now);
                     }
                 }
             }
@@ -78,9 +125,17 @@ public class HotUpdater {
         HashSet<String> removed = new HashSet<String>(contributions.keySet());
         removed.removeAll(found);
         for (String curi : removed) {
+            modified.remove(curi);
             removedContribution(curi);
         }
 
+        for (Iterator<Map.Entry<String, Long>> i = modified.entrySet().iterator(); i.hasNext();) {
+            Map.Entry<String, Long> entry = i.next();
+            if (now - entry.getValue() >= quietPeriod) {
+                i.remove();
+                updatedContribution(new File(domainDir, entry.getKey()));
+            }
+        }
     }
 
     private void removedContribution(String curi) {
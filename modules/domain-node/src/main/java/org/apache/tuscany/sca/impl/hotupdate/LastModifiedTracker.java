@@ -20,14 +20,22 @@
 package org.apache.tuscany.sca.impl.hotupdate;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Keeps track of if a file or directory has been modified since a previous check
+ * 
+ * Checking for modifications walks all the files, checkDirectoriesModified is a cheaper check which
+ * only looks at the directories found by the previous check, it notices files being added, removed 
+ * or renamed but not files being changed in place. 
  */
 public class LastModifiedTracker {
 
     private File targetFile;
     private Long lastModified;
+    // the directories found by the last check and their last modified times
+    private Map<File, Long> directories = new HashMap<File, Long>();
 
     public LastModifiedTracker(File targetFile) {
         this.targetFile = targetFile;
@@ -40,7 +48,9 @@ public class LastModifiedTracker {
     
     public boolean checkModified() {
         
-        long newLastModified = getNewLastModified(targetFile);
+        Map<File, Long> newDirectories = new HashMap<File, Long>();
+        long newLastModified = getNewLastModified(targetFile, newDirectories);
+        directories = newDirectories;
 
         if (lastModified == null) {
             lastModified = newLastModified;
@@ -55,16 +65,37 @@ public class LastModifiedTracker {
         return false;
     }
 
+    /**
+     * Checks if any of the directories found by the previous check has been modified, which
+     * means an entry has been added, removed or renamed in it. This doesn't update the tracker,
+     * checkModified should be called when it returns true.
+     */
+    public boolean checkDirectoriesModified() {
+        for (Map.Entry<File, Long> directory : directories.entrySet()) {
+            if (directory.getKey().lastModified() != directory.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected long getNewLastModified(File f) {
+        return getNewLastModified(f, new HashMap<File, Long>());
+    }
+
+    private long getNewLastModified(File f, Map<File, Long> newDirectories) {
 
         if (!f.exists()) return 0;
         
         if (f.isFile()) return f.lastModified();
 
         long newLastModified = f.lastModified();
+        newDirectories.put(f, newLastModified);
 
-        for (File fx : f.listFiles()) {
-            long fxLastModified = getNewLastModified(fx);
+        File[] files = f.listFiles();
+        if (files == null) return newLastModified;
+        for (File fx : files) {
+            long fxLastModified = getNewLastModified(fx, newDirectories);
             if (fxLastModified > newLastModified){
                 newLastModified = fxLastModified;
             }
@@ -224,6 +224,9 @@ public class ReplicatedDomainRegistry extends BaseDomainRegistry implements Doma
             new ReplicatedMap(null, channel, timeout, this.domainURI,
                               new ClassLoader[] {ReplicatedDomainRegistry.class.getClassLoader()});
         map.addListener(this);
+        for (Object v : map.values()) {
+            endpointIndex.add((Endpoint)v);
+        }
 
         if (noMultiCast) {
             map.getChannel().addInterceptor(new DisableMcastInterceptor());
@@ -286,6 +289,7 @@ public class ReplicatedDomainRegistry extends BaseDomainRegistry implements Doma
                 logger.log(Level.WARNING, e.getMessage(), e);
             }
             map = null;
+            endpointIndex.clear();
         }
     }
 
@@ -302,8 +306,12 @@ public class ReplicatedDomainRegistry extends BaseDomainRegistry implements Doma
         int repeat = FIND_REPEAT_COUNT;
 
         while (repeat > 0) {
-            for (Object v : map.values()) {
-                Endpoint endpoint = (Endpoint)v;
+            List<Endpoint> endpoints = endpointIndex.find(uri);
+            if (endpoints == null) {
+                // The URI can't be looked up in the index so match against all endpoints
+                endpoints = new ArrayList(map.values());
+            }
+            for (Endpoint endpoint : endpoints) {
                 // TODO: implement more complete matching
                 logger.fine("Matching against - " + endpoint);
                 if (endpoint.matches(uri)) {
@@ -26,9 +26,11 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -172,6 +174,35 @@ public class ContextClassLoaderServiceDiscoverer implements ServiceDiscoverer {
         }
         
         boolean debug = logger.isLoggable(Level.FINE);
+
+        // Use the declarations recorded in the service index if there is one
+        ServiceDeclarationIndex index = ServiceDeclarationIndex.getIndex(classLoaderReference.get());
+        if (index != null) {
+            try {
+                List<ServiceDeclarationIndex.Declaration> declarations = index.getDeclarations(serviceName);
+                if (declarations == null) {
+                    declarations = new ArrayList<ServiceDeclarationIndex.Declaration>();
+                    for (URL url : getResources(name)) {
+                        if (debug) {
+                            logger.fine("Reading service provider file: " + url.toExternalForm());
+                        }
+                        for (Map<String, String> attributes : ServiceDeclarationParser.load(url, isPropertyFile)) {
+                            declarations.add(new ServiceDeclarationIndex.Declaration(url, attributes));
+                        }
+                    }
+                    index.putDeclarations(serviceName, declarations);
+                }
+                for (ServiceDeclarationIndex.Declaration declaration : declarations) {
+                    // The declarations get their own attributes as the indexed ones are shared
+                    Map<String, String> attributes = new HashMap<String, String>(declaration.getAttributes());
+                    descriptors.add(new ServiceDeclarationImpl(declaration.getURL(), attributes.get("class"), attributes));
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, e.getMessage(), e);
+            }
+            return descriptors;
+        }
+
         try {
             for (final URL url : getResources(name)) {
                 if (debug) {
@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.extensibility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An on-disk index of the META-INF/services resources found through a ClassLoader, so that a runtime
+ * started again with the same classpath doesn't have to search the classpath and read the resources
+ * for each service name.
+ * <p>
+ * The index is enabled by setting the org.apache.tuscany.sca.extensibility.serviceIndexDir system
+ * property to a directory. The index is built by the first run, which records the parsed declarations,
+ * the class name and attributes, it finds for each service name, and is kept in a file named after the
+ * fingerprint of the classpath, the paths, sizes and modification times of the jars and of the
+ * META-INF/services files of the directories. It's only used for a chain of URLClassLoaders with file
+ * URLs, the classpath of other ClassLoaders can't be fingerprinted.
+ * <p>
+ * The changed indexes are saved by saveAll(), which the node factory calls once the runtime is
+ * initialized, and by a shutdown hook for the service names looked up later.
+ *
+ * @version $Rev$ $Date$
+ */
+public class ServiceDeclarationIndex {
+    private static final Logger logger = Logger.getLogger(ServiceDeclarationIndex.class.getName());
+
+    public static final String INDEX_DIR_PROPERTY = "org.apache.tuscany.sca.extensibility.serviceIndexDir";
+
+    // Changed when the format of the index file changes, an index of another version is rebuilt
+    private static final int VERSION = 2;
+
+    private static final Map<ClassLoader, ServiceDeclarationIndex> indexes =
+        new WeakHashMap<ClassLoader, ServiceDeclarationIndex>();
+    private static final Set<ClassLoader> unindexed = Collections.newSetFromMap(new WeakHashMap<ClassLoader, Boolean>());
+    private static boolean shutdownHook;
+
+    private final File file;
+    private final Map<String, List<Declaration>> declarations = new ConcurrentHashMap<String, List<Declaration>>();
+    private volatile boolean changed;
+
+    ServiceDeclarationIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the index for a ClassLoader
+     * @param classLoader The ClassLoader
+     * @return The index, null if the index isn't enabled or the ClassLoader can't be indexed
+     */
+    public static ServiceDeclarationIndex getIndex(final ClassLoader classLoader) {
+        if (classLoader == null) {
+            return null;
+        }
+        final String dir = AccessController.doPrivileged(new PrivilegedAction<String>() {
+            public String run() {
+                return System.getProperty(INDEX_DIR_PROPERTY);
+            }
+        });
+        if (dir == null) {
+            return null;
+        }
+        synchronized (indexes) {
+            ServiceDeclarationIndex index = indexes.get(classLoader);
+            if (index != null || unindexed.contains(classLoader)) {
+                return index;
+            }
+            index = AccessController.doPrivileged(new PrivilegedAction<ServiceDeclarationIndex>() {
+                public ServiceDeclarationIndex run() {
+                    String fingerprint = getFingerprint(classLoader);
+                    if (fingerprint == null) {
+                        return null;
+                    }
+                    ServiceDeclarationIndex index =
+                        new ServiceDeclarationIndex(new File(dir, "services-" + fingerprint + ".index"));
+                    index.load();
+                    return index;
+                }
+            });
+            if (index == null) {
+                unindexed.add(classLoader);
+            } else {
+                indexes.put(classLoader, index);
+                addShutdownHook();
+            }
+            return index;
+        }
+    }
+
+    // Guarded by indexes
+    private static void addShutdownHook() {
+        if (shutdownHook) {
+            return;
+        }
+        shutdownHook = true;
+        AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            public Object run() {
+                try {
+                    Runtime.getRuntime().addShutdownHook(new Thread("Tuscany-ServiceDeclarationIndex") {
+                        public void run() {
+                            saveAll();
+                        }
+                    });
+                } catch (SecurityException e) {
+                    logger.log(Level.FINE, "Unable to register the service index shutdown hook", e);
+                } catch (IllegalStateException e) {
+                    // The JVM is shutting down
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Save the indexes which have changed since they were loaded or last saved
+     */
+    public static void saveAll() {
+        List<ServiceDeclarationIndex> list;
+        synchronized (indexes) {
+            list = new ArrayList<ServiceDeclarationIndex>(indexes.values());
+        }
+        for (final ServiceDeclarationIndex index : list) {
+            if (index.changed) {
+                AccessController.doPrivileged(new PrivilegedAction<Object>() {
+                    public Object run() {
+                        index.save();
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @param serviceName The service name
+     * @return The declarations found for the service name, null if the service name isn't in the index
+     */
+    public List<Declaration> getDeclarations(String serviceName) {
+        return declarations.get(serviceName);
+    }
+
+    /**
+     * Add the declarations found for a service name, they're saved with the index by saveAll()
+     * @param serviceName The service name
+     * @param found The declarations
+     */
+    public void putDeclarations(String serviceName, List<Declaration> found) {
+        declarations.put(serviceName, found);
+        changed = true;
+    }
+
+    void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (is.readInt() != VERSION) {
+                    return;
+                }
+                for (int names = is.readInt(); names > 0; names--) {
+                    String serviceName = is.readUTF();
+                    int count = is.readInt();
+                    List<Declaration> list = new ArrayList<Declaration>(count);
+                    for (int i = 0; i < count; i++) {
+                        URL url = new URL(is.readUTF());
+                        int size = is.readInt();
+                        Map<String, String> attributes = new HashMap<String, String>(size * 2);
+                        for (int j = 0; j < size; j++) {
+                            String name = is.readUTF();
+                            attributes.put(name, is.readBoolean() ? is.readUTF() : null);
+                        }
+                        list.add(new Declaration(url, attributes));
+                    }
+                    declarations.put(serviceName, list);
+                }
+            } finally {
+                is.close();
+            }
+        } catch (Exception e) {
+            // Start with an empty index
+            logger.log(Level.WARNING, "Unable to load the service index " + file, e);
+            declarations.clear();
+        }
+    }
+
+    synchronized void save() {
+        changed = false;
+        Map<String, List<Declaration>> snapshot = new HashMap<String, List<Declaration>>(declarations);
+        File dir = file.getParentFile();
+        try {
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Unable to create directory " + dir);
+            }
+            // Write to a temporary file so that a runtime starting meanwhile doesn't see a partial index
+            File tmp = File.createTempFile("services", ".tmp", dir);
+            DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                os.writeInt(VERSION);
+                os.writeInt(snapshot.size());
+                for (Map.Entry<String, List<Declaration>> entry : snapshot.entrySet()) {
+                    os.writeUTF(entry.getKey());
+                    os.writeInt(entry.getValue().size());
+                    for (Declaration declaration : entry.getValue()) {
+                        os.writeUTF(declaration.getURL().toExternalForm());
+                        os.writeInt(declaration.getAttributes().size());
+                        for (Map.Entry<String, String> attribute : declaration.getAttributes().entrySet()) {
+                            os.writeUTF(attribute.getKey());
+                            os.writeBoolean(attribute.getValue() != null);
+                            if (attribute.getValue() != null) {
+                                os.writeUTF(attribute.getValue());
+                            }
+                        }
+                    }
+                }
+            } finally {
+                os.close();
+            }
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    tmp.delete();
+                    throw new IOException("Unable to rename " + tmp + " to " + file);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to save the service index " + file, e);
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the classpath of a chain of URLClassLoaders
+     * @return The fingerprint, null if a ClassLoader of the chain isn't a URLClassLoader or has a URL
+     *         which isn't a file
+     */
+    static String getFingerprint(ClassLoader classLoader) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(System.getProperty("java.home")).append(';').append(System.getProperty("java.version"));
+        Set<File> visited = new HashSet<File>();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (!(cl instanceof URLClassLoader)) {
+                return null;
+            }
+            sb.append('|');
+            for (URL url : ((URLClassLoader)cl).getURLs()) {
+                File file = toFile(url);
+                if (file == null || !fingerprint(file, sb, visited)) {
+                    return null;
+                }
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(sb.toString().getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (Exception e) {
+            return new File(url.getPath());
+        }
+    }
+
+    private static boolean fingerprint(File file, StringBuilder sb, Set<File> visited) {
+        if (!visited.add(file)) {
+            return true;
+        }
+        sb.append(file.getPath()).append(';');
+        if (file.isDirectory()) {
+            File[] services = new File(file, "META-INF/services").listFiles();
+            if (services != null) {
+                Arrays.sort(services);
+                for (File service : services) {
+                    sb.append(service.getName()).append(',').append(service.length()).append(',')
+                        .append(service.lastModified()).append(';');
+                }
+            }
+        } else if (file.isFile()) {
+            sb.append(file.length()).append(',').append(file.lastModified()).append(';');
+            // The jars on the Class-Path of the manifest are on the classpath too
+            try {
+                JarFile jar = new JarFile(file);
+                try {
+                    Manifest manifest = jar.getManifest();
+                    String classPath =
+                        manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                    if (classPath != null) {
+                        URI base = file.toURI();
+                        for (String entry : classPath.trim().split("\\s+")) {
+                            if (entry.length() == 0) {
+                                continue;
+                            }
+                            File ref = toFile(base.resolve(entry).toURL());
+                            if (ref == null || !fingerprint(ref, sb, visited)) {
+                                return false;
+                            }
+                        }
+                    }
+                } finally {
+                    jar.close();
+                }
+            } catch (IOException e) {
+                // Not a jar
+            } catch (IllegalArgumentException e) {
+                // Invalid Class-Path entry
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A declaration found for a service name, the URL of the resource it was read from and its attributes,
+     * including the class name
+     */
+    public static class Declaration {
+        private final URL url;
+        private final Map<String, String> attributes;
+
+        public Declaration(URL url, Map<String, String> attributes) {
+            this.url = url;
+            this.attributes = attributes;
+        }
+
+        public URL getURL() {
+            return url;
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.extensibility;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Case for ServiceDeclarationIndex
+ */
+public class ServiceDeclarationIndexTestCase {
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("index", "test");
+        dir.delete();
+        File services = new File(dir, "classes/META-INF/services");
+        services.mkdirs();
+        FileWriter writer = new FileWriter(new File(services, "test.Service"));
+        writer.write("# Test\ntest.ServiceImpl1;ranking=10\ntest.ServiceImpl2\n");
+        writer.close();
+        System.setProperty(ServiceDeclarationIndex.INDEX_DIR_PROPERTY, new File(dir, "index").getPath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.getProperties().remove(ServiceDeclarationIndex.INDEX_DIR_PROPERTY);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[] {new File(dir, "classes").toURI().toURL()}, null);
+        ServiceDeclarationIndex index = ServiceDeclarationIndex.getIndex(classLoader);
+        Assert.assertNotNull(index);
+        Assert.assertNull(index.getDeclarations("test.Service"));
+
+        ContextClassLoaderServiceDiscoverer discoverer = new ContextClassLoaderServiceDiscoverer(classLoader);
+        Collection<ServiceDeclaration> declarations = discoverer.getServiceDeclarations("test.Service");
+        Assert.assertEquals(2, declarations.size());
+        Assert.assertEquals(2, index.getDeclarations("test.Service").size());
+        Assert.assertEquals(0, discoverer.getServiceDeclarations("notthere").size());
+        Assert.assertEquals(0, index.getDeclarations("notthere").size());
+
+        // The declarations are now read from the index
+        new File(dir, "classes/META-INF/services/test.Service").delete();
+        declarations = discoverer.getServiceDeclarations("test.Service");
+        assertDeclarations(declarations);
+    }
+
+    @Test
+    public void testSaveAll() throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[] {new File(dir, "classes").toURI().toURL()}, null);
+        ServiceDeclarationIndex index = ServiceDeclarationIndex.getIndex(classLoader);
+        ContextClassLoaderServiceDiscoverer discoverer = new ContextClassLoaderServiceDiscoverer(classLoader);
+        discoverer.getServiceDeclarations("test.Service");
+
+        // Saved synchronously, the index is then loaded by another runtime with the same classpath
+        ServiceDeclarationIndex.saveAll();
+        File[] files = new File(dir, "index").listFiles();
+        Assert.assertEquals(1, files.length);
+        ServiceDeclarationIndex loaded = new ServiceDeclarationIndex(files[0]);
+        Assert.assertNotSame(index, loaded);
+        loaded.load();
+        Assert.assertEquals(2, loaded.getDeclarations("test.Service").size());
+        for (ServiceDeclarationIndex.Declaration declaration : loaded.getDeclarations("test.Service")) {
+            if ("test.ServiceImpl1".equals(declaration.getAttributes().get("class"))) {
+                Assert.assertEquals("10", declaration.getAttributes().get("ranking"));
+            }
+        }
+        Assert.assertNull(loaded.getDeclarations("notthere"));
+    }
+
+    private static void assertDeclarations(Collection<ServiceDeclaration> declarations) {
+        Assert.assertEquals(2, declarations.size());
+        for (ServiceDeclaration declaration : declarations) {
+            if ("test.ServiceImpl1".equals(declaration.getClassName())) {
+                Assert.assertEquals("10", declaration.getAttributes().get("ranking"));
+            } else {
+                Assert.assertEquals("test.ServiceImpl2", declaration.getClassName());
+            }
+        }
+    }
+
+    @Test
+    public void testNotURLClassLoader() throws Exception {
+        ClassLoader classLoader = new ClassLoader(null) {
+        };
+        Assert.assertNull(ServiceDeclarationIndex.getIndex(classLoader));
+    }
+}
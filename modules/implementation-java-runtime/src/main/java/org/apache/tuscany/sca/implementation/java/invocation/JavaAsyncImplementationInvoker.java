@@ -25,6 +25,8 @@ import java.lang.reflect.Method;
 import org.apache.tuscany.sca.core.factory.InstanceWrapper;
 import org.apache.tuscany.sca.core.factory.ObjectCreationException;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseException;
+import org.apache.tuscany.sca.core.scope.TargetResolutionException;
+import org.apache.tuscany.sca.core.scope.impl.PooledStatelessScopeContainer;
 import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.Operation;
 import org.apache.tuscany.sca.interfacedef.java.JavaOperation;
@@ -61,7 +63,7 @@ public class JavaAsyncImplementationInvoker extends JavaImplementationInvoker im
         try {
             // The following call might create a new conversation, as a result, the msg.getConversationID() might 
             // return a new value
-            InstanceWrapper wrapper = scopeContainer.getWrapper(null);
+            InstanceWrapper wrapper = getWrapper();
 
             Object instance = wrapper.getInstance();
            
@@ -123,6 +125,18 @@ public class JavaAsyncImplementationInvoker extends JavaImplementationInvoker im
         return msg;
     } // end method invoke
 
+    /**
+     * The implementation may still be using the instance after the method returns, until it sends the
+     * response, so instances of a pooled stateless component are not taken from the pool. As for the
+     * other scopes the instance is not returned to the scope container.
+     */
+    private InstanceWrapper getWrapper() throws TargetResolutionException {
+        if (scopeContainer instanceof PooledStatelessScopeContainer) {
+            return ((PooledStatelessScopeContainer)scopeContainer).getUnpooledWrapper();
+        }
+        return scopeContainer.getWrapper(null);
+    }
+
     protected Invoker next;
     protected InvokerAsyncResponse previous;
 	
@@ -160,7 +174,7 @@ public class JavaAsyncImplementationInvoker extends JavaImplementationInvoker im
         ClassLoader tccl = Thread.currentThread().getContextClassLoader();
         
         try {
-            InstanceWrapper wrapper = scopeContainer.getWrapper(null);
+            InstanceWrapper wrapper = getWrapper();
             Object instance = wrapper.getInstance();
            
             // Set the TCCL to the classloader used to load the implementation class
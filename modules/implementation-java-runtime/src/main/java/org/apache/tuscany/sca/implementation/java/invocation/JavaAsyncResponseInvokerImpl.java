@@ -18,11 +18,10 @@
  */
 package org.apache.tuscany.sca.implementation.java.invocation;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
 import org.apache.tuscany.sca.core.invocation.AsyncFaultWrapper;
 import org.apache.tuscany.sca.core.invocation.AsyncResponseHandler;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTable;
+import org.apache.tuscany.sca.core.invocation.AsyncResponseTableAware;
 import org.apache.tuscany.sca.core.invocation.JDKAsyncResponseInvoker;
 import org.apache.tuscany.sca.invocation.Message;
 import org.oasisopen.sca.ServiceRuntimeException;
@@ -33,14 +32,14 @@ import org.oasisopen.sca.ServiceRuntimeException;
  * This class provides a registration function which permits the reference invoking code to register the Future
  * which is used to return the response to the Java component code
  */
-public class JavaAsyncResponseInvokerImpl implements JDKAsyncResponseInvoker {
+public class JavaAsyncResponseInvokerImpl implements JDKAsyncResponseInvoker, AsyncResponseTableAware {
 	
-    // Map used to link between async requests and async responses
-    private ConcurrentMap<String, Object> asyncMessageMap;
+    // Table used to link between async requests and async responses
+    private volatile AsyncResponseTable asyncMessageTable;
 
 	public JavaAsyncResponseInvokerImpl() {
 
-	    asyncMessageMap = new ConcurrentHashMap<String, Object>();
+	    asyncMessageTable = new AsyncResponseTable();
 	} // end constructor
 	
 	/**
@@ -59,8 +58,8 @@ public class JavaAsyncResponseInvokerImpl implements JDKAsyncResponseInvoker {
 		if( relatesID == null ) 
 			throw new ServiceRuntimeException("JavaAsyncResponseInvoker - response message has no RELATES_TO id");
 		
-		// Look up the response object & remove it from the Map
-		Object responseHandler = asyncMessageMap.remove(relatesID);
+		// Look up the response object & remove it from the table
+		Object responseHandler = asyncMessageTable.remove(relatesID);
 		
 		if( responseHandler == null ) 
 			throw new ServiceRuntimeException("JavaAsyncResponseInvoker - no Future matches the RELATES_TO id: " + relatesID);
@@ -98,7 +97,7 @@ public class JavaAsyncResponseInvokerImpl implements JDKAsyncResponseInvoker {
 	 */
 	public void registerAsyncResponse( String id, Object responseHandler ) {
 		// Add the ID/response handler mapping into the table
-		if( id != null && responseHandler != null ) asyncMessageMap.put(id, responseHandler);
+		if( id != null && responseHandler != null ) asyncMessageTable.put(id, responseHandler);
 	} // end method registerAsyncResponse
 
 	/**
@@ -107,9 +106,17 @@ public class JavaAsyncResponseInvokerImpl implements JDKAsyncResponseInvoker {
 	 * @return responseHandler - the response handler object
 	 */
 	public Object getAsyncResponse( String id ) {
-	    return asyncMessageMap.get(id);
+	    return asyncMessageTable.get(id);
 	}
 	
+	/**
+	 * Sets the table which holds the registered async responses
+	 * @param table - the table
+	 */
+	public void setAsyncResponseTable( AsyncResponseTable table ) {
+		asyncMessageTable = table;
+	} // end method setAsyncResponseTable
+	
 	/**
 	 * Extracts the RELATES_TO header from the message
 	 * @param msg - the Tuscany message
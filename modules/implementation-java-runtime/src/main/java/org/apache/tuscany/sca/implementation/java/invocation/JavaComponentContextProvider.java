@@ -49,6 +49,7 @@ import org.apache.tuscany.sca.core.invocation.ProxyFactory;
 import org.apache.tuscany.sca.core.invocation.WireObjectFactory;
 import org.apache.tuscany.sca.core.scope.ScopeContainer;
 import org.apache.tuscany.sca.core.scope.TargetResolutionException;
+import org.apache.tuscany.sca.core.scope.impl.PooledStatelessScopeContainer;
 import org.apache.tuscany.sca.databinding.DataBindingExtensionPoint;
 import org.apache.tuscany.sca.implementation.java.JavaConstructorImpl;
 import org.apache.tuscany.sca.implementation.java.JavaElementImpl;
@@ -81,6 +82,7 @@ public class JavaComponentContextProvider {
     private ProxyFactory proxyFactory;
     private InstanceFactory instanceFactory;
 	private JavaScopeImpl scope;
+    private MethodDispatcherGenerator dispatcherGenerator;
 
     public JavaComponentContextProvider(RuntimeComponent component,
                                         JavaInstanceFactoryProvider configuration,
@@ -311,6 +313,12 @@ public class JavaComponentContextProvider {
         if (operation instanceof JavaOperation &&
             ((JavaOperation) operation).isAsyncServer() ) {
         	return new JavaAsyncImplementationInvoker(operation, method, component, service);
+        } else if (MethodDispatchers.isEnabled()) {
+            if (dispatcherGenerator == null) {
+                dispatcherGenerator = MethodDispatchers.createGenerator(implClass);
+            }
+            MethodDispatcher dispatcher = dispatcherGenerator == null ? null : dispatcherGenerator.createDispatcher(method);
+            return new JavaImplementationInvoker(operation, method, component, service, dispatcher);
         } else {
         	return new JavaImplementationInvoker(operation, method, component, service);
         } // end if
@@ -326,6 +334,11 @@ public class JavaComponentContextProvider {
 
         public T getInstance() throws ObjectCreationException {
             try {
+                // The instance is handed to the caller and never returned, so it mustn't take a
+                // slot of the pool
+                if (scopeContainer instanceof PooledStatelessScopeContainer) {
+                    return (T)((PooledStatelessScopeContainer)scopeContainer).getUnpooledWrapper().getInstance();
+                }
                 return (T)scopeContainer.getWrapper(null).getInstance();
             } catch (TargetResolutionException e) {
                 throw new ObjectCreationException(e);
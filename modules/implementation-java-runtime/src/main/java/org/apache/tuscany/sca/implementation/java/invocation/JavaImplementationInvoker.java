@@ -22,18 +22,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.xml.ws.Holder;
 
 import org.apache.tuscany.sca.assembly.EndpointReference;
 import org.apache.tuscany.sca.assembly.Service;
 import org.apache.tuscany.sca.core.factory.ObjectCreationException;
 import org.apache.tuscany.sca.core.invocation.Constants;
+import org.apache.tuscany.sca.core.invocation.OperationInvocationPlan;
 import org.apache.tuscany.sca.core.scope.Scope;
 import org.apache.tuscany.sca.core.scope.ScopeContainer;
 import org.apache.tuscany.sca.core.scope.ScopedRuntimeComponent;
+import org.apache.tuscany.sca.core.scope.TargetDestructionException;
+import org.apache.tuscany.sca.core.scope.impl.PooledStatelessScopeContainer;
 import org.apache.tuscany.sca.implementation.java.JavaImplementation;
 import org.apache.tuscany.sca.implementation.java.context.ReflectiveInstanceWrapper;
 import org.apache.tuscany.sca.implementation.java.injection.Injector;
@@ -41,7 +40,6 @@ import org.apache.tuscany.sca.implementation.java.introspect.JavaIntrospectionHe
 import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.InterfaceContract;
 import org.apache.tuscany.sca.interfacedef.Operation;
-import org.apache.tuscany.sca.interfacedef.ParameterMode;
 import org.apache.tuscany.sca.interfacedef.java.JavaInterface;
 import org.apache.tuscany.sca.interfacedef.java.impl.JavaInterfaceUtil;
 import org.apache.tuscany.sca.invocation.DataExchangeSemantics;
@@ -63,6 +61,9 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
     protected Method method;
     protected RuntimeComponentService service;
     protected boolean allowsPBR;
+    protected OperationInvocationPlan plan;
+    // Generated dispatcher for the method, null if Method.invoke() is used
+    protected MethodDispatcher dispatcher;
 
     @SuppressWarnings("unchecked")
     protected final ScopeContainer scopeContainer;
@@ -76,6 +77,12 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
         this.allowsPBR = ((JavaImplementation)component.getImplementation()).isAllowsPassByReference(method);
         this.service = service;
         this.interfaze = service.getInterfaceContract();
+        this.plan = new OperationInvocationPlan(operation, method);
+    }
+
+    public JavaImplementationInvoker(Operation operation, Method method, RuntimeComponent component, RuntimeComponentService service, MethodDispatcher dispatcher) {
+        this(operation, method, component, service);
+        this.dispatcher = dispatcher;
     }
 
     public JavaImplementationInvoker(Operation operation, RuntimeComponent component, RuntimeComponentService service) {
@@ -84,6 +91,7 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
         this.scopeContainer = ((ScopedRuntimeComponent)component).getScopeContainer();
         this.service = service;
         this.interfaze = service.getInterfaceContract();
+        this.plan = new OperationInvocationPlan(operation, null);
     }
 
     @SuppressWarnings("unchecked")
@@ -102,12 +110,7 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
         // store the current thread context classloader
         // as we need to replace it with the class loader
         // used to load the java class as per SCA Spec
-        final ClassLoader tccl = AccessController.doPrivileged(new PrivilegedAction<ClassLoader>() {
-                public ClassLoader run() {
-                    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
-                    return tccl;
-                 }
-            });
+        final ClassLoader tccl = getContextClassLoader();
         
         // TUSCANY-3946 - If the TCCL has not already been set to the contribution classloader earlier
         // in the wire processing then
@@ -115,11 +118,13 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
         // of a Java POJO component implementation is the class loader of the contribution 
         // used to load the POJO implementation class.
         boolean swapTCCL = (msg.getHeaders().get(Constants.SUPPRESS_TCCL_SWAP) == null);
+        boolean tcclSwapped = false;
+        ReflectiveInstanceWrapper wrapper = null;
         
         try {
             // The following call might create a new conversation, as a result, the msg.getConversationID() might 
             // return a new value
-            ReflectiveInstanceWrapper wrapper = (ReflectiveInstanceWrapper) scopeContainer.getWrapper(contextId);
+            wrapper = (ReflectiveInstanceWrapper) scopeContainer.getWrapper(contextId);
             
             // If there is a callback interface and the implementation is stateless, we need to
             // inject callbacks at invocation time. For Composite scope, this has already been done. 
@@ -130,7 +135,7 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
             	injectCallbacks(wrapper, (JavaInterface)service.getService().getInterfaceContract().getCallbackInterface());
             }
             
-            final Object instance = wrapper.getInstance();
+            Object instance = wrapper.getInstance();
 
             // If the method couldn't be computed statically, or the instance being
             // invoked is a user-specified callback object that doesn't implement
@@ -145,102 +150,77 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
                 }
             }
             
-            if (swapTCCL){
-                AccessController.doPrivileged(new PrivilegedAction() {
-                    public Object run() {
-                        Thread.currentThread().setContextClassLoader(instance.getClass().getClassLoader());
-                        return null;
-                     }
-                });
+            // No need to swap if the TCCL is already the implementation class loader
+            if (swapTCCL) {
+                ClassLoader implClassLoader = instance.getClass().getClassLoader();
+                if (implClassLoader != tccl) {
+                    setContextClassLoader(implClassLoader);
+                    tcclSwapped = true;
+                }
             }
             
-            int argumentHolderCount = 0;
-
             // Holder pattern. Any payload parameters <T> which are should be in holders are placed in Holder<T>.
             // Only check Holder for remotable interfaces
-            if (imethod != null && op.getInterface().isRemotable()) {
-                Object[] payloadArray = (Object[])payload;
-                List<Object> payloadList = new ArrayList<Object>();
-                int nextIndex = 0;
-                for (ParameterMode mode : op.getParameterModes()) {                    
-                    if (mode.equals(ParameterMode.IN)) {
-                        payloadList.add(payloadArray[nextIndex++]);
-                    } else if (mode.equals(ParameterMode.INOUT)) {
-                        // Promote array params from [<T>] to [Holder<T>]                  
-                        Object item = payloadArray[nextIndex++];                           
-                        Holder itemHolder = new Holder(item);
-                        payloadList.add(itemHolder);
-                        argumentHolderCount++;
-                    } else {
-                        // Create an empty Holder since we should not pass values for OUT parameters
-                        payloadList.add(new Holder());
-                        argumentHolderCount++;
-                    }                        
-                }
-                
-                // Maybe a bit odd to do but this way I don't have to worry about how the invoke if/else
-                // immediately following might need to be changed.
-                payload = payloadList.toArray();
+            OperationInvocationPlan plan = (op == this.plan.getOperation()) ? this.plan : new OperationInvocationPlan(op, null);
+            boolean holderPattern = imethod != null && plan.hasOutputParameters();
+            if (holderPattern) {
+                payload = plan.createImplementationArguments((Object[])payload);
             }
 
-            Object ret;
+            Object[] args;
             if (payload != null && !payload.getClass().isArray()) {
-                ret = imethod.invoke(instance, payload);
+                args = new Object[] {payload};
+            } else {
+                args = (Object[])payload;
+            }
+            Object ret;
+            if (dispatcher != null && imethod == method) {
+                ret = dispatcher.invoke(instance, args);
             } else {
-                ret = imethod.invoke(instance, (Object[])payload);
+                ret = imethod.invoke(instance, args);
             }
 
-            scopeContainer.returnWrapper(wrapper, contextId);
+            ReflectiveInstanceWrapper returned = wrapper;
+            wrapper = null;
+            scopeContainer.returnWrapper(returned, contextId);
             
                         
-            if (argumentHolderCount > 0) {
+            if (holderPattern) {
             	
                 // Holder pattern. Any payload Holder<T> types are returned as part of the message body.
-            	Object[] payloadArray = (Object[])payload;
-            	
-            	ArrayList<Object> holderOutputs = new ArrayList<Object>();
-            	ArrayList<Object> result = new ArrayList<Object>();
-                if (imethod != null) {                	
-                    
-                    for (int i = 0, size = op.getParameterModes().size(); i < size; i++) {                       
-                        if (ParameterMode.IN != op.getParameterModes().get(i)) {                        	
-                        	// Demote array params from Holder<T> to <T>.                                                   
-                        	Holder<Object> item = (Holder<Object>)payloadArray[i];
-                        	payloadArray[i] = item.value;
-                        	holderOutputs.add(payloadArray[i]);                        	                      
-                        }
-                    }
-                    
-                    //
-                    // Now we account for the fact that we may have a null because of a void return type,
-                    // which is not part of the output DataType, and so should not be returned with the array
-                    // of outputs, or we may have a null as value returned
-                    // from a method with signature with return type other than void, which should be returned 
-                    // in the output array.
-                    // 
-                    // The logic here is if we already have as many outputs in holders as we have outputs
-                    // altogether, then we don't worry about the return value (which should be null).  Might
-                    // be simpler to just check for void, but the code in the Java introspector has a lot
-                    // of quirks for handling parameterized types, and this seems simpler for now.
-                    //
-                    int holderOutputSize = holderOutputs.size();
-                    int numberOperationOutputs = op.getOutputType().getLogical().size();
-                    if (holderOutputSize == numberOperationOutputs) {
-                        if (ret != null) {
-                            throw new IllegalStateException("Number of holder outputs equal to number of operations outputs." +
-                                                            "\nNum = " + holderOutputSize + ", but non-null return value seen: " + ret);
-                        }
-                        result = holderOutputs;
-                    } else if (holderOutputSize == numberOperationOutputs - 1) {
-                        result.add(ret);
-                        result.addAll(1, holderOutputs);
-                    } else {
-                        throw new IllegalStateException("Number of holder outputs seen: " + holderOutputSize +  
-                                                        "\nNumber of operation outputs: " + numberOperationOutputs);
+                Object[] holderOutputs = plan.getOutputParameterValues((Object[])payload);
+                Object[] result;
+
+                //
+                // Now we account for the fact that we may have a null because of a void return type,
+                // which is not part of the output DataType, and so should not be returned with the array
+                // of outputs, or we may have a null as value returned
+                // from a method with signature with return type other than void, which should be returned 
+                // in the output array.
+                // 
+                // The logic here is if we already have as many outputs in holders as we have outputs
+                // altogether, then we don't worry about the return value (which should be null).  Might
+                // be simpler to just check for void, but the code in the Java introspector has a lot
+                // of quirks for handling parameterized types, and this seems simpler for now.
+                //
+                int holderOutputSize = holderOutputs.length;
+                int numberOperationOutputs = op.getOutputType().getLogical().size();
+                if (holderOutputSize == numberOperationOutputs) {
+                    if (ret != null) {
+                        throw new IllegalStateException("Number of holder outputs equal to number of operations outputs." +
+                                                        "\nNum = " + holderOutputSize + ", but non-null return value seen: " + ret);
                     }
+                    result = holderOutputs;
+                } else if (holderOutputSize == numberOperationOutputs - 1) {
+                    result = new Object[holderOutputSize + 1];
+                    result[0] = ret;
+                    System.arraycopy(holderOutputs, 0, result, 1, holderOutputSize);
+                } else {
+                    throw new IllegalStateException("Number of holder outputs seen: " + holderOutputSize +  
+                                                    "\nNumber of operation outputs: " + numberOperationOutputs);
                 }
 
-                msg.setBody(result.toArray());
+                msg.setBody(result);
 
             } else {
                 msg.setBody(ret);
@@ -271,20 +251,49 @@ public class JavaImplementationInvoker implements Invoker, DataExchangeSemantics
         } catch (Exception e) {
             msg.setFaultBody(e);           
         } finally {
+            // return a pooled instance if the invocation failed, it would be lost otherwise. Other
+            // containers keep their behaviour of not returning (and destroying) the instance
+            // of a failed invocation
+            if (wrapper != null && scopeContainer instanceof PooledStatelessScopeContainer) {
+                try {
+                    scopeContainer.returnWrapper(wrapper, contextId);
+                } catch (TargetDestructionException e) {
+                    // Ignore, the invocation failure is reported
+                }
+            }
             // reset the tccl if it was replaced above
             // with the contribution classloader
-            if (swapTCCL){
-                AccessController.doPrivileged(new PrivilegedAction() {
-                    public Object run() {
-                        Thread.currentThread().setContextClassLoader(tccl);
-                        return null;
-                     }
-                });
+            if (tcclSwapped) {
+                setContextClassLoader(tccl);
             }
         }
         return msg;
     }
 
+    private static ClassLoader getContextClassLoader() {
+        if (System.getSecurityManager() == null) {
+            return Thread.currentThread().getContextClassLoader();
+        }
+        return AccessController.doPrivileged(new PrivilegedAction<ClassLoader>() {
+            public ClassLoader run() {
+                return Thread.currentThread().getContextClassLoader();
+            }
+        });
+    }
+
+    private static void setContextClassLoader(final ClassLoader classLoader) {
+        if (System.getSecurityManager() == null) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            return;
+        }
+        AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            public Object run() {
+                Thread.currentThread().setContextClassLoader(classLoader);
+                return null;
+            }
+        });
+    }
+
 	private void injectCallbacks(ReflectiveInstanceWrapper wrapper,
 			JavaInterface callbackInterface) {
 	
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.java.invocation;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Calls one method of a Java implementation class. Implementations are generated by
+ * {@link MethodDispatcherGenerator} and call the method directly instead of through
+ * java.lang.reflect.Method.
+ *
+ * @version $Rev$ $Date$
+ */
+public interface MethodDispatcher {
+    /**
+     * Invoke the method on an instance
+     * @param instance The implementation instance
+     * @param args The arguments, can be null if the method has no parameters
+     * @return The value returned by the method, primitives are boxed and null is returned for void methods
+     * @throws InvocationTargetException if the method throws an exception
+     */
+    Object invoke(Object instance, Object[] args) throws InvocationTargetException;
+}
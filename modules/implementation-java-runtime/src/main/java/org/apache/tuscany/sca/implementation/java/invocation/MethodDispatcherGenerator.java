@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.java.invocation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a {@link MethodDispatcher} class for a method of a Java implementation class using ASM.
+ * The generated code casts the arguments to the parameter types and calls the method with
+ * invokevirtual/invokeinterface. As with Method.invoke(), a null target throws a NullPointerException,
+ * a target or arguments of the wrong type or number throw an IllegalArgumentException and exceptions
+ * thrown by the method are wrapped in an InvocationTargetException. Note that the arguments are cast
+ * rather than converted, so unlike Method.invoke() no widening conversion is applied to primitives.
+ * <p>
+ * Generation is enabled with the system property checked by {@link MethodDispatchers}. The classes are
+ * defined in a package of their own by a class loader per generator, so they only use public classes
+ * and members. A generator is expected to be created for each implementation and released with it.
+ *
+ * @version $Rev$ $Date$
+ */
+public class MethodDispatcherGenerator implements Opcodes {
+    private static final Logger logger = Logger.getLogger(MethodDispatcherGenerator.class.getName());
+
+    private static final String DISPATCHER = Type.getInternalName(MethodDispatcher.class);
+    private static final String INVOKE_DESC = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+    // No other class loader defines classes in this package
+    private static final String CLASS_NAME_PREFIX =
+        "org/apache/tuscany/sca/implementation/java/invocation/generated/GeneratedMethodDispatcher";
+
+    private final DispatcherClassLoader classLoader;
+    private int count;
+
+    /**
+     * @param implementationClass The implementation class the dispatchers will be generated for
+     */
+    public MethodDispatcherGenerator(Class<?> implementationClass) {
+        this.classLoader = new DispatcherClassLoader(implementationClass.getClassLoader());
+    }
+
+    /**
+     * Generate a dispatcher for the method
+     * @param method The method
+     * @return The dispatcher or null if the method can't be called from a generated class, for example
+     * because it or one of the classes in its signature isn't public, in which case Method.invoke()
+     * should be used
+     */
+    public synchronized MethodDispatcher createDispatcher(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+            || declaringClass.getClassLoader() == null
+            || !isAccessible(declaringClass)
+            || !isAccessible(method.getReturnType())) {
+            return null;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isAccessible(type)) {
+                return null;
+            }
+        }
+        String className = CLASS_NAME_PREFIX + (count++);
+        try {
+            byte[] byteCode = generate(className, method);
+            Class<?> cls = classLoader.defineClass(className.replace('/', '.'), byteCode);
+            return (MethodDispatcher)cls.newInstance();
+        } catch (Throwable e) {
+            // Fall back to reflection
+            logger.log(Level.WARNING, "Unable to generate the dispatcher for " + method, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the generated class can link to the type: it's public, so are the classes
+     * it's nested in, and the class loader resolves its name to the same class
+     */
+    private boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    static byte[] generate(String className, Method method) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_5, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, className, null, "java/lang/Object", new String[] {DISPATCHER});
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESC, null, new String[] {Type
+            .getInternalName(InvocationTargetException.class)});
+        mv.visitCode();
+        Class<?> declaringClass = method.getDeclaringClass();
+        String owner = Type.getInternalName(declaringClass);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+
+        // A null target is a NullPointerException as with Method.invoke()
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;");
+        mv.visitInsn(POP);
+
+        // Casting and unboxing the target and the arguments fails with a ClassCastException,
+        // a NullPointerException or an ArrayIndexOutOfBoundsException, reported as an
+        // IllegalArgumentException
+        Label argsStart = new Label();
+        Label argsEnd = new Label();
+        Label argsHandler = new Label();
+        mv.visitTryCatchBlock(argsStart, argsEnd, argsHandler, "java/lang/RuntimeException");
+        // Only the call itself is covered by this handler so that a bad argument isn't reported
+        // as an exception thrown by the method
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+
+        mv.visitLabel(argsStart);
+        if (parameterTypes.length > 0) {
+            // Check the number of arguments first, a null array is the same as an empty one
+            Label notNull = new Label();
+            Label countOk = new Label();
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitJumpInsn(IFNONNULL, notNull);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitJumpInsn(GOTO, argsHandler);
+            mv.visitLabel(notNull);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ARRAYLENGTH);
+            pushInt(mv, parameterTypes.length);
+            mv.visitJumpInsn(IF_ICMPEQ, countOk);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitJumpInsn(GOTO, argsHandler);
+            mv.visitLabel(countOk);
+        }
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, owner);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            mv.visitVarInsn(ALOAD, 2);
+            pushInt(mv, i);
+            mv.visitInsn(AALOAD);
+            unbox(mv, Type.getType(parameterTypes[i]));
+        }
+        mv.visitLabel(argsEnd);
+
+        mv.visitLabel(start);
+        if (declaringClass.isInterface()) {
+            mv.visitMethodInsn(INVOKEINTERFACE, owner, method.getName(), Type.getMethodDescriptor(method));
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method));
+        }
+        mv.visitLabel(end);
+        box(mv, Type.getType(method.getReturnType()));
+        mv.visitInsn(ARETURN);
+
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, 3);
+        String ite = Type.getInternalName(InvocationTargetException.class);
+        mv.visitTypeInsn(NEW, ite);
+        mv.visitInsn(DUP);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKESPECIAL, ite, "<init>", "(Ljava/lang/Throwable;)V");
+        mv.visitInsn(ATHROW);
+
+        // The cause is the exception thrown by a cast, or null for a wrong number of arguments
+        mv.visitLabel(argsHandler);
+        mv.visitVarInsn(ASTORE, 3);
+        String iae = "java/lang/IllegalArgumentException";
+        mv.visitTypeInsn(NEW, iae);
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn("argument type mismatch or wrong number of arguments");
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKESPECIAL, iae, "<init>", "(Ljava/lang/String;Ljava/lang/Throwable;)V");
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Type type) {
+        String wrapper = getWrapper(type);
+        if (wrapper == null) {
+            if (!"java/lang/Object".equals(type.getInternalName())) {
+                mv.visitTypeInsn(CHECKCAST, type.getSort() == Type.ARRAY ? type.getDescriptor() : type.getInternalName());
+            }
+        } else {
+            mv.visitTypeInsn(CHECKCAST, wrapper);
+            mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", "()" + type.getDescriptor());
+        }
+    }
+
+    private static void box(MethodVisitor mv, Type type) {
+        if (type.getSort() == Type.VOID) {
+            mv.visitInsn(ACONST_NULL);
+            return;
+        }
+        String wrapper = getWrapper(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + type.getDescriptor() + ")L" + wrapper + ";");
+        }
+    }
+
+    private static String getWrapper(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Defines the generated classes. The implementation classes are loaded from the class loader of the
+     * implementation, MethodDispatcher is always resolved from this bundle as the implementation class
+     * loader may not be able to see it.
+     */
+    private static class DispatcherClassLoader extends ClassLoader {
+        DispatcherClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (MethodDispatcher.class.getName().equals(name)) {
+                return MethodDispatcher.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> defineClass(String name, byte[] byteCode) {
+            return defineClass(name, byteCode, 0, byteCode.length);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.java.invocation;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decides whether the methods of Java implementations are called through generated MethodDispatchers.
+ * The generator needs ASM, which is optional, so this class doesn't link against ASM and
+ * MethodDispatcherGenerator is only loaded once ASM has been found.
+ *
+ * @version $Rev$ $Date$
+ */
+final class MethodDispatchers {
+    private static final Logger logger = Logger.getLogger(MethodDispatchers.class.getName());
+
+    static final String GENERATED_DISPATCH_PROPERTY =
+        "org.apache.tuscany.sca.implementation.java.invocation.generatedDispatch";
+
+    private static volatile Boolean asmAvailable;
+
+    private MethodDispatchers() {
+    }
+
+    /**
+     * @return true if generated dispatchers are enabled by the system property and ASM is available
+     */
+    static boolean isEnabled() {
+        return "true".equalsIgnoreCase(System.getProperty(GENERATED_DISPATCH_PROPERTY)) && isAsmAvailable();
+    }
+
+    static boolean isAsmAvailable() {
+        Boolean available = asmAvailable;
+        if (available == null) {
+            try {
+                Class.forName("org.objectweb.asm.ClassWriter", false, MethodDispatchers.class.getClassLoader());
+                available = Boolean.TRUE;
+            } catch (ClassNotFoundException e) {
+                logger.warning("ASM isn't available, Java implementations are invoked using reflection");
+                available = Boolean.FALSE;
+            } catch (LinkageError e) {
+                logger.log(Level.WARNING, "ASM can't be loaded, Java implementations are invoked using reflection", e);
+                available = Boolean.FALSE;
+            }
+            asmAvailable = available;
+        }
+        return available.booleanValue();
+    }
+
+    /**
+     * Create the dispatcher generator for an implementation class
+     * @param implementationClass The implementation class
+     * @return The generator or null if it can't be loaded, in which case reflection should be used
+     */
+    static MethodDispatcherGenerator createGenerator(Class<?> implementationClass) {
+        try {
+            return new MethodDispatcherGenerator(implementationClass);
+        } catch (LinkageError e) {
+            // For example an ASM version without the classes the generator uses
+            logger.log(Level.WARNING, "Unable to load the dispatcher generator, Java implementations are invoked using reflection", e);
+            asmAvailable = Boolean.FALSE;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.java.invocation;
+
+import java.lang.reflect.Method;
+
+import junit.framework.Assert;
+
+import org.apache.tuscany.sca.core.DefaultExtensionPointRegistry;
+import org.apache.tuscany.sca.core.assembly.impl.RuntimeComponentImpl;
+import org.apache.tuscany.sca.core.assembly.impl.RuntimeComponentServiceImpl;
+import org.apache.tuscany.sca.core.factory.InstanceWrapper;
+import org.apache.tuscany.sca.core.invocation.impl.MessageImpl;
+import org.apache.tuscany.sca.core.scope.TargetDestructionException;
+import org.apache.tuscany.sca.core.scope.TargetResolutionException;
+import org.apache.tuscany.sca.core.scope.impl.PooledStatelessScopeContainer;
+import org.apache.tuscany.sca.core.scope.impl.StatelessScopeContainer;
+import org.apache.tuscany.sca.implementation.java.DefaultJavaImplementationFactory;
+import org.apache.tuscany.sca.implementation.java.context.ReflectiveInstanceWrapper;
+import org.apache.tuscany.sca.interfacedef.Operation;
+import org.apache.tuscany.sca.interfacedef.impl.OperationImpl;
+import org.apache.tuscany.sca.interfacedef.java.DefaultJavaInterfaceFactory;
+import org.apache.tuscany.sca.invocation.Message;
+import org.apache.tuscany.sca.runtime.RuntimeComponent;
+import org.apache.tuscany.sca.runtime.RuntimeComponentService;
+import org.junit.Test;
+
+/**
+ * Test when JavaImplementationInvoker returns the instances to the scope container
+ *
+ * @version $Rev$ $Date$
+ */
+public class JavaImplementationInvokerTestCase {
+
+    @Test
+    public void testStateless() throws Exception {
+        RuntimeComponent component = createComponent();
+        TestStatelessContainer container = new TestStatelessContainer(component);
+        ((RuntimeComponentImpl)component).setScopeContainer(container);
+
+        invoke(component, "echo", "hello");
+        Assert.assertEquals(1, container.returned);
+
+        // The instance of a failed invocation isn't returned (and destroyed) as before pooling
+        try {
+            invoke(component, "fail", null);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        Assert.assertEquals(1, container.returned);
+    }
+
+    @Test
+    public void testPooled() throws Exception {
+        RuntimeComponent component = createComponent();
+        TestPooledContainer container = new TestPooledContainer(component);
+        ((RuntimeComponentImpl)component).setScopeContainer(container);
+
+        invoke(component, "echo", "hello");
+        Assert.assertEquals(1, container.returned);
+
+        // A pooled instance is returned even if the invocation failed
+        try {
+            invoke(component, "fail", null);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        Assert.assertEquals(2, container.returned);
+    }
+
+    private static RuntimeComponent createComponent() {
+        RuntimeComponentImpl component = new RuntimeComponentImpl();
+        component.setImplementation(new DefaultJavaImplementationFactory().createJavaImplementation());
+        return component;
+    }
+
+    private static Object invoke(RuntimeComponent component, String name, Object arg) throws Exception {
+        Method method = Target.class.getMethod(name, String.class);
+        Operation operation = new OperationImpl();
+        operation.setName(name);
+        RuntimeComponentService service = new RuntimeComponentServiceImpl();
+        service.setInterfaceContract(new DefaultJavaInterfaceFactory(new DefaultExtensionPointRegistry()).createJavaInterfaceContract());
+        JavaImplementationInvoker invoker = new JavaImplementationInvoker(operation, method, component, service);
+        Message msg = new MessageImpl();
+        msg.setOperation(operation);
+        msg.setBody(new Object[] {arg});
+        return invoker.invoke(msg).getBody();
+    }
+
+    private static InstanceWrapper<Target> createWrapper() {
+        return new ReflectiveInstanceWrapper<Target>(new Target(), null, null, null);
+    }
+
+    public static class Target {
+        public String echo(String s) {
+            return s;
+        }
+
+        public String fail(String s) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static class TestStatelessContainer extends StatelessScopeContainer<Object> {
+        private int returned;
+
+        TestStatelessContainer(RuntimeComponent component) {
+            super(component);
+        }
+
+        @Override
+        public InstanceWrapper getWrapper(Object contextId) throws TargetResolutionException {
+            return createWrapper();
+        }
+
+        @Override
+        public void returnWrapper(InstanceWrapper wrapper, Object contextId) throws TargetDestructionException {
+            returned++;
+        }
+    }
+
+    private static class TestPooledContainer extends PooledStatelessScopeContainer<Object> {
+        private int returned;
+
+        TestPooledContainer(RuntimeComponent component) {
+            super(component, 0, 1, 60000, 10);
+        }
+
+        @Override
+        public InstanceWrapper getWrapper(Object contextId) throws TargetResolutionException {
+            return createWrapper();
+        }
+
+        @Override
+        public void returnWrapper(InstanceWrapper wrapper, Object contextId) throws TargetDestructionException {
+            returned++;
+        }
+    }
+}
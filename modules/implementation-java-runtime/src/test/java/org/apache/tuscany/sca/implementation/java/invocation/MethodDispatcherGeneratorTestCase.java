@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.java.invocation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @version $Rev$ $Date$
+ */
+public class MethodDispatcherGeneratorTestCase {
+
+    @Test
+    public void testDispatch() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        Foo foo = new Foo();
+
+        MethodDispatcher dispatcher = generator.createDispatcher(Foo.class.getMethod("none"));
+        Assert.assertEquals("none", dispatcher.invoke(foo, null));
+
+        dispatcher = generator.createDispatcher(Foo.class.getMethod("one", String.class));
+        Assert.assertEquals("a", dispatcher.invoke(foo, new Object[] {"a"}));
+
+        dispatcher = generator.createDispatcher(Foo.class.getMethod("five", int.class, long.class, boolean.class, double[].class, Object.class));
+        Assert.assertEquals(Integer.valueOf(7), dispatcher.invoke(foo, new Object[] {1, 2L, true, new double[] {3, 4}, "x"}));
+
+        dispatcher = generator.createDispatcher(Foo.class.getMethod("noReturn"));
+        Assert.assertNull(dispatcher.invoke(foo, new Object[0]));
+        Assert.assertTrue(foo.called);
+
+        dispatcher = generator.createDispatcher(Bar.class.getMethod("bar", char.class));
+        Assert.assertEquals("c", dispatcher.invoke(foo, new Object[] {'c'}));
+    }
+
+    @Test
+    public void testException() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        MethodDispatcher dispatcher = generator.createDispatcher(Foo.class.getMethod("fail"));
+        try {
+            dispatcher.invoke(new Foo(), null);
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getTargetException() instanceof IllegalStateException);
+        }
+    }
+
+    /**
+     * Bad targets and arguments fail the same way as with Method.invoke()
+     */
+    @Test
+    public void testBadArguments() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        Method method = Foo.class.getMethod("five", int.class, long.class, boolean.class, double[].class, Object.class);
+        MethodDispatcher dispatcher = generator.createDispatcher(method);
+        Foo foo = new Foo();
+        Object[][] badArgs =
+            {null, new Object[0], new Object[] {null, 2L, true, new double[0], null},
+             new Object[] {"1", 2L, true, new double[0], null}, new Object[] {1, 2L, true, new int[0], null},
+             new Object[] {1, 2L, true, new double[0], null, null}};
+        for (Object[] args : badArgs) {
+            assertIllegalArgument(method, foo, args);
+            assertIllegalArgument(dispatcher, foo, args);
+        }
+        assertIllegalArgument(method, "not a Foo", new Object[] {1, 2L, true, new double[0], null});
+        assertIllegalArgument(dispatcher, "not a Foo", new Object[] {1, 2L, true, new double[0], null});
+
+        try {
+            dispatcher.invoke(null, new Object[] {1, 2L, true, new double[0], null});
+            Assert.fail();
+        } catch (NullPointerException e) {
+            // Expected, as with Method.invoke()
+        }
+    }
+
+    private static void assertIllegalArgument(Object invoker, Object target, Object[] args) throws Exception {
+        try {
+            if (invoker instanceof Method) {
+                ((Method)invoker).invoke(target, args);
+            } else {
+                ((MethodDispatcher)invoker).invoke(target, args);
+            }
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testGeneratedPackage() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        MethodDispatcher dispatcher = generator.createDispatcher(Foo.class.getMethod("none"));
+        Assert.assertEquals("org.apache.tuscany.sca.implementation.java.invocation.generated", dispatcher.getClass()
+            .getPackage().getName());
+    }
+
+    @Test
+    public void testNotPublic() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        Assert.assertNull(generator.createDispatcher(Foo.class.getDeclaredMethod("hidden")));
+        Assert.assertNull(generator.createDispatcher(Hidden.class.getMethod("toString")));
+        // A class in the signature isn't public
+        Assert.assertNull(generator.createDispatcher(Foo.class.getMethod("hiddenParameter", Hidden.class)));
+        Assert.assertNull(generator.createDispatcher(Foo.class.getMethod("hiddenResult")));
+    }
+
+    @Test
+    public void testEnabled() throws Exception {
+        String value = System.getProperty(MethodDispatchers.GENERATED_DISPATCH_PROPERTY);
+        try {
+            System.setProperty(MethodDispatchers.GENERATED_DISPATCH_PROPERTY, "false");
+            Assert.assertFalse(MethodDispatchers.isEnabled());
+            System.setProperty(MethodDispatchers.GENERATED_DISPATCH_PROPERTY, "true");
+            // ASM is on the test classpath
+            Assert.assertTrue(MethodDispatchers.isEnabled());
+            Assert.assertNotNull(MethodDispatchers.createGenerator(Foo.class));
+        } finally {
+            if (value == null) {
+                System.clearProperty(MethodDispatchers.GENERATED_DISPATCH_PROPERTY);
+            } else {
+                System.setProperty(MethodDispatchers.GENERATED_DISPATCH_PROPERTY, value);
+            }
+        }
+    }
+
+    /**
+     * The generated dispatchers return the same values as Method.invoke() for 0, 1 and 5 arguments
+     */
+    @Test
+    public void testSameAsReflection() throws Exception {
+        MethodDispatcherGenerator generator = new MethodDispatcherGenerator(Foo.class);
+        Foo foo = new Foo();
+        Method[] methods =
+            {Foo.class.getMethod("none"), Foo.class.getMethod("one", String.class),
+             Foo.class.getMethod("five", int.class, long.class, boolean.class, double[].class, Object.class)};
+        Object[][] args =
+            {new Object[0], new Object[] {"a"}, new Object[] {1, 2L, false, new double[] {3, 4, 5}, null}};
+        for (int i = 0; i < methods.length; i++) {
+            MethodDispatcher dispatcher = generator.createDispatcher(methods[i]);
+            Assert.assertEquals(methods[i].invoke(foo, args[i]), dispatcher.invoke(foo, args[i]));
+        }
+    }
+
+    public static interface Bar {
+        String bar(char c);
+    }
+
+    public static class Foo implements Bar {
+        private boolean called;
+
+        public String none() {
+            return "none";
+        }
+
+        public String one(String s) {
+            return s;
+        }
+
+        public int five(int a, long b, boolean c, double[] d, Object e) {
+            return a + (int)b + (c ? 1 : 0) + d.length + (e == null ? 0 : 1);
+        }
+
+        public void noReturn() {
+            called = true;
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+
+        public String bar(char c) {
+            return String.valueOf(c);
+        }
+
+        void hidden() {
+        }
+
+        public String hiddenParameter(Hidden hidden) {
+            return hidden.toString();
+        }
+
+        public Hidden[] hiddenResult() {
+            return new Hidden[0];
+        }
+    }
+
+    static class Hidden {
+        @Override
+        public String toString() {
+            return "hidden";
+        }
+    }
+}
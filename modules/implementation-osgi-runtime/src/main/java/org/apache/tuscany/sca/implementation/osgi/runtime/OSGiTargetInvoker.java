@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 
+import org.apache.tuscany.sca.common.java.reflection.MethodCache;
 import org.apache.tuscany.sca.interfacedef.DataType;
 import org.apache.tuscany.sca.interfacedef.Interface;
 import org.apache.tuscany.sca.interfacedef.Operation;
@@ -44,6 +45,16 @@ import org.osgi.framework.Constants;
  */
 public class OSGiTargetInvoker implements Invoker {
 
+    // The OSGi service can be a different instance, or an instance of a different class, for each call.
+    // The cache goes with the invoker so that it doesn't keep the classes of the bundle once the component
+    // is stopped.
+    private final MethodCache<Operation> methods =
+        new MethodCache<Operation>(new MethodCache.MethodResolver<Operation>() {
+            public Method resolve(Class<?> implClass, Operation operation) throws NoSuchMethodException {
+                return findMethod(implClass, operation);
+            }
+        });
+
     private Operation operation;
 
     private final OSGiImplementationProvider provider;
@@ -68,7 +79,7 @@ public class OSGiTargetInvoker implements Invoker {
 
         try {
             Object instance = provider.getOSGiService(service);
-            Method m = findMethod(instance.getClass(), operation);
+            Method m = methods.getMethod(instance.getClass(), operation);
 
             Object ret = invokeMethod(instance, m, msg);
 
@@ -49,51 +49,75 @@ import org.python.util.PythonInterpreter;
 class PythonImplementationProvider implements ImplementationProvider {
     final RuntimeComponent component;
     final PythonImplementation implementation;
-    PythonInterpreter python;
-    PyObject callable;
+    final boolean perThread;
+    final int poolSize;
+    PythonInterpreterPool pool;
     ProxyFactory pxFactory;
 
-    PythonImplementationProvider(final RuntimeComponent comp, final PythonImplementation impl, ProxyFactory pxf) {
+    PythonImplementationProvider(final RuntimeComponent comp, final PythonImplementation impl, ProxyFactory pxf, final boolean pt, final int ps) {
         component = comp;
         implementation = impl;
         pxFactory = pxf;
+        perThread = pt;
+        poolSize = ps;
     }
 
     public void start() {
-        final PySystemState pss = new PySystemState();
-        pss.path.insert(0, new PyString(implementation.getLocation()));
-        pss.path.insert(0, new PyString(getClass().getProtectionDomain().getCodeSource().getLocation().getFile()));
-        python = new PythonInterpreter(null, pss);
-        python.exec("from invoker import *");
-
-        final List<PyObject> px = new ArrayList<PyObject>();
+        // The reference and property proxies are shared by the interpreters
+        final List<PythonEval> px = new ArrayList<PythonEval>();
         for(final ComponentReference r: component.getReferences()) {
             final PythonEval pe = pxFactory.createProxy(PythonEval.class, (RuntimeEndpointReference)r.getEndpointReferences().get(0));
-            px.add(Py.java2py(new PythonEval() {
+            px.add(new PythonEval() {
                 @Override
                 public String eval(final String args) throws Exception {
                     final String v = pe.eval(args);
                     return v;
                 }
-            }));
+            });
         }
-        final List<PyObject> pr = new ArrayList<PyObject>();
+        final List<PythonProperty> pr = new ArrayList<PythonProperty>();
         for(final ComponentProperty p: component.getProperties()) {
             final String v = String.valueOf(p.getValue());
-            pr.add(Py.java2py(new PythonProperty() {
+            pr.add(new PythonProperty() {
                 @Override
                 public String eval() {
                     return v;
                 }
-            }));
+            });
         }
 
+        pool = new PythonInterpreterPool(perThread, poolSize) {
+            @Override
+            Interpreter create() {
+                return createInterpreter(px, pr);
+            }
+        };
+
+        // Create the first interpreter now to report errors in the component module at start
+        pool.release(pool.get());
+    }
+
+    PythonInterpreterPool.Interpreter createInterpreter(final List<PythonEval> px, final List<PythonProperty> pr) {
+        final PySystemState pss = new PySystemState();
+        pss.path.insert(0, new PyString(implementation.getLocation()));
+        pss.path.insert(0, new PyString(getClass().getProtectionDomain().getCodeSource().getLocation().getFile()));
+        final PythonInterpreter python = new PythonInterpreter(null, pss);
+        python.exec("from invoker import *");
+
+        final List<PyObject> pxo = new ArrayList<PyObject>();
+        for(final PythonEval pe: px)
+            pxo.add(Py.java2py(pe));
+        final List<PyObject> pro = new ArrayList<PyObject>();
+        for(final PythonProperty pp: pr)
+            pro.add(Py.java2py(pp));
+
         PyObject mkc = python.get("mkcomponent");
-        callable = mkc.__call__(new PyString(component.getName()), new PyString(implementation.getScript()), new PyTuple(px.toArray(new PyObject[0])), new PyTuple(pr.toArray(new PyObject[0])));
+        final PyObject callable = mkc.__call__(new PyString(component.getName()), new PyString(implementation.getScript()), new PyTuple(pxo.toArray(new PyObject[0])), new PyTuple(pro.toArray(new PyObject[0])));
+        return new PythonInterpreterPool.Interpreter(python, callable);
     }
 
     public void stop() {
-        python.cleanup();
+        pool.stop();
     }
 
     public boolean supportsOneWayInvocation() {
@@ -101,6 +125,6 @@ class PythonImplementationProvider implements ImplementationProvider {
     }
 
     public Invoker createInvoker(final RuntimeComponentService s, final Operation op) {
-        return new PythonInvoker(python, callable, op);
+        return new PythonInvoker(pool, op);
     }
 }
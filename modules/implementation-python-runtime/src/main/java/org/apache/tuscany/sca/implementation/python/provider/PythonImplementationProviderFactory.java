@@ -19,13 +19,18 @@
 
 package org.apache.tuscany.sca.implementation.python.provider;
 
+import java.util.Properties;
+import java.util.logging.Logger;
+
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.core.invocation.ExtensibleProxyFactory;
 import org.apache.tuscany.sca.core.invocation.ProxyFactory;
 import org.apache.tuscany.sca.implementation.python.PythonImplementation;
 import org.apache.tuscany.sca.provider.ImplementationProvider;
 import org.apache.tuscany.sca.provider.ImplementationProviderFactory;
 import org.apache.tuscany.sca.runtime.RuntimeComponent;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
 
 /**
  * A factory for Python implementation providers.
@@ -33,14 +38,43 @@ import org.apache.tuscany.sca.runtime.RuntimeComponent;
  * @version $Rev$ $Date$
  */
 public class PythonImplementationProviderFactory implements ImplementationProviderFactory<PythonImplementation> {
+    /**
+     * The runtime property setting the maximum number of pooled interpreters of a component. By default the
+     * invocations of a component share one interpreter.
+     */
+    public static final String POOL_SIZE = "org.apache.tuscany.sca.implementation.python.interpreterPoolSize";
+
+    /**
+     * The runtime property which, when true, gives each thread its own interpreter of a component
+     */
+    public static final String PER_THREAD = "org.apache.tuscany.sca.implementation.python.interpreterPerThread";
+
+    private static final Logger logger = Logger.getLogger(PythonImplementationProviderFactory.class.getName());
+
     final ProxyFactory pxFactory;
+    final boolean perThread;
+    final int poolSize;
 
     public PythonImplementationProviderFactory(final ExtensionPointRegistry ep) {
         pxFactory = ExtensibleProxyFactory.getInstance(ep);
+
+        final RuntimeProperties rp = ep.getExtensionPoint(UtilityExtensionPoint.class).getUtility(RuntimeProperties.class);
+        final Properties props = rp != null && rp.getProperties() != null? rp.getProperties() : new Properties();
+        perThread = Boolean.parseBoolean(props.getProperty(PER_THREAD, "false").trim());
+        int ps = 0;
+        final String s = props.getProperty(POOL_SIZE);
+        if (s != null) {
+            try {
+                ps = Integer.parseInt(s.trim());
+            } catch(NumberFormatException e) {
+                logger.warning("Invalid value '" + s + "' for " + POOL_SIZE + ", the interpreters aren't pooled");
+            }
+        }
+        poolSize = ps;
     }
 
     public ImplementationProvider createImplementationProvider(final RuntimeComponent comp, final PythonImplementation impl) {
-        return new PythonImplementationProvider(comp, impl, pxFactory);
+        return new PythonImplementationProvider(comp, impl, pxFactory, perThread, poolSize);
     }
 
     public Class<PythonImplementation> getModelType() {
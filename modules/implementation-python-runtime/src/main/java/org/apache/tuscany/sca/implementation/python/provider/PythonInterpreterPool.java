@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.python.provider;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.python.core.PyObject;
+import org.python.util.PythonInterpreter;
+
+/**
+ * The interpreters of a Python component. By default the invocations share one interpreter. As a Jython
+ * interpreter isn't meant to be used by several threads at once, each invocation can instead get an
+ * interpreter, either the one of its thread or one from a bounded pool. The interpreters are created when
+ * needed and each one has the component module imported and the reference and property proxies injected once.
+ * The interpreter of a thread is only held weakly by the pool, so that it's collected with its thread rather
+ * than kept until the component stops.
+ *
+ * @version $Rev$ $Date$
+ */
+abstract class PythonInterpreterPool {
+    final boolean perThread;
+    final int maxSize;
+    final ThreadLocal<Interpreter> threadInterpreters = new ThreadLocal<Interpreter>();
+    final LinkedList<Interpreter> idle = new LinkedList<Interpreter>();
+    final List<Interpreter> all = new ArrayList<Interpreter>();
+    final Set<Reference<Interpreter>> threadRefs = new HashSet<Reference<Interpreter>>();
+    final ReferenceQueue<Interpreter> collected = new ReferenceQueue<Interpreter>();
+    Interpreter shared;
+    int creating;
+    volatile boolean stopped;
+
+    /**
+     * An interpreter and the callable of the component module
+     */
+    static class Interpreter {
+        final PythonInterpreter python;
+        final PyObject callable;
+
+        Interpreter(final PythonInterpreter py, final PyObject c) {
+            python = py;
+            callable = c;
+        }
+    }
+
+    /**
+     * @param perThread true for one interpreter per thread
+     * @param size the maximum number of interpreters in the pool, 0 for one shared interpreter
+     */
+    PythonInterpreterPool(final boolean perThread, final int size) {
+        this.perThread = perThread;
+        this.maxSize = size;
+    }
+
+    /**
+     * Create an interpreter with the component module imported
+     */
+    abstract Interpreter create();
+
+    /**
+     * Release the resources of an interpreter
+     */
+    void cleanup(final Interpreter i) {
+        i.python.cleanup();
+    }
+
+    Interpreter get() {
+        if (perThread) {
+            Interpreter i = threadInterpreters.get();
+            if (i == null) {
+                checkStarted();
+                i = addThread(create());
+                threadInterpreters.set(i);
+            } else
+                checkStarted();
+            return i;
+        }
+        if (maxSize <= 0) {
+            synchronized(this) {
+                checkStarted();
+                if (shared == null)
+                    shared = add(create());
+                return shared;
+            }
+        }
+        synchronized(this) {
+            while(true) {
+                checkStarted();
+                if (!idle.isEmpty())
+                    return idle.removeFirst();
+                if (all.size() + creating < maxSize) {
+                    creating++;
+                    break;
+                }
+                try {
+                    wait();
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        // Create the interpreter outside the lock, importing the component module can take a while
+        Interpreter i = null;
+        try {
+            i = create();
+        } finally {
+            synchronized(this) {
+                creating--;
+                if (i == null)
+                    notify();
+            }
+        }
+        return add(i);
+    }
+
+    void release(final Interpreter i) {
+        if (perThread || maxSize <= 0)
+            return;
+        synchronized(this) {
+            if (!stopped) {
+                idle.add(i);
+                notify();
+            }
+        }
+    }
+
+    Interpreter add(final Interpreter i) {
+        synchronized(this) {
+            if (!stopped) {
+                all.add(i);
+                return i;
+            }
+        }
+        cleanup(i);
+        throw new IllegalStateException("Python component is stopped");
+    }
+
+    Interpreter addThread(final Interpreter i) {
+        synchronized(this) {
+            if (!stopped) {
+                expunge();
+                threadRefs.add(new WeakReference<Interpreter>(i, collected));
+                return i;
+            }
+        }
+        cleanup(i);
+        throw new IllegalStateException("Python component is stopped");
+    }
+
+    /**
+     * Forget the interpreters of the threads which have ended
+     */
+    void expunge() {
+        for(Reference<? extends Interpreter> r = collected.poll(); r != null; r = collected.poll())
+            threadRefs.remove(r);
+    }
+
+    synchronized int size() {
+        expunge();
+        return all.size() + threadRefs.size();
+    }
+
+    /**
+     * Clean up the interpreters, the invocations waiting for an interpreter fail
+     */
+    void stop() {
+        final List<Interpreter> l;
+        synchronized(this) {
+            stopped = true;
+            l = new ArrayList<Interpreter>(all);
+            for(final Reference<Interpreter> r: threadRefs) {
+                final Interpreter i = r.get();
+                if (i != null)
+                    l.add(i);
+            }
+            all.clear();
+            threadRefs.clear();
+            idle.clear();
+            shared = null;
+            notifyAll();
+        }
+        for(final Interpreter i: l)
+            cleanup(i);
+    }
+
+    void checkStarted() {
+        if (stopped)
+            throw new IllegalStateException("Python component is stopped");
+    }
+}
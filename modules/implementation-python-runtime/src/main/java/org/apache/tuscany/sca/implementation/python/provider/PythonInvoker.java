@@ -24,7 +24,6 @@ import org.apache.tuscany.sca.invocation.Invoker;
 import org.apache.tuscany.sca.invocation.Message;
 import org.python.core.PyObject;
 import org.python.core.PyString;
-import org.python.util.PythonInterpreter;
 
 /**
  * An invoker for Python components.
@@ -32,19 +31,22 @@ import org.python.util.PythonInterpreter;
  * @version $Rev$ $Date$
  */
 class PythonInvoker implements Invoker {
-    final PythonInterpreter python;
-    final PyObject callable;
+    final PythonInterpreterPool pool;
     final Operation operation;
 
-    PythonInvoker(final PythonInterpreter py, final PyObject c, final Operation op) {
-        python = py;
-        callable = c;
+    PythonInvoker(final PythonInterpreterPool p, final Operation op) {
+        pool = p;
         operation = op;
     }
 
     String apply(final String req) {
-        PyObject r = callable.__call__(new PyString(req));
-        return r.toString();
+        final PythonInterpreterPool.Interpreter i = pool.get();
+        try {
+            PyObject r = i.callable.__call__(new PyString(req));
+            return r.toString();
+        } finally {
+            pool.release(i);
+        }
     }
 
     public Message invoke(final Message msg) {
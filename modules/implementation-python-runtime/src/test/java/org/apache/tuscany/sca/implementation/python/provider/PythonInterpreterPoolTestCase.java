@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+
+package org.apache.tuscany.sca.implementation.python.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests the Python interpreter pool.
+ * 
+ * @version $Rev$ $Date$
+ */
+public class PythonInterpreterPoolTestCase {
+
+    /**
+     * A pool creating interpreters without Jython and counting them
+     */
+    static class TestPool extends PythonInterpreterPool {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger cleaned = new AtomicInteger();
+        volatile CountDownLatch creating;
+
+        TestPool(final boolean perThread, final int size) {
+            super(perThread, size);
+        }
+
+        @Override
+        Interpreter create() {
+            final CountDownLatch l = creating;
+            if (l != null) {
+                try {
+                    l.await();
+                } catch(InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            created.incrementAndGet();
+            return new Interpreter(null, null);
+        }
+
+        @Override
+        void cleanup(final PythonInterpreterPool.Interpreter i) {
+            cleaned.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        final TestPool p = new TestPool(false, 0);
+        final PythonInterpreterPool.Interpreter i = p.get();
+        p.release(i);
+        assertSame(i, p.get());
+        final AtomicReference<PythonInterpreterPool.Interpreter> other = new AtomicReference<PythonInterpreterPool.Interpreter>();
+        final Thread t = new Thread() {
+            public void run() {
+                other.set(p.get());
+            }
+        };
+        t.start();
+        t.join();
+        assertSame(i, other.get());
+        assertEquals(1, p.created.get());
+        p.stop();
+        assertEquals(1, p.cleaned.get());
+    }
+
+    @Test
+    public void testPerThread() throws Exception {
+        final TestPool p = new TestPool(true, 0);
+        final PythonInterpreterPool.Interpreter i = p.get();
+        assertSame(i, p.get());
+        final AtomicReference<PythonInterpreterPool.Interpreter> other = new AtomicReference<PythonInterpreterPool.Interpreter>();
+        final Thread t = new Thread() {
+            public void run() {
+                other.set(p.get());
+            }
+        };
+        t.start();
+        t.join();
+        assertNotSame(i, other.get());
+        assertEquals(2, p.size());
+        p.stop();
+        assertEquals(2, p.cleaned.get());
+        try {
+            p.get();
+            fail();
+        } catch(IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testPerThreadNotPinned() throws Exception {
+        final TestPool p = new TestPool(true, 0);
+        for(int n = 0; n < 10; n++) {
+            final Thread t = new Thread() {
+                public void run() {
+                    p.get();
+                }
+            };
+            t.start();
+            t.join();
+        }
+        assertEquals(10, p.created.get());
+
+        // The interpreters of the ended threads are collected rather than kept by the pool
+        for(int n = 0; n < 100 && p.size() > 0; n++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, p.size());
+        p.stop();
+        assertEquals(0, p.cleaned.get());
+    }
+
+    @Test
+    public void testPool() throws Exception {
+        final TestPool p = new TestPool(false, 2);
+        final PythonInterpreterPool.Interpreter i1 = p.get();
+        final PythonInterpreterPool.Interpreter i2 = p.get();
+        assertNotSame(i1, i2);
+        p.release(i1);
+        assertSame(i1, p.get());
+        assertEquals(2, p.created.get());
+
+        // The pool is full, the next invocation waits for an interpreter
+        final AtomicReference<PythonInterpreterPool.Interpreter> i3 = new AtomicReference<PythonInterpreterPool.Interpreter>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                i3.set(p.get());
+                done.countDown();
+            }
+        }.start();
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+        p.release(i2);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(i2, i3.get());
+        assertEquals(2, p.created.get());
+    }
+
+    @Test
+    public void testCreateOutsideLock() throws Exception {
+        final TestPool p = new TestPool(false, 2);
+        final PythonInterpreterPool.Interpreter i1 = p.get();
+
+        // While an interpreter is being created, the idle interpreters are still handed out
+        p.creating = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                p.get();
+                done.countDown();
+            }
+        }.start();
+        Thread.sleep(100);
+        p.release(i1);
+        assertSame(i1, p.get());
+        p.creating.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, p.size());
+    }
+
+    @Test
+    public void testStopWakesWaiters() throws Exception {
+        final TestPool p = new TestPool(false, 1);
+        p.get();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                try {
+                    p.get();
+                } catch(Throwable e) {
+                    failure.set(e);
+                }
+                done.countDown();
+            }
+        }.start();
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+        p.stop();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertEquals(1, p.cleaned.get());
+    }
+
+    @Test
+    public void testStopWhileCreating() throws Exception {
+        final TestPool p = new TestPool(false, 1);
+        p.creating = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                try {
+                    p.get();
+                } catch(Throwable e) {
+                    failure.set(e);
+                }
+                done.countDown();
+            }
+        }.start();
+        Thread.sleep(100);
+        p.stop();
+        p.creating.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // The interpreter created after stop is cleaned up
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertEquals(1, p.cleaned.get());
+    }
+}
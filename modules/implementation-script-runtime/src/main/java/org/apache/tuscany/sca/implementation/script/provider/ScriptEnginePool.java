@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.script.provider;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+/**
+ * The script engines used to invoke a script component. Depending on the mode, the invocations share one
+ * engine, each thread has its own engine or the engines are taken from a bounded pool. The engines are
+ * created and initialized by the provider so that each one has the script evaluated, the references and
+ * the properties set.
+ * <p>
+ * The shared mode is the default, the thread and pool modes are for engines which are not thread-safe. In the
+ * auto mode the THREADING parameter of the engine factory decides: MULTITHREADED and STATELESS engines are
+ * shared, THREAD-ISOLATED engines, which don't show the effects of a script to the other threads, get an
+ * engine per thread and the engines which don't declare a threading model are pooled.
+ *
+ * @version $Rev$ $Date$
+ */
+public abstract class ScriptEnginePool {
+
+    /**
+     * The runtime property setting the mode, shared, thread, pool or auto
+     */
+    public static final String MODE_PROPERTY = "org.apache.tuscany.sca.implementation.script.engineMode";
+
+    /**
+     * The runtime property setting the maximum number of engines in pool mode
+     */
+    public static final String POOL_SIZE_PROPERTY = "org.apache.tuscany.sca.implementation.script.enginePoolSize";
+
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    public enum Mode {
+        SHARED, THREAD, POOL, AUTO
+    }
+
+    private final Mode mode;
+    private final int maxSize;
+    // Cleared by stop(), read without locking by the invocations
+    private volatile ScriptEngine sharedEngine;
+
+    // The thread engines are held through references which stop() clears, as the values of a ThreadLocal
+    // can only be removed by their own thread
+    private final ThreadLocal<AtomicReference<ScriptEngine>> threadEngines =
+        new ThreadLocal<AtomicReference<ScriptEngine>>();
+    private final Map<Thread, AtomicReference<ScriptEngine>> threadEngineRefs =
+        new WeakHashMap<Thread, AtomicReference<ScriptEngine>>();
+
+    private final LinkedList<ScriptEngine> idleEngines = new LinkedList<ScriptEngine>();
+    private int size;
+    private boolean stopped;
+
+    /**
+     * @param firstEngine The engine already created by the provider
+     * @param mode The mode, auto to choose it from the engine factory
+     * @param maxSize The maximum number of engines in pool mode, 0 for the default
+     */
+    public ScriptEnginePool(ScriptEngine firstEngine, Mode mode, int maxSize) {
+        if (mode == Mode.AUTO) {
+            mode = getMode(firstEngine.getFactory());
+        }
+        this.mode = mode;
+        this.maxSize = maxSize > 0 ? maxSize : DEFAULT_POOL_SIZE;
+        if (mode == Mode.SHARED) {
+            sharedEngine = firstEngine;
+        } else {
+            sharedEngine = null;
+            if (mode == Mode.THREAD) {
+                setThreadEngine(firstEngine);
+            } else {
+                idleEngines.add(firstEngine);
+            }
+            size = 1;
+        }
+    }
+
+    /**
+     * Parse the value of the mode property
+     *
+     * @param value The value, case insensitive
+     * @return The mode
+     * @throws IllegalArgumentException if the value isn't a mode
+     */
+    public static Mode parseMode(String value) {
+        for (Mode mode : Mode.values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value '" + value + "' for " + MODE_PROPERTY
+            + ", the valid values are shared, thread, pool and auto");
+    }
+
+    /**
+     * Choose the mode from the THREADING parameter of an engine factory
+     */
+    static Mode getMode(ScriptEngineFactory factory) {
+        Object threading = factory == null ? null : factory.getParameter("THREADING");
+        if ("MULTITHREADED".equals(threading) || "STATELESS".equals(threading)) {
+            return Mode.SHARED;
+        } else if ("THREAD-ISOLATED".equals(threading)) {
+            return Mode.THREAD;
+        } else {
+            // Not thread-safe
+            return Mode.POOL;
+        }
+    }
+
+    /**
+     * Create a new engine with the script evaluated, the references and the properties set
+     */
+    protected abstract ScriptEngine createEngine();
+
+    /**
+     * @return The mode, never auto
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get an engine for an invocation, it must be released after the invocation
+     *
+     * @throws IllegalStateException if the pool is stopped
+     */
+    public ScriptEngine getEngine() {
+        switch (mode) {
+            case SHARED:
+                ScriptEngine shared = sharedEngine;
+                if (shared == null) {
+                    throw new IllegalStateException("The script engines are stopped");
+                }
+                return shared;
+            case THREAD:
+                AtomicReference<ScriptEngine> ref = threadEngines.get();
+                ScriptEngine engine = ref == null ? null : ref.get();
+                if (engine == null) {
+                    synchronized (this) {
+                        checkStarted();
+                    }
+                    engine = createEngine();
+                    // Fails if the pool was stopped while the engine was created
+                    setThreadEngine(engine);
+                }
+                return engine;
+            default:
+                synchronized (this) {
+                    while (true) {
+                        checkStarted();
+                        if (!idleEngines.isEmpty()) {
+                            return idleEngines.removeFirst();
+                        }
+                        if (size < maxSize) {
+                            size++;
+                            break;
+                        }
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+                // Create the engine outside the lock, the other invocations can still use the idle engines
+                try {
+                    return createEngine();
+                } catch (RuntimeException e) {
+                    synchronized (this) {
+                        size--;
+                        notify();
+                    }
+                    throw e;
+                }
+        }
+    }
+
+    /**
+     * Release an engine got from getEngine
+     */
+    public void releaseEngine(ScriptEngine engine) {
+        if (mode == Mode.POOL) {
+            synchronized (this) {
+                if (!stopped) {
+                    idleEngines.add(engine);
+                    notify();
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the engines. The invocations waiting for a pooled engine fail and the thread engines
+     * are cleared.
+     */
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+            sharedEngine = null;
+            idleEngines.clear();
+            for (AtomicReference<ScriptEngine> ref : threadEngineRefs.values()) {
+                ref.set(null);
+            }
+            threadEngineRefs.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return The number of engines created in pool mode
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    private synchronized void setThreadEngine(ScriptEngine engine) {
+        checkStarted();
+        AtomicReference<ScriptEngine> ref = new AtomicReference<ScriptEngine>(engine);
+        threadEngineRefs.put(Thread.currentThread(), ref);
+        threadEngines.set(ref);
+    }
+
+    private void checkStarted() {
+        if (stopped) {
+            throw new IllegalStateException("The script engines are stopped");
+        }
+    }
+}
@@ -60,11 +60,27 @@ public class ScriptImplementationProvider implements ImplementationProvider {
     private ScriptPropertyFactory propertyFactory;
     private ScriptEngine scriptEngine;
     private XMLHelper xmlHelper;
+    private ScriptEnginePool.Mode engineMode;
+    private int enginePoolSize;
+    private ScriptEnginePool enginePool;
+    private String language;
+    private String script;
     
     public ScriptImplementationProvider(RuntimeComponent component, ScriptImplementation implementation, ScriptPropertyFactory propertyFactory) {
+        this(component, implementation, propertyFactory, ScriptEnginePool.Mode.SHARED, 0);
+    }
+
+    /**
+     * @param engineMode how the invocations share the script engines
+     * @param enginePoolSize the maximum number of script engines in pool mode, 0 for the default
+     */
+    public ScriptImplementationProvider(RuntimeComponent component, ScriptImplementation implementation, ScriptPropertyFactory propertyFactory,
+                                        ScriptEnginePool.Mode engineMode, int enginePoolSize) {
         this.component = component;
         this.implementation = implementation;
         this.propertyFactory = propertyFactory;
+        this.engineMode = engineMode;
+        this.enginePoolSize = enginePoolSize;
 
         // Set the databinding and XMLHelper for WSDL interfaces
         for (Service service : component.getServices()) {
@@ -78,43 +94,72 @@ public class ScriptImplementationProvider implements ImplementationProvider {
 
     public void start() {
         try {
-            String language = implementation.getLanguage();
+            language = implementation.getLanguage();
             if (language == null) {
                 language = implementation.getScript();
                 language = language.substring(language.lastIndexOf('.') +1);
             }
-            scriptEngine = scriptEngine(language);
-            if (scriptEngine == null) {
-                throw new ObjectCreationException("no script engine found for language: " + implementation.getLanguage());
-            }
-            if (!(scriptEngine instanceof Invocable)) {
-                throw new ObjectCreationException("script engine does not support Invocable: " + scriptEngine);
-            }
-            
-            for (Reference reference : implementation.getReferences()) {
-                scriptEngine.put(reference.getName(), getProxy(reference.getName()));
-            }
-
-            for (Property property : implementation.getProperties()) {
-                ObjectFactory<?> valueFactory = propertyFactory.createValueFactory(property);
-                if (valueFactory != null) {
-                    scriptEngine.put(property.getName(), valueFactory.getInstance());
-                }
-            }
 
+            // Read the script once, it's evaluated by each engine
             URL url = new URL(implementation.getLocation());
             InputStreamReader reader = new InputStreamReader(url.openStream());
-            scriptEngine.eval(reader);
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[4096];
+            for (int n = reader.read(buffer); n != -1; n = reader.read(buffer)) {
+                sb.append(buffer, 0, n);
+            }
             reader.close();
+            script = sb.toString();
 
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
+        }
+
+        scriptEngine = createScriptEngine();
+        enginePool = new ScriptEnginePool(scriptEngine, engineMode, enginePoolSize) {
+            @Override
+            protected ScriptEngine createEngine() {
+                return createScriptEngine();
+            }
+        };
+    }
+
+    /**
+     * Create a script engine with the references and properties set and the script evaluated
+     */
+    private ScriptEngine createScriptEngine() {
+        ScriptEngine scriptEngine = scriptEngine(language);
+        if (scriptEngine == null) {
+            throw new ObjectCreationException("no script engine found for language: " + implementation.getLanguage());
+        }
+        if (!(scriptEngine instanceof Invocable)) {
+            throw new ObjectCreationException("script engine does not support Invocable: " + scriptEngine);
+        }
+        
+        for (Reference reference : implementation.getReferences()) {
+            scriptEngine.put(reference.getName(), getProxy(reference.getName()));
+        }
+
+        for (Property property : implementation.getProperties()) {
+            ObjectFactory<?> valueFactory = propertyFactory.createValueFactory(property);
+            if (valueFactory != null) {
+                scriptEngine.put(property.getName(), valueFactory.getInstance());
+            }
+        }
+
+        try {
+            scriptEngine.eval(script);
         } catch (ScriptException e) {
             throw new IllegalArgumentException(e);
         }
+        return scriptEngine;
     }
 
     public void stop() {
+        if (enginePool != null) {
+            enginePool.stop();
+            enginePool = null;
+        }
     }
 
     public boolean supportsOneWayInvocation() {
@@ -122,7 +167,7 @@ public class ScriptImplementationProvider implements ImplementationProvider {
     }
 
     public Invoker createInvoker(RuntimeComponentService service, Operation operation) {
-        return new ScriptInvoker(scriptEngine, xmlHelper, operation);
+        return new ScriptInvoker(enginePool, xmlHelper, operation);
     }
 
     private Object getProxy(String name) {
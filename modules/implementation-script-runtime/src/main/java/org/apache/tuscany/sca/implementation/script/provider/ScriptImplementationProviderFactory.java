@@ -19,6 +19,9 @@
 
 package org.apache.tuscany.sca.implementation.script.provider;
 
+import java.util.Properties;
+import java.util.logging.Logger;
+
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
 import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.databinding.Mediator;
@@ -27,6 +30,7 @@ import org.apache.tuscany.sca.implementation.script.ScriptImplementation;
 import org.apache.tuscany.sca.provider.ImplementationProvider;
 import org.apache.tuscany.sca.provider.ImplementationProviderFactory;
 import org.apache.tuscany.sca.runtime.RuntimeComponent;
+import org.apache.tuscany.sca.runtime.RuntimeProperties;
 
 /**
  * An ImplementationProviderFactory for Script implementations.
@@ -34,18 +38,43 @@ import org.apache.tuscany.sca.runtime.RuntimeComponent;
  * @version $Rev$ $Date$
  */
 public class ScriptImplementationProviderFactory implements ImplementationProviderFactory<ScriptImplementation> {
+    private static final Logger logger = Logger.getLogger(ScriptImplementationProviderFactory.class.getName());
     
     private ScriptPropertyFactory propertyFactory;
+    private ScriptEnginePool.Mode engineMode = ScriptEnginePool.Mode.SHARED;
+    private int enginePoolSize;
     
     public ScriptImplementationProviderFactory(ExtensionPointRegistry extensionPoints) {
         UtilityExtensionPoint utilities = extensionPoints.getExtensionPoint(UtilityExtensionPoint.class);
         Mediator mediator = utilities.getUtility(Mediator.class);
         SimpleTypeMapper simpleTypeMapper = utilities.getUtility(SimpleTypeMapper.class);
         propertyFactory = new ScriptPropertyFactory(mediator, simpleTypeMapper);
+
+        RuntimeProperties runtimeProperties = utilities.getUtility(RuntimeProperties.class);
+        Properties properties = runtimeProperties == null ? null : runtimeProperties.getProperties();
+        if (properties != null) {
+            String mode = properties.getProperty(ScriptEnginePool.MODE_PROPERTY);
+            if (mode != null) {
+                try {
+                    engineMode = ScriptEnginePool.parseMode(mode);
+                } catch (IllegalArgumentException e) {
+                    logger.warning(e.getMessage() + ", the script engines are shared");
+                }
+            }
+            String poolSize = properties.getProperty(ScriptEnginePool.POOL_SIZE_PROPERTY);
+            if (poolSize != null) {
+                try {
+                    enginePoolSize = Integer.parseInt(poolSize.trim());
+                } catch (NumberFormatException e) {
+                    logger.warning("Invalid value '" + poolSize + "' for " + ScriptEnginePool.POOL_SIZE_PROPERTY
+                        + ", the default pool size is used");
+                }
+            }
+        }
     }
 
     public ImplementationProvider createImplementationProvider(RuntimeComponent component, ScriptImplementation Implementation) {
-        return new ScriptImplementationProvider(component, Implementation, propertyFactory);
+        return new ScriptImplementationProvider(component, Implementation, propertyFactory, engineMode, enginePoolSize);
     }
     
     public Class<ScriptImplementation> getModelType() {
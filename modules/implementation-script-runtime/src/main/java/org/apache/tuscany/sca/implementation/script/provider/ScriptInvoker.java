@@ -36,12 +36,21 @@ import org.apache.tuscany.sca.invocation.Message;
  */
 public class ScriptInvoker implements Invoker {
 
-    private ScriptEngine scriptEngine;
+    private ScriptEnginePool enginePool;
     private XMLHelper xmlHelper;
     private Operation operation;
 
-    public ScriptInvoker(ScriptEngine scriptEngine, XMLHelper xmlHelper, Operation operation) {
-        this.scriptEngine = scriptEngine;
+    public ScriptInvoker(final ScriptEngine scriptEngine, XMLHelper xmlHelper, Operation operation) {
+        this(new ScriptEnginePool(scriptEngine, ScriptEnginePool.Mode.SHARED, 1) {
+            @Override
+            protected ScriptEngine createEngine() {
+                return scriptEngine;
+            }
+        }, xmlHelper, operation);
+    }
+
+    public ScriptInvoker(ScriptEnginePool enginePool, XMLHelper xmlHelper, Operation operation) {
+        this.enginePool = enginePool;
         this.xmlHelper = xmlHelper;
         this.operation = operation;
     }
@@ -56,12 +65,15 @@ public class ScriptInvoker implements Invoker {
             oper = op;  // use dynamic setting
         }
         Object response;
+        ScriptEngine scriptEngine = enginePool.getEngine();
         try {
             response = ((Invocable)scriptEngine).invokeFunction(oper.getName(), objects);
         } catch (ScriptException e) {
             throw e;
         } catch (Exception e) {
             throw new ScriptException(e);
+        } finally {
+            enginePool.releaseEngine(scriptEngine);
         }
 
         if (xmlHelper != null) {
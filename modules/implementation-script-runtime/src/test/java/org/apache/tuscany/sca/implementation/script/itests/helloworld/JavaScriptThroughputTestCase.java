@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.script.itests.helloworld;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.tuscany.sca.implementation.script.itests.AbstractSCATestCase;
+import org.apache.tuscany.sca.implementation.script.provider.ScriptEnginePool;
+import org.apache.tuscany.sca.node.Contribution;
+import org.apache.tuscany.sca.node.ContributionLocationHelper;
+import org.apache.tuscany.sca.node.NodeFactory;
+
+/**
+ * Measures the throughput of a trivial JavaScript component with 1, 8 and 32 client threads for each
+ * script engine mode. It's a benchmark rather than a unit test, it only runs when the
+ * org.apache.tuscany.sca.implementation.script.benchmark system property is true, for example with
+ * mvn test -Dtest=JavaScriptThroughputTestCase -Dorg.apache.tuscany.sca.implementation.script.benchmark=true
+ *
+ * @version $Rev$ $Date$
+ */
+public class JavaScriptThroughputTestCase extends AbstractSCATestCase<HelloWorld> {
+
+    public static final String BENCHMARK_PROPERTY = "org.apache.tuscany.sca.implementation.script.benchmark";
+
+    private static final int CALLS_PER_THREAD = 2000;
+
+    @Override
+    protected void setUp() throws Exception {
+        // The nodes are started for each mode by the test
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        // The nodes are stopped by the test
+    }
+
+    public void testThroughput() throws Exception {
+        if (!Boolean.getBoolean(BENCHMARK_PROPERTY)) {
+            return;
+        }
+        for (ScriptEnginePool.Mode engineMode : ScriptEnginePool.Mode.values()) {
+            String mode = engineMode.name().toLowerCase(Locale.ENGLISH);
+            Properties properties = new Properties();
+            properties.setProperty(ScriptEnginePool.MODE_PROPERTY, mode);
+            NodeFactory factory = NodeFactory.newInstance(properties);
+            String contribution = ContributionLocationHelper.getContributionLocation(getClass());
+            node = factory.createNode(getCompositeName(), new Contribution("test", contribution));
+            node.start();
+            try {
+                service = node.getService(HelloWorld.class, "ClientComponent");
+
+                // Warm up
+                run(1, CALLS_PER_THREAD);
+
+                for (int threads : new int[] {1, 8, 32}) {
+                    long start = System.nanoTime();
+                    run(threads, CALLS_PER_THREAD);
+                    long elapsed = System.nanoTime() - start;
+                    long callsPerSecond = threads * CALLS_PER_THREAD * 1000000000L / elapsed;
+                    System.out.println("JavaScript component, " + mode + " engines, " + threads + " threads: "
+                        + callsPerSecond + " calls/s");
+                }
+            } finally {
+                node.stop();
+                factory.destroy();
+            }
+        }
+    }
+
+    private void run(int threads, final int calls) throws Exception {
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int i = 0; i < threads; i++) {
+            final String name = "petra" + i;
+            new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < calls; j++) {
+                            assertEquals("Hello " + name, service.sayHello(name));
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        done.await();
+        if (failure.get() != null) {
+            throw new Exception(failure.get());
+        }
+    }
+
+    @Override
+    protected String getCompositeName() {
+        return "org/apache/tuscany/sca/implementation/script/itests/helloworld/JavaScriptHelloWorld.composite";
+    }
+
+    @Override
+    protected Class<HelloWorld> getServiceClass() {
+        return HelloWorld.class;
+    }
+}
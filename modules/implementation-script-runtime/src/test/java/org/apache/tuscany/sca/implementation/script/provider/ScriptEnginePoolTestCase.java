@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.implementation.script.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleBindings;
+
+import org.junit.Test;
+
+/**
+ * Tests the ScriptEnginePool modes
+ *
+ * @version $Rev$ $Date$
+ */
+public class ScriptEnginePoolTestCase {
+
+    @Test
+    public void testParseMode() {
+        assertEquals(ScriptEnginePool.Mode.SHARED, ScriptEnginePool.parseMode("shared"));
+        assertEquals(ScriptEnginePool.Mode.THREAD, ScriptEnginePool.parseMode(" Thread "));
+        assertEquals(ScriptEnginePool.Mode.POOL, ScriptEnginePool.parseMode("POOL"));
+        assertEquals(ScriptEnginePool.Mode.AUTO, ScriptEnginePool.parseMode("auto"));
+        try {
+            ScriptEnginePool.parseMode("single");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(ScriptEnginePool.MODE_PROPERTY));
+        }
+    }
+
+    @Test
+    public void testShared() {
+        ScriptEngine first = new TestScriptEngine();
+        TestScriptEnginePool pool = new TestScriptEnginePool(first, ScriptEnginePool.Mode.SHARED, 0);
+        assertSame(first, pool.getEngine());
+        pool.releaseEngine(first);
+        assertSame(first, pool.getEngine());
+        assertEquals(0, pool.created.get());
+
+        pool.stop();
+        try {
+            pool.getEngine();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAuto() {
+        assertEquals(ScriptEnginePool.Mode.SHARED, getAutoMode("MULTITHREADED"));
+        assertEquals(ScriptEnginePool.Mode.SHARED, getAutoMode("STATELESS"));
+        assertEquals(ScriptEnginePool.Mode.THREAD, getAutoMode("THREAD-ISOLATED"));
+        // Not thread-safe
+        assertEquals(ScriptEnginePool.Mode.POOL, getAutoMode(null));
+        assertEquals(ScriptEnginePool.Mode.POOL,
+                     new TestScriptEnginePool(new TestScriptEngine(), ScriptEnginePool.Mode.AUTO, 0).getMode());
+    }
+
+    private static ScriptEnginePool.Mode getAutoMode(String threading) {
+        TestScriptEngine engine = new TestScriptEngine();
+        engine.factory = new TestScriptEngineFactory(threading);
+        return new TestScriptEnginePool(engine, ScriptEnginePool.Mode.AUTO, 0).getMode();
+    }
+
+    @Test
+    public void testThread() throws Exception {
+        ScriptEngine first = new TestScriptEngine();
+        final TestScriptEnginePool pool = new TestScriptEnginePool(first, ScriptEnginePool.Mode.THREAD, 0);
+        assertSame(first, pool.getEngine());
+        assertSame(first, pool.getEngine());
+
+        final AtomicReference<ScriptEngine> other = new AtomicReference<ScriptEngine>();
+        Thread thread = new Thread() {
+            public void run() {
+                ScriptEngine engine = pool.getEngine();
+                if (engine == pool.getEngine()) {
+                    other.set(engine);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        assertNotSame(first, other.get());
+        assertEquals(1, pool.created.get());
+    }
+
+    @Test
+    public void testThreadStop() throws Exception {
+        final TestScriptEnginePool pool = new TestScriptEnginePool(new TestScriptEngine(), ScriptEnginePool.Mode.THREAD, 0);
+        final CountDownLatch got = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread thread = new Thread() {
+            public void run() {
+                pool.getEngine();
+                got.countDown();
+                try {
+                    stopped.await();
+                    pool.getEngine();
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        };
+        thread.start();
+        got.await();
+        pool.stop();
+        stopped.countDown();
+        thread.join();
+
+        // The engine of the other thread was released
+        assertTrue(failure.get() instanceof IllegalStateException);
+        try {
+            pool.getEngine();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPool() throws Exception {
+        ScriptEngine first = new TestScriptEngine();
+        final TestScriptEnginePool pool = new TestScriptEnginePool(first, ScriptEnginePool.Mode.POOL, 2);
+        ScriptEngine e1 = pool.getEngine();
+        assertSame(first, e1);
+        ScriptEngine e2 = pool.getEngine();
+        assertNotSame(e1, e2);
+        assertEquals(2, pool.getSize());
+
+        // The pool is full, the next invocation waits for an engine to be released
+        final AtomicReference<ScriptEngine> e3 = new AtomicReference<ScriptEngine>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                e3.set(pool.getEngine());
+                done.countDown();
+            }
+        }.start();
+        assertTrue(!done.await(200, TimeUnit.MILLISECONDS));
+        pool.releaseEngine(e2);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(e2, e3.get());
+        assertEquals(2, pool.getSize());
+        assertEquals(1, pool.created.get());
+    }
+
+    @Test
+    public void testPoolStopWakesWaiters() throws Exception {
+        final TestScriptEnginePool pool = new TestScriptEnginePool(new TestScriptEngine(), ScriptEnginePool.Mode.POOL, 1);
+        pool.getEngine();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                try {
+                    pool.getEngine();
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+                done.countDown();
+            }
+        }.start();
+        assertTrue(!done.await(200, TimeUnit.MILLISECONDS));
+        pool.stop();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testPoolCreateFailure() {
+        TestScriptEnginePool pool = new TestScriptEnginePool(new TestScriptEngine(), ScriptEnginePool.Mode.POOL, 2);
+        pool.getEngine();
+        pool.fail = true;
+        try {
+            pool.getEngine();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(1, pool.getSize());
+        pool.fail = false;
+        pool.getEngine();
+        assertEquals(2, pool.getSize());
+    }
+
+    private static class TestScriptEnginePool extends ScriptEnginePool {
+        private final AtomicInteger created = new AtomicInteger();
+        private volatile boolean fail;
+
+        private TestScriptEnginePool(ScriptEngine firstEngine, Mode mode, int maxSize) {
+            super(firstEngine, mode, maxSize);
+        }
+
+        @Override
+        protected ScriptEngine createEngine() {
+            if (fail) {
+                throw new IllegalArgumentException("engine creation failed");
+            }
+            created.incrementAndGet();
+            return new TestScriptEngine();
+        }
+    }
+
+    private static class TestScriptEngine extends AbstractScriptEngine {
+        private ScriptEngineFactory factory;
+
+        public Object eval(String script, ScriptContext context) {
+            return null;
+        }
+
+        public Object eval(Reader reader, ScriptContext context) {
+            return null;
+        }
+
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        public ScriptEngineFactory getFactory() {
+            return factory;
+        }
+    }
+
+    private static class TestScriptEngineFactory implements ScriptEngineFactory {
+        private final String threading;
+
+        private TestScriptEngineFactory(String threading) {
+            this.threading = threading;
+        }
+
+        public Object getParameter(String key) {
+            return "THREADING".equals(key) ? threading : null;
+        }
+
+        public String getEngineName() {
+            return "test";
+        }
+
+        public String getEngineVersion() {
+            return "1.0";
+        }
+
+        public List<String> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        public List<String> getMimeTypes() {
+            return Collections.emptyList();
+        }
+
+        public List<String> getNames() {
+            return Collections.emptyList();
+        }
+
+        public String getLanguageName() {
+            return "test";
+        }
+
+        public String getLanguageVersion() {
+            return "1.0";
+        }
+
+        public String getMethodCallSyntax(String obj, String m, String... args) {
+            return null;
+        }
+
+        public String getOutputStatement(String toDisplay) {
+            return null;
+        }
+
+        public String getProgram(String... statements) {
+            return null;
+        }
+
+        public ScriptEngine getScriptEngine() {
+            return new TestScriptEngine();
+        }
+    }
+}
@@ -37,8 +37,8 @@ import org.apache.tuscany.sca.runtime.RuntimeComponentService;
  */
 public class SpringInvoker implements Invoker {
 
-    private Method theMethod = null;
-    private Object bean;
+    private volatile Method theMethod = null;
+    private volatile Object bean;
     private SpringBeanElement beanElement;
     private boolean badInvoker = false;
 
@@ -73,8 +73,9 @@ public class SpringInvoker implements Invoker {
     // Lazy-load the method to avoid timing problems with the Spring Context
     private void setupMethod() throws SpringInvocationException {
         try {
-            bean = springContext.getBean(beanElement.getId());
-            Class<?> beanClass = bean.getClass();
+            Object theBean = springContext.getBean(beanElement.getId());
+            Class<?> beanClass = theBean.getClass();
+            bean = theBean;
             theMethod = JavaInterfaceUtil.findMethod(beanClass, operation);
             //System.out.println("SpringInvoker - found method " + theMethod.getName() );
         } catch (NoSuchMethodException e) {
@@ -83,11 +84,12 @@ public class SpringInvoker implements Invoker {
     }
 
     private Object doInvoke(Object payload) throws SpringInvocationException {
+        if (badInvoker)
+            throw new SpringInvocationException("Spring invoker incorrectly configured");
+
         if (theMethod == null)
             setupMethod();
 
-        if (badInvoker)
-            throw new SpringInvocationException("Spring invoker incorrectly configured");
         // Invoke the method on the Spring bean using the payload, returning the results
         try {
             Object ret;
@@ -60,6 +60,7 @@ import org.apache.tuscany.sca.core.assembly.RuntimeAssemblyFactory;
 import org.apache.tuscany.sca.core.invocation.ExtensibleProxyFactory;
 import org.apache.tuscany.sca.core.invocation.ProxyFactory;
 import org.apache.tuscany.sca.deployment.Deployer;
+import org.apache.tuscany.sca.extensibility.ServiceDeclarationIndex;
 import org.apache.tuscany.sca.extensibility.ServiceDiscovery;
 import org.apache.tuscany.sca.monitor.Monitor;
 import org.apache.tuscany.sca.monitor.MonitorFactory;
@@ -270,6 +271,9 @@ public class NodeFactoryImpl extends NodeFactory {
 
         utilities.getUtility(WorkScheduler.class);
 
+        // Save the service declarations discovered while initializing the runtime
+        ServiceDeclarationIndex.saveAll();
+
         inited = true;
 
         if (logger.isLoggable(Level.FINE)) {
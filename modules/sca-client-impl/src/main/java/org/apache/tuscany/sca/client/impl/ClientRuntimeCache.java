@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tuscany.sca.client.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.tuscany.sca.core.ExtensionPointRegistry;
+import org.apache.tuscany.sca.runtime.DomainRegistry;
+import org.oasisopen.sca.NoSuchDomainException;
+import org.oasisopen.sca.ServiceRuntimeException;
+
+/**
+ * A process wide cache of the client runtimes used by the SCAClient API when there is no local
+ * Tuscany runtime for the domain. Creating a runtime, connecting to the domain registry and building
+ * the endpoint reference for a service takes seconds so rather than doing it for each invocation the
+ * runtimes are kept, one per domain URI, and shared by all the clients of the domain.
+ * <p>
+ * The runtimes are reference counted, a runtime which isn't used by any client for the idle timeout of
+ * the client that released it last is stopped. The idle timeout defaults to one minute and can be set in
+ * milliseconds with the org.apache.tuscany.sca.client.idleTimeout system property, or for the clients of a
+ * SCAClientFactory with the factory property of the same name. 0 stops the runtime as soon as it's released
+ * and a negative value keeps it until the JVM exits.
+ * <p>
+ * Acquiring and releasing a runtime doesn't lock the cache. A runtime is created once per domain by the
+ * first client that needs it, the other clients of the domain wait for it while the clients of other
+ * domains go on.
+ */
+public class ClientRuntimeCache {
+    private static final Logger logger = Logger.getLogger(ClientRuntimeCache.class.getName());
+
+    public static final String IDLE_TIMEOUT_PROPERTY = "org.apache.tuscany.sca.client.idleTimeout";
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    private static final ClientRuntimeCache instance = new ClientRuntimeCache(getLong(System.getProperty(IDLE_TIMEOUT_PROPERTY), DEFAULT_IDLE_TIMEOUT));
+
+    // The runtimes by domain URI, a runtime is created by the first client which puts its future in the map
+    private final ConcurrentMap<String, Future<ClientRuntime>> runtimes =
+        new ConcurrentHashMap<String, Future<ClientRuntime>>();
+    private final long idleTimeout;
+    private final AtomicReference<Timer> timer = new AtomicReference<Timer>();
+
+    ClientRuntimeCache(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public static ClientRuntimeCache getInstance() {
+        return instance;
+    }
+
+    static long getLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value for " + IDLE_TIMEOUT_PROPERTY + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return The default idle timeout
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Get the runtime for a domain, creating it if there is none. The runtime must be released
+     * when it's no longer used.
+     * @param domainURI The domain URI
+     * @return The runtime
+     * @throws NoSuchDomainException if the domain registry can't be reached
+     */
+    public ClientRuntime acquire(final String domainURI) throws NoSuchDomainException {
+        while (true) {
+            Future<ClientRuntime> future = runtimes.get(domainURI);
+            if (future == null) {
+                FutureTask<ClientRuntime> task = new FutureTask<ClientRuntime>(new Callable<ClientRuntime>() {
+                    public ClientRuntime call() throws NoSuchDomainException {
+                        return createRuntime(domainURI);
+                    }
+                });
+                future = runtimes.putIfAbsent(domainURI, task);
+                if (future == null) {
+                    future = task;
+                    task.run();
+                }
+            }
+            ClientRuntime runtime;
+            try {
+                runtime = getRuntime(future);
+            } catch (NoSuchDomainException e) {
+                // Let the next client try again
+                runtimes.remove(domainURI, future);
+                throw e;
+            } catch (RuntimeException e) {
+                runtimes.remove(domainURI, future);
+                throw e;
+            }
+            if (runtime.retain()) {
+                return runtime;
+            }
+            // The runtime has been stopped since it was looked up
+            runtimes.remove(domainURI, future);
+        }
+    }
+
+    private static ClientRuntime getRuntime(Future<ClientRuntime> future) throws NoSuchDomainException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // The runtime is created by another client, wait for it anyway
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof NoSuchDomainException) {
+                        throw (NoSuchDomainException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new ServiceRuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Create the runtime for a domain
+     */
+    ClientRuntime createRuntime(String domainURI) throws NoSuchDomainException {
+        ExtensionPointRegistry extensionsRegistry = RuntimeUtils.createExtensionPointRegistry();
+        DomainRegistry domainRegistry;
+        try {
+            domainRegistry = RuntimeUtils.getClientEndpointRegistry(extensionsRegistry, domainURI);
+        } catch (NoSuchDomainException e) {
+            extensionsRegistry.stop();
+            throw e;
+        }
+        return new ClientRuntime(domainURI, extensionsRegistry, domainRegistry);
+    }
+
+    /**
+     * Release a runtime got from acquire, the runtime is stopped once it has been idle for the default
+     * idle timeout
+     * @param runtime The runtime
+     */
+    public void release(ClientRuntime runtime) {
+        release(runtime, idleTimeout);
+    }
+
+    /**
+     * Release a runtime got from acquire
+     * @param runtime The runtime
+     * @param timeout The time in milliseconds after which the runtime is stopped if it's no longer used,
+     * 0 to stop it now and a negative value to keep it
+     */
+    public void release(final ClientRuntime runtime, long timeout) {
+        final int release = runtime.release();
+        if (release < 0 || timeout < 0) {
+            // Still used, or kept
+            return;
+        }
+        if (timeout == 0) {
+            stopIfIdle(runtime, release);
+            return;
+        }
+        try {
+            getTimer().schedule(new TimerTask() {
+                public void run() {
+                    stopIfIdle(runtime, release);
+                }
+            }, timeout);
+        } catch (IllegalStateException e) {
+            // The cache has been stopped along with its runtimes
+        }
+    }
+
+    private Timer getTimer() {
+        Timer current = timer.get();
+        if (current == null) {
+            Timer created = new Timer("Tuscany-SCAClient-RuntimeCache", true);
+            if (timer.compareAndSet(null, created)) {
+                current = created;
+            } else {
+                created.cancel();
+                current = timer.get();
+            }
+        }
+        return current;
+    }
+
+    private void stopIfIdle(ClientRuntime runtime, int release) {
+        // Not stopped if it has been used again since, a later release schedules a new check
+        if (runtime.stopIfIdle(release)) {
+            remove(runtime);
+            runtime.stop();
+        }
+    }
+
+    private void remove(ClientRuntime runtime) {
+        Future<ClientRuntime> future = runtimes.get(runtime.domainURI);
+        if (future != null && future.isDone() && getQuietly(future) == runtime) {
+            runtimes.remove(runtime.domainURI, future);
+        }
+    }
+
+    private static ClientRuntime getQuietly(Future<ClientRuntime> future) {
+        try {
+            return getRuntime(future);
+        } catch (NoSuchDomainException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stop all the runtimes, whether they're in use or not
+     */
+    public void stop() {
+        Timer current = timer.getAndSet(null);
+        if (current != null) {
+            current.cancel();
+        }
+        for (String domainURI : runtimes.keySet()) {
+            Future<ClientRuntime> future = runtimes.remove(domainURI);
+            if (future != null) {
+                ClientRuntime runtime = getQuietly(future);
+                if (runtime != null && runtime.markStopped()) {
+                    runtime.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of runtimes in the cache
+     */
+    public int size() {
+        return runtimes.size();
+    }
+
+    /**
+     * The runtime for a domain and the invocation handlers, which hold the endpoint references, built with it
+     */
+    public static class ClientRuntime {
+        private final String domainURI;
+        private final ExtensionPointRegistry extensionsRegistry;
+        private final DomainRegistry domainRegistry;
+        private final EndpointFinder endpointFinder;
+        private final Map<List<Object>, InvocationHandler> handlers = new ConcurrentHashMap<List<Object>, InvocationHandler>();
+        // The number of clients using the runtime in the low 32 bits, -1 once it's stopped, and the number of
+        // times it has become idle in the high 32 bits. They change together so that an idle runtime is only
+        // stopped if it hasn't been used since it became idle.
+        private final AtomicLong state = new AtomicLong();
+
+        ClientRuntime(String domainURI, ExtensionPointRegistry extensionsRegistry, DomainRegistry domainRegistry) {
+            this.domainURI = domainURI;
+            this.extensionsRegistry = extensionsRegistry;
+            this.domainRegistry = domainRegistry;
+            this.endpointFinder = RuntimeUtils.getEndpointFinder(extensionsRegistry);
+        }
+
+        public String getDomainURI() {
+            return domainURI;
+        }
+
+        public ExtensionPointRegistry getExtensionPointRegistry() {
+            return extensionsRegistry;
+        }
+
+        public DomainRegistry getDomainRegistry() {
+            return domainRegistry;
+        }
+
+        public EndpointFinder getEndpointFinder() {
+            return endpointFinder;
+        }
+
+        /**
+         * @return The invocation handler built for the service and interface, null if there is none
+         */
+        public InvocationHandler getHandler(String serviceName, Class<?> serviceInterface) {
+            return handlers.get(Arrays.<Object> asList(serviceName, serviceInterface));
+        }
+
+        public void putHandler(String serviceName, Class<?> serviceInterface, InvocationHandler handler) {
+            handlers.put(Arrays.<Object> asList(serviceName, serviceInterface), handler);
+        }
+
+        /**
+         * Remove the invocation handler for the service and interface, for example because the service has
+         * moved, so that the endpoint is looked up again
+         */
+        public void removeHandler(String serviceName, Class<?> serviceInterface) {
+            handlers.remove(Arrays.<Object> asList(serviceName, serviceInterface));
+        }
+
+        /**
+         * @return false if the runtime has been stopped
+         */
+        boolean retain() {
+            while (true) {
+                long current = state.get();
+                if ((int)current < 0) {
+                    return false;
+                }
+                if (state.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return The number of times the runtime has become idle if this release made it idle, -1 if it is
+         * still used
+         */
+        int release() {
+            while (true) {
+                long current = state.get();
+                int references = (int)current;
+                if (references < 0) {
+                    // Stopped with the cache
+                    return -1;
+                }
+                if (references == 0) {
+                    throw new IllegalStateException("The SCA client runtime for domain " + domainURI
+                        + " has not been acquired");
+                }
+                if (references > 1) {
+                    if (state.compareAndSet(current, current - 1)) {
+                        return -1;
+                    }
+                } else {
+                    int releases = (int)((current >>> 32) + 1) & Integer.MAX_VALUE;
+                    if (state.compareAndSet(current, (long)releases << 32)) {
+                        return releases;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Mark the runtime as stopped if it is still idle since the given release
+         */
+        boolean stopIfIdle(int release) {
+            long idle = (long)release << 32;
+            return state.compareAndSet(idle, idle | 0xFFFFFFFFL);
+        }
+
+        /**
+         * Mark the runtime as stopped whether it is used or not
+         * @return false if it was already stopped
+         */
+        boolean markStopped() {
+            while (true) {
+                long current = state.get();
+                if ((int)current < 0) {
+                    return false;
+                }
+                if (state.compareAndSet(current, current | 0xFFFFFFFFL)) {
+                    return true;
+                }
+            }
+        }
+
+        void stop() {
+            handlers.clear();
+            try {
+                extensionsRegistry.stop();
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Error stopping the SCA client runtime for domain " + domainURI, e);
+            }
+        }
+    }
+}
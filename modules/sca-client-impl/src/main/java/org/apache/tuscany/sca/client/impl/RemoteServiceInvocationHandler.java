@@ -34,6 +34,7 @@ import org.apache.tuscany.sca.assembly.Endpoint;
 import org.apache.tuscany.sca.assembly.EndpointReference;
 import org.apache.tuscany.sca.assembly.Multiplicity;
 import org.apache.tuscany.sca.assembly.Service;
+import org.apache.tuscany.sca.client.impl.ClientRuntimeCache.ClientRuntime;
 import org.apache.tuscany.sca.context.CompositeContext;
 import org.apache.tuscany.sca.core.ExtensionPointRegistry;
 import org.apache.tuscany.sca.core.FactoryExtensionPoint;
@@ -58,7 +59,9 @@ import org.oasisopen.sca.ServiceRuntimeException;
  * An InvocationHandler for invoking services where the component is not running locally.
  * It has two modes of operation for the cases where there either is or is not an existing 
  * Tuscany runtime locally. The SCAClient API has no close so when there is no existing
- * local runtime then one must be created and destroyed for each service invocation.
+ * local runtime then one is got from the ClientRuntimeCache for each service invocation,
+ * the cache keeps the runtime and the endpoint reference built for the service between
+ * invocations and stops the runtime once it's been idle for a while.
  */
 public class RemoteServiceInvocationHandler implements InvocationHandler {
 
@@ -68,6 +71,8 @@ public class RemoteServiceInvocationHandler implements InvocationHandler {
     
     private ExtensionPointRegistry extensionsRegistry;
     private DomainRegistry domainRegistry;
+    private ClientRuntimeCache runtimeCache;
+    private long idleTimeout;
     
     private InvocationHandler handler;
     private boolean reuse;
@@ -86,76 +91,91 @@ public class RemoteServiceInvocationHandler implements InvocationHandler {
     
     /**
      * Constructor for when there is no existing Tuscany runtime for the domain
-     * @param endpointRegistry2 
-     * @param extensionPointRegistry 
+     * @param runtimeCache the cache of the client runtimes 
+     * @param idleTimeout the time the runtime is kept after the invocations, see ClientRuntimeCache.release
      * @throws NoSuchServiceException 
      */
-    public RemoteServiceInvocationHandler(ExtensionPointRegistry extensionsRegistry, DomainRegistry domainRegistry, String domainURI, String serviceName, Class<?> serviceInterface) throws NoSuchDomainException, NoSuchServiceException {
-        this.extensionsRegistry = extensionsRegistry;
-        this.domainRegistry = domainRegistry;
+    public RemoteServiceInvocationHandler(ClientRuntimeCache runtimeCache, long idleTimeout, String domainURI, String serviceName, Class<?> serviceInterface) throws NoSuchDomainException, NoSuchServiceException {
+        this.runtimeCache = runtimeCache;
+        this.idleTimeout = idleTimeout;
         this.domainURI = domainURI;
         this.serviceName = serviceName;
         this.serviceInterface = serviceInterface;
         this.reuse = false;
         if (serviceInterface == null) {
-            getHandler();
+            ClientRuntime runtime = runtimeCache.acquire(domainURI);
+            try {
+                getHandler(runtime);
+            } finally {
+                runtimeCache.release(runtime, idleTimeout);
+            }
         }
     }
 
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (reuse) {
+            return getHandler().invoke(proxy, method, args);
+        }
+
+        ClientRuntime runtime = runtimeCache.acquire(domainURI);
         try {
             
-            return getHandler().invoke(proxy, method, args);
+            return getHandler(runtime).invoke(proxy, method, args);
             
+        } catch (ServiceRuntimeException e) {
+            // The service may have moved so look up its endpoint again for the next invocation
+            runtime.removeHandler(serviceName, serviceInterface);
+            throw e;
         } finally {
-            if (!reuse) {
-                extensionsRegistry.stop();
-                extensionsRegistry = null;
-                handler = null;
-            }
+            runtimeCache.release(runtime, idleTimeout);
         }
     }
 
     private InvocationHandler getHandler() throws NoSuchDomainException, NoSuchServiceException {
         if (handler == null) {
-            if (extensionsRegistry == null) {
-                extensionsRegistry = RuntimeUtils.createExtensionPointRegistry();
-            }
-            if (domainRegistry == null) {
-                domainRegistry = RuntimeUtils.getClientEndpointRegistry(extensionsRegistry, domainURI);
-            }
+            handler = createHandler(extensionsRegistry, domainRegistry, RuntimeUtils.getEndpointFinder(extensionsRegistry));
+        }
+        return handler;
+    }
 
-            FactoryExtensionPoint factories = extensionsRegistry.getExtensionPoint(FactoryExtensionPoint.class);
-            AssemblyFactory assemblyFactory = factories.getFactory(AssemblyFactory.class);
-            JavaInterfaceFactory javaInterfaceFactory = factories.getFactory(JavaInterfaceFactory.class);
-            ProxyFactory proxyFactory = new ExtensibleProxyFactory(extensionsRegistry.getExtensionPoint(ProxyFactoryExtensionPoint.class));
-
-            CompositeContext compositeContext = new CompositeContext(extensionsRegistry, domainRegistry, null, domainURI, null, null);
-
-            EndpointFinder endpointFinder = RuntimeUtils.getEndpointFinder(extensionsRegistry);
-            Endpoint endpoint = endpointFinder.findEndpoint(domainRegistry, serviceName);
-             
-            if (serviceInterface == null) {
-                try {
-                    findInterface(endpoint);
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            
-            RuntimeEndpointReference epr;
+    private InvocationHandler getHandler(ClientRuntime runtime) throws NoSuchDomainException, NoSuchServiceException {
+        InvocationHandler cachedHandler = serviceInterface == null ? null : runtime.getHandler(serviceName, serviceInterface);
+        if (cachedHandler == null) {
+            cachedHandler = createHandler(runtime.getExtensionPointRegistry(), runtime.getDomainRegistry(), runtime.getEndpointFinder());
+            runtime.putHandler(serviceName, serviceInterface, cachedHandler);
+        }
+        return cachedHandler;
+    }
+
+    private InvocationHandler createHandler(ExtensionPointRegistry extensionsRegistry, DomainRegistry domainRegistry, EndpointFinder endpointFinder) throws NoSuchDomainException, NoSuchServiceException {
+        FactoryExtensionPoint factories = extensionsRegistry.getExtensionPoint(FactoryExtensionPoint.class);
+        AssemblyFactory assemblyFactory = factories.getFactory(AssemblyFactory.class);
+        JavaInterfaceFactory javaInterfaceFactory = factories.getFactory(JavaInterfaceFactory.class);
+        ProxyFactory proxyFactory = new ExtensibleProxyFactory(extensionsRegistry.getExtensionPoint(ProxyFactoryExtensionPoint.class));
+
+        CompositeContext compositeContext = new CompositeContext(extensionsRegistry, domainRegistry, null, domainURI, null, null);
+
+        Endpoint endpoint = endpointFinder.findEndpoint(domainRegistry, serviceName);
+         
+        if (serviceInterface == null) {
             try {
-                epr = createEndpointReference(javaInterfaceFactory, compositeContext, assemblyFactory, endpoint, serviceInterface);
+                findInterface(domainRegistry, endpoint);
             } catch (Exception e) {
-                throw new ServiceRuntimeException(e);
+                throw new RuntimeException(e);
             }
-
-            this.handler = Proxy.getInvocationHandler(proxyFactory.createProxy(serviceInterface, epr));
         }
-        return handler;
+        
+        RuntimeEndpointReference epr;
+        try {
+            epr = createEndpointReference(javaInterfaceFactory, compositeContext, assemblyFactory, endpoint, serviceInterface);
+        } catch (Exception e) {
+            throw new ServiceRuntimeException(e);
+        }
+
+        return Proxy.getInvocationHandler(proxyFactory.createProxy(serviceInterface, epr));
     }
 
-    private void findInterface(Endpoint endpoint) throws MalformedURLException, ClassNotFoundException {
+    private void findInterface(DomainRegistry domainRegistry, Endpoint endpoint) throws MalformedURLException, ClassNotFoundException {
         Interface iface = endpoint.getService().getInterfaceContract().getInterface();
         if (iface instanceof JavaInterface) {
             String curi = domainRegistry.getContainingCompositesContributionURI(endpoint.getComponent().getName());
@@ -44,6 +44,8 @@ public class SCAClientFactoryImpl extends SCAClientFactory {
     protected boolean remoteClient;
     protected boolean onlySCABinding;
     private EndpointFinder endpointFinder;
+    private ClientRuntimeCache runtimeCache;
+    private long idleTimeout;
     
     public static URI default_domainURI = URI.create("default");
     
@@ -56,14 +58,21 @@ public class SCAClientFactoryImpl extends SCAClientFactory {
     }
 
     public SCAClientFactoryImpl(URI domainURI) throws NoSuchDomainException {
-        super(domainURI == null ? default_domainURI : domainURI);
-        findLocalRuntime();
-
-        endpointFinder = RuntimeUtils.getEndpointFinder(extensionPointRegistry);
+        this(domainURI, null);
     }
 
     public SCAClientFactoryImpl(URI domainURI, Properties properties) throws NoSuchDomainException {
-    	this(domainURI);
+        super(domainURI == null ? default_domainURI : domainURI);
+        runtimeCache = ClientRuntimeCache.getInstance();
+        idleTimeout = runtimeCache.getIdleTimeout();
+        if (properties != null) {
+            idleTimeout = ClientRuntimeCache.getLong(properties.getProperty(ClientRuntimeCache.IDLE_TIMEOUT_PROPERTY), idleTimeout);
+        }
+        findLocalRuntime();
+
+        if (!remoteClient) {
+            endpointFinder = RuntimeUtils.getEndpointFinder(extensionPointRegistry);
+        }
     }
 
     protected void findLocalRuntime() throws NoSuchDomainException {
@@ -79,9 +88,10 @@ public class SCAClientFactoryImpl extends SCAClientFactory {
             }
         }
 
+        // No local runtime so the invocations use a cached client runtime, get it now to check
+        // the domain can be reached and have it started for the first invocation
         remoteClient = true;
-        extensionPointRegistry = RuntimeUtils.createExtensionPointRegistry();
-        domainRegistry = RuntimeUtils.getClientEndpointRegistry(extensionPointRegistry, domainURI);
+        runtimeCache.release(runtimeCache.acquire(domainURI), idleTimeout);
     }
 
     @Override
@@ -105,7 +115,7 @@ public class SCAClientFactoryImpl extends SCAClientFactory {
             // TUSCANY-3590 - convert NoSuchDomainException to NoSuchService exception while 
             //                we findout why this interface has changed
             try {
-                handler = new RemoteServiceInvocationHandler(extensionPointRegistry, domainRegistry, getDomainURI().toString(), serviceURI, serviceInterface);
+                handler = new RemoteServiceInvocationHandler(runtimeCache, idleTimeout, getDomainURI().toString(), serviceURI, serviceInterface);
             } catch (NoSuchDomainException ex){
                 throw new NoSuchServiceException(ex);
             }
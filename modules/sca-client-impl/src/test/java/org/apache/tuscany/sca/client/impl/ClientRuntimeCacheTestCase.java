@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tuscany.sca.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuscany.sca.client.impl.ClientRuntimeCache.ClientRuntime;
+import org.apache.tuscany.sca.core.DefaultExtensionPointRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the reuse, reference counting and idle expiry of the cached client runtimes, without domain registry
+ */
+public class ClientRuntimeCacheTestCase {
+    private TestRuntimeCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TestRuntimeCache(60000);
+    }
+
+    @After
+    public void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        ClientRuntime runtime = cache.acquire("foo");
+        cache.release(runtime);
+        assertSame(runtime, cache.acquire("foo"));
+        assertNotSame(runtime, cache.acquire("bar"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.created.size());
+        assertTrue(cache.stopped.isEmpty());
+    }
+
+    @Test
+    public void testReferenceCounting() throws Exception {
+        ClientRuntime runtime = cache.acquire("foo");
+        assertSame(runtime, cache.acquire("foo"));
+
+        // Still used by the second client
+        cache.release(runtime, 0);
+        assertEquals(1, cache.size());
+        assertTrue(cache.stopped.isEmpty());
+
+        cache.release(runtime, 0);
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stopped.size());
+        assertSame(runtime, cache.stopped.get(0));
+
+        // A new runtime is created for the next client
+        assertNotSame(runtime, cache.acquire("foo"));
+    }
+
+    @Test
+    public void testIdleExpiry() throws Exception {
+        ClientRuntime runtime = cache.acquire("foo");
+        cache.release(runtime, 100);
+        assertEquals(1, cache.size());
+
+        // Used again before the timeout, the pending expiry doesn't stop it
+        assertSame(runtime, cache.acquire("foo"));
+        Thread.sleep(300);
+        assertEquals(1, cache.size());
+        assertTrue(cache.stopped.isEmpty());
+
+        cache.release(runtime, 100);
+        for (int i = 0; i < 50 && cache.size() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stopped.size());
+    }
+
+    @Test
+    public void testIdleTimeoutPerRelease() throws Exception {
+        // The default of the cache isn't changed by the timeout of a client
+        ClientRuntime runtime = cache.acquire("foo");
+        cache.release(runtime, -1);
+        assertEquals(60000, cache.getIdleTimeout());
+        Thread.sleep(100);
+        assertEquals(1, cache.size());
+
+        ClientRuntime other = cache.acquire("bar");
+        cache.release(other, 0);
+        assertEquals(1, cache.size());
+        assertFalse(cache.stopped.contains(runtime));
+        assertTrue(cache.stopped.contains(other));
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<ClientRuntime>> futures = new ArrayList<Future<ClientRuntime>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<ClientRuntime>() {
+                    public ClientRuntime call() throws Exception {
+                        start.await();
+                        return cache.acquire("foo");
+                    }
+                }));
+            }
+            start.countDown();
+            ClientRuntime runtime = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<ClientRuntime> future : futures) {
+                assertSame(runtime, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, cache.created.size());
+
+            // Still used by the other clients
+            for (int i = 0; i < 7; i++) {
+                cache.release(runtime, 0);
+            }
+            assertTrue(cache.stopped.isEmpty());
+            cache.release(runtime, 0);
+            assertEquals(1, cache.stopped.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSlowCreationDoesNotBlockOtherDomains() throws Exception {
+        cache.slow = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ClientRuntime> slow = executor.submit(new Callable<ClientRuntime>() {
+                public ClientRuntime call() throws Exception {
+                    return cache.acquire("slow");
+                }
+            });
+            // The runtime of another domain is got while the slow one is being created
+            ClientRuntime runtime = cache.acquire("foo");
+            cache.release(runtime, 0);
+            assertFalse(slow.isDone());
+
+            cache.slow.countDown();
+            assertEquals("slow", slow.get(10, TimeUnit.SECONDS).getDomainURI());
+        } finally {
+            cache.slow.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates runtimes without domain registry and records the ones that are stopped
+     */
+    private static class TestRuntimeCache extends ClientRuntimeCache {
+        private final List<ClientRuntime> created = Collections.synchronizedList(new ArrayList<ClientRuntime>());
+        // Holds the creation of the runtime for the "slow" domain
+        private volatile CountDownLatch slow;
+        private final List<ClientRuntime> stopped = new ArrayList<ClientRuntime>();
+
+        TestRuntimeCache(long idleTimeout) {
+            super(idleTimeout);
+        }
+
+        @Override
+        ClientRuntime createRuntime(String domainURI) {
+            if (slow != null && "slow".equals(domainURI)) {
+                try {
+                    slow.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            ClientRuntime runtime = new ClientRuntime(domainURI, new DefaultExtensionPointRegistry(), null) {
+                @Override
+                void stop() {
+                    synchronized (stopped) {
+                        stopped.add(this);
+                    }
+                    super.stop();
+                }
+            };
+            created.add(runtime);
+            return runtime;
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.tuscany.sca.core.ExtensionPointRegistry;
 import org.apache.tuscany.sca.core.FactoryExtensionPoint;
 import org.apache.tuscany.sca.core.UtilityExtensionPoint;
 import org.apache.tuscany.sca.databinding.jaxb.JAXBContextHelper;
+import org.apache.tuscany.sca.extensibility.ServiceDeclarationIndex;
 import org.apache.tuscany.sca.impl.NodeImpl;
 import org.apache.tuscany.sca.interfacedef.java.JavaInterfaceFactory;
 import org.apache.tuscany.sca.interfacedef.java.impl.JavaInterfaceFactoryImpl;
@@ -200,6 +201,32 @@ public class PerformanceTestCase {
         dumpHeapEnd("TestCall_postStop");
     }
     
+    /**
+     * Measures the time taken to start a runtime and a node. Run it with and without 
+     * -Dorg.apache.tuscany.sca.extensibility.serviceIndexDir=target/service-index to compare
+     * the startup with and without the service declaration index, the index is built by the
+     * first run so run it twice with the index.
+     */
+    @Test
+    public void testRuntimeStartup() throws Exception {
+        String indexDir = System.getProperty(ServiceDeclarationIndex.INDEX_DIR_PROPERTY);
+        
+        long start = System.nanoTime();
+        createRuntime();
+        createNode();
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        
+        String stats = "Runtime and node started in " + elapsed + " ms, service index " 
+                       + (indexDir == null ? "disabled" : indexDir) + "\n";
+        resultsFile.write(stats);
+        System.out.print(stats);
+        
+        stopNode();
+        destroyNode();
+        stopRuntime();
+        destroyRuntime();
+    }
+    
     public void checkCacheStatus(){
         UtilityExtensionPoint utilityExtensionPoint = extensionPointRegistry.getExtensionPoint(UtilityExtensionPoint.class);
         JAXBContextHelper jaxbContextHelper = utilityExtensionPoint.getUtility(JAXBContextHelper.class);